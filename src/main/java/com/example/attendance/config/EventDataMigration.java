@@ -0,0 +1,59 @@
+package com.example.attendance.config;
+
+import com.example.attendance.repository.EventRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Backfills columns that were added to the event table after rows already existed.
+ * Runs once at startup in small transactions so a large table never holds one long lock.
+ *
+ * Both steps run once all beans exist, before the web server starts: an edit to a row
+ * whose @Version is still null would fail as stale, and calendar and lifecycle queries
+ * filter on starts_at. The starts_at backfill is a bulk UPDATE over id ranges, so rows
+ * keep their version and updated_at (and with them their ETags).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EventDataMigration implements SmartInitializingSingleton {
+
+    private static final int BATCH_SIZE = 5000;
+
+    private final EventRepository eventRepository;
+    private final PlatformTransactionManager transactionManager;
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        initializeVersions();
+        backfillStartsAt();
+    }
+
+    private void initializeVersions() {
+        Integer updated = new TransactionTemplate(transactionManager)
+            .execute(status -> eventRepository.initializeMissingVersions());
+        if (updated != null && updated > 0) {
+            log.info("Initialized version for {} events", updated);
+        }
+    }
+
+    private void backfillStartsAt() {
+        Long minId = eventRepository.findMinIdWithoutStartsAt();
+        if (minId == null) {
+            return;
+        }
+        long maxId = eventRepository.findMaxIdWithoutStartsAt();
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        int total = 0;
+        for (long fromId = minId; fromId <= maxId; fromId += BATCH_SIZE) {
+            long from = fromId;
+            Integer updated = transactionTemplate.execute(status -> eventRepository.backfillStartsAt(from, from + BATCH_SIZE));
+            total += updated != null ? updated : 0;
+        }
+        log.info("Backfilled starts_at for {} events", total);
+    }
+}
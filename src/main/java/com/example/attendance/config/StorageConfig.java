@@ -0,0 +1,94 @@
+package com.example.attendance.config;
+
+import com.example.attendance.service.BlobStore;
+import com.example.attendance.service.CachingBlobStore;
+import com.example.attendance.service.LocalBlobStore;
+import com.example.attendance.service.S3BlobStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.net.URI;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+
+/**
+ * Picks where uploads and support attachments live. {@code storage.backend=local} keeps
+ * them in file.upload-dir / file.support-dir as before; {@code s3} keeps them in a bucket
+ * (under the uploads/ and support/ prefixes) and uses those directories as each node's
+ * read-through cache.
+ */
+@Slf4j
+@Configuration
+public class StorageConfig {
+
+    @Value("${storage.backend:local}")
+    private String backend;
+
+    @Value("${storage.cache.max-bytes:1073741824}")
+    private long cacheMaxBytes;
+
+    @Value("${storage.s3.endpoint:https://s3.amazonaws.com}")
+    private String endpoint;
+
+    @Value("${storage.s3.region:us-east-1}")
+    private String region;
+
+    @Value("${storage.s3.bucket:}")
+    private String bucket;
+
+    @Value("${storage.s3.access-key:}")
+    private String accessKey;
+
+    @Value("${storage.s3.secret-key:}")
+    private String secretKey;
+
+    @Value("${storage.s3.path-style:true}")
+    private boolean pathStyle;
+
+    @Value("${storage.s3.public-base-url:}")
+    private String publicBaseUrl;
+
+    @Value("${storage.s3.part-size-bytes:8388608}")
+    private long partSize;
+
+    @Value("${storage.s3.part-concurrency:4}")
+    private int partConcurrency;
+
+    @Value("${storage.s3.upload-threads:4}")
+    private int uploadThreads;
+
+    @Value("${storage.s3.request-timeout-seconds:60}")
+    private long requestTimeoutSeconds;
+
+    @Bean
+    public CachingBlobStore uploadBlobStore(@Value("${file.upload-dir:./uploads}") String uploadDir) {
+        return blobStore(Paths.get(uploadDir), "uploads/");
+    }
+
+    @Bean
+    public CachingBlobStore supportBlobStore(@Value("${file.support-dir:./support-attachments}") String supportDir) {
+        return blobStore(Paths.get(supportDir), "support/");
+    }
+
+    private CachingBlobStore blobStore(Path directory, String prefix) {
+        if ("s3".equalsIgnoreCase(backend)) {
+            if (bucket.isBlank()) {
+                throw new IllegalStateException("storage.backend=s3 requires storage.s3.bucket");
+            }
+            S3BlobStore.Settings settings = new S3BlobStore.Settings(URI.create(endpoint), region, bucket,
+                accessKey, secretKey, pathStyle, publicBaseUrl, partSize, partConcurrency, uploadThreads,
+                Duration.ofSeconds(requestTimeoutSeconds));
+            log.info("Storing {} in bucket {} at {}, cached in {}", prefix, bucket, endpoint, directory.toAbsolutePath());
+            return new CachingBlobStore(new S3BlobStore(settings, prefix), directory, cacheMaxBytes);
+        }
+        if (!"local".equalsIgnoreCase(backend)) {
+            throw new IllegalStateException("Unknown storage.backend: " + backend);
+        }
+        // The directory is the store itself, so it is never trimmed
+        BlobStore local = new LocalBlobStore(directory);
+        return new CachingBlobStore(local, directory, 0);
+    }
+}
@@ -1,19 +1,23 @@
 package com.example.attendance.controller;
 
+import com.example.attendance.dto.EventReportRowDTO;
 import com.example.attendance.entity.Event;
+import com.example.attendance.entity.EventAttendanceRollup;
 import com.example.attendance.entity.User;
 import com.example.attendance.repository.EventRepository;
 import com.example.attendance.repository.UserEventAttendanceRepository;
-import com.example.attendance.repository.UserRepository;
+import com.example.attendance.security.AuthenticatedPrincipal;
+import com.example.attendance.security.CurrentUser;
+import com.example.attendance.service.AdminReportService;
+import com.example.attendance.service.AttendanceRollupService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.time.LocalDate;
 import java.time.YearMonth;
-import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -25,15 +29,18 @@ public class AdminReportController {
 
     private final EventRepository eventRepository;
     private final UserEventAttendanceRepository attendanceRepository;
-    private final UserRepository userRepository;
+    private final AdminReportService adminReportService;
+    private final AttendanceRollupService attendanceRollupService;
 
     @GetMapping("/events/report")
     public ResponseEntity<?> getAdminEventsReport(
             @RequestParam(required = false) String month,
-            Authentication authentication) {
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "" + AdminReportService.DEFAULT_PAGE_SIZE) int size,
+            @CurrentUser(required = false) AuthenticatedPrincipal principal) {
         try {
             // Verify admin access
-            if (!isAdmin(authentication)) {
+            if (!isAdmin(principal)) {
                 return ResponseEntity.status(403).body(
                     Map.of("error", "Access denied. Admin privileges required.")
                 );
@@ -41,23 +48,32 @@ public class AdminReportController {
 
             log.info("Generating admin events report for month: {}", month);
 
-            List<Event> events;
+            YearMonth yearMonth = null;
             if (month != null && !month.equals("all")) {
-                events = getEventsByMonth(month);
-            } else {
-                events = eventRepository.findAll();
+                try {
+                    yearMonth = YearMonth.parse(month);
+                } catch (DateTimeParseException e) {
+                    return ResponseEntity.badRequest().body(
+                        Map.of("error", "Invalid month, expected yyyy-MM: " + month)
+                    );
+                }
             }
 
-            List<Map<String, Object>> eventsList = events.stream()
+            Page<EventReportRowDTO> report = adminReportService.getEventReport(yearMonth, page, size);
+            List<Map<String, Object>> eventsList = report.getContent().stream()
                 .map(this::buildEventReportData)
                 .collect(Collectors.toList());
 
             Map<String, Object> response = new HashMap<>();
-            response.put("totalEvents", events.size());
+            response.put("totalEvents", report.getTotalElements());
             response.put("eventsList", eventsList);
-            response.put("monthlyEvents", getMonthlyEventCounts());
+            response.put("monthlyEvents", adminReportService.getMonthlyEventCounts());
+            response.put("page", report.getNumber());
+            response.put("size", report.getSize());
+            response.put("totalPages", report.getTotalPages());
 
-            log.info("Admin report generated successfully with {} events", events.size());
+            log.info("Admin report generated successfully with {} of {} events",
+                eventsList.size(), report.getTotalElements());
             return ResponseEntity.ok(response);
 
         } catch (Exception e) {
@@ -69,19 +85,20 @@ public class AdminReportController {
     }
 
     @GetMapping("/events/monthly-summary")
-    public ResponseEntity<?> getMonthlyEventsSummary(Authentication authentication) {
+    public ResponseEntity<?> getMonthlyEventsSummary(@CurrentUser(required = false) AuthenticatedPrincipal principal) {
         try {
             // Verify admin access
-            if (!isAdmin(authentication)) {
+            if (!isAdmin(principal)) {
                 return ResponseEntity.status(403).body(
                     Map.of("error", "Access denied. Admin privileges required.")
                 );
             }
 
-            Map<String, Long> monthlyData = getMonthlyEventCounts();
+            Map<String, Long> monthlyData = adminReportService.getMonthlyEventCounts();
             
             return ResponseEntity.ok(Map.of(
                 "monthlyEvents", monthlyData,
+                "monthlyCheckIns", adminReportService.getMonthlyCheckInCounts(),
                 "totalEvents", eventRepository.count()
             ));
 
@@ -96,10 +113,10 @@ public class AdminReportController {
     @GetMapping("/events/{eventId}/attendance-details")
     public ResponseEntity<?> getEventAttendanceDetails(
             @PathVariable Long eventId,
-            Authentication authentication) {
+            @CurrentUser(required = false) AuthenticatedPrincipal principal) {
         try {
             // Verify admin access
-            if (!isAdmin(authentication)) {
+            if (!isAdmin(principal)) {
                 return ResponseEntity.status(403).body(
                     Map.of("error", "Access denied. Admin privileges required.")
                 );
@@ -108,8 +125,12 @@ public class AdminReportController {
             Event event = eventRepository.findById(eventId)
                 .orElseThrow(() -> new IllegalArgumentException("Event not found with ID: " + eventId));
 
-            long registrantCount = attendanceRepository.countByEventId(eventId);
-            long attendeeCount = attendanceRepository.countByEventIdAndAttended(eventId, true);
+            // Counters come from the rollup; events it has not seen yet fall back to counting
+            Optional<EventAttendanceRollup> counters = adminReportService.getEventCounters(eventId);
+            long registrantCount = counters.isPresent()
+                ? counters.get().getAttendanceCount() : attendanceRepository.countByEventId(eventId);
+            long attendeeCount = counters.isPresent()
+                ? counters.get().getAttendedCount() : attendanceRepository.countByEventIdAndAttended(eventId, true);
 
             Map<String, Object> response = new HashMap<>();
             response.put("eventId", eventId);
@@ -131,151 +152,62 @@ public class AdminReportController {
         }
     }
 
-    private boolean isAdmin(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            return false;
-        }
-
+    @PostMapping("/rollups/rebuild")
+    public ResponseEntity<?> rebuildRollups(@CurrentUser(required = false) AuthenticatedPrincipal principal) {
         try {
-            String email = authentication.getName();
-            Optional<User> userOpt = userRepository.findByEmail(email);
-            
-            if (userOpt.isPresent()) {
-                User user = userOpt.get();
-                // Check for admin role - try multiple possible method names
-                // Adjust this based on your actual User entity structure
-                String userRole = null;
-                try {
-                    // Try common method names for getting user role/type
-                    if (hasMethod(user, "getRole")) {
-                        userRole = (String) user.getClass().getMethod("getRole").invoke(user);
-                    } else if (hasMethod(user, "getUserType")) {
-                        userRole = (String) user.getClass().getMethod("getUserType").invoke(user);
-                    } else if (hasMethod(user, "getType")) {
-                        userRole = (String) user.getClass().getMethod("getType").invoke(user);
-                    } else if (hasMethod(user, "getAuthority")) {
-                        userRole = (String) user.getClass().getMethod("getAuthority").invoke(user);
-                    }
-                } catch (Exception e) {
-                    log.debug("Error getting user role via reflection: {}", e.getMessage());
-                }
-                
-                if (userRole != null) {
-                    return "ADMIN".equalsIgnoreCase(userRole) || "admin".equalsIgnoreCase(userRole);
-                }
+            // Verify admin access
+            if (!isAdmin(principal)) {
+                return ResponseEntity.status(403).body(
+                    Map.of("error", "Access denied. Admin privileges required.")
+                );
             }
-            
-            // Fallback: check if authentication contains admin authorities
-            return authentication.getAuthorities().stream()
-                .anyMatch(auth -> auth.getAuthority().equals("ROLE_ADMIN") || 
-                                auth.getAuthority().equals("ADMIN"));
-                
-        } catch (Exception e) {
-            log.error("Error checking admin privileges: {}", e.getMessage());
-            return false;
-        }
-    }
 
-    private List<Event> getEventsByMonth(String monthStr) {
-        try {
-            YearMonth yearMonth = YearMonth.parse(monthStr);
-            LocalDate startDate = yearMonth.atDay(1);
-            LocalDate endDate = yearMonth.atEndOfMonth();
+            return ResponseEntity.ok(attendanceRollupService.rebuild());
 
-            return eventRepository.findAll().stream()
-                .filter(event -> {
-                    LocalDate eventDate = event.getDate();
-                    return eventDate != null && 
-                           !eventDate.isBefore(startDate) && 
-                           !eventDate.isAfter(endDate);
-                })
-                .collect(Collectors.toList());
-                
         } catch (Exception e) {
-            log.error("Error parsing month string: {}", monthStr, e);
-            return new ArrayList<>();
+            log.error("Error rebuilding attendance rollups: {}", e.getMessage(), e);
+            return ResponseEntity.status(500).body(
+                Map.of("error", "Failed to rebuild rollups: " + e.getMessage())
+            );
         }
     }
 
-    private Map<String, Object> buildEventReportData(Event event) {
+    private boolean isAdmin(AuthenticatedPrincipal principal) {
+        return principal != null && principal.hasAccountType(User.AccountType.ADMIN);
+    }
+
+    private Map<String, Object> buildEventReportData(EventReportRowDTO row) {
         Map<String, Object> eventData = new HashMap<>();
         
-        eventData.put("id", event.getId());
-        eventData.put("name", event.getName());
-        eventData.put("date", event.getDate());
-        eventData.put("location", event.getPlace());
-        eventData.put("place", event.getPlace()); // Alternative field name
-        
-        // Get attendance statistics
-        long registrantCount = attendanceRepository.countByEventId(event.getId());
-        long attendeeCount = attendanceRepository.countByEventIdAndAttended(event.getId(), true);
+        eventData.put("id", row.getId());
+        eventData.put("name", row.getName());
+        eventData.put("date", row.getDate());
+        eventData.put("location", row.getPlace());
+        eventData.put("place", row.getPlace()); // Alternative field name
         
-        eventData.put("registrantCount", registrantCount);
-        eventData.put("attendeeCount", attendeeCount);
+        eventData.put("registrantCount", row.getRegistrantCount());
+        eventData.put("attendeeCount", row.getAttendeeCount());
         
-        // Determine if event is online or face-to-face
-        // This is a simple heuristic based on location/place field
-        // You might want to add an explicit field to Event entity
-        String location = event.getPlace();
-        boolean isOnline = location != null && 
+        // Use the explicit flag, falling back to the old location heuristic for older events
+        String location = row.getPlace();
+        boolean isOnline = Boolean.TRUE.equals(row.getIsOnline()) || (location != null &&
             (location.toLowerCase().contains("online") ||
              location.toLowerCase().contains("zoom") ||
              location.toLowerCase().contains("teams") ||
              location.toLowerCase().contains("virtual") ||
              location.toLowerCase().contains("webinar") ||
-             location.toLowerCase().startsWith("http"));
+             location.toLowerCase().startsWith("http")));
         
         eventData.put("isOnline", isOnline);
         eventData.put("eventType", isOnline ? "Online" : "Face-to-Face");
         
         // Additional data
-        eventData.put("description", event.getDescription());
-        eventData.put("time", event.getTime());
-        eventData.put("createdBy", event.getUser().getEmail());
-        eventData.put("isFree", event.getIsFree());
-        eventData.put("price", event.getPrice());
+        eventData.put("description", row.getDescription());
+        eventData.put("time", row.getTime());
+        eventData.put("createdBy", row.getCreatedBy());
+        eventData.put("isFree", row.getIsFree());
+        eventData.put("price", row.getPrice());
         
         return eventData;
     }
-
-    private Map<String, Long> getMonthlyEventCounts() {
-        Map<String, Long> monthlyData = new LinkedHashMap<>();
-        
-        // Get all events
-        List<Event> allEvents = eventRepository.findAll();
-        
-        // Group by month
-        Map<String, Long> eventsByMonth = allEvents.stream()
-            .filter(event -> event.getDate() != null)
-            .collect(Collectors.groupingBy(
-                event -> event.getDate().format(DateTimeFormatter.ofPattern("yyyy-MM")),
-                Collectors.counting()
-            ));
-        
-        // Ensure we have entries for the current year's months (even if 0)
-        int currentYear = LocalDate.now().getYear();
-        for (int month = 1; month <= 12; month++) {
-            String monthKey = String.format("%d-%02d", currentYear, month);
-            monthlyData.put(monthKey, eventsByMonth.getOrDefault(monthKey, 0L));
-        }
-        
-        // Add any additional months from the data that aren't in current year
-        eventsByMonth.forEach((month, count) -> {
-            if (!monthlyData.containsKey(month)) {
-                monthlyData.put(month, count);
-            }
-        });
-        
-        return monthlyData;
-    }
-    
-    // Helper method to check if a method exists on an object
-    private boolean hasMethod(Object obj, String methodName) {
-        try {
-            obj.getClass().getMethod(methodName);
-            return true;
-        } catch (NoSuchMethodException e) {
-            return false;
-        }
-    }
-}
\ No newline at end of file
+}
@@ -0,0 +1,89 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.service.AttendanceAnalyticsService;
+import com.example.attendance.service.AttendanceAnalyticsService.Dimension;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+@RestController
+@RequestMapping("/api/admin/analytics")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AttendanceAnalyticsController {
+
+    private final AttendanceAnalyticsService attendanceAnalyticsService;
+
+    /**
+     * Attendance counts grouped by any of ministry, apostolate, gender, organization,
+     * category and month, e.g. {@code ?groupBy=ministry,month&gender=FEMALE&from=2025-01}.
+     * Each dimension can also be a filter; repeated or comma-separated values are OR-ed.
+     */
+    @GetMapping("/attendance")
+    public ResponseEntity<?> getAttendanceBreakdown(@RequestParam MultiValueMap<String, String> params) {
+        List<Dimension> groupBy = new ArrayList<>();
+        Map<Dimension, Set<String>> filters = new EnumMap<>(Dimension.class);
+        YearMonth from;
+        YearMonth to;
+        try {
+            for (String name : split(params.get("groupBy"))) {
+                Dimension dimension = Dimension.parse(name);
+                if (!groupBy.contains(dimension)) {
+                    groupBy.add(dimension);
+                }
+            }
+            for (Dimension dimension : Dimension.values()) {
+                List<String> values = split(params.get(dimension.key()));
+                if (!values.isEmpty()) {
+                    filters.put(dimension, new HashSet<>(values));
+                }
+            }
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid dimension",
+                "message", "Dimensions are " + Arrays.toString(Dimension.values()).toLowerCase()
+            ));
+        }
+        try {
+            from = params.getFirst("from") != null ? YearMonth.parse(params.getFirst("from")) : null;
+            to = params.getFirst("to") != null ? YearMonth.parse(params.getFirst("to")) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid month",
+                "message", "from and to must be yyyy-MM"
+            ));
+        }
+
+        return ResponseEntity.ok(attendanceAnalyticsService.query(filters, groupBy, from, to));
+    }
+
+    @GetMapping("/attendance/dimensions")
+    public ResponseEntity<?> getDimensionValues() {
+        return ResponseEntity.ok(attendanceAnalyticsService.getDimensionValues());
+    }
+
+    @PostMapping("/attendance/refresh")
+    public ResponseEntity<?> refresh(@RequestParam(defaultValue = "true") boolean full) {
+        return ResponseEntity.ok(attendanceAnalyticsService.refresh(full));
+    }
+
+    private static List<String> split(List<String> params) {
+        List<String> values = new ArrayList<>();
+        if (params != null) {
+            for (String param : params) {
+                for (String value : param.split(",")) {
+                    if (!value.isBlank()) {
+                        values.add(value.trim());
+                    }
+                }
+            }
+        }
+        return values;
+    }
+}
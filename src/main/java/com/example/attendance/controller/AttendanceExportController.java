@@ -0,0 +1,70 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.service.AttendanceExportService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/exports")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class AttendanceExportController {
+
+    private static final MediaType XLSX =
+        MediaType.parseMediaType("application/vnd.openxmlformats-officedocument.spreadsheetml.sheet");
+
+    private final AttendanceExportService attendanceExportService;
+
+    @GetMapping("/attendance.csv")
+    public ResponseEntity<?> exportCsv(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            return invalidRange();
+        }
+        StreamingResponseBody body = out -> attendanceExportService.writeCsv(eventId, from, to, out);
+        return ResponseEntity.ok()
+            .contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+            .header(HttpHeaders.CONTENT_DISPOSITION, attachment(eventId, "csv"))
+            .body(body);
+    }
+
+    @GetMapping("/attendance.xlsx")
+    public ResponseEntity<?> exportXlsx(
+            @RequestParam(required = false) Long eventId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (from != null && to != null && to.isBefore(from)) {
+            return invalidRange();
+        }
+        StreamingResponseBody body = out -> attendanceExportService.writeXlsx(eventId, from, to, out);
+        return ResponseEntity.ok()
+            .contentType(XLSX)
+            .header(HttpHeaders.CONTENT_DISPOSITION, attachment(eventId, "xlsx"))
+            .body(body);
+    }
+
+    private ResponseEntity<?> invalidRange() {
+        return ResponseEntity.badRequest()
+            .body(Map.of(
+                "error", "Invalid date range",
+                "message", "'to' must not be before 'from'"
+            ));
+    }
+
+    private String attachment(Long eventId, String extension) {
+        String name = eventId != null ? "attendance-event-" + eventId : "attendance-" + LocalDate.now();
+        return "attachment; filename=\"" + name + "." + extension + "\"";
+    }
+}
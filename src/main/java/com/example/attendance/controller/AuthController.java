@@ -2,9 +2,11 @@ package com.example.attendance.controller;
 
 import com.example.attendance.dto.*;
 import com.example.attendance.exception.DuplicateEmailException;
+import com.example.attendance.exception.TooManyAttemptsException;
 import com.example.attendance.service.AuthService;
 import com.example.attendance.entity.User;
 import com.example.attendance.service.SystemOwnerService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -14,6 +16,7 @@ import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @Slf4j
 @RestController
@@ -131,10 +134,11 @@ public class AuthController {
 
     // Login endpoint (common for all users)
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto loginRequest) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto loginRequest,
+                                   HttpServletRequest httpRequest) {
         try {
             log.info("Login attempt for email: {}", loginRequest.getEmail());
-            LoginResponseDto response = authService.login(loginRequest);
+            LoginResponseDto response = authService.login(loginRequest, httpRequest.getRemoteAddr());
             
             if (response.isDeactivated()) {
                 log.info("Deactivated account login attempt: {}", loginRequest.getEmail());
@@ -148,6 +152,8 @@ public class AuthController {
 
             log.info("Successful login for email: {}", loginRequest.getEmail());
             return ResponseEntity.ok(response);
+        } catch (TooManyAttemptsException | RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Login error for email: {}", loginRequest.getEmail(), e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
@@ -172,6 +178,28 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/logout")
+    public ResponseEntity<?> logout(@RequestHeader("Authorization") String token) {
+        try {
+            authService.logout(token.substring(7));
+            return ResponseEntity.ok(Map.of("message", "Logged out"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid or expired token");
+        }
+    }
+
+    @PostMapping("/logout-all")
+    public ResponseEntity<?> logoutEverywhere(@RequestHeader("Authorization") String token) {
+        try {
+            authService.logoutEverywhere(token.substring(7));
+            return ResponseEntity.ok(Map.of("message", "Logged out of all sessions"));
+        } catch (Exception e) {
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+                    .body("Invalid or expired token");
+        }
+    }
+
     @PutMapping("/me/password")
     public ResponseEntity<?> changePassword(
             @RequestHeader("Authorization") String token,
@@ -184,6 +212,8 @@ public class AuthController {
                                      changePasswordDto.getCurrentPassword(), 
                                      changePasswordDto.getNewPassword());
             return ResponseEntity.ok("Password changed successfully");
+        } catch (RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error changing password", e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -192,10 +222,13 @@ public class AuthController {
     }
 
     @PutMapping("/reactivate")
-    public ResponseEntity<?> reactivateAccount(@RequestBody ReactivationRequest request) {
+    public ResponseEntity<?> reactivateAccount(@RequestBody ReactivationRequest request,
+                                               HttpServletRequest httpRequest) {
         try {
-            LoginResponseDto response = authService.reactivateAccount(request);
+            LoginResponseDto response = authService.reactivateAccount(request, httpRequest.getRemoteAddr());
             return ResponseEntity.ok(response);
+        } catch (TooManyAttemptsException | RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Reactivation failed for email: {}", request.getEmail(), e);
             return ResponseEntity.status(HttpStatus.BAD_REQUEST)
@@ -0,0 +1,66 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.entity.User;
+import com.example.attendance.repository.EventRepository;
+import com.example.attendance.security.AuthenticatedPrincipal;
+import com.example.attendance.security.CurrentUser;
+import com.example.attendance.service.EngagementService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/engagement")
+@RequiredArgsConstructor
+public class EngagementController {
+
+    private static final int MAX_WINDOW = 52;
+
+    private final EngagementService engagementService;
+    private final EventRepository eventRepository;
+
+    /**
+     * Streaks and drop-off for a recurring series, e.g. {@code ?window=4&threshold=3} lists who
+     * attended at least 3 of the last 4 sessions and who did before but has stopped.
+     * Available to admins and to the series' organizer.
+     */
+    @GetMapping("/series/{seriesId}")
+    public ResponseEntity<?> getSeriesEngagement(
+            @PathVariable Long seriesId,
+            @RequestParam(defaultValue = "4") int window,
+            @RequestParam(defaultValue = "3") int threshold,
+            @RequestParam(defaultValue = "false") boolean all,
+            @CurrentUser AuthenticatedPrincipal principal) {
+        if (window < 1 || window > MAX_WINDOW || threshold < 1 || threshold > window) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid window",
+                "message", "window must be 1-" + MAX_WINDOW + " and threshold between 1 and window"
+            ));
+        }
+        if (!canView(principal, seriesId)) {
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body(Map.of(
+                "error", "Access denied",
+                "message", "Only admins and the series organizer can view engagement"
+            ));
+        }
+
+        try {
+            return ResponseEntity.ok(engagementService.getSeriesEngagement(seriesId, window, threshold, all));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+                "error", "Series not found",
+                "message", e.getMessage()
+            ));
+        }
+    }
+
+    private boolean canView(AuthenticatedPrincipal principal, Long seriesId) {
+        return principal.hasAccountType(User.AccountType.ADMIN)
+            || eventRepository.existsByIdAndUserId(seriesId, principal.getId());
+    }
+}
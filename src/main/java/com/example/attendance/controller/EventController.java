@@ -1,25 +1,38 @@
 package com.example.attendance.controller;
 
+import com.example.attendance.dto.EventOccurrenceDTO;
 import com.example.attendance.dto.EventRequestDTO;
-import com.example.attendance.dto.EventResponseDTO;
+import com.example.attendance.dto.EventSummaryDTO;
 import com.example.attendance.entity.Organizer;
 import com.example.attendance.entity.Event;
 import com.example.attendance.entity.User;
 import com.example.attendance.entity.UserEventAttendance;
 import com.example.attendance.repository.EventRepository;
 import com.example.attendance.repository.UserRepository;
+import com.example.attendance.security.AuthenticatedPrincipal;
+import com.example.attendance.security.CurrentUser;
 import com.example.attendance.security.JwtTokenProvider;
+import com.example.attendance.service.AttendanceRollupService;
+import com.example.attendance.service.EngagementService;
 import com.example.attendance.service.EventService;
+import com.example.attendance.service.EventVersionCache;
+import com.example.attendance.service.RecurrenceService;
 import com.example.attendance.service.UserEventService;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.stream.Collectors;
 
@@ -29,18 +42,24 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class EventController {
 
+    // Upper bound on a single calendar request so the recurrence expansion stays small
+    private static final int MAX_CALENDAR_DAYS = 366;
+
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
     private final UserEventService userEventService;
     private final EventService eventService;
+    private final RecurrenceService recurrenceService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final EngagementService engagementService;
 
    @PostMapping
 public ResponseEntity<?> createEvent(
     @Valid @RequestBody EventRequestDTO request,
-    Authentication authentication) {
+    @CurrentUser User user) {
 try {
-    String email = authentication.getName();
+    String email = user.getEmail();
     log.info("Creating event for user: {}", email);
     log.info("Request details: {}", request.toString());
 
@@ -53,9 +72,6 @@ try {
                 ));
     }
 
-    User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> new IllegalStateException("User not found with email: " + email));
-
     Event event = new Event();
     event.setName(request.getName());
     event.setDate(request.getDate());
@@ -115,6 +131,7 @@ try {
     event.setStatus(request.getStatus());
 
     Event createdEvent = eventRepository.save(event);
+    attendanceRollupService.onEventCreated(createdEvent);
     log.info("Event created successfully with ID: {} for date: {} at time: {}", 
              createdEvent.getId(), createdEvent.getDate(), createdEvent.getTime());
 
@@ -161,20 +178,10 @@ try {
 }
 
     @GetMapping("/my-events")
-public ResponseEntity<List<EventResponseDTO>> getEventsByUser(Authentication authentication) {
+public ResponseEntity<List<EventSummaryDTO>> getEventsByUser(@CurrentUser AuthenticatedPrincipal principal) {
     try {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-
         // Get all events for admin (including past ones)
-        List<Event> events = eventRepository.findByUserId(user.getId());
-
-        List<EventResponseDTO> response = events.stream()
-                .map(EventResponseDTO::fromEntity)
-                .collect(Collectors.toList());
-
-        return ResponseEntity.ok(response);
+        return ResponseEntity.ok(eventRepository.findSummariesByUserId(principal.getId()));
     } catch (Exception e) {
         log.error("Error fetching events", e);
         return ResponseEntity.internalServerError().build();
@@ -182,13 +189,10 @@ public ResponseEntity<List<EventResponseDTO>> getEventsByUser(Authentication aut
 }
 
 @GetMapping
-public ResponseEntity<List<EventResponseDTO>> getAllEvents(Authentication authentication) {
+public ResponseEntity<List<EventSummaryDTO>> getAllEvents(@CurrentUser User user) {
     try {
-        String email = authentication.getName();
+        String email = user.getEmail();
         log.info("Fetching events for user email: {}", email);
-        
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
 
         log.info("User found: ID={}, Email={}", user.getId(), user.getEmail());
         
@@ -209,71 +213,34 @@ public ResponseEntity<List<EventResponseDTO>> getAllEvents(Authentication authen
         log.info("User enrolled in organization IDs: {}", enrolledOrgIds);
         
         // Check if user is admin - admins see all events, users see only upcoming events
-boolean isAdmin = user.getAccountType() != null && user.getAccountType().equals(User.AccountType.ADMIN);        
-        List<Event> filteredEvents;
-        
-        if (isAdmin) {
-            // For admins, show all events (including past ones)
-            filteredEvents = eventRepository.findEventsByOrganizationIds(enrolledOrgIds);
-            log.info("Admin view: Found {} total events for user's organizations", filteredEvents.size());
-        } else {
-            // For regular users, show only upcoming events
-            filteredEvents = eventRepository.findUpcomingEventsByOrganizationIds(enrolledOrgIds);
-            log.info("User view: Found {} upcoming events for user's organizations", filteredEvents.size());
-        }
-        
-        // Convert to DTOs
-        List<EventResponseDTO> response = filteredEvents.stream()
-                .map(event -> {
-                    EventResponseDTO dto = EventResponseDTO.fromEntity(event);
-                    
-                    // Set organizer information
-                    if (event.getUser() != null && event.getUser().getOrganizer() != null) {
-                        dto.setOrganizerName(event.getUser().getOrganizer().getOrganizationName());
-                        dto.setOrganizerId(event.getUser().getOrganizer().getId());
-                    } else if (event.getUser() != null) {
-                        // Fallback: use first enrolled organization info
-                        Optional<Organizer> creatorOrg = event.getUser().getEnrolledOrganizations().stream().findFirst();
-                        if (creatorOrg.isPresent()) {
-                            dto.setOrganizerName(creatorOrg.get().getOrganizationName());
-                            dto.setOrganizerId(creatorOrg.get().getId());
-                        } else {
-                            dto.setOrganizerName(event.getUser().getName());
-                        }
-                    }
-                    
-                    return dto;
-                })
-                .collect(Collectors.toList());
+boolean isAdmin = user.getAccountType() != null && user.getAccountType().equals(User.AccountType.ADMIN);
+        List<EventSummaryDTO> response = eventRepository.findSummariesByOrganizationIds(enrolledOrgIds, !isAdmin);
 
         log.info("Returning {} events for user {}", response.size(), email);
         return ResponseEntity.ok(response);
         
     } catch (Exception e) {
-        log.error("Error fetching filtered events for user: {}", authentication.getName(), e);
+        log.error("Error fetching filtered events for user: {}", user.getEmail(), e);
         return ResponseEntity.internalServerError().build();
     }
 }
 
     @GetMapping("/{id}")
-    public ResponseEntity<?> getEventById(@PathVariable Long id) {
+    public ResponseEntity<?> getEventById(@PathVariable Long id, WebRequest webRequest) {
         try {
+            // Conditional requests are answered from the version alone, without loading the event
+            Optional<EventVersionCache.EventVersion> version = eventService.getEventVersion(id);
+            if (version.isPresent()
+                    && webRequest.checkNotModified(version.get().getETag(), version.get().getLastModifiedMillis())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).build();
+            }
+
             Event event = eventRepository.findById(id)
                     .orElseThrow(() -> new IllegalStateException("Event not found"));
 
-            Map<String, Object> response = new HashMap<>();
-            response.put("id", event.getId());
-            response.put("name", event.getName());
-            response.put("date", event.getDate());
-            response.put("time", event.getTime());
-            response.put("place", event.getPlace());
-            response.put("description", event.getDescription());
-            response.put("qrCode", event.getQrCode());
-            response.put("userId", event.getUser().getId());
-            response.put("isFree", event.getIsFree());
-            response.put("price", event.getPrice());
-
-            return ResponseEntity.ok(response);
+            return ResponseEntity.ok()
+                    .cacheControl(CacheControl.noCache())
+                    .body(toDetailResponse(event));
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                     .body(Map.of(
@@ -283,12 +250,62 @@ boolean isAdmin = user.getAccountType() != null && user.getAccountType().equals(
         }
     }
 
+    @PutMapping("/{id}")
+    public ResponseEntity<?> updateEvent(
+            @PathVariable Long id,
+            @Valid @RequestBody EventRequestDTO request,
+            @RequestHeader(value = HttpHeaders.IF_MATCH, required = false) String ifMatch,
+            @CurrentUser AuthenticatedPrincipal principal) {
+        try {
+            if (!eventRepository.existsByIdAndUserId(id, principal.getId())) {
+                return ResponseEntity.status(HttpStatus.FORBIDDEN)
+                        .body("You can only edit your own events");
+            }
+
+            Long expectedVersion = null;
+            if (ifMatch != null && !ifMatch.trim().equals("*")) {
+                expectedVersion = parseVersion(ifMatch);
+                // The cache may lag edits made on another instance, so a mismatch is confirmed in the database
+                Optional<EventVersionCache.EventVersion> current = eventService.getEventVersion(id);
+                if (current.isPresent() && expectedVersion != null && current.get().getVersion() != expectedVersion) {
+                    current = eventService.getCurrentEventVersion(id);
+                }
+                if (expectedVersion == null || current.isEmpty() || current.get().getVersion() != expectedVersion) {
+                    return ResponseEntity.status(HttpStatus.PRECONDITION_FAILED)
+                            .body(Map.of(
+                                    "error", "Precondition failed",
+                                    "message", "Event has been modified since it was loaded"
+                            ));
+                }
+            }
+
+            Event updated = eventService.updateEvent(id, request, expectedVersion);
+            EventVersionCache.EventVersion version = new EventVersionCache.EventVersion(updated.getVersion(), updated.getUpdatedAt());
+            return ResponseEntity.ok()
+                    .eTag(version.getETag())
+                    .body(toDetailResponse(updated));
+        } catch (ObjectOptimisticLockingFailureException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(Map.of(
+                            "error", "Concurrent modification",
+                            "message", "Event was modified by another request, reload and try again"
+                    ));
+        } catch (Exception e) {
+            log.error("Error updating event {}", id, e);
+            return ResponseEntity.internalServerError()
+                    .body(Map.of(
+                            "error", "Update failed",
+                            "message", e.getMessage()
+                    ));
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<?> deleteEvent(
             @PathVariable Long id,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedPrincipal principal) {
         try {
-            String email = authentication.getName();
+            String email = principal.getEmail();
             Event event = eventRepository.findById(id)
                     .orElseThrow(() -> new IllegalStateException("Event not found"));
 
@@ -298,6 +315,9 @@ boolean isAdmin = user.getAccountType() != null && user.getAccountType().equals(
             }
 
             eventRepository.deleteById(id);
+            recurrenceService.evict(id);
+            engagementService.evict(event.getOriginalEventId() != null ? event.getOriginalEventId() : id);
+            attendanceRollupService.onEventDeleted(event);
             return ResponseEntity.noContent().build();
         } catch (Exception e) {
             return ResponseEntity.internalServerError()
@@ -309,28 +329,16 @@ boolean isAdmin = user.getAccountType() != null && user.getAccountType().equals(
     }
 
     @GetMapping("/filter/free")
-    public ResponseEntity<List<EventResponseDTO>> getFreeEvents(Authentication authentication) {
+    public ResponseEntity<List<EventSummaryDTO>> getFreeEvents(@CurrentUser User user) {
         try {
-            String email = authentication.getName();
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new IllegalStateException("User not found"));
-
             // Get the first organization the user is enrolled in
             Optional<Organizer> firstOrganization = user.getEnrolledOrganizations().stream().findFirst();
-            
-            List<Event> events;
-            
-            if (firstOrganization.isPresent()) {
-                Long organizationId = firstOrganization.get().getId();
-                events = eventRepository.findFreeEventsByOrganizationId(organizationId);
-            } else {
-                events = new ArrayList<>();
+            if (firstOrganization.isEmpty()) {
+                return ResponseEntity.ok(Collections.emptyList());
             }
-            
-            List<EventResponseDTO> response = events.stream()
-                    .map(EventResponseDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(response);
+
+            return ResponseEntity.ok(eventRepository.findSummariesByOrganizationIdAndIsFree(
+                    firstOrganization.get().getId(), true));
         } catch (Exception e) {
             log.error("Error fetching free events", e);
             return ResponseEntity.internalServerError().build();
@@ -338,42 +346,66 @@ boolean isAdmin = user.getAccountType() != null && user.getAccountType().equals(
     }
 
     @GetMapping("/filter/paid")
-    public ResponseEntity<List<EventResponseDTO>> getPaidEvents(Authentication authentication) {
+    public ResponseEntity<List<EventSummaryDTO>> getPaidEvents(@CurrentUser User user) {
         try {
-            String email = authentication.getName();
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new IllegalStateException("User not found"));
-
             // Get the first organization the user is enrolled in
             Optional<Organizer> firstOrganization = user.getEnrolledOrganizations().stream().findFirst();
-            
-            List<Event> events;
-            
-            if (firstOrganization.isPresent()) {
-                Long organizationId = firstOrganization.get().getId();
-                events = eventRepository.findPaidEventsByOrganizationId(organizationId);
-            } else {
-                events = new ArrayList<>();
+            if (firstOrganization.isEmpty()) {
+                return ResponseEntity.ok(Collections.emptyList());
             }
-            
-            List<EventResponseDTO> response = events.stream()
-                    .map(EventResponseDTO::fromEntity)
-                    .collect(Collectors.toList());
-            return ResponseEntity.ok(response);
+
+            return ResponseEntity.ok(eventRepository.findSummariesByOrganizationIdAndIsFree(
+                    firstOrganization.get().getId(), false));
         } catch (Exception e) {
             log.error("Error fetching paid events", e);
             return ResponseEntity.internalServerError().build();
         }
     }
 
+    @GetMapping("/calendar")
+    public ResponseEntity<?> getCalendar(
+            @RequestParam(required = false) Long organizationId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @CurrentUser AuthenticatedPrincipal principal) {
+        try {
+            LocalDate windowStart = from != null ? from : LocalDate.now().withDayOfMonth(1);
+            LocalDate windowEnd = to != null ? to : windowStart.plusMonths(1);
+            if (!windowEnd.isAfter(windowStart) || windowEnd.isAfter(windowStart.plusDays(MAX_CALENDAR_DAYS))) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of(
+                                "error", "Invalid calendar window",
+                                "message", "'to' must be after 'from' and at most " + MAX_CALENDAR_DAYS + " days later"
+                        ));
+            }
+
+            if (organizationId == null) {
+                User user = userRepository.findById(principal.getId())
+                        .orElseThrow(() -> new IllegalStateException("User not found"));
+                Optional<Organizer> organization = user.getOrganizer() != null
+                        ? Optional.of(user.getOrganizer())
+                        : user.getEnrolledOrganizations().stream().findFirst();
+                if (organization.isEmpty()) {
+                    return ResponseEntity.ok(Collections.emptyList());
+                }
+                organizationId = organization.get().getId();
+            }
+
+            return ResponseEntity.ok(eventService.getCalendar(organizationId, windowStart, windowEnd));
+        } catch (Exception e) {
+            log.error("Error fetching calendar for organization {}", organizationId, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
     @PostMapping("/{eventId}/scan")
     public ResponseEntity<?> scanEventQrCode(
             @PathVariable Long eventId,
             @RequestBody String qrCode,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedPrincipal principal) {
         try {
             Event event = eventService.verifyEventQrCode(eventId, qrCode);
-            Long userId = getUserIdFromAuthentication(authentication);
+            Long userId = principal.getId();
 
             UserEventAttendance attendance = userEventService.recordAttendance(userId, eventId);
 
@@ -387,10 +419,89 @@ boolean isAdmin = user.getAccountType() != null && user.getAccountType().equals(
         }
     }
 
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        String email = authentication.getName();
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
-        return user.getId();
+    @GetMapping("/{id}/occurrences")
+    public ResponseEntity<?> getEventOccurrences(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        try {
+            LocalDate windowStart = from != null ? from : LocalDate.now();
+            LocalDate windowEnd = to != null ? to : windowStart.plusMonths(1);
+            if (!windowEnd.isAfter(windowStart) || windowEnd.isAfter(windowStart.plusDays(MAX_CALENDAR_DAYS))) {
+                return ResponseEntity.badRequest()
+                        .body(Map.of(
+                                "error", "Invalid occurrence request",
+                                "message", "'to' must be after 'from' and at most " + MAX_CALENDAR_DAYS + " days later"
+                        ));
+            }
+
+            List<EventOccurrenceDTO> occurrences = recurrenceService.getOccurrences(id, windowStart, windowEnd);
+            return ResponseEntity.ok(occurrences);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(Map.of(
+                            "error", "Invalid occurrence request",
+                            "message", e.getMessage()
+                    ));
+        } catch (Exception e) {
+            log.error("Error expanding occurrences for event {}", id, e);
+            return ResponseEntity.internalServerError().build();
+        }
+    }
+
+    @PostMapping("/{eventId}/occurrences/{date}/scan")
+    public ResponseEntity<?> scanOccurrenceQrCode(
+            @PathVariable Long eventId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @RequestBody String qrCode,
+            @CurrentUser AuthenticatedPrincipal principal) {
+        try {
+            // Attendees scan the series QR code; the occurrence row is created on first check-in
+            eventService.verifyEventQrCode(eventId, qrCode);
+            Event occurrence = recurrenceService.materializeForCheckIn(eventId, date, LocalDateTime.now());
+            Long userId = principal.getId();
+
+            UserEventAttendance attendance = userEventService.recordAttendance(userId, occurrence.getId());
+
+            return ResponseEntity.ok(Map.of(
+                    "message", "Attendance recorded successfully",
+                    "event", occurrence.getName(),
+                    "eventId", occurrence.getId(),
+                    "occurrenceDate", date,
+                    "attendanceDate", attendance.getAttendanceDate()
+            ));
+        } catch (Exception e) {
+            return ResponseEntity.badRequest().body(e.getMessage());
+        }
+    }
+
+    private Map<String, Object> toDetailResponse(Event event) {
+        Map<String, Object> response = new HashMap<>();
+        response.put("id", event.getId());
+        response.put("name", event.getName());
+        response.put("date", event.getDate());
+        response.put("time", event.getTime());
+        response.put("place", event.getPlace());
+        response.put("description", event.getDescription());
+        response.put("qrCode", event.getQrCode());
+        response.put("userId", event.getUser().getId());
+        response.put("isFree", event.getIsFree());
+        response.put("price", event.getPrice());
+        response.put("version", event.getVersion());
+        return response;
+    }
+
+    // Accepts "3", "\"3\"" and W/"3"; anything else never matches
+    private Long parseVersion(String eTag) {
+        String value = eTag.trim();
+        if (value.startsWith("W/")) {
+            value = value.substring(2);
+        }
+        value = value.replace("\"", "");
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 }
\ No newline at end of file
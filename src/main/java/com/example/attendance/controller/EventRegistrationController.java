@@ -10,13 +10,20 @@ import com.example.attendance.repository.UserRepository;
 import com.example.attendance.repository.UserEventAttendanceRepository;
 import com.example.attendance.dto.CodeVerificationRequest;
 import com.example.attendance.entity.EventRegistration.RegistrationStatus;
+import com.example.attendance.security.CurrentUser;
+import com.example.attendance.security.CurrentUserArgumentResolver;
+import com.example.attendance.service.AttendanceRollupService;
+import com.example.attendance.service.EngagementService;
+import com.example.attendance.service.RecurrenceService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
@@ -35,15 +42,24 @@ public class EventRegistrationController {
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
     private final UserEventAttendanceRepository userEventAttendanceRepository;
+    private final RecurrenceService recurrenceService;
+    private final AttendanceRollupService attendanceRollupService;
+    private final EngagementService engagementService;
 
     public EventRegistrationController(EventRegistrationRepository registrationRepository,
                                      UserRepository userRepository,
                                      EventRepository eventRepository,
-                                     UserEventAttendanceRepository userEventAttendanceRepository) {
+                                     UserEventAttendanceRepository userEventAttendanceRepository,
+                                     RecurrenceService recurrenceService,
+                                     AttendanceRollupService attendanceRollupService,
+                                     EngagementService engagementService) {
         this.registrationRepository = registrationRepository;
         this.userRepository = userRepository;
         this.eventRepository = eventRepository;
         this.userEventAttendanceRepository = userEventAttendanceRepository;
+        this.recurrenceService = recurrenceService;
+        this.attendanceRollupService = attendanceRollupService;
+        this.engagementService = engagementService;
     }
 
     // Generate a unique code for registration
@@ -59,18 +75,12 @@ public class EventRegistrationController {
    @PostMapping("/pre-register/{eventId}")
 public ResponseEntity<?> preRegisterForEvent(
         @PathVariable Long eventId,
-        Authentication authentication) {
+        @CurrentUser User user) {
     try {
-        String email = authentication.getName();
+        String email = user.getEmail();
         log.info("=== PRE-REGISTER START ===");
         log.info("Pre-registering user {} for event {}", email, eventId);
         
-        User user = userRepository.findByEmail(email)
-            .orElseThrow(() -> {
-                log.error("User not found with email: {}", email);
-                return new IllegalStateException("User not found with email: " + email);
-            });
-        
         log.info("User found: ID={}, Name={}", user.getId(), user.getName());
         
         Event event = eventRepository.findById(eventId)
@@ -129,6 +139,7 @@ public ResponseEntity<?> preRegisterForEvent(
         }
         
         EventRegistration savedRegistration = registrationRepository.save(registration);
+        attendanceRollupService.onRegistration(savedRegistration);
         log.info("Registration saved: ID={}, Status={}, Code={}", 
                 savedRegistration.getId(), savedRegistration.getStatus(), savedRegistration.getUniqueCode());
         
@@ -157,6 +168,25 @@ public ResponseEntity<?> preRegisterForEvent(
     }
 }
 
+    // Registering for one occurrence of a recurring series materializes that occurrence first
+    @PostMapping("/pre-register/{eventId}/occurrences/{date}")
+    public ResponseEntity<?> preRegisterForOccurrence(
+            @PathVariable Long eventId,
+            @PathVariable @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date,
+            @CurrentUser User user) {
+        try {
+            Event occurrence = recurrenceService.materializeOccurrence(eventId, date);
+            return preRegisterForEvent(occurrence.getId(), user);
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid occurrence {} for event {}: {}", date, eventId, e.getMessage());
+            return ResponseEntity.badRequest()
+                .body(Map.of(
+                    "error", "Pre-registration failed",
+                    "message", e.getMessage()
+                ));
+        }
+    }
+
 @GetMapping("/debug/{eventId}")
 public ResponseEntity<?> debugRegistration(
         @PathVariable Long eventId,
@@ -173,7 +203,7 @@ public ResponseEntity<?> debugRegistration(
         }
         
         // Check if user exists
-        boolean userExists = userRepository.findByEmail(email).isPresent();
+        boolean userExists = CurrentUserArgumentResolver.currentPrincipal() != null;
         if (!userExists) {
             return ResponseEntity.status(HttpStatus.NOT_FOUND)
                 .body(Map.of("error", "User not found"));
@@ -245,8 +275,6 @@ public ResponseEntity<?> debugEndpoints() {
             Authentication authentication) {
         try {
             String email = authentication.getName();
-            User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new IllegalStateException("User not found"));
             
             // Verify that the user is the owner of the event
             Event event = eventRepository.findById(eventId)
@@ -301,8 +329,10 @@ public ResponseEntity<?> debugEndpoints() {
             }
             
             // Update registration status to APPROVED
+            RegistrationStatus previousStatus = registration.getStatus();
             registration.setStatus(EventRegistration.RegistrationStatus.APPROVED);
             registrationRepository.save(registration);
+            attendanceRollupService.onRegistrationStatusChanged(event.getId(), previousStatus, registration.getStatus());
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", registration.getId());
@@ -343,8 +373,10 @@ public ResponseEntity<?> debugEndpoints() {
             }
             
             // Update registration status to DISAPPROVED
+            RegistrationStatus previousStatus = registration.getStatus();
             registration.setStatus(EventRegistration.RegistrationStatus.DISAPPROVED);
             registrationRepository.save(registration);
+            attendanceRollupService.onRegistrationStatusChanged(event.getId(), previousStatus, registration.getStatus());
             
             Map<String, Object> response = new HashMap<>();
             response.put("id", registration.getId());
@@ -386,6 +418,7 @@ public ResponseEntity<?> cancelRegistration(
         
         // Delete the registration
         registrationRepository.delete(registration);
+        attendanceRollupService.onRegistrationCancelled(registration);
         log.info("Registration deleted successfully");
         
         return ResponseEntity.ok(Map.of(
@@ -557,6 +590,8 @@ public ResponseEntity<?> verifyCodeForAttendance(
             .build();
         
         userEventAttendanceRepository.save(attendance);
+        attendanceRollupService.onCheckIn(attendance);
+        engagementService.onCheckIn(attendance);
         
         return ResponseEntity.ok(Map.of(
             "status", "success",
@@ -1,85 +1,60 @@
 package com.example.attendance.controller;
 
+import com.example.attendance.entity.StoredFile;
+import com.example.attendance.exception.PayloadTooLargeException;
+import com.example.attendance.exception.UnsupportedFileTypeException;
+import com.example.attendance.service.FileStorageService;
+import com.example.attendance.service.ImageVariantService;
+import com.example.attendance.service.StaticFileService;
+import com.example.attendance.service.UploadIngestService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 import java.util.Map;
 import java.io.File;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.util.HashMap;
 import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
+@Slf4j
 @RestController
 @RequestMapping("/api")
+@RequiredArgsConstructor
 public class FileUploadController {
 
+    private final FileStorageService fileStorageService;
+    private final StaticFileService staticFileService;
+    private final ImageVariantService imageVariantService;
+    private final UploadIngestService uploadIngestService;
+
     @Value("${file.upload-dir:./uploads}")
     private String uploadDir;
 
-    // List of allowed image types
-    private static final List<String> ALLOWED_EXTENSIONS = Arrays.asList("jpg", "jpeg", "png", "gif", "webp");
-    private static final long MAX_FILE_SIZE = 5 * 1024 * 1024; // 5MB
-
     @PostMapping("/upload/logo")
     @PreAuthorize("hasRole('SYSTEM_OWNER')")
-    public ResponseEntity<Map<String, String>> uploadLogo(@RequestParam("file") MultipartFile file) {
+    public ResponseEntity<Map<String, String>> uploadLogo(HttpServletRequest request) {
+        StoredFile stored = null;
         try {
-            // Validate file
-            if (file.isEmpty()) {
+            // Streamed to disk as it arrives; size and image type are checked on the way
+            stored = uploadIngestService.receive(request, "file", StoredFile.Category.UPLOAD).getFile();
+            if (stored == null) {
                 throw new RuntimeException("File is empty");
             }
+            String uniqueFilename = stored.getStoredName();
 
-            // Check file size
-            if (file.getSize() > MAX_FILE_SIZE) {
-                throw new RuntimeException("File size exceeds maximum limit of 5MB");
-            }
-
-            // Validate file type
-            String originalFilename = file.getOriginalFilename();
-            if (originalFilename == null) {
-                throw new RuntimeException("Invalid filename");
-            }
-
-            String fileExtension = originalFilename.substring(originalFilename.lastIndexOf(".") + 1).toLowerCase();
-            if (!ALLOWED_EXTENSIONS.contains(fileExtension)) {
-                throw new RuntimeException("Invalid file type. Only JPEG, PNG, GIF, and WebP files are allowed.");
-            }
-
-            // Create upload directory if it doesn't exist
-            Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-            File directory = uploadPath.toFile();
-            
-            if (!directory.exists()) {
-                boolean created = directory.mkdirs();
-                if (!created) {
-                    throw new RuntimeException("Failed to create upload directory");
-                }
-                System.out.println("Created upload directory: " + directory.getAbsolutePath());
-            }
-
-            // Generate unique filename
-            String uniqueFilename = "logo_" + System.currentTimeMillis() + "." + fileExtension;
-
-            // Save file
-            Path filePath = uploadPath.resolve(uniqueFilename);
-            Files.copy(file.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
+            staticFileService.evict(uniqueFilename);
 
-            // Verify file was saved
-            File savedFile = filePath.toFile();
-            if (!savedFile.exists() || !savedFile.canRead()) {
-                throw new RuntimeException("File was not saved properly or is not readable");
-            }
+            // Decode once now so the sidebar's ?w= requests find their variants ready
+            List<String> variants = imageVariantService.generateVariants(uniqueFilename);
 
             // Return the relative URL path that will be served by the static resource handler
             String fileUrl = "/uploads/" + uniqueFilename;
@@ -88,30 +63,33 @@ public class FileUploadController {
             response.put("url", fileUrl);
             response.put("message", "File uploaded successfully");
             response.put("filename", uniqueFilename);
-            response.put("absolutePath", filePath.toString()); // For debugging
+            response.put("variants", String.join(",", variants));
 
-            System.out.println("=== File Upload Success ===");
-            System.out.println("Original filename: " + originalFilename);
-            System.out.println("Unique filename: " + uniqueFilename);
-            System.out.println("File path: " + filePath.toString());
-            System.out.println("File exists: " + savedFile.exists());
-            System.out.println("File readable: " + savedFile.canRead());
-            System.out.println("File size: " + savedFile.length() + " bytes");
-            System.out.println("File URL: " + fileUrl);
+            log.debug("Stored logo {} as {} ({} bytes)", stored.getOriginalName(), uniqueFilename, stored.getSizeBytes());
 
             return ResponseEntity.ok(response);
 
+        } catch (PayloadTooLargeException | UnsupportedFileTypeException | RejectedExecutionException e) {
+            release(stored);
+            throw e;
         } catch (IOException e) {
-            System.err.println("IO Error during file upload: " + e.getMessage());
-            e.printStackTrace();
+            release(stored);
+            log.error("IO error during logo upload", e);
             throw new RuntimeException("Failed to upload file: " + e.getMessage());
         } catch (Exception e) {
-            System.err.println("Error during file upload: " + e.getMessage());
-            e.printStackTrace();
+            release(stored);
+            log.error("Error during logo upload", e);
             throw new RuntimeException("Failed to upload file: " + e.getMessage());
         }
     }
 
+    // Nothing will refer to a logo whose upload failed after it was stored
+    private void release(StoredFile stored) {
+        if (stored != null) {
+            fileStorageService.release(stored);
+        }
+    }
+
     @GetMapping("/health")
     public ResponseEntity<Map<String, Object>> healthCheck() {
         Map<String, Object> response = new HashMap<>();
@@ -150,42 +128,11 @@ public class FileUploadController {
         return ResponseEntity.ok(response);
     }
 
-    // Add a direct file serving endpoint for debugging
+    // Same files as /uploads/{filename}, kept for existing clients
     @GetMapping("/uploads/{filename:.+}")
-    public ResponseEntity<Resource> serveFile(@PathVariable String filename) {
-        try {
-            Path uploadPath = Paths.get(uploadDir).toAbsolutePath().normalize();
-            Path filePath = uploadPath.resolve(filename).normalize();
-            
-            // Security check - ensure file is within upload directory
-            if (!filePath.startsWith(uploadPath)) {
-                throw new RuntimeException("Invalid file path");
-            }
-            
-            Resource resource = new UrlResource(filePath.toUri());
-            
-            if (resource.exists() && resource.isReadable()) {
-                System.out.println("Serving file directly: " + filePath);
-                
-                // Determine content type
-                String contentType = Files.probeContentType(filePath);
-                if (contentType == null) {
-                    contentType = "application/octet-stream";
-                }
-                
-                return ResponseEntity.ok()
-                        .contentType(MediaType.parseMediaType(contentType))
-                        .header(HttpHeaders.CONTENT_DISPOSITION, "inline; filename=\"" + filename + "\"")
-                        .body(resource);
-            } else {
-                System.err.println("File not found or not readable: " + filePath);
-                return ResponseEntity.notFound().build();
-            }
-            
-        } catch (Exception e) {
-            System.err.println("Error serving file: " + e.getMessage());
-            e.printStackTrace();
-            return ResponseEntity.internalServerError().build();
-        }
+    public void serveFile(@PathVariable String filename,
+                          HttpServletRequest request,
+                          HttpServletResponse response) throws IOException {
+        staticFileService.serve(filename, request, response);
     }
 }
\ No newline at end of file
@@ -0,0 +1,75 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/admin/leaderboards")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * Most or least attended events, e.g. {@code ?order=bottom&metric=rate&from=2025-01&k=5}.
+     * The window is by event month; without organizationId all organizations are ranked together.
+     */
+    @GetMapping("/events")
+    public ResponseEntity<?> getEventLeaderboard(
+            @RequestParam(required = false) Long organizationId,
+            @RequestParam(required = false) String from,
+            @RequestParam(required = false) String to,
+            @RequestParam(defaultValue = "10") int k,
+            @RequestParam(defaultValue = "top") String order,
+            @RequestParam(defaultValue = "attended") String metric) {
+        YearMonth fromMonth;
+        YearMonth toMonth;
+        LeaderboardService.Metric rankBy;
+        try {
+            fromMonth = from != null ? YearMonth.parse(from) : null;
+            toMonth = to != null ? YearMonth.parse(to) : null;
+        } catch (DateTimeParseException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid month",
+                "message", "from and to must be yyyy-MM"
+            ));
+        }
+        try {
+            rankBy = LeaderboardService.Metric.valueOf(metric.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid metric",
+                "message", "metric must be attended or rate"
+            ));
+        }
+        if (!order.equalsIgnoreCase("top") && !order.equalsIgnoreCase("bottom")) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid order",
+                "message", "order must be top or bottom"
+            ));
+        }
+
+        boolean top = order.equalsIgnoreCase("top");
+        List<Map<String, Object>> events = leaderboardService.getEventLeaderboard(
+            organizationId, fromMonth, toMonth, k, top, rankBy);
+
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("order", top ? "top" : "bottom");
+        response.put("metric", rankBy.name().toLowerCase());
+        response.put("organizationId", organizationId);
+        response.put("from", from);
+        response.put("to", to);
+        response.put("events", events);
+        return ResponseEntity.ok(response);
+    }
+}
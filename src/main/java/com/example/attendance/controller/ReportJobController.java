@@ -0,0 +1,161 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.dto.ReportJobRequest;
+import com.example.attendance.service.ReportJob;
+import com.example.attendance.service.ReportJobService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Files;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/report-jobs")
+@PreAuthorize("hasRole('ADMIN')")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    public ResponseEntity<?> submit(@RequestBody ReportJobRequest request, Authentication authentication) {
+        ReportJob.Type type;
+        try {
+            type = ReportJob.Type.valueOf(String.valueOf(request.getType()).trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid report type",
+                "message", "type must be one of ATTENDANCE_CSV, ATTENDANCE_XLSX, EVENTS_REPORT"
+            ));
+        }
+        if (request.getFrom() != null && request.getTo() != null && request.getTo().isBefore(request.getFrom())) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid date range",
+                "message", "'to' must not be before 'from'"
+            ));
+        }
+        YearMonth month = null;
+        if (request.getMonth() != null && !request.getMonth().equals("all")) {
+            try {
+                month = YearMonth.parse(request.getMonth());
+            } catch (DateTimeParseException e) {
+                return ResponseEntity.badRequest().body(Map.of(
+                    "error", "Invalid month",
+                    "message", "Expected yyyy-MM: " + request.getMonth()
+                ));
+            }
+        }
+
+        try {
+            ReportJob job = reportJobService.submit(type, request.getEventId(), request.getFrom(),
+                request.getTo(), month, authentication != null ? authentication.getName() : null);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/admin/report-jobs/" + job.getId()))
+                .body(job.toResponse());
+        } catch (RejectedExecutionException e) {
+            log.warn("Report job queue is full, rejecting {} request", type);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "30")
+                .body(Map.of(
+                    "error", "Report queue full",
+                    "message", "Too many report jobs are pending, try again shortly"
+                ));
+        }
+    }
+
+    @GetMapping
+    public ResponseEntity<?> list() {
+        List<Map<String, Object>> jobs = reportJobService.getJobs().stream()
+            .sorted(Comparator.comparing(ReportJob::getCreatedAt).reversed())
+            .map(ReportJob::toResponse)
+            .collect(Collectors.toList());
+        return ResponseEntity.ok(jobs);
+    }
+
+    @GetMapping("/{id}")
+    public ResponseEntity<?> status(@PathVariable String id) {
+        return reportJobService.getJob(id)
+            .<ResponseEntity<?>>map(job -> ResponseEntity.ok(job.toResponse()))
+            .orElseGet(() -> notFound(id));
+    }
+
+    /**
+     * Downloads a finished result. Clients that accept gzip get the stored file as-is;
+     * everyone else gets it decompressed on the fly.
+     */
+    @GetMapping("/{id}/result")
+    public ResponseEntity<?> result(@PathVariable String id,
+                                    @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        ReportJob job = reportJobService.getJob(id).orElse(null);
+        if (job == null) {
+            return notFound(id);
+        }
+        if (job.getStatus() != ReportJob.Status.SUCCEEDED || job.getResultFile() == null
+                || !Files.exists(job.getResultFile())) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Result not available",
+                "message", "Report job is " + job.getStatus()
+            ));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(job.getType().getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + job.getFileName() + "\"")
+            .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+        if (acceptEncoding != null && acceptEncoding.toLowerCase().contains("gzip")) {
+            return response
+                .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                .contentLength(job.getResultSize())
+                .body(new FileSystemResource(job.getResultFile()));
+        }
+
+        StreamingResponseBody body = out -> {
+            try (InputStream in = new GZIPInputStream(Files.newInputStream(job.getResultFile()), 64 * 1024)) {
+                in.transferTo(out);
+            }
+        };
+        return response.body(body);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<?> cancel(@PathVariable String id) {
+        ReportJob job = reportJobService.getJob(id).orElse(null);
+        if (job == null) {
+            return notFound(id);
+        }
+        if (!reportJobService.cancel(id)) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of(
+                "error", "Job already finished",
+                "message", "Report job is " + job.getStatus()
+            ));
+        }
+        return ResponseEntity.ok(job.toResponse());
+    }
+
+    private ResponseEntity<?> notFound(String id) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of(
+            "error", "Report job not found",
+            "message", "No report job " + id + " (results expire after a while)"
+        ));
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.service.ImageVariantService;
+import com.example.attendance.service.StaticFileService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Controller;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestParam;
+
+import java.io.IOException;
+
+// Public URLs of uploaded files; GET mappings also answer HEAD
+@Controller
+@RequiredArgsConstructor
+public class StaticUploadController {
+
+    private final StaticFileService staticFileService;
+    private final ImageVariantService imageVariantService;
+
+    /**
+     * Serves an upload. For images, {@code ?w=128} returns the smallest resized variant at
+     * least that wide, as WebP when the client accepts it and a variant exists.
+     */
+    @GetMapping("/uploads/{filename:.+}")
+    public void serve(@PathVariable String filename,
+                      @RequestParam(name = "w", required = false) Integer width,
+                      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+                      HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        if (width != null && imageVariantService.isResizable(filename)) {
+            response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+            filename = imageVariantService.resolve(filename, width, accept);
+        }
+        staticFileService.serve(filename, request, response);
+    }
+}
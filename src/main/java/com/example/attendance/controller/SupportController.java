@@ -1,36 +1,56 @@
 package com.example.attendance.controller;
 
+import com.example.attendance.entity.StoredFile;
 import com.example.attendance.entity.SupportTicket;
+import com.example.attendance.exception.PayloadTooLargeException;
+import com.example.attendance.exception.UnsupportedFileTypeException;
 import com.example.attendance.service.SupportService;
+import com.example.attendance.service.UploadIngestService;
+import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
-import org.springframework.web.multipart.MultipartFile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/support")
 public class SupportController {
     private final SupportService supportService;
+    private final UploadIngestService uploadIngestService;
 
-    public SupportController(SupportService supportService) {
+    public SupportController(SupportService supportService, UploadIngestService uploadIngestService) {
         this.supportService = supportService;
+        this.uploadIngestService = uploadIngestService;
     }
 
+    // Multipart form: concernType, message, userId and an optional attachment
     @PostMapping
-    public ResponseEntity<?> createSupportTicket(
-            @RequestParam("concernType") String concernType,
-            @RequestParam("message") String message,
-            @RequestParam(value = "attachment", required = false) MultipartFile attachment,
-            @RequestParam("userId") String userIdString) {
+    public ResponseEntity<?> createSupportTicket(HttpServletRequest request) {
         
         try {
-            Long userId = Long.parseLong(userIdString);
+            UploadIngestService.Form form = uploadIngestService.receive(
+                request, "attachment", StoredFile.Category.SUPPORT);
+            String concernType = form.getField("concernType");
+            String message = form.getField("message");
+            String userIdString = form.getField("userId");
+            if (concernType == null || message == null || userIdString == null) {
+                uploadIngestService.discard(form);
+                return ResponseEntity.badRequest()
+                        .body(Map.of("status", "error", "message", "concernType, message and userId are required"));
+            }
+            Long userId;
+            try {
+                userId = Long.parseLong(userIdString);
+            } catch (NumberFormatException e) {
+                uploadIngestService.discard(form);
+                throw e;
+            }
             
             SupportTicket ticket = supportService.createSupportTicket(
-                userId, concernType, message, attachment);
+                userId, concernType, message, form.getFile());
             
             // Create a simplified response DTO to avoid serialization issues
             Map<String, Object> response = new LinkedHashMap<>();
@@ -46,6 +66,8 @@ public class SupportController {
         } catch (NumberFormatException e) {
             return ResponseEntity.badRequest()
                     .body(Map.of("status", "error", "message", "Invalid user ID format"));
+        } catch (PayloadTooLargeException | UnsupportedFileTypeException | RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(Map.of("status", "error", "message", "Failed to create support ticket"));
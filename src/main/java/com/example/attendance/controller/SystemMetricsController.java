@@ -0,0 +1,24 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.security.PasswordHashingService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/system/metrics")
+@PreAuthorize("hasRole('SYSTEM_OWNER')")
+@RequiredArgsConstructor
+public class SystemMetricsController {
+
+    private final PasswordHashingService passwordHashingService;
+
+    // Queue depth, active workers and rejections for the password hashing pool
+    @GetMapping("/password-hashing")
+    public ResponseEntity<?> getPasswordHashingStats() {
+        return ResponseEntity.ok(passwordHashingService.getStats());
+    }
+}
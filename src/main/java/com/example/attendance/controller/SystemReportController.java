@@ -0,0 +1,54 @@
+package com.example.attendance.controller;
+
+import com.example.attendance.service.SystemReportService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.*;
+
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+
+@Slf4j
+@RestController
+@RequestMapping("/api/system/reports")
+@PreAuthorize("hasRole('SYSTEM_OWNER')")
+@RequiredArgsConstructor
+public class SystemReportController {
+
+    private final SystemReportService systemReportService;
+
+    /**
+     * Events, registrations and check-ins per organization for events dated in [from, to),
+     * with merged totals. Defaults to the current year. Organizations whose sub-query failed
+     * or timed out are listed under "failed" and the report is marked incomplete.
+     */
+    @GetMapping("/organizations")
+    public ResponseEntity<?> getOrganizationActivity(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate start = from != null ? from : LocalDate.now().withDayOfYear(1);
+        LocalDate end = to != null ? to : start.plusYears(1);
+        if (!end.isAfter(start)) {
+            return ResponseEntity.badRequest().body(Map.of(
+                "error", "Invalid range",
+                "message", "to must be after from"
+            ));
+        }
+
+        try {
+            return ResponseEntity.ok(systemReportService.getOrganizationActivity(start, end));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header("Retry-After", "30")
+                .body(Map.of(
+                    "error", "Too many reports running",
+                    "message", "Try again shortly"
+                ));
+        }
+    }
+}
@@ -5,13 +5,21 @@ import com.example.attendance.entity.Organizer;
 import com.example.attendance.entity.User;
 import com.example.attendance.entity.UserEventAttendance;
 import com.example.attendance.exception.DuplicateEmailException;
+import com.example.attendance.exception.TooManyAttemptsException;
 import com.example.attendance.repository.OrganizerRepository;
 import com.example.attendance.repository.UserRepository;
+import com.example.attendance.security.AuthenticatedPrincipal;
+import com.example.attendance.security.CurrentUser;
 import com.example.attendance.security.JwtTokenProvider;
+import com.example.attendance.security.LoginAttemptThrottle;
+import com.example.attendance.security.PasswordHashingService;
+import com.example.attendance.security.PrincipalCache;
+import com.example.attendance.security.TokenRevocationService;
 import com.example.attendance.service.AuthService;
 import com.example.attendance.service.OrganizerService;
 import com.example.attendance.service.UserEventService;
 import com.example.attendance.service.SystemOwnerService;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -19,12 +27,12 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.web.bind.annotation.*;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.stream.Collectors;
 
 @Slf4j
@@ -35,24 +43,19 @@ public class UserController {
 
     private final UserRepository userRepository;
     private final JwtTokenProvider jwtTokenProvider;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptThrottle loginAttemptThrottle;
     private final AuthService authService;
     private final OrganizerService organizerService;
     private final OrganizerRepository organizerRepository;
     private final UserEventService userEventService;
     private final SystemOwnerService systemOwnerService;
+    private final PrincipalCache principalCache;
+    private final TokenRevocationService tokenRevocationService;
 
     @GetMapping("/me")
-    public ResponseEntity<?> getCurrentUser(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getCurrentUser(@CurrentUser User user) {
         try {
-            if (token == null || !token.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
-            }
-            
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
             if (user.isDeleted()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Account not found");
             }
@@ -107,13 +110,9 @@ public class UserController {
     }
 
     @GetMapping("/me/attended-events")
-    public ResponseEntity<?> getMyAttendedEvents(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getMyAttendedEvents(@CurrentUser AuthenticatedPrincipal principal) {
         try {
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
-            List<UserEventAttendance> attendances = userEventService.getUserAttendedEvents(user.getId());
+            List<UserEventAttendance> attendances = userEventService.getUserAttendedEvents(principal.getId());
             
             List<UserAttendanceDto> attendanceDtos = attendances.stream()
                     .map(UserAttendanceDto::fromEntity)
@@ -128,17 +127,9 @@ public class UserController {
     }
 
     @GetMapping
-    public ResponseEntity<?> getAllUsers(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getAllUsers(@CurrentUser AuthenticatedPrincipal principal) {
         try {
-            if (token == null || !token.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
-            }
-
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User requestingUser = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-
-            if (requestingUser.getAccountType() != User.AccountType.ADMIN) {
+            if (!principal.hasAccountType(User.AccountType.ADMIN)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Access denied");
             }
 
@@ -180,14 +171,10 @@ public class UserController {
     public ResponseEntity<?> enrollUser(
         @PathVariable Long userId,
         @RequestBody EnrollRequest enrollRequest,
-        @RequestHeader("Authorization") String token) {
+        @CurrentUser AuthenticatedPrincipal principal) {
         
         try {
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User adminUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
-            if (adminUser.getAccountType() != User.AccountType.ADMIN) {
+            if (!principal.hasAccountType(User.AccountType.ADMIN)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Access denied"));
             }
@@ -250,14 +237,10 @@ public class UserController {
     public ResponseEntity<?> unenrollUser(
         @PathVariable Long userId,
         @RequestBody EnrollRequest enrollRequest,
-        @RequestHeader("Authorization") String token) {
+        @CurrentUser AuthenticatedPrincipal principal) {
         
         try {
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User adminUser = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
-            if (adminUser.getAccountType() != User.AccountType.ADMIN) {
+            if (!principal.hasAccountType(User.AccountType.ADMIN)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                     .body(Map.of("error", "Access denied"));
             }
@@ -313,17 +296,9 @@ public class UserController {
     @PutMapping("/me")
     @Transactional
     public ResponseEntity<?> updateCurrentUser(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser User user,
             @RequestBody User updatedUser) {
         try {
-            if (token == null || !token.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
-            }
-            
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
             if (user.isDeleted()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Account not found");
             }
@@ -354,17 +329,9 @@ public class UserController {
     @PutMapping("/me/password")
     @Transactional
     public ResponseEntity<?> changePassword(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser User user,
             @Valid @RequestBody ChangePasswordDto changePasswordDto) {
         try {
-            if (token == null || !token.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
-            }
-            
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
             if (user.isDeleted()) {
                 return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Account not found");
             }
@@ -374,15 +341,17 @@ public class UserController {
                         .body("Account is deactivated");
             }
             
-            if (!passwordEncoder.matches(changePasswordDto.getCurrentPassword(), user.getPassword())) {
+            if (!passwordHashingService.matches(changePasswordDto.getCurrentPassword(), user.getPassword())) {
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Current password is incorrect");
             }
             
-            user.setPassword(passwordEncoder.encode(changePasswordDto.getNewPassword()));
+            user.setPassword(passwordHashingService.hash(changePasswordDto.getNewPassword()));
             user.setUpdatedAt(LocalDateTime.now());
             userRepository.save(user);
             
             return ResponseEntity.ok("Password changed successfully");
+        } catch (RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Error changing password", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -432,10 +401,11 @@ public class UserController {
     }
 
     @PostMapping("/login")
-    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto loginRequest) {
+    public ResponseEntity<?> login(@Valid @RequestBody LoginRequestDto loginRequest,
+                                   HttpServletRequest httpRequest) {
         try {
             log.info("Login attempt for email: {}", loginRequest.getEmail());
-            LoginResponseDto response = authService.login(loginRequest);
+            LoginResponseDto response = authService.login(loginRequest, httpRequest.getRemoteAddr());
             
             if (response.isDeactivated()) {
                 log.info("Deactivated account login attempt: {}", loginRequest.getEmail());
@@ -457,6 +427,8 @@ public class UserController {
                         "email", loginRequest.getEmail(),
                         "isDeactivated", false
                     ));
+        } catch (TooManyAttemptsException | RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Login error for email: {}", loginRequest.getEmail(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -470,20 +442,12 @@ public class UserController {
 
     @DeleteMapping("/me")
     @Transactional
-    public ResponseEntity<?> deleteAccount(
-            @RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> deleteAccount(@CurrentUser User user) {
         try {
-            if (token == null || !token.startsWith("Bearer ")) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid token");
-            }
-            
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User user = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
             user.setDeleted(true);
             user.setUpdatedAt(LocalDateTime.now());
             userRepository.save(user);
+            tokenRevocationService.revokeAllForUser(user.getId());
             
             return ResponseEntity.ok("Account deleted successfully");
         } catch (Exception e) {
@@ -496,12 +460,14 @@ public class UserController {
     @PutMapping("/me/deactivate")
     @Transactional
     public ResponseEntity<?> deactivateAccount(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedPrincipal principal,
             @RequestBody(required = false) Map<String, String> request) {
         
         try {
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
+            String email = principal.getEmail();
             userRepository.updateDeactivationStatus(email, true);
+            principalCache.invalidate(email);
+            tokenRevocationService.revokeAllForUser(principal.getId());
             
             return ResponseEntity.ok(Map.of(
                 "message", "Account deactivated successfully",
@@ -516,15 +482,8 @@ public class UserController {
     }
 
     @GetMapping("/check-active")
-    public ResponseEntity<?> checkAccountActive(
-        @RequestParam String email,
-        @RequestHeader("Authorization") String token) {
-        
+    public ResponseEntity<?> checkAccountActive(@RequestParam String email) {
         try {
-            if (!jwtTokenProvider.validateToken(token.substring(7))) {
-                return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
-            }
-
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new BadCredentialsException("User not found"));
 
@@ -542,16 +501,12 @@ public class UserController {
     @PostMapping("/system-owner/register")
     @Transactional
     public ResponseEntity<?> registerSystemOwner(
-            @RequestHeader("Authorization") String token,
+            @CurrentUser AuthenticatedPrincipal principal,
             @Valid @RequestBody UserRegistrationDto registrationDto) {
         
         try {
             // Only existing SYSTEM_OWNER can create new SYSTEM_OWNER
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User requestingUser = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
-            if (requestingUser.getAccountType() != User.AccountType.SYSTEM_OWNER) {
+            if (!principal.hasAccountType(User.AccountType.SYSTEM_OWNER)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("Only system owners can create new system owners");
             }
@@ -569,14 +524,10 @@ public class UserController {
     }
 
     @GetMapping("/system-owners")
-    public ResponseEntity<?> getAllSystemOwners(@RequestHeader("Authorization") String token) {
+    public ResponseEntity<?> getAllSystemOwners(@CurrentUser AuthenticatedPrincipal principal) {
         try {
             // Verify requesting user is SYSTEM_OWNER
-            String email = jwtTokenProvider.extractUsername(token.substring(7));
-            User requestingUser = userRepository.findByEmail(email)
-                    .orElseThrow(() -> new BadCredentialsException("User not found"));
-            
-            if (requestingUser.getAccountType() != User.AccountType.SYSTEM_OWNER) {
+            if (!principal.hasAccountType(User.AccountType.SYSTEM_OWNER)) {
                 return ResponseEntity.status(HttpStatus.FORBIDDEN)
                         .body("Access denied");
             }
@@ -592,17 +543,21 @@ public class UserController {
 
     @PutMapping("/reactivate")
     @Transactional
-    public ResponseEntity<?> reactivateAccount(@RequestBody ReactivationRequest request) {
+    public ResponseEntity<?> reactivateAccount(@RequestBody ReactivationRequest request,
+                                               HttpServletRequest httpRequest) {
         try {
             String email = request.getEmail();
+            loginAttemptThrottle.acquire(email, httpRequest.getRemoteAddr());
             User user = userRepository.findByEmail(email)
                     .orElseThrow(() -> new BadCredentialsException("User not found"));
 
             // Verify password
-            if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+            if (!passwordHashingService.matches(request.getPassword(), user.getPassword())) {
+                loginAttemptThrottle.recordFailure(email);
                 return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
                         .body("Invalid credentials");
             }
+            loginAttemptThrottle.recordSuccess(email);
 
             if (!user.isDeactivated()) {
                 return ResponseEntity.ok().body("Account is already active");
@@ -633,6 +588,8 @@ public class UserController {
                 "token", token,
                 "user", user
             ));
+        } catch (TooManyAttemptsException | RejectedExecutionException e) {
+            throw e;
         } catch (Exception e) {
             log.error("Reactivation failed for email: {}", request.getEmail(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
@@ -1,10 +1,11 @@
 package com.example.attendance.controller;
 
 import com.example.attendance.entity.UserEventAttendance;
+import com.example.attendance.security.AuthenticatedPrincipal;
+import com.example.attendance.security.CurrentUser;
 import com.example.attendance.service.UserEventService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 import java.util.List;
 
@@ -18,11 +19,9 @@ public class UserEventController {
     @PostMapping("/record/{eventId}")
     public ResponseEntity<?> recordAttendance(
             @PathVariable Long eventId,
-            Authentication authentication) {
+            @CurrentUser AuthenticatedPrincipal principal) {
         try {
-            // In a real implementation, you'd get the user ID from the authentication
-            // For now, we'll use a placeholder
-            Long userId = getUserIdFromAuthentication(authentication);
+            Long userId = principal.getId();
             UserEventAttendance attendance = userEventService.recordAttendance(userId, eventId);
             return ResponseEntity.ok(attendance);
         } catch (Exception e) {
@@ -31,8 +30,8 @@ public class UserEventController {
     }
 
     @GetMapping("/my-attendances")
-    public ResponseEntity<List<UserEventAttendance>> getMyAttendedEvents(Authentication authentication) {
-        Long userId = getUserIdFromAuthentication(authentication);
+    public ResponseEntity<List<UserEventAttendance>> getMyAttendedEvents(@CurrentUser AuthenticatedPrincipal principal) {
+        Long userId = principal.getId();
         List<UserEventAttendance> attendances = userEventService.getUserAttendedEvents(userId);
         return ResponseEntity.ok(attendances);
     }
@@ -49,10 +48,4 @@ public ResponseEntity<Long> getEventAttendanceCount(@PathVariable Long eventId)
     long count = userEventService.getEventAttendanceCount(eventId);
     return ResponseEntity.ok(count);
 }
-
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        // Implement logic to get user ID from authentication
-        // This is just a placeholder
-        return 1L; // Replace with actual implementation
-    }
 }
\ No newline at end of file
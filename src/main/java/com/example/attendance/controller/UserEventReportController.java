@@ -2,11 +2,11 @@ package com.example.attendance.controller;
 
 import com.example.attendance.entity.Event;
 import com.example.attendance.entity.UserEventAttendance;
+import com.example.attendance.security.AuthenticatedPrincipal;
+import com.example.attendance.security.CurrentUser;
 import com.example.attendance.service.UserEventService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
-import org.springframework.security.core.Authentication;
-import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.*;
@@ -20,15 +20,15 @@ public class UserEventReportController {
     private final UserEventService userEventService;
 
     @GetMapping("/summary")
-    public ResponseEntity<?> getUserEventSummary(Authentication authentication) {
+    public ResponseEntity<?> getUserEventSummary(@CurrentUser AuthenticatedPrincipal principal) {
         try {
-            Long userId = getUserIdFromAuthentication(authentication);
+            Long userId = principal.getId();
 
+            // Counters come from the precomputed summary; each list is a single query. The full
+            // lists stay in this response because existing clients render them from it
+            UserEventService.UserAttendanceStats stats = userEventService.getUserAttendanceStats(userId);
             List<Event> registered = userEventService.getRegisteredEvents(userId);
             List<UserEventAttendance> attended = userEventService.getUserAttendedEvents(userId);
-            
-            // Get only registered events count for attendance percentage calculation
-            int totalRegisteredEvents = registered.size();
 
             List<Map<String, Object>> registeredEventsList = registered.stream().map(event -> {
                 Map<String, Object> eventMap = new HashMap<>();
@@ -47,9 +47,10 @@ public class UserEventReportController {
             }).collect(Collectors.toList());
 
             Map<String, Object> response = new HashMap<>();
-            response.put("registeredEvents", registered.size());
-            response.put("attendedEvents", attended.size());
-            response.put("totalEvents", totalRegisteredEvents); // Use registered events for percentage calculation
+            response.put("registeredEvents", stats.getRegisteredEventsCount());
+            response.put("attendedEvents", stats.getAttendedEventsCount());
+            response.put("totalEvents", stats.getRegisteredEventsCount()); // Use registered events for percentage calculation
+            response.put("attendancePercentage", stats.getAttendancePercentage());
             response.put("registeredEventsList", registeredEventsList);
             response.put("attendedEventsList", attendedEventsList);
 
@@ -60,51 +61,4 @@ public class UserEventReportController {
             return ResponseEntity.status(500).body(errorResponse);
         }
     }
-
-    private Long getUserIdFromAuthentication(Authentication authentication) {
-        if (authentication == null || !authentication.isAuthenticated()) {
-            throw new IllegalStateException("User not authenticated");
-        }
-
-        Object principal = authentication.getPrincipal();
-        
-        // If using custom UserDetails implementation
-        if (principal instanceof UserDetails) {
-            UserDetails userDetails = (UserDetails) principal;
-            
-            // Try to cast to your custom UserDetails if you have one
-            // Assuming you have a custom UserDetails implementation like CustomUserPrincipal
-            try {
-                // If you have a custom UserDetails class that contains user ID
-                // return ((CustomUserPrincipal) userDetails).getUserId();
-                
-                // For now, try to extract from username if it's the user ID
-                String username = userDetails.getUsername();
-                try {
-                    return Long.parseLong(username);
-                } catch (NumberFormatException e) {
-                    // If username is email or string, you might need to look up user by username
-                    // This would require injecting UserService or UserRepository
-                    // For testing purposes, return a default user ID
-                    return 1L; // TEMPORARY - replace with actual logic
-                }
-            } catch (ClassCastException e) {
-                // If it's not your custom UserDetails, try to extract username
-                return 1L; // TEMPORARY - replace with actual logic
-            }
-        }
-        
-        // If using JWT with custom claims (when principal is a string)
-        if (principal instanceof String) {
-            try {
-                // If the principal is the user ID directly
-                return Long.parseLong((String) principal);
-            } catch (NumberFormatException e) {
-                return 1L; // TEMPORARY - replace with actual logic
-            }
-        }
-        
-        // Fallback for testing
-        return 1L; // TEMPORARY - replace with actual user lookup logic
-    }
-}
\ No newline at end of file
+}
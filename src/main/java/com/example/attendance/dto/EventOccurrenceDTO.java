@@ -0,0 +1,63 @@
+package com.example.attendance.dto;
+
+import com.example.attendance.entity.Event;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventOccurrenceDTO {
+    private Long seriesId;
+
+    // ID of the backing Event row; null while the occurrence is still virtual
+    private Long eventId;
+
+    private String name;
+    private LocalDate date;
+    private LocalTime time;
+    private String place;
+    private Boolean isOnline;
+    private Event.EventStatus status;
+    private boolean materialized;
+
+    // Occurrence backed by an Event row (a standalone event, a series start or a materialized instance)
+    public static EventOccurrenceDTO fromEntity(Event event) {
+        Long seriesId = event.getOriginalEventId();
+        if (seriesId == null && event.getRecurrencePattern() != null
+                && event.getRecurrencePattern() != Event.RecurrencePattern.NONE) {
+            seriesId = event.getId();
+        }
+        return EventOccurrenceDTO.builder()
+            .seriesId(seriesId)
+            .eventId(event.getId())
+            .name(event.getName())
+            .date(event.getDate())
+            .time(event.getTime())
+            .place(event.getPlace())
+            .isOnline(event.getIsOnline())
+            .status(event.getStatus())
+            .materialized(true)
+            .build();
+    }
+
+    // Occurrence that only exists as an expansion of its series
+    public static EventOccurrenceDTO virtual(Event series, LocalDate date) {
+        return EventOccurrenceDTO.builder()
+            .seriesId(series.getId())
+            .name(series.getName())
+            .date(date)
+            .time(series.getTime())
+            .place(series.getPlace())
+            .isOnline(series.getIsOnline())
+            .status(series.getStatus())
+            .materialized(false)
+            .build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.attendance.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// One row of the admin events report: event columns plus aggregated attendance counts
+@Data
+@NoArgsConstructor
+public class EventReportRowDTO {
+    private Long id;
+    private String name;
+    private LocalDate date;
+    private LocalTime time;
+    private String place;
+    private String description;
+    private String createdBy;
+    private Boolean isFree;
+    private BigDecimal price;
+    private Boolean isOnline;
+    private long registrantCount;
+    private long attendeeCount;
+
+    // Used by the JPQL constructor expression; SUM over an empty group comes back as null
+    public EventReportRowDTO(Long id, String name, LocalDate date, LocalTime time, String place,
+                             String description, String createdBy, Boolean isFree, BigDecimal price,
+                             Boolean isOnline, Long registrantCount, Long attendeeCount) {
+        this.id = id;
+        this.name = name;
+        this.date = date;
+        this.time = time;
+        this.place = place;
+        this.description = description;
+        this.createdBy = createdBy;
+        this.isFree = isFree;
+        this.price = Boolean.TRUE.equals(isFree) || price == null ? BigDecimal.ZERO : price;
+        this.isOnline = isOnline;
+        this.registrantCount = registrantCount != null ? registrantCount : 0;
+        this.attendeeCount = attendeeCount != null ? attendeeCount : 0;
+    }
+}
@@ -0,0 +1,25 @@
+package com.example.attendance.dto;
+
+import com.example.attendance.entity.Event;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+// List-view projection, filled straight from JPQL constructor expressions in EventRepository
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EventSummaryDTO {
+    private Long id;
+    private String name;
+    private LocalDate date;
+    private LocalTime time;
+    private String place;
+    private Event.EventStatus status;
+    private Boolean isFree;
+    private Boolean isOnline;
+    private String organizerName;
+}
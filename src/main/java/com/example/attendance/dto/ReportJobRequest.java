@@ -0,0 +1,15 @@
+package com.example.attendance.dto;
+
+import lombok.Data;
+
+import java.time.LocalDate;
+
+// Body of POST /api/admin/report-jobs. eventId/from/to apply to attendance exports, month to the events report
+@Data
+public class ReportJobRequest {
+    private String type;
+    private Long eventId;
+    private LocalDate from;
+    private LocalDate to;
+    private String month;
+}
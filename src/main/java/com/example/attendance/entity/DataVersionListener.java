@@ -0,0 +1,29 @@
+package com.example.attendance.entity;
+
+import com.example.attendance.service.DataVersionService;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Bumps the table version on every write that goes through the persistence context
+@Component
+@RequiredArgsConstructor
+public class DataVersionListener {
+
+    private final DataVersionService dataVersionService;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void onWrite(Object entity) {
+        if (entity instanceof Event) {
+            dataVersionService.bump(DataVersionService.Table.EVENT);
+        } else if (entity instanceof EventRegistration) {
+            dataVersionService.bump(DataVersionService.Table.EVENT_REGISTRATION);
+        } else if (entity instanceof UserEventAttendance) {
+            dataVersionService.bump(DataVersionService.Table.USER_EVENT_ATTENDANCE);
+        }
+    }
+}
@@ -2,11 +2,24 @@ package com.example.attendance.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.UpdateTimestamp;
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 
 @Entity
+@Table(name = "event",
+       indexes = {
+           @Index(name = "idx_event_starts_at", columnList = "starts_at"),
+           @Index(name = "idx_event_user_starts_at", columnList = "user_id, starts_at"),
+           @Index(name = "idx_event_status_starts_at", columnList = "event_status, starts_at")
+       },
+       uniqueConstraints = {
+           // At most one materialized row per occurrence of a recurring series
+           @UniqueConstraint(name = "uk_event_series_occurrence", columnNames = {"original_event_id", "date"})
+       })
+@EntityListeners({EventVersionListener.class, DataVersionListener.class})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -25,6 +38,10 @@ public class Event {
     @Column(nullable = false)
     private LocalTime time;
     
+    // Denormalized date + time so calendar and "upcoming" queries can use a range index
+    @Column(name = "starts_at")
+    private LocalDateTime startsAt;
+    
     private String place;
     private String description;
     
@@ -107,6 +124,23 @@ public void setRequiresApproval(Boolean requiresApproval) {
     this.requiresApproval = requiresApproval;
 }
 
+    // Optimistic lock for concurrent edits, also the source of the ETag on GET /api/events/{id}
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @UpdateTimestamp
+    @Column(name = "updated_at")
+    private LocalDateTime updatedAt;
+
+    @PrePersist
+    @PreUpdate
+    public void syncStartsAt() {
+        if (date != null) {
+            this.startsAt = time != null ? LocalDateTime.of(date, time) : date.atStartOfDay();
+        }
+    }
+
     // Helper methods for price handling
     public void setFree(boolean free) {
         this.isFree = free;
@@ -0,0 +1,45 @@
+package com.example.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Per-event registration and attendance counters, maintained by AttendanceRollupService
+@Entity
+@Table(name = "event_attendance_rollup",
+       indexes = @Index(name = "idx_event_rollup_org_date", columnList = "organization_id, event_date"))
+@Data
+@NoArgsConstructor
+public class EventAttendanceRollup {
+
+    @Id
+    @Column(name = "event_id")
+    private Long eventId;
+
+    // Owning organization of the event; 0 when its creator belongs to none
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "event_date")
+    private LocalDate eventDate;
+
+    @Column(name = "registration_count", nullable = false)
+    private long registrationCount;
+
+    @Column(name = "approved_count", nullable = false)
+    private long approvedCount;
+
+    @Column(name = "attendance_count", nullable = false)
+    private long attendanceCount;
+
+    @Column(name = "attended_count", nullable = false)
+    private long attendedCount;
+
+    public EventAttendanceRollup(Long eventId, Long organizationId, LocalDate eventDate) {
+        this.eventId = eventId;
+        this.organizationId = organizationId;
+        this.eventDate = eventDate;
+    }
+}
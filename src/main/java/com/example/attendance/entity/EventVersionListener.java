@@ -0,0 +1,47 @@
+package com.example.attendance.entity;
+
+import com.example.attendance.service.EventVersionCache;
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+/**
+ * Keeps the in-memory version map in step with every write that goes through the
+ * persistence context. The callbacks fire at flush, so new versions are only published
+ * once the transaction commits; a rolled-back edit must not leave its version behind.
+ */
+@Component
+@RequiredArgsConstructor
+public class EventVersionListener {
+
+    private final EventVersionCache eventVersionCache;
+
+    @PostPersist
+    @PostUpdate
+    public void onWrite(Event event) {
+        Long id = event.getId();
+        Long version = event.getVersion();
+        LocalDateTime updatedAt = event.getUpdatedAt();
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eventVersionCache.put(id, version, updatedAt);
+                }
+            });
+        } else {
+            eventVersionCache.put(id, version, updatedAt);
+        }
+    }
+
+    @PostRemove
+    public void onRemove(Event event) {
+        eventVersionCache.evict(event.getId());
+    }
+}
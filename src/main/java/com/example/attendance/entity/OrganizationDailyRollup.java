@@ -0,0 +1,40 @@
+package com.example.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+// Per-organization counters for one day: events scheduled, registrations made and check-ins
+@Entity
+@Table(name = "organization_daily_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_org_daily_rollup", columnNames = {"organization_id", "rollup_date"}))
+@Data
+@NoArgsConstructor
+public class OrganizationDailyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "rollup_date", nullable = false)
+    private LocalDate day;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "registration_count", nullable = false)
+    private long registrationCount;
+
+    @Column(name = "check_in_count", nullable = false)
+    private long checkInCount;
+
+    public OrganizationDailyRollup(Long organizationId, LocalDate day) {
+        this.organizationId = organizationId;
+        this.day = day;
+    }
+}
@@ -0,0 +1,38 @@
+package com.example.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Same counters as OrganizationDailyRollup, summed per calendar month ("yyyy-MM")
+@Entity
+@Table(name = "organization_monthly_rollup",
+       uniqueConstraints = @UniqueConstraint(name = "uk_org_monthly_rollup", columnNames = {"organization_id", "rollup_month"}))
+@Data
+@NoArgsConstructor
+public class OrganizationMonthlyRollup {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "organization_id", nullable = false)
+    private Long organizationId;
+
+    @Column(name = "rollup_month", nullable = false, length = 7)
+    private String month;
+
+    @Column(name = "event_count", nullable = false)
+    private long eventCount;
+
+    @Column(name = "registration_count", nullable = false)
+    private long registrationCount;
+
+    @Column(name = "check_in_count", nullable = false)
+    private long checkInCount;
+
+    public OrganizationMonthlyRollup(Long organizationId, String month) {
+        this.organizationId = organizationId;
+        this.month = month;
+    }
+}
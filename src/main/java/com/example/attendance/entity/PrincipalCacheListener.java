@@ -0,0 +1,21 @@
+package com.example.attendance.entity;
+
+import com.example.attendance.security.PrincipalCache;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+// Password, account type and status changes saved through the persistence context drop the cached principal
+@Component
+@RequiredArgsConstructor
+public class PrincipalCacheListener {
+
+    private final PrincipalCache principalCache;
+
+    @PostUpdate
+    @PostRemove
+    public void onWrite(User user) {
+        principalCache.invalidate(user.getEmail());
+    }
+}
@@ -0,0 +1,40 @@
+package com.example.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * A revocation kept until every token it covers has expired. Either a single token by its
+ * id (jti), or a user-wide cut-off: for a row with a user id, tokens of that user issued
+ * before revokedAt are rejected.
+ */
+@Entity
+@Table(name = "revoked_tokens",
+       indexes = {
+           @Index(name = "idx_revoked_token_id", columnList = "token_id", unique = true),
+           @Index(name = "idx_revoked_user_id", columnList = "user_id", unique = true),
+           @Index(name = "idx_revoked_expires_at", columnList = "expires_at")
+       })
+@Data
+@NoArgsConstructor
+public class RevokedToken {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "token_id", length = 64)
+    private String tokenId;
+
+    @Column(name = "user_id")
+    private Long userId;
+
+    @Column(name = "revoked_at", nullable = false)
+    private LocalDateTime revokedAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,53 @@
+package com.example.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One stored blob, identified by the SHA-256 of its content within a category. Identical
+ * uploads share the row and the file; referenceCount counts how many times it was stored.
+ */
+@Entity
+@Table(name = "stored_files",
+       uniqueConstraints = @UniqueConstraint(name = "uk_stored_file_hash", columnNames = {"category", "sha256"}))
+@Data
+@NoArgsConstructor
+public class StoredFile {
+
+    public enum Category {
+        UPLOAD, SUPPORT
+    }
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Category category;
+
+    @Column(nullable = false, length = 64)
+    private String sha256;
+
+    // File name inside the category's store, e.g. <sha256>.png; the shard path derives from it
+    @Column(name = "stored_name", nullable = false)
+    private String storedName;
+
+    @Column(name = "original_name")
+    private String originalName;
+
+    @Column(name = "content_type")
+    private String contentType;
+
+    @Column(name = "size_bytes", nullable = false)
+    private long sizeBytes;
+
+    @Column(name = "reference_count", nullable = false)
+    private long referenceCount;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+}
@@ -20,8 +20,12 @@ public class SupportTicket {
     @Column(columnDefinition = "TEXT", nullable = false)
     private String message;
     
+    // Node-local path; only set on tickets from before attachments were StoredFiles
     private String attachmentPath;
     
+    @Column(name = "attachment_file_id")
+    private Long attachmentFileId;
+    
     @Column(nullable = false)
     private LocalDateTime createdAt = LocalDateTime.now();
     
@@ -36,6 +40,8 @@ public class SupportTicket {
     public void setMessage(String message) { this.message = message; }
     public String getAttachmentPath() { return attachmentPath; }
     public void setAttachmentPath(String attachmentPath) { this.attachmentPath = attachmentPath; }
+    public Long getAttachmentFileId() { return attachmentFileId; }
+    public void setAttachmentFileId(Long attachmentFileId) { this.attachmentFileId = attachmentFileId; }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
\ No newline at end of file
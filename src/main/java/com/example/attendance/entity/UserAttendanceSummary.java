@@ -0,0 +1,32 @@
+package com.example.attendance.entity;
+
+import jakarta.persistence.*;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// Per-user registered/attended counters, maintained by AttendanceRollupService
+@Entity
+@Table(name = "user_attendance_summary")
+@Data
+@NoArgsConstructor
+public class UserAttendanceSummary {
+
+    @Id
+    @Column(name = "user_id")
+    private Long userId;
+
+    // Distinct events the user registered for or has an attendance record at
+    @Column(name = "registered_count", nullable = false)
+    private long registeredCount;
+
+    @Column(name = "attended_count", nullable = false)
+    private long attendedCount;
+
+    public UserAttendanceSummary(Long userId) {
+        this.userId = userId;
+    }
+
+    public double getAttendancePercentage() {
+        return registeredCount > 0 ? Math.min(100.0, attendedCount * 100.0 / registeredCount) : 0.0;
+    }
+}
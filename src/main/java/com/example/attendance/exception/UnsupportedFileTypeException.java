@@ -0,0 +1,7 @@
+package com.example.attendance.exception;
+
+public class UnsupportedFileTypeException extends RuntimeException {
+    public UnsupportedFileTypeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,61 @@
+package com.example.attendance.repository;
+
+import com.example.attendance.entity.EventAttendanceRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface EventAttendanceRollupRepository extends JpaRepository<EventAttendanceRollup, Long> {
+
+    @Modifying
+    @Query("UPDATE EventAttendanceRollup r SET " +
+           "r.registrationCount = r.registrationCount + :registrations, " +
+           "r.approvedCount = r.approvedCount + :approved, " +
+           "r.attendanceCount = r.attendanceCount + :attendance, " +
+           "r.attendedCount = r.attendedCount + :attended " +
+           "WHERE r.eventId = :eventId")
+    int increment(@Param("eventId") Long eventId,
+                  @Param("registrations") long registrations,
+                  @Param("approved") long approved,
+                  @Param("attendance") long attendance,
+                  @Param("attended") long attended);
+
+    @Modifying
+    @Query("UPDATE EventAttendanceRollup r SET r.eventDate = :eventDate WHERE r.eventId = :eventId")
+    int updateEventDate(@Param("eventId") Long eventId, @Param("eventDate") LocalDate eventDate);
+
+    // Rebuild: recount every row from the source tables in one statement
+    @Modifying
+    @Query("UPDATE EventAttendanceRollup r SET " +
+           "r.registrationCount = (SELECT COUNT(x) FROM EventRegistration x WHERE x.eventId = r.eventId), " +
+           "r.approvedCount = (SELECT COUNT(x) FROM EventRegistration x WHERE x.eventId = r.eventId " +
+           "  AND x.status = com.example.attendance.entity.EventRegistration$RegistrationStatus.APPROVED), " +
+           "r.attendanceCount = (SELECT COUNT(a) FROM UserEventAttendance a WHERE a.event.id = r.eventId), " +
+           "r.attendedCount = (SELECT COUNT(a) FROM UserEventAttendance a WHERE a.event.id = r.eventId AND a.attended = true)")
+    int recountAll();
+
+    // Rebuild: [organizationId, eventDate, events]
+    @Query("SELECT r.organizationId, r.eventDate, COUNT(r) FROM EventAttendanceRollup r " +
+           "WHERE r.eventDate IS NOT NULL GROUP BY r.organizationId, r.eventDate")
+    List<Object[]> countEventsByOrganizationAndDay();
+
+    // Rebuild: [organizationId, registrationDay, registrations]
+    @Query("SELECT r.organizationId, CAST(x.registrationDate AS LocalDate), COUNT(x) " +
+           "FROM EventRegistration x JOIN EventAttendanceRollup r ON r.eventId = x.eventId " +
+           "WHERE x.registrationDate IS NOT NULL " +
+           "GROUP BY r.organizationId, CAST(x.registrationDate AS LocalDate)")
+    List<Object[]> countRegistrationsByOrganizationAndDay();
+
+    // Rebuild: [organizationId, attendanceDate, check-ins]
+    @Query("SELECT r.organizationId, a.attendanceDate, COUNT(a) " +
+           "FROM UserEventAttendance a JOIN EventAttendanceRollup r ON r.eventId = a.event.id " +
+           "WHERE a.attended = true AND a.attendanceDate IS NOT NULL " +
+           "GROUP BY r.organizationId, a.attendanceDate")
+    List<Object[]> countCheckInsByOrganizationAndDay();
+}
@@ -1,12 +1,21 @@
 package com.example.attendance.repository;
 
+import com.example.attendance.dto.EventReportRowDTO;
+import com.example.attendance.dto.EventSummaryDTO;
 import com.example.attendance.entity.Event;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.Set;
 
 @Repository
@@ -18,6 +27,11 @@ public interface EventRepository extends JpaRepository<Event, Long> {
     // Find events by user ID (main method for filtering events by creator)
     List<Event> findByUserId(Long userId);
     
+    // Recurring series: materialized occurrences are linked back through originalEventId
+    Optional<Event> findFirstByOriginalEventIdAndDate(Long originalEventId, LocalDate date);
+
+    List<Event> findByOriginalEventIdAndDateBetween(Long originalEventId, LocalDate startDate, LocalDate endDate);
+    
     // Find events by user email (alternative approach)
     @Query("SELECT e FROM Event e WHERE e.user.email = :email")
     List<Event> findByUserEmail(@Param("email") String email);
@@ -48,22 +62,6 @@ public interface EventRepository extends JpaRepository<Event, Long> {
            ")")
     List<Event> findEventsVisibleToOrganization(@Param("organizationId") Long organizationId);
     
-    // FIXED: Find free events by organization ID
-    @Query("SELECT DISTINCT e FROM Event e " +
-           "JOIN e.user u " +
-           "LEFT JOIN u.organizer o " +
-           "LEFT JOIN u.enrolledOrganizations eo " +
-           "WHERE (o.id = :organizationId OR eo.id = :organizationId) AND e.isFree = true")
-    List<Event> findFreeEventsByOrganizationId(@Param("organizationId") Long organizationId);
-    
-    // FIXED: Find paid events by organization ID
-    @Query("SELECT DISTINCT e FROM Event e " +
-           "JOIN e.user u " +
-           "LEFT JOIN u.organizer o " +
-           "LEFT JOIN u.enrolledOrganizations eo " +
-           "WHERE (o.id = :organizationId OR eo.id = :organizationId) AND e.isFree = false")
-    List<Event> findPaidEventsByOrganizationId(@Param("organizationId") Long organizationId);
-    
     // FIXED: Count events by organization ID
     @Query("SELECT COUNT(DISTINCT e) FROM Event e " +
            "JOIN e.user u " +
@@ -227,8 +225,9 @@ public interface EventRepository extends JpaRepository<Event, Long> {
            "LEFT JOIN u.organizer o " +
            "LEFT JOIN u.enrolledOrganizations eo " +
            "WHERE (o.id = :organizationId OR eo.id = :organizationId) " +
-           "AND (e.date > CURRENT_DATE OR (e.date = CURRENT_DATE AND e.time >= CURRENT_TIME)) " +
-           "ORDER BY e.date ASC, e.time ASC")
+           "AND e.status <> com.example.attendance.entity.Event$EventStatus.COMPLETED " +
+           "AND e.startsAt >= CURRENT_TIMESTAMP " +
+           "ORDER BY e.startsAt ASC")
     List<Event> findUpcomingEventsByOrganizationId(@Param("organizationId") Long organizationId);
     
     // FIXED: Find all events by organization (including past events for admin)
@@ -268,22 +267,180 @@ public interface EventRepository extends JpaRepository<Event, Long> {
            "ORDER BY e.date ASC, e.time ASC")
     List<Event> findActiveEventsByOrganizationId(@Param("organizationId") Long organizationId);
 
-    // FIXED: Find events by multiple organization IDs
-    @Query("SELECT DISTINCT e FROM Event e " +
-           "JOIN e.user u " +
-           "LEFT JOIN u.organizer o " +
-           "LEFT JOIN u.enrolledOrganizations eo " +
-           "WHERE o.id IN :organizationIds OR eo.id IN :organizationIds " +
-           "ORDER BY e.date ASC, e.time ASC")
-    List<Event> findEventsByOrganizationIds(@Param("organizationIds") Set<Long> organizationIds);
 
-    // FIXED: Find upcoming events by multiple organization IDs (for users)
-    @Query("SELECT DISTINCT e FROM Event e " +
-           "JOIN e.user u " +
-           "LEFT JOIN u.organizer o " +
-           "LEFT JOIN u.enrolledOrganizations eo " +
-           "WHERE (o.id IN :organizationIds OR eo.id IN :organizationIds) " +
-           "AND (e.date > CURRENT_DATE OR (e.date = CURRENT_DATE AND e.time >= CURRENT_TIME)) " +
-           "ORDER BY e.date ASC, e.time ASC")
-    List<Event> findUpcomingEventsByOrganizationIds(@Param("organizationIds") Set<Long> organizationIds);
-}
\ No newline at end of file
+    // Calendar: events of an organization starting in [from, to). The creator set is resolved
+    // first so the outer predicate is a plain (user_id, starts_at) index range scan.
+    @Query("SELECT e FROM Event e " +
+           "WHERE e.user.id IN (" +
+           "  SELECT u.id FROM User u " +
+           "  LEFT JOIN u.organizer o " +
+           "  LEFT JOIN u.enrolledOrganizations eo " +
+           "  WHERE o.id = :organizationId OR eo.id = :organizationId" +
+           ") " +
+           "AND e.startsAt >= :from AND e.startsAt < :to " +
+           "ORDER BY e.startsAt ASC")
+    List<Event> findCalendarEventsByOrganizationId(@Param("organizationId") Long organizationId,
+                                                   @Param("from") LocalDateTime from,
+                                                   @Param("to") LocalDateTime to);
+
+    // Recurring series of an organization that may still produce occurrences in a window
+    @Query("SELECT e FROM Event e " +
+           "WHERE e.user.id IN (" +
+           "  SELECT u.id FROM User u " +
+           "  LEFT JOIN u.organizer o " +
+           "  LEFT JOIN u.enrolledOrganizations eo " +
+           "  WHERE o.id = :organizationId OR eo.id = :organizationId" +
+           ") " +
+           "AND e.recurrencePattern <> com.example.attendance.entity.Event$RecurrencePattern.NONE " +
+           "AND (e.isRecurringInstance = false OR e.isRecurringInstance IS NULL) " +
+           "AND e.startsAt < :to " +
+           "AND (e.recurrenceEndDate IS NULL OR e.recurrenceEndDate >= :fromDate)")
+    List<Event> findRecurringSeriesByOrganizationId(@Param("organizationId") Long organizationId,
+                                                    @Param("fromDate") LocalDate fromDate,
+                                                    @Param("to") LocalDateTime to);
+
+    // Startup backfill of rows written before starts_at existed: the id bounds, then one id range at a time
+    @Query("SELECT MIN(e.id) FROM Event e WHERE e.startsAt IS NULL")
+    Long findMinIdWithoutStartsAt();
+
+    @Query("SELECT MAX(e.id) FROM Event e WHERE e.startsAt IS NULL")
+    Long findMaxIdWithoutStartsAt();
+
+    // Native so version and updated_at stay as they are and no entity listeners run
+    @Modifying
+    @Query(value = "UPDATE event SET starts_at = " +
+                   "TIMESTAMPADD(SECOND, HOUR(time) * 3600 + MINUTE(time) * 60 + SECOND(time), date) " +
+                   "WHERE starts_at IS NULL AND id >= :fromId AND id < :toId", nativeQuery = true)
+    int backfillStartsAt(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    // Lifecycle scheduler: events that started before the cutoff and are not an ongoing recurring series.
+    // Series with only a recurrenceCount stay ACTIVE since their end date is not known in SQL.
+    @Query("SELECT e.id FROM Event e " +
+           "WHERE e.status IN :statuses AND e.startsAt < :cutoff " +
+           "AND (e.recurrencePattern IS NULL " +
+           "  OR e.recurrencePattern = com.example.attendance.entity.Event$RecurrencePattern.NONE " +
+           "  OR e.isRecurringInstance = true " +
+           "  OR e.recurrenceEndDate < :cutoffDate) " +
+           "ORDER BY e.id ASC")
+    List<Long> findIdsToComplete(@Param("statuses") Set<Event.EventStatus> statuses,
+                                 @Param("cutoff") LocalDateTime cutoff,
+                                 @Param("cutoffDate") LocalDate cutoffDate,
+                                 Pageable pageable);
+
+    // Lifecycle scheduler: upcoming ACTIVE events whose approved registrations reached capacity
+    @Query("SELECT e.id FROM Event e " +
+           "WHERE e.status = com.example.attendance.entity.Event$EventStatus.ACTIVE " +
+           "AND e.maxCapacity IS NOT NULL AND e.startsAt >= :now " +
+           "AND (SELECT COUNT(r) FROM EventRegistration r WHERE r.eventId = e.id " +
+           "     AND r.status = com.example.attendance.entity.EventRegistration$RegistrationStatus.APPROVED) >= e.maxCapacity " +
+           "ORDER BY e.id ASC")
+    List<Long> findIdsReachingCapacity(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Lifecycle scheduler: FULL events that have room again (registrations dropped or capacity raised)
+    @Query("SELECT e.id FROM Event e " +
+           "WHERE e.status = com.example.attendance.entity.Event$EventStatus.FULL " +
+           "AND (e.maxCapacity IS NULL " +
+           "  OR (SELECT COUNT(r) FROM EventRegistration r WHERE r.eventId = e.id " +
+           "      AND r.status = com.example.attendance.entity.EventRegistration$RegistrationStatus.APPROVED) < e.maxCapacity) " +
+           "ORDER BY e.id ASC")
+    List<Long> findFullIdsWithFreeCapacity(Pageable pageable);
+
+    // Set-based status transition; the expected current status guards against concurrent edits
+    @Modifying
+    @Query("UPDATE Event e SET e.status = :status, e.version = COALESCE(e.version, 0) + 1, e.updatedAt = CURRENT_TIMESTAMP " +
+           "WHERE e.id IN :ids AND e.status IN :currentStatuses")
+    int updateStatus(@Param("ids") List<Long> ids,
+                     @Param("currentStatuses") Set<Event.EventStatus> currentStatuses,
+                     @Param("status") Event.EventStatus status);
+
+    // Cheap lookup backing conditional GETs on a version cache miss
+    @Query("SELECT e.version AS version, e.updatedAt AS updatedAt FROM Event e WHERE e.id = :id")
+    Optional<VersionView> findVersionById(@Param("id") Long id);
+
+    // Rows written before the version column existed
+    @Modifying
+    @Query("UPDATE Event e SET e.version = 0 WHERE e.version IS NULL")
+    int initializeMissingVersions();
+
+    interface VersionView {
+        Long getVersion();
+        LocalDateTime getUpdatedAt();
+    }
+
+    // Summary projections for list endpoints: only the columns the list views render
+    @Query("SELECT new com.example.attendance.dto.EventSummaryDTO(" +
+           "e.id, e.name, e.date, e.time, e.place, e.status, e.isFree, e.isOnline, o.organizationName) " +
+           "FROM Event e JOIN e.user u LEFT JOIN u.organizer o " +
+           "WHERE u.id = :userId " +
+           "ORDER BY e.startsAt ASC")
+    List<EventSummaryDTO> findSummariesByUserId(@Param("userId") Long userId);
+
+    // Events a user registered for or has an attendance record at, in one query
+    @Query("SELECT e FROM Event e " +
+           "WHERE e.id IN (SELECT a.event.id FROM UserEventAttendance a WHERE a.user.id = :userId) " +
+           "OR e.id IN (SELECT r.eventId FROM EventRegistration r WHERE r.userEmail = :email) " +
+           "ORDER BY e.startsAt ASC")
+    List<Event> findRegisteredByUser(@Param("userId") Long userId, @Param("email") String email);
+
+    @Query("SELECT new com.example.attendance.dto.EventSummaryDTO(" +
+           "e.id, e.name, e.date, e.time, e.place, e.status, e.isFree, e.isOnline, o.organizationName) " +
+           "FROM Event e JOIN e.user u LEFT JOIN u.organizer o " +
+           "WHERE e.isFree = :isFree AND u.id IN (" +
+           "  SELECT m.id FROM User m " +
+           "  LEFT JOIN m.organizer mo " +
+           "  LEFT JOIN m.enrolledOrganizations eo " +
+           "  WHERE mo.id = :organizationId OR eo.id = :organizationId" +
+           ") " +
+           "ORDER BY e.startsAt ASC")
+    List<EventSummaryDTO> findSummariesByOrganizationIdAndIsFree(@Param("organizationId") Long organizationId,
+                                                                 @Param("isFree") Boolean isFree);
+
+    // Events of a user's organizations; creators without an organization of their own are
+    // shown under one they are enrolled in, or under their name
+    @Query("SELECT new com.example.attendance.dto.EventSummaryDTO(" +
+           "e.id, e.name, e.date, e.time, e.place, e.status, e.isFree, e.isOnline, " +
+           "COALESCE(o.organizationName, " +
+           "  (SELECT MIN(co.organizationName) FROM User c JOIN c.enrolledOrganizations co WHERE c.id = u.id), " +
+           "  CONCAT(u.firstName, ' ', u.lastName))) " +
+           "FROM Event e JOIN e.user u LEFT JOIN u.organizer o " +
+           "WHERE u.id IN (" +
+           "  SELECT m.id FROM User m " +
+           "  LEFT JOIN m.organizer mo " +
+           "  LEFT JOIN m.enrolledOrganizations eo " +
+           "  WHERE mo.id IN :organizationIds OR eo.id IN :organizationIds" +
+           ") " +
+           "AND (:upcomingOnly = false OR (" +
+           "  e.status <> com.example.attendance.entity.Event$EventStatus.COMPLETED " +
+           "  AND e.startsAt >= CURRENT_TIMESTAMP)) " +
+           "ORDER BY e.startsAt ASC")
+    List<EventSummaryDTO> findSummariesByOrganizationIds(@Param("organizationIds") Set<Long> organizationIds,
+                                                         @Param("upcomingOnly") boolean upcomingOnly);
+
+    // Admin events report: one grouped query for event columns plus registrant/attendee counts
+    @Query(value = "SELECT new com.example.attendance.dto.EventReportRowDTO(" +
+                   "e.id, e.name, e.date, e.time, e.place, e.description, u.email, e.isFree, e.price, e.isOnline, " +
+                   "COUNT(a.id), SUM(CASE WHEN a.attended = true THEN 1 ELSE 0 END)) " +
+                   "FROM Event e JOIN e.user u " +
+                   "LEFT JOIN UserEventAttendance a ON a.event = e " +
+                   "WHERE e.startsAt >= :from AND e.startsAt < :to " +
+                   "GROUP BY e.id, e.name, e.date, e.time, e.place, e.description, u.email, e.isFree, e.price, e.isOnline, e.startsAt " +
+                   "ORDER BY e.startsAt ASC, e.id ASC",
+           countQuery = "SELECT COUNT(e) FROM Event e WHERE e.startsAt >= :from AND e.startsAt < :to")
+    Page<EventReportRowDTO> findEventReportRows(@Param("from") LocalDateTime from,
+                                                @Param("to") LocalDateTime to,
+                                                Pageable pageable);
+
+    // Leaderboards: [id, name, date, place] for the ranked events only
+    @Query("SELECT e.id, e.name, e.date, e.place FROM Event e WHERE e.id IN :ids")
+    List<Object[]> findLeaderboardDetails(@Param("ids") Collection<Long> ids);
+
+    // Rollup rebuild: [eventId, date, creatorUserId, creatorOrganizerId] in ID order, keyset paged
+    @Query("SELECT e.id, e.date, u.id, o.id FROM Event e JOIN e.user u LEFT JOIN u.organizer o " +
+           "WHERE e.id > :afterId ORDER BY e.id ASC")
+    List<Object[]> findRollupKeysAfter(@Param("afterId") Long afterId, Pageable pageable);
+
+    // Engagement: [userId, event date] of every check-in on a series' occurrences since a date
+    @Query("SELECT a.user.id, e.date FROM UserEventAttendance a JOIN a.event e " +
+           "WHERE a.attended = true AND (e.id = :seriesId OR e.originalEventId = :seriesId) AND e.date >= :since")
+    List<Object[]> findSeriesAttendance(@Param("seriesId") Long seriesId, @Param("since") LocalDate since);
+}
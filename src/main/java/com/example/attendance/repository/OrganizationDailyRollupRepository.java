@@ -0,0 +1,31 @@
+package com.example.attendance.repository;
+
+import com.example.attendance.entity.OrganizationDailyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface OrganizationDailyRollupRepository extends JpaRepository<OrganizationDailyRollup, Long> {
+
+    // Creates the row or adds to it in one statement, so a missing row needs no second insert
+    @Modifying
+    @Query(value = "INSERT INTO organization_daily_rollup " +
+                   "(organization_id, rollup_date, event_count, registration_count, check_in_count) " +
+                   "VALUES (:organizationId, :day, :events, :registrations, :checkIns) " +
+                   "ON DUPLICATE KEY UPDATE event_count = event_count + :events, " +
+                   "registration_count = registration_count + :registrations, " +
+                   "check_in_count = check_in_count + :checkIns", nativeQuery = true)
+    int upsert(@Param("organizationId") Long organizationId,
+                  @Param("day") LocalDate day,
+                  @Param("events") long events,
+                  @Param("registrations") long registrations,
+                  @Param("checkIns") long checkIns);
+
+    List<OrganizationDailyRollup> findByOrganizationIdAndDayBetweenOrderByDayAsc(Long organizationId, LocalDate from, LocalDate to);
+}
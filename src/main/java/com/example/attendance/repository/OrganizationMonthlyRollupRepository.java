@@ -0,0 +1,35 @@
+package com.example.attendance.repository;
+
+import com.example.attendance.entity.OrganizationMonthlyRollup;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrganizationMonthlyRollupRepository extends JpaRepository<OrganizationMonthlyRollup, Long> {
+
+    // Creates the row or adds to it in one statement, so a missing row needs no second insert
+    @Modifying
+    @Query(value = "INSERT INTO organization_monthly_rollup " +
+                   "(organization_id, rollup_month, event_count, registration_count, check_in_count) " +
+                   "VALUES (:organizationId, :month, :events, :registrations, :checkIns) " +
+                   "ON DUPLICATE KEY UPDATE event_count = event_count + :events, " +
+                   "registration_count = registration_count + :registrations, " +
+                   "check_in_count = check_in_count + :checkIns", nativeQuery = true)
+    int upsert(@Param("organizationId") Long organizationId,
+                  @Param("month") String month,
+                  @Param("events") long events,
+                  @Param("registrations") long registrations,
+                  @Param("checkIns") long checkIns);
+
+    List<OrganizationMonthlyRollup> findByOrganizationIdOrderByMonthAsc(Long organizationId);
+
+    // Totals across organizations as [month, events, registrations, check-ins]
+    @Query("SELECT r.month, SUM(r.eventCount), SUM(r.registrationCount), SUM(r.checkInCount) " +
+           "FROM OrganizationMonthlyRollup r GROUP BY r.month ORDER BY r.month")
+    List<Object[]> sumByMonth();
+}
@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
 import java.util.List;
 import java.util.Optional;
 
@@ -52,4 +53,32 @@ public interface OrganizerRepository extends JpaRepository<Organizer, Long> {
     // Find organizers by organization name
     @Query("SELECT o FROM Organizer o WHERE o.organizationName LIKE %:name%")
     List<Organizer> findByOrganizationNameContaining(@Param("name") String name);
-}
\ No newline at end of file
+
+    // Cross-organization reports: per-organization sub-queries over events dated in [from, to).
+    // Events belong to the organization recorded in their rollup row, the same rule the
+    // rollups and leaderboards use.
+    @Query("SELECT COUNT(ro) FROM EventAttendanceRollup ro " +
+           "WHERE ro.organizationId = :organizerId AND ro.eventDate >= :from AND ro.eventDate < :to")
+    long countEventsInRange(@Param("organizerId") Long organizerId,
+                            @Param("from") LocalDate from,
+                            @Param("to") LocalDate to);
+
+    @Query("SELECT COUNT(r) FROM EventRegistration r JOIN EventAttendanceRollup ro ON ro.eventId = r.eventId " +
+           "WHERE ro.organizationId = :organizerId AND ro.eventDate >= :from AND ro.eventDate < :to")
+    long countRegistrationsInRange(@Param("organizerId") Long organizerId,
+                                   @Param("from") LocalDate from,
+                                   @Param("to") LocalDate to);
+
+    @Query("SELECT COUNT(a) FROM UserEventAttendance a JOIN EventAttendanceRollup ro ON ro.eventId = a.event.id " +
+           "WHERE a.attended = true AND ro.organizationId = :organizerId AND ro.eventDate >= :from AND ro.eventDate < :to")
+    long countCheckInsInRange(@Param("organizerId") Long organizerId,
+                              @Param("from") LocalDate from,
+                              @Param("to") LocalDate to);
+
+    // Distinct attendees only; the caller unions them across organizations
+    @Query("SELECT DISTINCT a.user.id FROM UserEventAttendance a JOIN EventAttendanceRollup ro ON ro.eventId = a.event.id " +
+           "WHERE a.attended = true AND ro.organizationId = :organizerId AND ro.eventDate >= :from AND ro.eventDate < :to")
+    List<Long> findDistinctAttendeeIdsInRange(@Param("organizerId") Long organizerId,
+                                              @Param("from") LocalDate from,
+                                              @Param("to") LocalDate to);
+}
@@ -0,0 +1,32 @@
+package com.example.attendance.repository;
+
+import com.example.attendance.entity.StoredFile;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+
+@Repository
+public interface StoredFileRepository extends JpaRepository<StoredFile, Long> {
+
+    Optional<StoredFile> findByCategoryAndSha256(StoredFile.Category category, String sha256);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.referenceCount = f.referenceCount + 1 WHERE f.id = :id")
+    int incrementReferences(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("UPDATE StoredFile f SET f.referenceCount = f.referenceCount - 1 WHERE f.id = :id AND f.referenceCount > 0")
+    int decrementReferences(@Param("id") Long id);
+
+    @Modifying
+    @Transactional
+    @Query("DELETE FROM StoredFile f WHERE f.id = :id AND f.referenceCount <= 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+}
@@ -0,0 +1,62 @@
+package com.example.attendance.repository;
+
+import com.example.attendance.entity.UserAttendanceSummary;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface UserAttendanceSummaryRepository extends JpaRepository<UserAttendanceSummary, Long> {
+
+    @Modifying
+    @Query("UPDATE UserAttendanceSummary s SET " +
+           "s.registeredCount = s.registeredCount + :registered, " +
+           "s.attendedCount = s.attendedCount + :attended " +
+           "WHERE s.userId = :userId")
+    int increment(@Param("userId") Long userId,
+                  @Param("registered") long registered,
+                  @Param("attended") long attended);
+
+    // First counters for a user; a row inserted concurrently wins and this is a no-op
+    @Modifying
+    @Query(value = "INSERT INTO user_attendance_summary (user_id, registered_count, attended_count) " +
+                   "VALUES (:userId, :registered, :attended) " +
+                   "ON DUPLICATE KEY UPDATE user_id = user_id", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId,
+                       @Param("registered") long registered,
+                       @Param("attended") long attended);
+
+    // Event deleted: its registrants lose one registered event (attended events cannot be deleted)
+    @Modifying
+    @Query("UPDATE UserAttendanceSummary s SET s.registeredCount = s.registeredCount - 1 " +
+           "WHERE s.userId IN (SELECT u.id FROM User u, EventRegistration r " +
+           "WHERE r.userEmail = u.email AND r.eventId = :eventId)")
+    int decrementRegistrantsOfEvent(@Param("eventId") Long eventId);
+
+    // [distinct events with an attendance record, attended records] for one user
+    @Query("SELECT COUNT(DISTINCT a.event.id), SUM(CASE WHEN a.attended = true THEN 1 ELSE 0 END) " +
+           "FROM UserEventAttendance a WHERE a.user.id = :userId")
+    List<Object[]> countAttendanceForUser(@Param("userId") Long userId);
+
+    @Query("SELECT COUNT(DISTINCT r.eventId) FROM EventRegistration r WHERE r.userEmail = :email " +
+           "AND EXISTS (SELECT e.id FROM Event e WHERE e.id = r.eventId) " +
+           "AND NOT EXISTS (SELECT a.id FROM UserEventAttendance a WHERE a.user.id = :userId AND a.event.id = r.eventId)")
+    long countRegistrationsWithoutAttendanceForUser(@Param("userId") Long userId, @Param("email") String email);
+
+    // Rebuild: [userId, distinct events with an attendance record, attended records]
+    @Query("SELECT a.user.id, COUNT(DISTINCT a.event.id), SUM(CASE WHEN a.attended = true THEN 1 ELSE 0 END) " +
+           "FROM UserEventAttendance a GROUP BY a.user.id")
+    List<Object[]> countAttendanceByUser();
+
+    // Rebuild: [userId, registrations for events the user has no attendance record at]
+    @Query("SELECT u.id, COUNT(DISTINCT r.eventId) FROM EventRegistration r, User u " +
+           "WHERE r.userEmail = u.email AND EXISTS (SELECT e.id FROM Event e WHERE e.id = r.eventId) " +
+           "AND NOT EXISTS (" +
+           "SELECT a.id FROM UserEventAttendance a WHERE a.user.id = u.id AND a.event.id = r.eventId) " +
+           "GROUP BY u.id")
+    List<Object[]> countRegistrationsWithoutAttendanceByUser();
+}
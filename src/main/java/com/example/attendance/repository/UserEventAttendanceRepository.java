@@ -19,6 +19,10 @@ public interface UserEventAttendanceRepository extends JpaRepository<UserEventAt
     List<UserEventAttendance> findByEventId(Long eventId);
     boolean existsByUserAndEvent(User user, Event event);
     boolean existsByUserIdAndEventId(Long userId, Long eventId);
+
+    // A user's attendance records with their events, in one query
+    @Query("SELECT ua FROM UserEventAttendance ua JOIN FETCH ua.event e WHERE ua.user.id = :userId ORDER BY e.startsAt ASC")
+    List<UserEventAttendance> findWithEventByUserId(@Param("userId") Long userId);
     
     // Count methods for admin reports
     @Query("SELECT COUNT(ua) FROM UserEventAttendance ua WHERE ua.event.id = :eventId")
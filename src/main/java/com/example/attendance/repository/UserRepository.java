@@ -14,6 +14,9 @@ import java.util.Optional;
 @Repository
 public interface UserRepository extends JpaRepository<User, Long> {
     Optional<User> findByEmail(String email);
+
+    @Query("SELECT u.id FROM User u WHERE u.email = :email")
+    Optional<Long> findIdByEmail(@Param("email") String email);
     boolean existsByEmail(String email);
     
     @Query("SELECT u FROM User u WHERE u.isDeleted = false")
@@ -31,6 +34,10 @@ public interface UserRepository extends JpaRepository<User, Long> {
     @Query("UPDATE User u SET u.isDeactivated = :status WHERE u.email = :email")
     void updateDeactivationStatus(@Param("email") String email, @Param("status") boolean status);
 
+    // Principal lookup: [id, email, accountType, isDeactivated, isDeleted] without loading the entity
+    @Query("SELECT u.id, u.email, u.accountType, u.isDeactivated, u.isDeleted FROM User u WHERE u.email = :email")
+    List<Object[]> findPrincipalByEmail(@Param("email") String email);
+
     @Query("SELECT u.isDeactivated FROM User u WHERE u.email = :email")
     boolean isDeactivated(@Param("email") String email);
 
@@ -48,4 +55,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
 
     @Query("SELECT u FROM User u WHERE u.isDeleted = false AND u.accountType = 'SYSTEM_OWNER'")
     List<User> findAllSystemOwners();
-}
\ No newline at end of file
+
+    // Lowest enrolled organization, used as the owning organization of a user's events when they organize none
+    @Query("SELECT MIN(o.id) FROM User u JOIN u.enrolledOrganizations o WHERE u.id = :userId")
+    Long findFirstEnrolledOrganizationId(@Param("userId") Long userId);
+
+    // Same for every user at once, as [userId, organizationId]
+    @Query("SELECT u.id, MIN(o.id) FROM User u JOIN u.enrolledOrganizations o GROUP BY u.id")
+    List<Object[]> findFirstEnrolledOrganizationIds();
+}
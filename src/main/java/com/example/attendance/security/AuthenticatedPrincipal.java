@@ -0,0 +1,100 @@
+package com.example.attendance.security;
+
+import com.example.attendance.entity.User;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * The authenticated user as seen by the security layer: identity, account type and status
+ * flags, with authorities derived once. Holds no password, so it is safe to cache and to
+ * keep in the security context.
+ */
+public final class AuthenticatedPrincipal implements UserDetails {
+
+    private final Long id;
+    private final String email;
+    private final User.AccountType accountType;
+    private final boolean deactivated;
+    private final boolean deleted;
+    private final List<GrantedAuthority> authorities;
+
+    public AuthenticatedPrincipal(Long id, String email, User.AccountType accountType,
+                                  boolean deactivated, boolean deleted) {
+        this.id = id;
+        this.email = email;
+        this.accountType = accountType;
+        this.deactivated = deactivated;
+        this.deleted = deleted;
+        this.authorities = accountType != null
+            ? List.of(new SimpleGrantedAuthority("ROLE_" + accountType.name()))
+            : List.of();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getEmail() {
+        return email;
+    }
+
+    public User.AccountType getAccountType() {
+        return accountType;
+    }
+
+    public boolean isDeactivated() {
+        return deactivated;
+    }
+
+    public boolean isDeleted() {
+        return deleted;
+    }
+
+    public boolean hasAccountType(User.AccountType type) {
+        return accountType == type;
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return email;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return true;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return true;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return true;
+    }
+
+    @Override
+    public String toString() {
+        return "AuthenticatedPrincipal{id=" + id + ", email=" + email + ", accountType=" + accountType + "}";
+    }
+}
@@ -0,0 +1,22 @@
+package com.example.attendance.security;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Injects the authenticated user into a controller method. Declare the parameter as
+ * {@link AuthenticatedPrincipal} for identity and role checks without a query, or as the
+ * {@code User} entity when the full row is needed; the entity is loaded at most once per
+ * request.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface CurrentUser {
+
+    /**
+     * When false an unauthenticated request resolves to null instead of a 401.
+     */
+    boolean required() default true;
+}
@@ -0,0 +1,75 @@
+package com.example.attendance.security;
+
+import com.example.attendance.entity.User;
+import com.example.attendance.exception.AuthenticationException;
+import com.example.attendance.repository.UserRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.MethodParameter;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+/**
+ * Resolves {@link CurrentUser} parameters from the principal the JWT filter already put in
+ * the security context. The User entity is looked up by primary key on first use and kept
+ * as a request attribute, so later parameters and nested lookups in the same request reuse it.
+ */
+@Component
+@RequiredArgsConstructor
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    private static final String USER_ATTRIBUTE = CurrentUserArgumentResolver.class.getName() + ".user";
+
+    private final UserRepository userRepository;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class)
+            && (parameter.getParameterType() == AuthenticatedPrincipal.class
+                || parameter.getParameterType() == User.class);
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        CurrentUser annotation = parameter.getParameterAnnotation(CurrentUser.class);
+        boolean required = annotation == null || annotation.required();
+
+        AuthenticatedPrincipal principal = currentPrincipal();
+        if (principal == null) {
+            if (required) {
+                throw new AuthenticationException("Authentication required");
+            }
+            return null;
+        }
+        if (parameter.getParameterType() == AuthenticatedPrincipal.class) {
+            return principal;
+        }
+
+        User user = (User) webRequest.getAttribute(USER_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (user == null) {
+            user = userRepository.findById(principal.getId()).orElse(null);
+            if (user == null) {
+                if (required) {
+                    throw new AuthenticationException("User not found");
+                }
+                return null;
+            }
+            webRequest.setAttribute(USER_ATTRIBUTE, user, RequestAttributes.SCOPE_REQUEST);
+        }
+        return user;
+    }
+
+    public static AuthenticatedPrincipal currentPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication != null && authentication.getPrincipal() instanceof AuthenticatedPrincipal principal) {
+            return principal;
+        }
+        return null;
+    }
+}
@@ -8,11 +8,14 @@ import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
+
 @Service
 @RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
+    private final PrincipalCache principalCache;
 
     @Override
     public UserDetails loadUserByUsername(String email) throws UsernameNotFoundException {
@@ -25,4 +28,25 @@ public class CustomUserDetailsService implements UserDetailsService {
                 .roles(user.getAccountType().name())
                 .build();
     }
-}
\ No newline at end of file
+
+    /**
+     * Principal for an already verified token, from the cache or a single projection query.
+     */
+    public AuthenticatedPrincipal loadPrincipal(String email) throws UsernameNotFoundException {
+        AuthenticatedPrincipal principal = principalCache.get(email, this::queryPrincipal);
+        if (principal == null) {
+            throw new UsernameNotFoundException("User not found with email: " + email);
+        }
+        return principal;
+    }
+
+    private AuthenticatedPrincipal queryPrincipal(String email) {
+        List<Object[]> rows = userRepository.findPrincipalByEmail(email);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Object[] row = rows.get(0);
+        return new AuthenticatedPrincipal((Long) row[0], (String) row[1], (User.AccountType) row[2],
+                (Boolean) row[3], (Boolean) row[4]);
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.attendance.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -8,9 +9,8 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.core.context.SecurityContextHolder;
-import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
@@ -23,7 +23,7 @@ import java.io.IOException;
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtTokenProvider jwtTokenProvider;
-    private final UserDetailsService userDetailsService;
+    private final CustomUserDetailsService userDetailsService;
 
     @Override
     protected void doFilterInternal(
@@ -41,11 +41,29 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        userEmail = jwtTokenProvider.extractUsername(jwt);
+        // Verified once here; the claims are reused below instead of parsing again
+        final Claims claims;
+        try {
+            claims = jwtTokenProvider.verify(jwt);
+        } catch (AuthenticationException e) {
+            // Invalid, expired or revoked: carry on unauthenticated, so public routes such as
+            // login still work and protected ones get a 401 from the entry point
+            log.debug("Ignoring bearer token: {}", e.getMessage());
+            filterChain.doFilter(request, response);
+            return;
+        }
+        userEmail = claims.getSubject();
 
         if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(userEmail);
-            if (jwtTokenProvider.validateToken(jwt, userDetails)) {
+            AuthenticatedPrincipal userDetails;
+            try {
+                userDetails = this.userDetailsService.loadPrincipal(userEmail);
+            } catch (AuthenticationException e) {
+                log.debug("Ignoring bearer token for unknown user: {}", e.getMessage());
+                filterChain.doFilter(request, response);
+                return;
+            }
+            if (jwtTokenProvider.isValidFor(claims, userDetails)) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -1,33 +1,73 @@
 package com.example.attendance.security;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
 import io.jsonwebtoken.MalformedJwtException;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Service;
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
 import java.security.Key;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.AbstractMap;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
 import java.util.function.Function;
 
 @Slf4j
 @Service
 public class JwtTokenProvider {
 
+    private final TokenRevocationService tokenRevocationService;
+
     @Value("${jwt.secret}")
     private String secret;
 
     @Value("${jwt.expiration}")
     private long expiration;
 
+    @Value("${jwt.verified-cache.max-entries:10000}")
+    private int verifiedCacheMaxEntries;
+
+    // Built once from the secret; both are immutable and thread-safe
+    private Key signKey;
+    private JwtParser parser;
+
+    // Recently verified tokens, each dropped once the token itself expires
+    private Map<String, VerifiedToken> verifiedTokens;
+
+    public JwtTokenProvider(TokenRevocationService tokenRevocationService) {
+        this.tokenRevocationService = tokenRevocationService;
+    }
+
+    @PostConstruct
+    void init() {
+        signKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        parser = Jwts.parserBuilder().setSigningKey(signKey).build();
+        int maxEntries = verifiedCacheMaxEntries;
+        verifiedTokens = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, VerifiedToken> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
     // Token generation
     public String generateToken(String email, String accountType, Long userId) {
         Map<String, Object> claims = new HashMap<>();
@@ -44,6 +84,7 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
                 .signWith(getSignKey(), SignatureAlgorithm.HS256)
@@ -55,6 +96,7 @@ public class JwtTokenProvider {
         return Jwts.builder()
                 .setClaims(claims)
                 .setSubject(subject)
+                .setId(UUID.randomUUID().toString())
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration * 1000))
                 .signWith(getSignKey(), SignatureAlgorithm.HS256)
@@ -64,10 +106,7 @@ public class JwtTokenProvider {
     // Token validation
     public Boolean validateToken(String token) {
         try {
-            Jwts.parserBuilder()
-                .setSigningKey(getSignKey())
-                .build()
-                .parseClaimsJws(token);
+            verifiedClaims(token);
             return true;
         } catch (Exception e) {
             return false;
@@ -75,8 +114,24 @@ public class JwtTokenProvider {
     }
 
     public Boolean validateToken(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername()) && !isTokenExpired(token));
+        return isValidFor(extractAllClaims(token), userDetails);
+    }
+
+    public boolean isValidFor(Claims claims, UserDetails userDetails) {
+        return claims.getSubject().equals(userDetails.getUsername()) && !claims.getExpiration().before(new Date());
+    }
+
+    /**
+     * Verifies the signature and expiry once and returns the claims, for callers that need
+     * several of them. Throws like {@link #extractUsername} for an invalid token.
+     */
+    public Claims verify(String token) {
+        try {
+            return extractAllClaims(token);
+        } catch (MalformedJwtException ex) {
+            log.error("Invalid JWT token {}", fingerprint(token));
+            throw new BadCredentialsException("Invalid JWT token");
+        }
     }
 
     // Claims extraction
@@ -84,7 +139,7 @@ public class JwtTokenProvider {
         try {
             return extractClaim(token, Claims::getSubject);
         } catch (MalformedJwtException ex) {
-            log.error("Invalid JWT token: {}", token);
+            log.error("Invalid JWT token {}", fingerprint(token));
             throw new BadCredentialsException("Invalid JWT token");
         }
     }
@@ -108,26 +163,172 @@ public class JwtTokenProvider {
 
     private Claims extractAllClaims(String token) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getSignKey())
-                    .build()
-                    .parseClaimsJws(token)
-                    .getBody();
+            return verifiedClaims(token);
         } catch (MalformedJwtException ex) {
             log.error("Invalid JWT token format");
             throw ex;
+        } catch (BadCredentialsException ex) {
+            throw ex;
         } catch (Exception ex) {
             log.error("JWT processing error", ex);
             throw new BadCredentialsException("Invalid JWT token");
         }
     }
 
-    private Boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+    // Revocation is checked on every call, including cache hits
+    private Claims verifiedClaims(String token) {
+        Claims claims = signatureVerifiedClaims(token);
+        if (tokenRevocationService.isRevoked(claims)) {
+            throw new BadCredentialsException("Token has been revoked");
+        }
+        return claims;
+    }
+
+    // The same read-only instance goes to every caller of a cached token
+    private Claims signatureVerifiedClaims(String token) {
+        long now = System.currentTimeMillis();
+        VerifiedToken verified = verifiedTokens.get(token);
+        if (verified != null) {
+            if (verified.expiresAt > now) {
+                return verified.claims;
+            }
+            verifiedTokens.remove(token);
+        }
+        Claims claims = new ReadOnlyClaims(parser.parseClaimsJws(token).getBody());
+        if (claims.getExpiration() != null) {
+            verifiedTokens.put(token, new VerifiedToken(claims, claims.getExpiration().getTime()));
+        }
+        return claims;
     }
 
     private Key getSignKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secret);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return signKey;
+    }
+
+    // Enough to correlate log lines for one token without making the token usable from the logs
+    static String fingerprint(String token) {
+        if (token == null) {
+            return "null";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(token.getBytes(StandardCharsets.UTF_8));
+            return "sha256:" + HexFormat.of().formatHex(digest, 0, 6);
+        } catch (NoSuchAlgorithmException e) {
+            return "unavailable";
+        }
+    }
+
+    /**
+     * Claims that reject every change. Parsed claims are cached and handed to concurrent
+     * requests, so no caller may modify them.
+     */
+    static final class ReadOnlyClaims extends AbstractMap<String, Object> implements Claims {
+        private final Claims claims;
+        private final Set<Map.Entry<String, Object>> entries;
+
+        ReadOnlyClaims(Claims claims) {
+            this.claims = claims;
+            this.entries = Collections.unmodifiableMap(claims).entrySet();
+        }
+
+        @Override
+        public Set<Map.Entry<String, Object>> entrySet() {
+            return entries;
+        }
+
+        @Override
+        public Object get(Object key) {
+            return claims.get(key);
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return claims.containsKey(key);
+        }
+
+        @Override
+        public <T> T get(String claimName, Class<T> requiredType) {
+            return claims.get(claimName, requiredType);
+        }
+
+        @Override
+        public String getIssuer() {
+            return claims.getIssuer();
+        }
+
+        @Override
+        public String getSubject() {
+            return claims.getSubject();
+        }
+
+        @Override
+        public String getAudience() {
+            return claims.getAudience();
+        }
+
+        @Override
+        public Date getExpiration() {
+            return claims.getExpiration();
+        }
+
+        @Override
+        public Date getNotBefore() {
+            return claims.getNotBefore();
+        }
+
+        @Override
+        public Date getIssuedAt() {
+            return claims.getIssuedAt();
+        }
+
+        @Override
+        public String getId() {
+            return claims.getId();
+        }
+
+        @Override
+        public Claims setIssuer(String iss) {
+            throw new UnsupportedOperationException("Verified claims are read-only");
+        }
+
+        @Override
+        public Claims setSubject(String sub) {
+            throw new UnsupportedOperationException("Verified claims are read-only");
+        }
+
+        @Override
+        public Claims setAudience(String aud) {
+            throw new UnsupportedOperationException("Verified claims are read-only");
+        }
+
+        @Override
+        public Claims setExpiration(Date exp) {
+            throw new UnsupportedOperationException("Verified claims are read-only");
+        }
+
+        @Override
+        public Claims setNotBefore(Date nbf) {
+            throw new UnsupportedOperationException("Verified claims are read-only");
+        }
+
+        @Override
+        public Claims setIssuedAt(Date iat) {
+            throw new UnsupportedOperationException("Verified claims are read-only");
+        }
+
+        @Override
+        public Claims setId(String jti) {
+            throw new UnsupportedOperationException("Verified claims are read-only");
+        }
+    }
+
+    private static final class VerifiedToken {
+        private final Claims claims;
+        private final long expiresAt;
+
+        private VerifiedToken(Claims claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
     }
 }
\ No newline at end of file
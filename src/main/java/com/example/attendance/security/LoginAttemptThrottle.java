@@ -0,0 +1,126 @@
+package com.example.attendance.security;
+
+import com.example.attendance.exception.TooManyAttemptsException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory sliding-window limits for password checks. Every attempt counts against the
+ * client IP, which slows credential stuffing across many accounts; only failures count
+ * against the email, so a user who finally gets it right is not locked out. Checks run
+ * before any BCrypt work, so throttled requests cost nothing.
+ */
+@Component
+public class LoginAttemptThrottle {
+
+    private final int maxPerIp;
+    private final long ipWindowMs;
+    private final int maxFailuresPerEmail;
+    private final long emailWindowMs;
+
+    private final Map<String, SlidingWindow> ipAttempts = new ConcurrentHashMap<>();
+    private final Map<String, SlidingWindow> emailFailures = new ConcurrentHashMap<>();
+
+    public LoginAttemptThrottle(@Value("${security.login.max-attempts-per-ip:30}") int maxPerIp,
+                                @Value("${security.login.ip-window-seconds:60}") long ipWindowSeconds,
+                                @Value("${security.login.max-failures-per-email:5}") int maxFailuresPerEmail,
+                                @Value("${security.login.email-window-seconds:900}") long emailWindowSeconds) {
+        this.maxPerIp = maxPerIp;
+        this.ipWindowMs = ipWindowSeconds * 1000;
+        this.maxFailuresPerEmail = maxFailuresPerEmail;
+        this.emailWindowMs = emailWindowSeconds * 1000;
+    }
+
+    /**
+     * Records an attempt from {@code ip} for {@code email}.
+     *
+     * @throws TooManyAttemptsException when either window is already full
+     */
+    public void acquire(String email, String ip) {
+        acquire(email, ip, System.currentTimeMillis());
+    }
+
+    // Overloads taking the time are package-private so tests can step through the windows
+    void acquire(String email, String ip, long now) {
+        SlidingWindow failures = emailFailures.get(email);
+        if (failures != null) {
+            long retryAfter = failures.retryAfter(now, maxFailuresPerEmail, emailWindowMs);
+            if (retryAfter > 0) {
+                throw new TooManyAttemptsException("Too many failed attempts for this account", retryAfter);
+            }
+        }
+        if (ip != null) {
+            SlidingWindow attempts = ipAttempts.computeIfAbsent(ip, k -> new SlidingWindow());
+            long retryAfter = attempts.tryAdd(now, maxPerIp, ipWindowMs);
+            if (retryAfter > 0) {
+                throw new TooManyAttemptsException("Too many login attempts from this address", retryAfter);
+            }
+        }
+    }
+
+    public void recordFailure(String email) {
+        recordFailure(email, System.currentTimeMillis());
+    }
+
+    void recordFailure(String email, long now) {
+        emailFailures.computeIfAbsent(email, k -> new SlidingWindow())
+            .tryAdd(now, Integer.MAX_VALUE, emailWindowMs);
+    }
+
+    public void recordSuccess(String email) {
+        emailFailures.remove(email);
+    }
+
+    // Drops windows with nothing left in them so idle keys do not accumulate
+    @Scheduled(fixedDelayString = "${security.login.purge-interval-ms:60000}")
+    public void purge() {
+        purge(System.currentTimeMillis());
+    }
+
+    void purge(long now) {
+        ipAttempts.entrySet().removeIf(entry -> entry.getValue().isEmpty(now, ipWindowMs));
+        emailFailures.entrySet().removeIf(entry -> entry.getValue().isEmpty(now, emailWindowMs));
+    }
+
+    int trackedKeys() {
+        return ipAttempts.size() + emailFailures.size();
+    }
+
+    private static final class SlidingWindow {
+        private final Deque<Long> timestamps = new ArrayDeque<>();
+
+        // Adds now if there is room; otherwise returns the seconds until the oldest entry leaves
+        synchronized long tryAdd(long now, int max, long windowMs) {
+            long retryAfter = retryAfter(now, max, windowMs);
+            if (retryAfter == 0) {
+                timestamps.addLast(now);
+            }
+            return retryAfter;
+        }
+
+        synchronized long retryAfter(long now, int max, long windowMs) {
+            evict(now, windowMs);
+            if (timestamps.size() < max) {
+                return 0;
+            }
+            return Math.max(1, (timestamps.peekFirst() + windowMs - now + 999) / 1000);
+        }
+
+        synchronized boolean isEmpty(long now, long windowMs) {
+            evict(now, windowMs);
+            return timestamps.isEmpty();
+        }
+
+        private void evict(long now, long windowMs) {
+            while (!timestamps.isEmpty() && timestamps.peekFirst() <= now - windowMs) {
+                timestamps.pollFirst();
+            }
+        }
+    }
+}
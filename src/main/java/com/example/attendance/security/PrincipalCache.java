@@ -0,0 +1,91 @@
+package com.example.attendance.security;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded LRU of authenticated principals by email, each kept for a TTL, so an
+ * authenticated request does not reload its user on every call.
+ *
+ * Account changes must call {@link #invalidate}: entity writes on User do so through
+ * PrincipalCacheListener, bulk JPQL updates at their call site. Invalidation happens
+ * immediately and again after the transaction completes. A load that overlaps an
+ * invalidation is returned but not cached, so a stale row read before the commit never
+ * outlives it.
+ */
+@Component
+public class PrincipalCache {
+
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public PrincipalCache(@Value("${security.principal-cache.ttl-seconds:300}") long ttlSeconds,
+                          @Value("${security.principal-cache.max-entries:10000}") int maxEntries) {
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public AuthenticatedPrincipal get(String email, Function<String, AuthenticatedPrincipal> loader) {
+        long now = System.currentTimeMillis();
+        Entry entry = entries.get(email);
+        if (entry != null && entry.expiresAt > now) {
+            return entry.principal;
+        }
+        long generation = invalidations.get();
+        AuthenticatedPrincipal principal = loader.apply(email);
+        if (principal != null) {
+            synchronized (entries) {
+                if (invalidations.get() == generation) {
+                    entries.put(email, new Entry(principal, now + ttlMillis));
+                }
+            }
+        }
+        return principal;
+    }
+
+    public void invalidate(String email) {
+        if (email == null) {
+            return;
+        }
+        evict(email);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    evict(email);
+                }
+            });
+        }
+    }
+
+    private void evict(String email) {
+        synchronized (entries) {
+            invalidations.incrementAndGet();
+            entries.remove(email);
+        }
+    }
+
+    private static final class Entry {
+        private final AuthenticatedPrincipal principal;
+        private final long expiresAt;
+
+        private Entry(AuthenticatedPrincipal principal, long expiresAt) {
+            this.principal = principal;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,262 @@
+package com.example.attendance.security;
+
+import com.example.attendance.entity.RevokedToken;
+import com.example.attendance.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Revoked JWTs, checked on every authenticated request without touching the database.
+ *
+ * Single tokens are revoked by id: a Bloom filter answers "definitely not revoked" for
+ * almost every token, and only its rare positives fall through to the exact set. Users
+ * are revoked wholesale with a cut-off time in a map, which rejects every token issued
+ * before it. Both are persisted in revoked_tokens, loaded at startup and reloaded
+ * periodically, which also picks up revocations made by other instances. A row is
+ * deleted once every token it covers has expired.
+ */
+@Slf4j
+@Service
+public class TokenRevocationService {
+
+    private static final ZoneId ZONE = ZoneId.systemDefault();
+
+    private final RevokedTokenRepository revokedTokenRepository;
+    private final long tokenLifetimeMillis;
+    private final int expectedEntries;
+
+    // Replaced wholesale on reload; additions go into the current one under the lock
+    private volatile State state;
+
+    public TokenRevocationService(RevokedTokenRepository revokedTokenRepository,
+                                  @Value("${jwt.expiration}") long expiration,
+                                  @Value("${security.revocation.expected-entries:100000}") int expectedEntries) {
+        this.revokedTokenRepository = revokedTokenRepository;
+        // Same unit as JwtTokenProvider uses when it sets the expiration
+        this.tokenLifetimeMillis = expiration * 1000;
+        this.expectedEntries = expectedEntries;
+        this.state = new State(expectedEntries);
+    }
+
+    @PostConstruct
+    void load() {
+        reload();
+    }
+
+    public boolean isRevoked(Claims claims) {
+        State current = state;
+        Long userId = claims.get("userId", Long.class);
+        Date issuedAt = claims.getIssuedAt();
+        if (userId != null && issuedAt != null) {
+            Long cutoff = current.userCutoffs.get(userId);
+            if (cutoff != null && issuedAt.getTime() < cutoff) {
+                return true;
+            }
+        }
+        String tokenId = claims.getId();
+        return tokenId != null
+            && current.tokenFilter.mightContain(tokenId)
+            && current.tokenIds.containsKey(tokenId);
+    }
+
+    /**
+     * Revokes one token until it expires, e.g. on logout.
+     */
+    @Transactional
+    public void revokeToken(Claims claims) {
+        String tokenId = claims.getId();
+        if (tokenId == null) {
+            // Issued before tokens carried an id; only a user-wide revocation can reach it
+            revokeAllForUser(claims.get("userId", Long.class));
+            return;
+        }
+        long expiresAt = claims.getExpiration() != null
+            ? claims.getExpiration().getTime()
+            : System.currentTimeMillis() + tokenLifetimeMillis;
+        synchronized (this) {
+            state.addToken(tokenId, expiresAt);
+        }
+        if (!revokedTokenRepository.existsByTokenId(tokenId)) {
+            RevokedToken row = new RevokedToken();
+            row.setTokenId(tokenId);
+            row.setRevokedAt(LocalDateTime.now());
+            row.setExpiresAt(toLocalDateTime(expiresAt));
+            revokedTokenRepository.save(row);
+        }
+    }
+
+    /**
+     * Revokes every token issued to the user so far, e.g. on deactivation, deletion or
+     * "log out everywhere". Tokens issued afterwards are unaffected.
+     */
+    @Transactional
+    public void revokeAllForUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        // JWT issue times have whole-second precision; truncating keeps a token issued
+        // later in the same second (e.g. by a reactivation) valid
+        long now = System.currentTimeMillis();
+        long cutoff = now - now % 1000;
+        synchronized (this) {
+            state.addUserCutoff(userId, cutoff);
+        }
+        RevokedToken row = revokedTokenRepository.findByUserId(userId).orElseGet(() -> {
+            RevokedToken created = new RevokedToken();
+            created.setUserId(userId);
+            return created;
+        });
+        row.setRevokedAt(toLocalDateTime(cutoff));
+        row.setExpiresAt(toLocalDateTime(cutoff + tokenLifetimeMillis));
+        revokedTokenRepository.save(row);
+    }
+
+    // Drops expired rows and rebuilds the filter, which cannot remove entries in place
+    @Scheduled(fixedDelayString = "${security.revocation.refresh-interval-ms:60000}",
+               initialDelayString = "${security.revocation.refresh-interval-ms:60000}")
+    public void purgeAndReload() {
+        int purged = revokedTokenRepository.deleteExpired(LocalDateTime.now());
+        if (purged > 0) {
+            log.info("Purged {} expired token revocations", purged);
+        }
+        reload();
+    }
+
+    private void reload() {
+        List<RevokedToken> rows = revokedTokenRepository.findByExpiresAtAfter(LocalDateTime.now());
+        State fresh = new State(Math.max(expectedEntries, rows.size() * 2));
+        for (RevokedToken row : rows) {
+            long expiresAt = toMillis(row.getExpiresAt());
+            if (row.getTokenId() != null) {
+                fresh.addToken(row.getTokenId(), expiresAt);
+            }
+            if (row.getUserId() != null) {
+                fresh.addUserCutoff(row.getUserId(), toMillis(row.getRevokedAt()), expiresAt);
+            }
+        }
+        synchronized (this) {
+            // Keep revocations made while the rows were being read
+            fresh.mergeUnexpired(state, System.currentTimeMillis());
+            state = fresh;
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(long millis) {
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(millis), ZONE);
+    }
+
+    private static long toMillis(LocalDateTime time) {
+        return time.atZone(ZONE).toInstant().toEpochMilli();
+    }
+
+    private final class State {
+        private final BloomFilter tokenFilter;
+        // Token id -> expiry, and user id -> cut-off with its own expiry
+        private final Map<String, Long> tokenIds = new ConcurrentHashMap<>();
+        private final Map<Long, Long> userCutoffs = new ConcurrentHashMap<>();
+        private final Map<Long, Long> userCutoffExpiry = new ConcurrentHashMap<>();
+
+        private State(int expectedEntries) {
+            this.tokenFilter = new BloomFilter(expectedEntries);
+        }
+
+        private void addToken(String tokenId, long expiresAt) {
+            tokenIds.put(tokenId, expiresAt);
+            tokenFilter.add(tokenId);
+        }
+
+        private void addUserCutoff(Long userId, long cutoff) {
+            addUserCutoff(userId, cutoff, cutoff + tokenLifetimeMillis);
+        }
+
+        private void addUserCutoff(Long userId, long cutoff, long expiresAt) {
+            userCutoffs.merge(userId, cutoff, Math::max);
+            userCutoffExpiry.merge(userId, expiresAt, Math::max);
+        }
+
+        private void mergeUnexpired(State previous, long now) {
+            previous.tokenIds.forEach((tokenId, expiresAt) -> {
+                if (expiresAt > now) {
+                    addToken(tokenId, expiresAt);
+                }
+            });
+            previous.userCutoffs.forEach((userId, cutoff) -> {
+                long expiresAt = previous.userCutoffExpiry.getOrDefault(userId, 0L);
+                if (expiresAt > now) {
+                    addUserCutoff(userId, cutoff, expiresAt);
+                }
+            });
+        }
+    }
+
+    /**
+     * Fixed-size Bloom filter sized for about 1% false positives at the expected count,
+     * with lock-free reads and writes.
+     */
+    private static final class BloomFilter {
+        private static final int HASHES = 7;
+
+        private final AtomicLongArray words;
+        private final long bits;
+
+        private BloomFilter(int expectedEntries) {
+            // m = -n ln(p) / (ln 2)^2, about 9.6 bits per entry for p = 0.01
+            long size = Math.max(1024, (long) Math.ceil(expectedEntries * 9.6));
+            this.words = new AtomicLongArray((int) ((size + 63) / 64));
+            this.bits = (long) words.length() * 64;
+        }
+
+        private void add(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+                long current;
+                do {
+                    current = words.get(word);
+                } while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask));
+            }
+        }
+
+        private boolean mightContain(String key) {
+            long hash = hash64(key);
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < HASHES; i++) {
+                long bit = Math.floorMod(h1 + (long) i * h2, bits);
+                if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 64-bit FNV-1a over the UTF-8 bytes
+        private static long hash64(String key) {
+            long hash = 0xcbf29ce484222325L;
+            for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+                hash ^= (b & 0xff);
+                hash *= 0x100000001b3L;
+            }
+            return hash;
+        }
+    }
+}
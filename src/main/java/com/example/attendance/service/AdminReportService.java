@@ -0,0 +1,98 @@
+package com.example.attendance.service;
+
+import com.example.attendance.dto.EventReportRowDTO;
+import com.example.attendance.entity.EventAttendanceRollup;
+import com.example.attendance.repository.EventAttendanceRollupRepository;
+import com.example.attendance.repository.EventRepository;
+import com.example.attendance.repository.OrganizationMonthlyRollupRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class AdminReportService {
+
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 500;
+
+    // Range used for the "all" report; starts_at is set on every row so this covers the whole table
+    private static final LocalDateTime ALL_FROM = LocalDateTime.of(1900, 1, 1, 0, 0);
+    private static final LocalDateTime ALL_TO = LocalDateTime.of(9999, 12, 31, 0, 0);
+
+    private static final DataVersionService.Table[] EVENT_REPORT_TABLES = {
+        DataVersionService.Table.EVENT, DataVersionService.Table.USER_EVENT_ATTENDANCE
+    };
+    private static final DataVersionService.Table[] ROLLUP_TABLES = {
+        DataVersionService.Table.ATTENDANCE_ROLLUP
+    };
+
+    private final EventRepository eventRepository;
+    private final EventAttendanceRollupRepository eventRollupRepository;
+    private final OrganizationMonthlyRollupRepository monthlyRollupRepository;
+    private final ReportCache reportCache;
+
+    /**
+     * One page of the events report. A null month means all events.
+     */
+    public Page<EventReportRowDTO> getEventReport(YearMonth month, int page, int size) {
+        LocalDateTime from = month != null ? month.atDay(1).atStartOfDay() : ALL_FROM;
+        LocalDateTime to = month != null ? month.plusMonths(1).atDay(1).atStartOfDay() : ALL_TO;
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), MAX_PAGE_SIZE));
+
+        String key = "events-report|" + month + "|" + pageRequest.getPageNumber() + "|" + pageRequest.getPageSize();
+        return reportCache.get(key, EVENT_REPORT_TABLES,
+            () -> eventRepository.findEventReportRows(from, to, pageRequest));
+    }
+
+    /**
+     * Event counts keyed by "yyyy-MM", read from the monthly rollup. Every month of the
+     * current year is present, plus any other month that has events.
+     */
+    public Map<String, Long> getMonthlyEventCounts() {
+        return monthlyTotals(1);
+    }
+
+    // Check-ins per month keyed by "yyyy-MM", same shape as getMonthlyEventCounts
+    public Map<String, Long> getMonthlyCheckInCounts() {
+        return monthlyTotals(3);
+    }
+
+    public Optional<EventAttendanceRollup> getEventCounters(Long eventId) {
+        return eventRollupRepository.findById(eventId);
+    }
+
+    private Map<String, Long> monthlyTotals(int column) {
+        int currentYear = LocalDate.now().getYear();
+        return reportCache.get("monthly-totals|" + column + "|" + currentYear, ROLLUP_TABLES,
+            () -> Collections.unmodifiableMap(loadMonthlyTotals(column, currentYear)));
+    }
+
+    private Map<String, Long> loadMonthlyTotals(int column, int currentYear) {
+        Map<String, Long> monthlyData = new LinkedHashMap<>();
+        for (int month = 1; month <= 12; month++) {
+            monthlyData.put(String.format("%d-%02d", currentYear, month), 0L);
+        }
+
+        for (Object[] row : monthlyRollupRepository.sumByMonth()) {
+            long value = ((Number) row[column]).longValue();
+            if (value != 0 || monthlyData.containsKey((String) row[0])) {
+                monthlyData.put((String) row[0], value);
+            }
+        }
+        return monthlyData;
+    }
+}
@@ -0,0 +1,403 @@
+package com.example.attendance.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.sql.Date;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Columnar in-memory snapshot of attendance facts for slice-and-dice reporting.
+ *
+ * Every attendance row becomes one position in a set of primitive columns: each dimension
+ * (ministry, apostolate, gender, organization, category, month) is dictionary-encoded
+ * into an int[], with one bitmap per dictionary value. Filters are bitmap AND/ORs and
+ * group-bys walk the selected positions once, so any combination is answered without
+ * touching the database.
+ *
+ * Attendance rows are append-only, so the periodic refresh only loads new ids. It runs
+ * on every tick rather than on a local write counter, since rows inserted through other
+ * instances never bump this one's; with nothing new the id-range query is cheap. Ids are
+ * assigned at insert but rows become visible at commit, so a row can appear below ids
+ * already loaded; the refresh re-scans the last analytics.id-overlap ids and skips the
+ * ones it has. Attributes of already loaded rows (a user's ministry, an event's category)
+ * can still change; those, and rows that commit later than the overlap covers, are picked
+ * up by the full rebuild that runs every analytics.full-rebuild-minutes or on demand.
+ */
+@Slf4j
+@Service
+public class AttendanceAnalyticsService {
+
+    public enum Dimension {
+        MINISTRY, APOSTOLATE, GENDER, ORGANIZATION, CATEGORY, MONTH;
+
+        public static Dimension parse(String name) {
+            return valueOf(name.trim().toUpperCase());
+        }
+
+        public String key() {
+            return name().toLowerCase();
+        }
+    }
+
+    private static final String NONE = "NONE";
+
+    private static final String FACT_SQL =
+        "SELECT a.id, a.user_id, a.attended, u.ministry, u.apostolate, u.gender, " +
+        "COALESCE(r.organization_id, o.id), o.organization_name, e.event_category, " +
+        "COALESCE(a.attendance_date, e.date) " +
+        "FROM user_event_attendance a " +
+        "JOIN users u ON u.id = a.user_id " +
+        "JOIN event e ON e.id = a.event_id " +
+        "LEFT JOIN event_attendance_rollup r ON r.event_id = e.id " +
+        // Events without a rollup row yet: the owner the rollup would pick, the creator's
+        // organization or else their lowest enrolled one
+        "LEFT JOIN organizers co ON co.user_id = e.user_id " +
+        "LEFT JOIN organizers o ON o.id = COALESCE(r.organization_id, co.id, " +
+        "(SELECT MIN(uo.organization_id) FROM user_organizations uo WHERE uo.user_id = e.user_id)) " +
+        "WHERE a.id > ? ORDER BY a.id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final long fullRebuildMinutes;
+    private final long idOverlap;
+
+    private volatile ColumnStore store;
+    private volatile LocalDateTime lastFullBuild;
+    private volatile LocalDateTime lastRefresh;
+
+    public AttendanceAnalyticsService(JdbcTemplate jdbcTemplate,
+                                      @Value("${export.fetch-size:1000}") int fetchSize,
+                                      @Value("${analytics.full-rebuild-minutes:60}") long fullRebuildMinutes,
+                                      @Value("${analytics.id-overlap:1000}") long idOverlap) {
+        // Own instance so the streaming fetch size does not leak into other JdbcTemplate users
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+        this.fullRebuildMinutes = fullRebuildMinutes;
+        this.idOverlap = idOverlap;
+    }
+
+    @Scheduled(initialDelayString = "${analytics.initial-delay-ms:30000}",
+               fixedDelayString = "${analytics.refresh-interval-ms:60000}")
+    public void scheduledRefresh() {
+        try {
+            refresh(false);
+        } catch (Exception e) {
+            log.error("Attendance analytics refresh failed", e);
+        }
+    }
+
+    /**
+     * Loads new attendance rows into the snapshot, or rebuilds it from scratch when
+     * {@code full} is set, nothing is loaded yet, or the last full build is too old.
+     */
+    public synchronized Map<String, Object> refresh(boolean full) {
+        long started = System.currentTimeMillis();
+        ColumnStore current = store;
+        boolean rebuild = full || current == null
+            || lastFullBuild.isBefore(LocalDateTime.now().minusMinutes(fullRebuildMinutes));
+
+        long loaded = 0;
+        if (rebuild) {
+            ColumnStore fresh = new ColumnStore();
+            loaded = load(fresh);
+            store = fresh;
+            lastFullBuild = LocalDateTime.now();
+        } else {
+            loaded = load(current);
+        }
+        lastRefresh = LocalDateTime.now();
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("fullRebuild", rebuild);
+        result.put("loadedRows", loaded);
+        result.put("totalRows", store.size());
+        result.put("durationMs", System.currentTimeMillis() - started);
+        if (rebuild || loaded > 0) {
+            log.info("Attendance analytics refreshed: {}", result);
+        }
+        return result;
+    }
+
+    /**
+     * Counts per group for the positions matching every filter. Values within one filter
+     * are OR-ed; a filter on a value the snapshot has never seen matches nothing.
+     */
+    public Map<String, Object> query(Map<Dimension, Set<String>> filters, List<Dimension> groupBy,
+                                     YearMonth fromMonth, YearMonth toMonth) {
+        if (store == null) {
+            refresh(true);
+        }
+        long started = System.nanoTime();
+        Map<String, Object> result = store.query(filters, groupBy, fromMonth, toMonth);
+        result.put("snapshot", snapshotInfo());
+        result.put("tookMs", (System.nanoTime() - started) / 1_000_000.0);
+        return result;
+    }
+
+    // Distinct values per dimension, for building filter pickers
+    public Map<String, List<String>> getDimensionValues() {
+        if (store == null) {
+            refresh(true);
+        }
+        return store.dimensionValues();
+    }
+
+    private Map<String, Object> snapshotInfo() {
+        Map<String, Object> info = new LinkedHashMap<>();
+        info.put("rows", store.size());
+        info.put("lastAttendanceId", store.lastAttendanceId);
+        info.put("lastRefresh", lastRefresh);
+        info.put("lastFullBuild", lastFullBuild);
+        return info;
+    }
+
+    private long load(ColumnStore target) {
+        long[] loaded = new long[1];
+        String[] values = new String[Dimension.values().length];
+        jdbcTemplate.query(FACT_SQL, rs -> {
+            long attendanceId = rs.getLong(1);
+            if (target.contains(attendanceId)) {
+                return;
+            }
+            values[Dimension.MINISTRY.ordinal()] = orNone(rs.getString(4));
+            values[Dimension.APOSTOLATE.ordinal()] = orNone(rs.getString(5));
+            values[Dimension.GENDER.ordinal()] = orNone(rs.getString(6));
+            long organizationId = rs.getLong(7);
+            String organizationName = rs.getString(8);
+            values[Dimension.ORGANIZATION.ordinal()] = organizationId == 0 ? NONE
+                : organizationName != null ? organizationName : "Organization #" + organizationId;
+            values[Dimension.CATEGORY.ordinal()] = orNone(rs.getString(9));
+            Date day = rs.getDate(10);
+            values[Dimension.MONTH.ordinal()] = day != null ? YearMonth.from(day.toLocalDate()).toString() : NONE;
+            target.append(attendanceId, rs.getLong(2), rs.getBoolean(3), values);
+            loaded[0]++;
+        }, Math.max(0, target.lastAttendanceId - idOverlap));
+        return loaded[0];
+    }
+
+    private static String orNone(String value) {
+        return value != null && !value.isBlank() ? value : NONE;
+    }
+
+    private static final class Dictionary {
+        private final Map<String, Integer> codes = new HashMap<>();
+        private final List<String> values = new ArrayList<>();
+        private final List<BitSet> bitmaps = new ArrayList<>();
+
+        int encode(String value) {
+            Integer code = codes.get(value);
+            if (code == null) {
+                code = values.size();
+                codes.put(value, code);
+                values.add(value);
+                bitmaps.add(new BitSet());
+            }
+            return code;
+        }
+    }
+
+    private static final class Group {
+        private final int[] codes;
+        private long records;
+        private long attended;
+        private final BitSet attendees = new BitSet();
+
+        private Group(int[] codes) {
+            this.codes = codes;
+        }
+    }
+
+    /**
+     * The columns themselves. Appends take the write lock, queries the read lock; a full
+     * rebuild fills a new store and swaps it in.
+     */
+    private static final class ColumnStore {
+        private final ReadWriteLock lock = new ReentrantReadWriteLock();
+        private final Dictionary[] dictionaries = new Dictionary[Dimension.values().length];
+        private final int[][] columns = new int[Dimension.values().length][];
+        private final Map<Long, Integer> userCodes = new HashMap<>();
+        private int[] users = new int[1024];
+        private final BitSet attended = new BitSet();
+        // Attendance ids already appended, so the overlap re-scan does not count a row twice
+        private final BitSet attendanceIds = new BitSet();
+        private int size;
+        private volatile long lastAttendanceId;
+
+        ColumnStore() {
+            for (int d = 0; d < dictionaries.length; d++) {
+                dictionaries[d] = new Dictionary();
+                columns[d] = new int[1024];
+            }
+        }
+
+        int size() {
+            return size;
+        }
+
+        // Only called by the loading thread, which is also the only writer
+        boolean contains(long attendanceId) {
+            return attendanceIds.get(Math.toIntExact(attendanceId));
+        }
+
+        void append(long attendanceId, long userId, boolean wasAttended, String[] values) {
+            lock.writeLock().lock();
+            try {
+                if (size == users.length) {
+                    int capacity = size * 2;
+                    users = Arrays.copyOf(users, capacity);
+                    for (int d = 0; d < columns.length; d++) {
+                        columns[d] = Arrays.copyOf(columns[d], capacity);
+                    }
+                }
+                for (int d = 0; d < columns.length; d++) {
+                    int code = dictionaries[d].encode(values[d]);
+                    columns[d][size] = code;
+                    dictionaries[d].bitmaps.get(code).set(size);
+                }
+                Integer userCode = userCodes.get(userId);
+                if (userCode == null) {
+                    userCode = userCodes.size();
+                    userCodes.put(userId, userCode);
+                }
+                users[size] = userCode;
+                if (wasAttended) {
+                    attended.set(size);
+                }
+                size++;
+                attendanceIds.set(Math.toIntExact(attendanceId));
+                lastAttendanceId = Math.max(lastAttendanceId, attendanceId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+
+        Map<String, Object> query(Map<Dimension, Set<String>> filters, List<Dimension> groupBy,
+                                  YearMonth fromMonth, YearMonth toMonth) {
+            lock.readLock().lock();
+            try {
+                BitSet selection = new BitSet(size);
+                selection.set(0, size);
+                for (Map.Entry<Dimension, Set<String>> filter : filters.entrySet()) {
+                    Dictionary dictionary = dictionaries[filter.getKey().ordinal()];
+                    BitSet matches = new BitSet(size);
+                    for (String value : filter.getValue()) {
+                        Integer code = dictionary.codes.get(value);
+                        if (code != null) {
+                            matches.or(dictionary.bitmaps.get(code));
+                        }
+                    }
+                    selection.and(matches);
+                }
+                if (fromMonth != null || toMonth != null) {
+                    // "yyyy-MM" sorts chronologically, so the range is a string comparison
+                    Dictionary months = dictionaries[Dimension.MONTH.ordinal()];
+                    String from = fromMonth != null ? fromMonth.toString() : "";
+                    String to = toMonth != null ? toMonth.toString() : "~";
+                    BitSet matches = new BitSet(size);
+                    for (int code = 0; code < months.values.size(); code++) {
+                        String month = months.values.get(code);
+                        if (!month.equals(NONE) && month.compareTo(from) >= 0 && month.compareTo(to) <= 0) {
+                            matches.or(months.bitmaps.get(code));
+                        }
+                    }
+                    selection.and(matches);
+                }
+
+                // Mixed-radix key over the dictionary codes of the grouped dimensions
+                int[] dims = groupBy.stream().mapToInt(Dimension::ordinal).toArray();
+                long[] radix = new long[dims.length];
+                long multiplier = 1;
+                for (int i = dims.length - 1; i >= 0; i--) {
+                    radix[i] = multiplier;
+                    multiplier = Math.multiplyExact(multiplier, Math.max(1, dictionaries[dims[i]].values.size()));
+                }
+
+                Map<Long, Group> groups = new HashMap<>();
+                long totalRecords = 0;
+                for (int row = selection.nextSetBit(0); row >= 0; row = selection.nextSetBit(row + 1)) {
+                    long key = 0;
+                    for (int i = 0; i < dims.length; i++) {
+                        key += columns[dims[i]][row] * radix[i];
+                    }
+                    Group group = groups.get(key);
+                    if (group == null) {
+                        int[] codes = new int[dims.length];
+                        for (int i = 0; i < dims.length; i++) {
+                            codes[i] = columns[dims[i]][row];
+                        }
+                        group = new Group(codes);
+                        groups.put(key, group);
+                    }
+                    group.records++;
+                    if (attended.get(row)) {
+                        group.attended++;
+                    }
+                    group.attendees.set(users[row]);
+                    totalRecords++;
+                }
+
+                List<Map<String, Object>> rows = new ArrayList<>(groups.size());
+                groups.values().stream()
+                    .sorted(Comparator.comparing(group -> labels(group, dims), ColumnStore::compareLabels))
+                    .forEach(group -> {
+                        Map<String, Object> row = new LinkedHashMap<>();
+                        for (int i = 0; i < dims.length; i++) {
+                            row.put(Dimension.values()[dims[i]].key(), dictionaries[dims[i]].values.get(group.codes[i]));
+                        }
+                        row.put("records", group.records);
+                        row.put("attended", group.attended);
+                        row.put("attendees", group.attendees.cardinality());
+                        rows.add(row);
+                    });
+
+                Map<String, Object> result = new LinkedHashMap<>();
+                result.put("groupBy", groupBy.stream().map(Dimension::key).toList());
+                result.put("totalRecords", totalRecords);
+                result.put("rows", rows);
+                return result;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        Map<String, List<String>> dimensionValues() {
+            lock.readLock().lock();
+            try {
+                Map<String, List<String>> values = new LinkedHashMap<>();
+                for (Dimension dimension : Dimension.values()) {
+                    List<String> sorted = new ArrayList<>(dictionaries[dimension.ordinal()].values);
+                    Collections.sort(sorted);
+                    values.put(dimension.key(), sorted);
+                }
+                return values;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+
+        private List<String> labels(Group group, int[] dims) {
+            List<String> labels = new ArrayList<>(dims.length);
+            for (int i = 0; i < dims.length; i++) {
+                labels.add(dictionaries[dims[i]].values.get(group.codes[i]));
+            }
+            return labels;
+        }
+
+        private static int compareLabels(List<String> a, List<String> b) {
+            for (int i = 0; i < a.size(); i++) {
+                int cmp = a.get(i).compareTo(b.get(i));
+                if (cmp != 0) {
+                    return cmp;
+                }
+            }
+            return 0;
+        }
+    }
+}
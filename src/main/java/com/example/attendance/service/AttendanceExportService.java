@@ -0,0 +1,355 @@
+package com.example.attendance.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.sql.Date;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongConsumer;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams attendance rows straight from a forward-only JDBC cursor into CSV or XLSX, so
+ * memory use does not depend on how many rows are exported. User and event columns are
+ * joined in SQL; no entities are loaded.
+ *
+ * On MySQL, export.fetch-size=Integer.MIN_VALUE makes Connector/J stream row by row
+ * instead of buffering the whole result set.
+ */
+@Slf4j
+@Service
+public class AttendanceExportService {
+
+    private static final String[] HEADERS = {
+        "Attendance ID", "Event ID", "Event Name", "Event Date", "Event Time", "Place",
+        "User ID", "First Name", "Last Name", "Email", "Attended", "Attendance Date",
+        "Check-in Time", "Registration Date"
+    };
+
+    private static final String EXPORT_SQL =
+        "SELECT a.id, e.id, e.name, e.date, e.time, e.place, " +
+        "u.id, u.first_name, u.last_name, u.email, a.attended, a.attendance_date, " +
+        "a.check_in_time, a.registration_date " +
+        "FROM user_event_attendance a " +
+        "JOIN event e ON e.id = a.event_id " +
+        "JOIN users u ON u.id = a.user_id ";
+
+    // Excel's hard limit is 1,048,576 rows per sheet, one of which is the header
+    private static final int MAX_ROWS_PER_SHEET = 1_048_575;
+
+    private static final int PROGRESS_INTERVAL = 1000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public AttendanceExportService(JdbcTemplate jdbcTemplate,
+                                   @Value("${export.fetch-size:1000}") int fetchSize) {
+        // Own instance so the fetch size does not leak into other JdbcTemplate users
+        this.jdbcTemplate = new JdbcTemplate(jdbcTemplate.getDataSource());
+        this.jdbcTemplate.setFetchSize(fetchSize);
+    }
+
+    public void writeCsv(Long eventId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        writeCsv(eventId, from, to, out, rows -> { });
+    }
+
+    /**
+     * Same as {@link #writeCsv(Long, LocalDate, LocalDate, OutputStream)}, reporting the number
+     * of rows written so far to {@code progress} every {@value #PROGRESS_INTERVAL} rows.
+     */
+    public void writeCsv(Long eventId, LocalDate from, LocalDate to, OutputStream out,
+                         LongConsumer progress) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        writeCsvRow(writer, HEADERS);
+
+        String[] values = new String[HEADERS.length];
+        long rows = query(eventId, from, to, progress, rs -> {
+            readRow(rs, values);
+            try {
+                writeCsvRow(writer, values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        writer.flush();
+        log.info("Exported {} attendance rows as CSV", rows);
+    }
+
+    public void writeXlsx(Long eventId, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        writeXlsx(eventId, from, to, out, rows -> { });
+    }
+
+    public void writeXlsx(Long eventId, LocalDate from, LocalDate to, OutputStream out,
+                          LongConsumer progress) throws IOException {
+        ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(out, 64 * 1024));
+        XlsxSheetWriter sheets = new XlsxSheetWriter(zip);
+
+        String[] values = new String[HEADERS.length];
+        long rows = query(eventId, from, to, progress, rs -> {
+            readRow(rs, values);
+            try {
+                sheets.writeRow(values);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+        sheets.finish();
+        zip.finish();
+        zip.flush();
+        log.info("Exported {} attendance rows as XLSX in {} sheet(s)", rows, sheets.sheetCount);
+    }
+
+    /**
+     * Number of rows an export with the same filters would produce.
+     */
+    public long countRows(Long eventId, LocalDate from, LocalDate to) {
+        List<Object> args = new ArrayList<>();
+        String where = whereClause(eventId, from, to, args);
+        Long count = jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM user_event_attendance a " + where, Long.class, args.toArray());
+        return count != null ? count : 0L;
+    }
+
+    private long query(Long eventId, LocalDate from, LocalDate to, LongConsumer progress,
+                       RowConsumer consumer) throws IOException {
+        List<Object> args = new ArrayList<>();
+        String sql = EXPORT_SQL + whereClause(eventId, from, to, args) + " ORDER BY a.id";
+
+        long[] count = new long[1];
+        RowCallbackHandler handler = rs -> {
+            consumer.accept(rs);
+            if (++count[0] % PROGRESS_INTERVAL == 0) {
+                progress.accept(count[0]);
+            }
+        };
+        try {
+            jdbcTemplate.query(sql, handler, args.toArray());
+        } catch (UncheckedIOException e) {
+            // Client went away mid-download (or the target disk failed); the output is incomplete
+            log.warn("Attendance export aborted after {} rows: {}", count[0], e.getCause().getMessage());
+            throw e.getCause();
+        }
+        progress.accept(count[0]);
+        return count[0];
+    }
+
+    private static String whereClause(Long eventId, LocalDate from, LocalDate to, List<Object> args) {
+        StringBuilder sql = new StringBuilder("WHERE 1 = 1");
+        if (eventId != null) {
+            sql.append(" AND a.event_id = ?");
+            args.add(eventId);
+        }
+        if (from != null) {
+            sql.append(" AND a.attendance_date >= ?");
+            args.add(Date.valueOf(from));
+        }
+        if (to != null) {
+            sql.append(" AND a.attendance_date <= ?");
+            args.add(Date.valueOf(to));
+        }
+        return sql.toString();
+    }
+
+    private static void readRow(ResultSet rs, String[] values) throws SQLException {
+        values[0] = text(rs.getObject(1));
+        values[1] = text(rs.getObject(2));
+        values[2] = rs.getString(3);
+        Date eventDate = rs.getDate(4);
+        values[3] = eventDate != null ? eventDate.toLocalDate().toString() : null;
+        Time eventTime = rs.getTime(5);
+        values[4] = eventTime != null ? eventTime.toLocalTime().toString() : null;
+        values[5] = rs.getString(6);
+        values[6] = text(rs.getObject(7));
+        values[7] = rs.getString(8);
+        values[8] = rs.getString(9);
+        values[9] = rs.getString(10);
+        values[10] = rs.getBoolean(11) ? "Yes" : "No";
+        Date attendanceDate = rs.getDate(12);
+        values[11] = attendanceDate != null ? attendanceDate.toLocalDate().toString() : null;
+        values[12] = timestamp(rs.getTimestamp(13));
+        values[13] = timestamp(rs.getTimestamp(14));
+    }
+
+    private static String text(Object value) {
+        return value != null ? value.toString() : null;
+    }
+
+    private static String timestamp(Timestamp value) {
+        return value != null ? value.toLocalDateTime().withNano(0).toString().replace('T', ' ') : null;
+    }
+
+    private static void writeCsvRow(Writer writer, String[] values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            String value = values[i];
+            if (value == null) {
+                continue;
+            }
+            // Leading =, +, - or @ would be evaluated as a formula by spreadsheet apps
+            if (!value.isEmpty() && "=+-@".indexOf(value.charAt(0)) >= 0 && !isNumeric(value)) {
+                value = "'" + value;
+            }
+            if (value.indexOf(',') >= 0 || value.indexOf('"') >= 0 || value.indexOf('\n') >= 0 || value.indexOf('\r') >= 0) {
+                writer.write('"');
+                writer.write(value.replace("\"", "\"\""));
+                writer.write('"');
+            } else {
+                writer.write(value);
+            }
+        }
+        writer.write("\r\n");
+    }
+
+    private static boolean isNumeric(String value) {
+        try {
+            Double.parseDouble(value);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowConsumer {
+        void accept(ResultSet rs) throws SQLException;
+    }
+
+    /**
+     * Minimal SpreadsheetML writer. Cells are inline strings (no shared-string table to keep
+     * in memory), and sheets are written first, with the workbook parts added at the end once
+     * the number of sheets is known.
+     */
+    private static final class XlsxSheetWriter {
+        private final ZipOutputStream zip;
+        private final Writer writer;
+        private int sheetCount;
+        private int rowInSheet;
+
+        XlsxSheetWriter(ZipOutputStream zip) {
+            this.zip = zip;
+            this.writer = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+        }
+
+        void writeRow(String[] values) throws IOException {
+            if (sheetCount == 0 || rowInSheet >= MAX_ROWS_PER_SHEET) {
+                startSheet();
+            }
+            rowInSheet++;
+            writeCells(rowInSheet + 1, values);
+        }
+
+        void finish() throws IOException {
+            if (sheetCount == 0) {
+                startSheet();
+            }
+            endSheet();
+
+            StringBuilder contentTypes = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>")
+                .append("<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">")
+                .append("<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>")
+                .append("<Default Extension=\"xml\" ContentType=\"application/xml\"/>")
+                .append("<Override PartName=\"/xl/workbook.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.sheet.main+xml\"/>");
+            StringBuilder workbook = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>")
+                .append("<workbook xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\" ")
+                .append("xmlns:r=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships\"><sheets>");
+            StringBuilder workbookRels = new StringBuilder()
+                .append("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>")
+                .append("<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">");
+            for (int i = 1; i <= sheetCount; i++) {
+                contentTypes.append("<Override PartName=\"/xl/worksheets/sheet").append(i)
+                    .append(".xml\" ContentType=\"application/vnd.openxmlformats-officedocument.spreadsheetml.worksheet+xml\"/>");
+                workbook.append("<sheet name=\"Attendance").append(sheetCount > 1 ? " " + i : "")
+                    .append("\" sheetId=\"").append(i).append("\" r:id=\"rId").append(i).append("\"/>");
+                workbookRels.append("<Relationship Id=\"rId").append(i)
+                    .append("\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/worksheet\" Target=\"worksheets/sheet")
+                    .append(i).append(".xml\"/>");
+            }
+            contentTypes.append("</Types>");
+            workbook.append("</sheets></workbook>");
+            workbookRels.append("</Relationships>");
+
+            writeEntry("[Content_Types].xml", contentTypes.toString());
+            writeEntry("_rels/.rels",
+                "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>" +
+                "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">" +
+                "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"xl/workbook.xml\"/>" +
+                "</Relationships>");
+            writeEntry("xl/workbook.xml", workbook.toString());
+            writeEntry("xl/_rels/workbook.xml.rels", workbookRels.toString());
+        }
+
+        private void startSheet() throws IOException {
+            if (sheetCount > 0) {
+                endSheet();
+            }
+            sheetCount++;
+            rowInSheet = 0;
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet" + sheetCount + ".xml"));
+            writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>");
+            writer.write("<worksheet xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\"><sheetData>");
+            writeCells(1, HEADERS);
+        }
+
+        private void endSheet() throws IOException {
+            writer.write("</sheetData></worksheet>");
+            writer.flush();
+            zip.closeEntry();
+        }
+
+        private void writeCells(int rowNumber, String[] values) throws IOException {
+            writer.write("<row r=\"");
+            writer.write(Integer.toString(rowNumber));
+            writer.write("\">");
+            for (String value : values) {
+                if (value == null) {
+                    writer.write("<c/>");
+                } else {
+                    writer.write("<c t=\"inlineStr\"><is><t xml:space=\"preserve\">");
+                    writeEscaped(value);
+                    writer.write("</t></is></c>");
+                }
+            }
+            writer.write("</row>");
+        }
+
+        private void writeEscaped(String value) throws IOException {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '<' -> writer.write("&lt;");
+                    case '>' -> writer.write("&gt;");
+                    case '&' -> writer.write("&amp;");
+                    case '"' -> writer.write("&quot;");
+                    default -> {
+                        // XML 1.0 forbids most control characters
+                        if (c >= 0x20 || c == '\t' || c == '\n' || c == '\r') {
+                            writer.write(c);
+                        }
+                    }
+                }
+            }
+        }
+
+        private void writeEntry(String name, String content) throws IOException {
+            zip.putNextEntry(new ZipEntry(name));
+            writer.write(content);
+            writer.flush();
+            zip.closeEntry();
+        }
+    }
+}
@@ -0,0 +1,419 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.*;
+import com.example.attendance.repository.*;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.*;
+
+/**
+ * Maintains the attendance rollup tables so dashboards read a handful of counter rows
+ * instead of scanning events, registrations and attendance history.
+ *
+ * Hooks are called by the code paths that write the source rows. Counter updates run after
+ * the surrounding transaction commits (or immediately when there is none), in their own
+ * transaction, and never fail the caller: a missed update is repaired by {@link #rebuild()}.
+ *
+ * Counters always mean the same thing as a rebuild from the current rows:
+ * per event, registrations / approved registrations / attendance rows / attended rows;
+ * per organization and day or month, events scheduled on that day, registrations made
+ * on that day and check-ins on that day; per user, distinct existing events they registered
+ * for or have an attendance record at, and attended records.
+ */
+@Slf4j
+@Service
+public class AttendanceRollupService {
+
+    // Bucket for events whose creator neither organizes nor belongs to an organization
+    public static final long NO_ORGANIZATION = 0L;
+
+    private static final int REBUILD_BATCH_SIZE = 1000;
+
+    private final EventAttendanceRollupRepository eventRollupRepository;
+    private final OrganizationDailyRollupRepository dailyRollupRepository;
+    private final OrganizationMonthlyRollupRepository monthlyRollupRepository;
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final UserAttendanceSummaryRepository userSummaryRepository;
+    private final UserEventAttendanceRepository attendanceRepository;
+    private final EventRegistrationRepository registrationRepository;
+    private final DataVersionService dataVersionService;
+    private final LeaderboardService leaderboardService;
+    private final TransactionTemplate requiresNew;
+
+    public AttendanceRollupService(EventAttendanceRollupRepository eventRollupRepository,
+                                   OrganizationDailyRollupRepository dailyRollupRepository,
+                                   OrganizationMonthlyRollupRepository monthlyRollupRepository,
+                                   EventRepository eventRepository,
+                                   UserRepository userRepository,
+                                   UserAttendanceSummaryRepository userSummaryRepository,
+                                   UserEventAttendanceRepository attendanceRepository,
+                                   EventRegistrationRepository registrationRepository,
+                                   DataVersionService dataVersionService,
+                                   LeaderboardService leaderboardService,
+                                   PlatformTransactionManager transactionManager) {
+        this.eventRollupRepository = eventRollupRepository;
+        this.dailyRollupRepository = dailyRollupRepository;
+        this.monthlyRollupRepository = monthlyRollupRepository;
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.userSummaryRepository = userSummaryRepository;
+        this.attendanceRepository = attendanceRepository;
+        this.registrationRepository = registrationRepository;
+        this.dataVersionService = dataVersionService;
+        this.leaderboardService = leaderboardService;
+        this.requiresNew = new TransactionTemplate(transactionManager);
+        this.requiresNew.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    public void onEventCreated(Event event) {
+        Long eventId = event.getId();
+        LocalDate date = event.getDate();
+        afterCommit(() -> {
+            Long organizationId = organizationFor(eventId);
+            if (organizationId != null) {
+                incrementOrganization(organizationId, date, 1, 0, 0);
+                leaderboardService.apply(eventId, 0, 0);
+            }
+        });
+    }
+
+    public void onEventRescheduled(Event event, LocalDate previousDate) {
+        if (Objects.equals(previousDate, event.getDate())) {
+            return;
+        }
+        Long eventId = event.getId();
+        LocalDate date = event.getDate();
+        afterCommit(() -> {
+            Long organizationId = organizationFor(eventId);
+            if (organizationId != null) {
+                eventRollupRepository.updateEventDate(eventId, date);
+                leaderboardService.reschedule(eventId, date);
+                if (previousDate != null) {
+                    incrementOrganization(organizationId, previousDate, -1, 0, 0);
+                }
+                incrementOrganization(organizationId, date, 1, 0, 0);
+            }
+        });
+    }
+
+    // Registrations and check-ins keep counting on the days they happened
+    public void onEventDeleted(Event event) {
+        Long eventId = event.getId();
+        LocalDate date = event.getDate();
+        afterCommit(() -> {
+            userSummaryRepository.decrementRegistrantsOfEvent(eventId);
+            leaderboardService.remove(eventId);
+            eventRollupRepository.findById(eventId).ifPresent(row -> {
+                eventRollupRepository.delete(row);
+                incrementOrganization(row.getOrganizationId(), date, -1, 0, 0);
+            });
+        });
+    }
+
+    public void onRegistration(EventRegistration registration) {
+        applyRegistration(registration, 1);
+    }
+
+    public void onRegistrationCancelled(EventRegistration registration) {
+        applyRegistration(registration, -1);
+    }
+
+    public void onRegistrationStatusChanged(Long eventId,
+                                            EventRegistration.RegistrationStatus previous,
+                                            EventRegistration.RegistrationStatus current) {
+        long delta = approvedFlag(current) - approvedFlag(previous);
+        if (delta == 0) {
+            return;
+        }
+        afterCommit(() -> {
+            if (organizationFor(eventId) != null) {
+                eventRollupRepository.increment(eventId, 0, delta, 0, 0);
+            }
+        });
+    }
+
+    public void onCheckIn(UserEventAttendance attendance) {
+        Long eventId = attendance.getEvent().getId();
+        long attended = Boolean.TRUE.equals(attendance.getAttended()) ? 1 : 0;
+        LocalDate day = attendance.getAttendanceDate() != null ? attendance.getAttendanceDate() : LocalDate.now();
+        Long userId = attendance.getUser().getId();
+        String email = attendance.getUser().getEmail();
+        afterCommit(() -> {
+            // A registration for the event already counted it as registered
+            long registered = registrationRepository.existsByEventIdAndUserEmail(eventId, email) ? 0 : 1;
+            incrementUser(userId, registered, attended);
+
+            Long organizationId = organizationFor(eventId);
+            if (organizationId != null) {
+                eventRollupRepository.increment(eventId, 0, 0, 1, attended);
+                leaderboardService.apply(eventId, 0, attended);
+                if (attended > 0) {
+                    incrementOrganization(organizationId, day, 0, 0, 1);
+                }
+            }
+        });
+    }
+
+    /**
+     * Recomputes every rollup table from the source tables. Writes that land while the
+     * rebuild runs may be counted twice or not at all; run it again if that matters.
+     */
+    public Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        Map<String, Object> result = requiresNew.execute(status -> {
+            dailyRollupRepository.deleteAllInBatch();
+            monthlyRollupRepository.deleteAllInBatch();
+            eventRollupRepository.deleteAllInBatch();
+            userSummaryRepository.deleteAllInBatch();
+
+            long events = rebuildEventRows();
+            eventRollupRepository.recountAll();
+
+            Map<Long, Map<LocalDate, long[]>> daily = new HashMap<>();
+            accumulate(daily, eventRollupRepository.countEventsByOrganizationAndDay(), 0);
+            accumulate(daily, eventRollupRepository.countRegistrationsByOrganizationAndDay(), 1);
+            accumulate(daily, eventRollupRepository.countCheckInsByOrganizationAndDay(), 2);
+
+            List<OrganizationDailyRollup> dailyRows = new ArrayList<>();
+            Map<Long, Map<String, long[]>> monthly = new HashMap<>();
+            daily.forEach((organizationId, days) -> days.forEach((day, counts) -> {
+                OrganizationDailyRollup row = new OrganizationDailyRollup(organizationId, day);
+                row.setEventCount(counts[0]);
+                row.setRegistrationCount(counts[1]);
+                row.setCheckInCount(counts[2]);
+                dailyRows.add(row);
+
+                long[] month = monthly.computeIfAbsent(organizationId, k -> new HashMap<>())
+                    .computeIfAbsent(YearMonth.from(day).toString(), k -> new long[3]);
+                for (int i = 0; i < 3; i++) {
+                    month[i] += counts[i];
+                }
+            }));
+            dailyRollupRepository.saveAll(dailyRows);
+
+            List<OrganizationMonthlyRollup> monthlyRows = new ArrayList<>();
+            monthly.forEach((organizationId, months) -> months.forEach((month, counts) -> {
+                OrganizationMonthlyRollup row = new OrganizationMonthlyRollup(organizationId, month);
+                row.setEventCount(counts[0]);
+                row.setRegistrationCount(counts[1]);
+                row.setCheckInCount(counts[2]);
+                monthlyRows.add(row);
+            }));
+            monthlyRollupRepository.saveAll(monthlyRows);
+
+            Map<String, Object> summary = new LinkedHashMap<>();
+            summary.put("events", events);
+            summary.put("dailyRows", dailyRows.size());
+            summary.put("monthlyRows", monthlyRows.size());
+            summary.put("userSummaries", rebuildUserSummaries());
+            dataVersionService.bump(DataVersionService.Table.ATTENDANCE_ROLLUP);
+            return summary;
+        });
+        leaderboardService.reload();
+        result.put("durationMs", System.currentTimeMillis() - started);
+        log.info("Rebuilt attendance rollups: {}", result);
+        return result;
+    }
+
+    // First start after the rollup tables were introduced: seed them from history
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildIfEmpty() {
+        try {
+            if (eventRollupRepository.count() == 0 && eventRepository.count() > 0) {
+                rebuild();
+            }
+        } catch (Exception e) {
+            log.error("Initial attendance rollup build failed", e);
+        }
+    }
+
+    private void applyRegistration(EventRegistration registration, long sign) {
+        Long eventId = registration.getEventId();
+        long approved = approvedFlag(registration.getStatus());
+        LocalDate day = registration.getRegistrationDate() != null
+            ? registration.getRegistrationDate().toLocalDate() : LocalDate.now();
+        String email = registration.getUserEmail();
+        afterCommit(() -> {
+            // An attendance record already counts the event as registered
+            userRepository.findIdByEmail(email)
+                .filter(userId -> !attendanceRepository.existsByUserIdAndEventId(userId, eventId))
+                .ifPresent(userId -> incrementUser(userId, sign, 0));
+
+            Long organizationId = organizationFor(eventId);
+            if (organizationId != null) {
+                eventRollupRepository.increment(eventId, sign, sign * approved, 0, 0);
+                leaderboardService.apply(eventId, sign, 0);
+                incrementOrganization(organizationId, day, 0, sign, 0);
+            }
+        });
+    }
+
+    /**
+     * Counters for one user. A user without a summary row yet (history from before the
+     * table existed) gets one computed from the source rows on first read.
+     */
+    public UserAttendanceSummary getUserSummary(Long userId) {
+        return userSummaryRepository.findById(userId).orElseGet(() -> {
+            UserAttendanceSummary summary = computeUserSummary(userId);
+            insertIfMissing(() -> userSummaryRepository.saveAndFlush(summary));
+            return summary;
+        });
+    }
+
+    private UserAttendanceSummary computeUserSummary(Long userId) {
+        UserAttendanceSummary summary = new UserAttendanceSummary(userId);
+        String email = userRepository.findById(userId).map(User::getEmail).orElse(null);
+        List<Object[]> attendance = userSummaryRepository.countAttendanceForUser(userId);
+        long attendedEvents = 0;
+        if (!attendance.isEmpty() && attendance.get(0)[0] != null) {
+            attendedEvents = ((Number) attendance.get(0)[0]).longValue();
+            summary.setAttendedCount(attendance.get(0)[1] != null ? ((Number) attendance.get(0)[1]).longValue() : 0);
+        }
+        long registrations = email != null ? userSummaryRepository.countRegistrationsWithoutAttendanceForUser(userId, email) : 0;
+        summary.setRegisteredCount(attendedEvents + registrations);
+        return summary;
+    }
+
+    /**
+     * Missing row: compute it from the source rows, which already include the write being
+     * applied. Existence is checked with a plain read because on MySQL an UPDATE matching no
+     * row leaves a gap lock that a following insert from another transaction would wait on.
+     */
+    private void incrementUser(Long userId, long registered, long attended) {
+        if (userSummaryRepository.existsById(userId)) {
+            userSummaryRepository.increment(userId, registered, attended);
+        } else {
+            UserAttendanceSummary summary = computeUserSummary(userId);
+            userSummaryRepository.insertIfAbsent(userId, summary.getRegisteredCount(), summary.getAttendedCount());
+        }
+    }
+
+    private int rebuildUserSummaries() {
+        Map<Long, UserAttendanceSummary> summaries = new HashMap<>();
+        for (Object[] row : userSummaryRepository.countAttendanceByUser()) {
+            UserAttendanceSummary summary = summaries.computeIfAbsent((Long) row[0], UserAttendanceSummary::new);
+            summary.setRegisteredCount(((Number) row[1]).longValue());
+            summary.setAttendedCount(row[2] != null ? ((Number) row[2]).longValue() : 0);
+        }
+        for (Object[] row : userSummaryRepository.countRegistrationsWithoutAttendanceByUser()) {
+            UserAttendanceSummary summary = summaries.computeIfAbsent((Long) row[0], UserAttendanceSummary::new);
+            summary.setRegisteredCount(summary.getRegisteredCount() + ((Number) row[1]).longValue());
+        }
+        userSummaryRepository.saveAll(summaries.values());
+        return summaries.size();
+    }
+
+    private long rebuildEventRows() {
+        Map<Long, Long> enrolledOrganizationByUser = new HashMap<>();
+        for (Object[] row : userRepository.findFirstEnrolledOrganizationIds()) {
+            enrolledOrganizationByUser.put((Long) row[0], (Long) row[1]);
+        }
+
+        long total = 0;
+        long afterId = 0;
+        PageRequest page = PageRequest.of(0, REBUILD_BATCH_SIZE);
+        List<Object[]> batch;
+        do {
+            batch = eventRepository.findRollupKeysAfter(afterId, page);
+            List<EventAttendanceRollup> rows = new ArrayList<>(batch.size());
+            for (Object[] key : batch) {
+                Long organizationId = key[3] != null
+                    ? (Long) key[3]
+                    : enrolledOrganizationByUser.getOrDefault((Long) key[2], NO_ORGANIZATION);
+                rows.add(new EventAttendanceRollup((Long) key[0], organizationId, (LocalDate) key[1]));
+                afterId = (Long) key[0];
+            }
+            eventRollupRepository.saveAll(rows);
+            eventRollupRepository.flush();
+            total += rows.size();
+        } while (batch.size() == REBUILD_BATCH_SIZE);
+        return total;
+    }
+
+    private void accumulate(Map<Long, Map<LocalDate, long[]>> daily, List<Object[]> rows, int index) {
+        for (Object[] row : rows) {
+            daily.computeIfAbsent((Long) row[0], k -> new HashMap<>())
+                .computeIfAbsent((LocalDate) row[1], k -> new long[3])[index] += ((Number) row[2]).longValue();
+        }
+    }
+
+    /**
+     * Owning organization of an event, taken from its rollup row. The row is created on
+     * first use, so an event written before the rollups existed starts counting from zero
+     * until the next rebuild. Returns null when the event no longer exists.
+     */
+    private Long organizationFor(Long eventId) {
+        Optional<EventAttendanceRollup> existing = eventRollupRepository.findById(eventId);
+        if (existing.isPresent()) {
+            return existing.get().getOrganizationId();
+        }
+        Optional<Event> event = eventRepository.findById(eventId);
+        if (event.isEmpty()) {
+            return null;
+        }
+        User creator = event.get().getUser();
+        Long organizationId = creator.getOrganizer() != null
+            ? creator.getOrganizer().getId()
+            : userRepository.findFirstEnrolledOrganizationId(creator.getId());
+        EventAttendanceRollup row = new EventAttendanceRollup(
+            eventId, organizationId != null ? organizationId : NO_ORGANIZATION, event.get().getDate());
+        insertIfMissing(() -> eventRollupRepository.saveAndFlush(row));
+        return row.getOrganizationId();
+    }
+
+    private void incrementOrganization(Long organizationId, LocalDate day, long events, long registrations, long checkIns) {
+        dailyRollupRepository.upsert(organizationId, day, events, registrations, checkIns);
+        monthlyRollupRepository.upsert(organizationId, YearMonth.from(day).toString(), events, registrations, checkIns);
+    }
+
+    // Zero rows are inserted in their own transaction so losing an insert race costs nothing
+    private void insertIfMissing(Runnable insert) {
+        try {
+            requiresNew.executeWithoutResult(status -> insert.run());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Rollup row already inserted concurrently: {}", e.getMessage());
+        }
+    }
+
+    private void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    apply(update);
+                }
+            });
+        } else {
+            apply(update);
+        }
+    }
+
+    private void apply(Runnable update) {
+        try {
+            requiresNew.executeWithoutResult(status -> {
+                update.run();
+                dataVersionService.bump(DataVersionService.Table.ATTENDANCE_ROLLUP);
+            });
+        } catch (Exception e) {
+            log.warn("Attendance rollup update failed, counters stay stale until the next rebuild", e);
+        }
+    }
+
+    private static long approvedFlag(EventRegistration.RegistrationStatus status) {
+        return status == EventRegistration.RegistrationStatus.APPROVED ? 1 : 0;
+    }
+}
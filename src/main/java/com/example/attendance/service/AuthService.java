@@ -5,10 +5,13 @@ import com.example.attendance.entity.User;
 import com.example.attendance.exception.DuplicateEmailException;
 import com.example.attendance.repository.UserRepository;
 import com.example.attendance.security.JwtTokenProvider;
+import com.example.attendance.security.LoginAttemptThrottle;
+import com.example.attendance.security.PasswordHashingService;
+import com.example.attendance.security.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.authentication.BadCredentialsException;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -20,7 +23,9 @@ import java.time.LocalDateTime;
 public class AuthService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptThrottle loginAttemptThrottle;
+    private final TokenRevocationService tokenRevocationService;
     private final JwtTokenProvider jwtTokenProvider;
     private final OrganizerService organizerService;
 
@@ -37,7 +42,7 @@ public class AuthService {
                 .firstName(registrationDto.getFirstName().trim())
                 .lastName(registrationDto.getLastName().trim())
                 .email(email)
-                .password(passwordEncoder.encode(registrationDto.getPassword()))
+                .password(passwordHashingService.hash(registrationDto.getPassword()))
                 .birthday(registrationDto.getBirthday())
                 .gender(registrationDto.getGender())
                 .accountType(registrationDto.getAccountType())
@@ -56,12 +61,16 @@ public class AuthService {
         return convertToUserResponseDto(savedUser);
     }
 
-    public LoginResponseDto login(LoginRequestDto loginRequest) {
+    public LoginResponseDto login(LoginRequestDto loginRequest, String clientIp) {
         String email = loginRequest.getEmail().trim().toLowerCase();
         log.info("Login attempt for email: {}", email);
+        loginAttemptThrottle.acquire(email, clientIp);
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadCredentialsException("Invalid credentials"));
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            loginAttemptThrottle.recordFailure(email);
+            throw new BadCredentialsException("Invalid credentials");
+        }
 
         if (user.isDeactivated()) {
             log.warn("Login attempt for deactivated account: {}", email);
@@ -72,9 +81,7 @@ public class AuthService {
                     .build();
         }
 
-        if (!passwordEncoder.matches(loginRequest.getPassword(), user.getPassword())) {
-            throw new BadCredentialsException("Invalid credentials");
-        }
+        verifyPassword(user, loginRequest.getPassword());
 
         String token = jwtTokenProvider.generateToken(
                 user.getEmail(),
@@ -96,17 +103,19 @@ public class AuthService {
     }
 
     @Transactional
-    public LoginResponseDto reactivateAccount(ReactivationRequest request) {
+    public LoginResponseDto reactivateAccount(ReactivationRequest request, String clientIp) {
         String email = request.getEmail().trim().toLowerCase();
         log.info("Attempting to reactivate account: {}", email);
+        loginAttemptThrottle.acquire(email, clientIp);
 
-        User user = userRepository.findByEmail(email)
-                .orElseThrow(() -> new BadCredentialsException("User not found"));
-
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
-            throw new BadCredentialsException("Invalid credentials");
+        User user = userRepository.findByEmail(email).orElse(null);
+        if (user == null) {
+            loginAttemptThrottle.recordFailure(email);
+            throw new BadCredentialsException("User not found");
         }
 
+        verifyPassword(user, request.getPassword());
+
         if (!user.isDeactivated()) {
             return buildLoginResponse(user);
         }
@@ -130,6 +139,20 @@ public class AuthService {
         return buildLoginResponse(user);
     }
 
+    // Revokes just this token; other sessions stay signed in
+    public void logout(String token) {
+        Claims claims = jwtTokenProvider.verify(token);
+        tokenRevocationService.revokeToken(claims);
+        log.info("Token revoked for: {}", claims.getSubject());
+    }
+
+    // Revokes every token issued to the token's user so far
+    public void logoutEverywhere(String token) {
+        Claims claims = jwtTokenProvider.verify(token);
+        tokenRevocationService.revokeAllForUser(claims.get("userId", Long.class));
+        log.info("All tokens revoked for: {}", claims.getSubject());
+    }
+
     @Transactional
     public void changePassword(String email, String currentPassword, String newPassword) {
         log.info("Password change requested for: {}", email);
@@ -137,15 +160,34 @@ public class AuthService {
         User user = userRepository.findByEmail(email)
                 .orElseThrow(() -> new RuntimeException("User not found"));
 
-        if (!passwordEncoder.matches(currentPassword, user.getPassword())) {
+        if (!passwordHashingService.matches(currentPassword, user.getPassword())) {
             throw new RuntimeException("Current password is incorrect");
         }
 
-        user.setPassword(passwordEncoder.encode(newPassword));
+        user.setPassword(passwordHashingService.hash(newPassword));
         user.setUpdatedAt(LocalDateTime.now());
         userRepository.save(user);
     }
 
+    /**
+     * Checks the password against the throttle's per-email failure window and, on success,
+     * re-hashes it if it was stored with a different BCrypt cost than the configured one.
+     */
+    private void verifyPassword(User user, String rawPassword) {
+        if (!passwordHashingService.matches(rawPassword, user.getPassword())) {
+            loginAttemptThrottle.recordFailure(user.getEmail());
+            throw new BadCredentialsException("Invalid credentials");
+        }
+        loginAttemptThrottle.recordSuccess(user.getEmail());
+
+        if (passwordHashingService.needsRehash(user.getPassword())) {
+            log.info("Upgrading password hash for user: {}", user.getId());
+            user.setPassword(passwordHashingService.hash(rawPassword));
+            user.setUpdatedAt(LocalDateTime.now());
+            userRepository.save(user);
+        }
+    }
+
     private LoginResponseDto buildLoginResponse(User user) {
         String token = jwtTokenProvider.generateToken(
                 user.getEmail(),
@@ -0,0 +1,38 @@
+package com.example.attendance.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Where file content lives, addressed by a relative key such as {@code ab/cd/<sha256>.png}.
+ * The local implementation keeps blobs in a directory; the S3 one lets several app nodes
+ * share them. Blobs are immutable once written.
+ */
+public interface BlobStore {
+
+    /**
+     * Copies {@code source} to {@code key}. The future completes once the blob is durable;
+     * {@code source} must not change until then.
+     */
+    CompletableFuture<Void> put(String key, Path source, String contentType);
+
+    /**
+     * @throws java.nio.file.NoSuchFileException when there is no blob under {@code key}
+     */
+    InputStream open(String key) throws IOException;
+
+    boolean exists(String key) throws IOException;
+
+    void delete(String key) throws IOException;
+
+    /**
+     * A URL clients can fetch the blob from without going through this app, valid for at
+     * least {@code ttl}; empty when the app has to serve the bytes itself.
+     */
+    Optional<URI> directUrl(String key, Duration ttl);
+}
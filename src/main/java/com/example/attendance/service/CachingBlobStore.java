@@ -0,0 +1,229 @@
+package com.example.attendance.service;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Read-through local disk cache in front of another BlobStore. Everything that needs a
+ * real file (sendfile, image decoding, mail attachments) asks {@link #localCopy}, which
+ * downloads a missing blob once into the cache directory and hands back its path.
+ *
+ * With the local backend the cache directory is the store itself and nothing is evicted.
+ * Otherwise the cache is trimmed to {@code maxBytes}, least recently used first; access
+ * times are kept in memory because file mtimes feed Last-Modified and must not change.
+ */
+@Slf4j
+public class CachingBlobStore implements BlobStore, AutoCloseable {
+
+    private final BlobStore delegate;
+    private final Path cacheRoot;
+    private final long maxBytes;
+    private final Map<String, Long> lastAccess = new ConcurrentHashMap<>();
+    private final Map<String, Object> downloadLocks = new ConcurrentHashMap<>();
+
+    public CachingBlobStore(BlobStore delegate, Path cacheRoot, long maxBytes) {
+        this.delegate = delegate;
+        this.cacheRoot = cacheRoot.toAbsolutePath().normalize();
+        this.maxBytes = maxBytes;
+    }
+
+    public Path getCacheRoot() {
+        return cacheRoot;
+    }
+
+    public Path cachePath(String key) {
+        Path path = cacheRoot.resolve(key).normalize();
+        if (!path.startsWith(cacheRoot)) {
+            throw new IllegalArgumentException("Key escapes the cache: " + key);
+        }
+        return path;
+    }
+
+    /**
+     * The blob as a local file, downloaded into the cache on a miss; null when the blob
+     * does not exist.
+     */
+    public Path localCopy(String key) throws IOException {
+        Path path = cachePath(key);
+        if (Files.isRegularFile(path)) {
+            touch(key);
+            return path;
+        }
+        // One download per key; other requests for it wait and then find the file
+        Object lock = downloadLocks.computeIfAbsent(key, k -> new Object());
+        try {
+            synchronized (lock) {
+                if (Files.isRegularFile(path)) {
+                    return path;
+                }
+                InputStream in;
+                try {
+                    in = delegate.open(key);
+                } catch (NoSuchFileException e) {
+                    return null;
+                }
+                try (in) {
+                    Files.createDirectories(path.getParent());
+                    Path temp = Files.createTempFile(path.getParent(), ".fetch-", ".tmp");
+                    try {
+                        Files.copy(in, temp, StandardCopyOption.REPLACE_EXISTING);
+                        Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    } finally {
+                        Files.deleteIfExists(temp);
+                    }
+                }
+                touch(key);
+                return path;
+            }
+        } finally {
+            downloadLocks.remove(key, lock);
+        }
+    }
+
+    /**
+     * Puts {@code source} in the cache (unless it is already there) and in the backing store.
+     */
+    @Override
+    public CompletableFuture<Void> put(String key, Path source, String contentType) {
+        try {
+            Path path = cachePath(key);
+            if (!source.toAbsolutePath().normalize().equals(path)) {
+                Files.createDirectories(path.getParent());
+                Path temp = Files.createTempFile(path.getParent(), ".put-", ".tmp");
+                try {
+                    Files.copy(source, temp, StandardCopyOption.REPLACE_EXISTING);
+                    Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                } finally {
+                    Files.deleteIfExists(temp);
+                }
+            }
+            touch(key);
+            return delegate.put(key, path, contentType);
+        } catch (IOException | RuntimeException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        Path path = localCopy(key);
+        if (path == null) {
+            throw new NoSuchFileException(key);
+        }
+        return Files.newInputStream(path);
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        return Files.isRegularFile(cachePath(key)) || delegate.exists(key);
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        delegate.delete(key);
+        Files.deleteIfExists(cachePath(key));
+        lastAccess.remove(key);
+    }
+
+    @Override
+    public Optional<URI> directUrl(String key, Duration ttl) {
+        return delegate.directUrl(key, ttl);
+    }
+
+    @Override
+    public void close() throws Exception {
+        if (delegate instanceof AutoCloseable closeable) {
+            closeable.close();
+        }
+    }
+
+    /**
+     * Deletes least recently used cached files until the cache is under 90% of maxBytes.
+     */
+    @Scheduled(fixedDelayString = "${storage.cache.sweep-interval-ms:300000}")
+    public void trim() {
+        if (maxBytes <= 0 || !Files.isDirectory(cacheRoot)) {
+            return;
+        }
+        List<CachedFile> files = new ArrayList<>();
+        long[] total = {0};
+        try {
+            Files.walkFileTree(cacheRoot, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    String key = cacheRoot.relativize(file).toString().replace('\\', '/');
+                    // Temp files belong to writes still in progress
+                    if (!key.startsWith(".") && !file.getFileName().toString().startsWith(".")) {
+                        long used = lastAccess.getOrDefault(key, attributes.lastModifiedTime().toMillis());
+                        files.add(new CachedFile(key, file, attributes.size(), used));
+                        total[0] += attributes.size();
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not scan blob cache {}: {}", cacheRoot, e.getMessage());
+            return;
+        }
+        if (total[0] <= maxBytes) {
+            return;
+        }
+        files.sort(Comparator.comparingLong(file -> file.lastUsed));
+        long target = maxBytes * 9 / 10;
+        int evicted = 0;
+        for (CachedFile file : files) {
+            if (total[0] <= target) {
+                break;
+            }
+            try {
+                Files.deleteIfExists(file.path);
+                lastAccess.remove(file.key);
+                total[0] -= file.size;
+                evicted++;
+            } catch (IOException e) {
+                log.warn("Could not evict {}: {}", file.path, e.getMessage());
+            }
+        }
+        log.info("Evicted {} files from blob cache {}", evicted, cacheRoot);
+    }
+
+    // Only tracked when eviction is on, so the local backend does not keep a map of every file
+    private void touch(String key) {
+        if (maxBytes > 0) {
+            lastAccess.put(key, System.currentTimeMillis());
+        }
+    }
+
+    private static final class CachedFile {
+        private final String key;
+        private final Path path;
+        private final long size;
+        private final long lastUsed;
+
+        private CachedFile(String key, Path path, long size, long lastUsed) {
+            this.key = key;
+            this.path = path;
+            this.size = size;
+            this.lastUsed = lastUsed;
+        }
+    }
+}
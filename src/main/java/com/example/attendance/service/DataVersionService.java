@@ -0,0 +1,52 @@
+package com.example.attendance.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Monotonic in-memory version per source table. Any write to a table bumps its version,
+ * so a cached value computed under an older version is known to be stale.
+ *
+ * A write inside a transaction bumps once when it is flushed and again when the
+ * transaction completes, so nothing read between the flush and the commit can be
+ * cached under the final version.
+ */
+@Component
+public class DataVersionService {
+
+    public enum Table {
+        EVENT,
+        EVENT_REGISTRATION,
+        USER_EVENT_ATTENDANCE,
+        ATTENDANCE_ROLLUP
+    }
+
+    private final AtomicLongArray versions = new AtomicLongArray(Table.values().length);
+
+    public long current(Table table) {
+        return versions.get(table.ordinal());
+    }
+
+    public long[] snapshot(Table... tables) {
+        long[] snapshot = new long[tables.length];
+        for (int i = 0; i < tables.length; i++) {
+            snapshot[i] = current(tables[i]);
+        }
+        return snapshot;
+    }
+
+    public void bump(Table table) {
+        versions.incrementAndGet(table.ordinal());
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    versions.incrementAndGet(table.ordinal());
+                }
+            });
+        }
+    }
+}
@@ -0,0 +1,296 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.Event;
+import com.example.attendance.entity.User;
+import com.example.attendance.entity.UserEventAttendance;
+import com.example.attendance.repository.EventRepository;
+import com.example.attendance.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Engagement and streak analytics for recurring series.
+ *
+ * Sessions are the series' occurrence dates up to today (whether or not anyone checked
+ * in, so a session nobody attended still counts as missed), numbered in date order. Each
+ * member has a BitSet over those positions. A series is loaded from the database once;
+ * after that check-ins set bits and new sessions are appended as time passes, so
+ * streaks, rates and drop-off lists are computed in memory.
+ */
+@Slf4j
+@Service
+public class EngagementService {
+
+    private static final int MAX_LOADED_SERIES = 1000;
+
+    private final EventRepository eventRepository;
+    private final UserRepository userRepository;
+    private final RecurrenceService recurrenceService;
+    private final long historyDays;
+
+    private final Map<Long, SeriesAttendance> loaded = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SeriesAttendance> eldest) {
+                return size() > MAX_LOADED_SERIES;
+            }
+        });
+    // Check-ins seen while a series is being read from the database, replayed once it is published
+    private final Map<Long, Queue<Consumer<SeriesAttendance>>> loading = new ConcurrentHashMap<>();
+
+    public EngagementService(EventRepository eventRepository,
+                             UserRepository userRepository,
+                             RecurrenceService recurrenceService,
+                             @Value("${engagement.history-days:365}") long historyDays) {
+        this.eventRepository = eventRepository;
+        this.userRepository = userRepository;
+        this.recurrenceService = recurrenceService;
+        this.historyDays = historyDays;
+    }
+
+    /**
+     * Records a check-in once the surrounding transaction commits. Series that are not
+     * loaded are skipped; they read the row when they are. Series that are loading get the
+     * check-in replayed, since their query may have run before it committed.
+     */
+    public void onCheckIn(UserEventAttendance attendance) {
+        if (!Boolean.TRUE.equals(attendance.getAttended())) {
+            return;
+        }
+        Event event = attendance.getEvent();
+        Long seriesId = event.getOriginalEventId() != null ? event.getOriginalEventId()
+            : recurrenceService.isRecurringSeries(event) ? event.getId() : null;
+        if (seriesId == null) {
+            return;
+        }
+        Long userId = attendance.getUser().getId();
+        LocalDate date = event.getDate();
+        Runnable mark = () -> {
+            // Queued first and then applied directly as well; marking twice is harmless
+            Queue<Consumer<SeriesAttendance>> pending = loading.get(seriesId);
+            if (pending != null) {
+                pending.add(series -> series.mark(userId, date));
+            }
+            SeriesAttendance series = loaded.get(seriesId);
+            if (series != null) {
+                series.mark(userId, date);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    mark.run();
+                }
+            });
+        } else {
+            mark.run();
+        }
+    }
+
+    // Series edited or deleted: drop it so the next query reloads the schedule
+    public void evict(Long seriesId) {
+        if (seriesId != null) {
+            loaded.remove(seriesId);
+        }
+    }
+
+    /**
+     * Engagement over the last {@code window} sessions. Members who attended at least
+     * {@code threshold} of them are engaged; members who met the threshold in the window
+     * before that but no longer do are drifting.
+     */
+    public Map<String, Object> getSeriesEngagement(Long seriesId, int window, int threshold, boolean includeAll) {
+        SeriesAttendance series = seriesFor(seriesId);
+        LocalDate today = LocalDate.now();
+
+        List<Map<String, Object>> members = new ArrayList<>();
+        List<Map<String, Object>> engaged = new ArrayList<>();
+        List<Map<String, Object>> drifting = new ArrayList<>();
+        List<LocalDate> windowSessions;
+        int pastSessions;
+
+        synchronized (series) {
+            series.extendTo(today);
+            pastSessions = series.sessions.size();
+            int windowStart = Math.max(0, pastSessions - window);
+            int previousStart = Math.max(0, windowStart - window);
+            windowSessions = new ArrayList<>(series.sessions.subList(windowStart, pastSessions));
+
+            Map<Long, String> names = userNames(series.members.keySet());
+            for (Map.Entry<Long, BitSet> member : series.members.entrySet()) {
+                BitSet bits = member.getValue();
+                int inWindow = bits.get(windowStart, pastSessions).cardinality();
+                int inPrevious = bits.get(previousStart, windowStart).cardinality();
+                int first = bits.nextSetBit(0);
+                int last = bits.previousSetBit(pastSessions - 1);
+
+                Map<String, Object> row = new LinkedHashMap<>();
+                row.put("userId", member.getKey());
+                row.put("name", names.get(member.getKey()));
+                row.put("attendedInWindow", inWindow);
+                // Rate over the sessions since the member first showed up
+                row.put("attendanceRate", first >= 0
+                    ? Math.round(bits.cardinality() * 1000.0 / (pastSessions - first)) / 10.0 : 0.0);
+                // A session later today that the member has not checked in to yet does not break the streak
+                boolean todayPending = pastSessions > 0 && series.sessions.get(pastSessions - 1).equals(today)
+                    && !bits.get(pastSessions - 1);
+                row.put("currentStreak", currentStreak(bits, todayPending ? pastSessions - 1 : pastSessions));
+                row.put("longestStreak", longestStreak(bits, pastSessions));
+                row.put("lastAttended", last >= 0 ? series.sessions.get(last) : null);
+
+                if (inWindow >= threshold) {
+                    engaged.add(row);
+                } else if (inPrevious >= threshold) {
+                    drifting.add(row);
+                }
+                if (includeAll) {
+                    members.add(row);
+                }
+            }
+        }
+
+        Comparator<Map<String, Object>> byStreak = Comparator
+            .comparing((Map<String, Object> row) -> (Integer) row.get("currentStreak")).reversed()
+            .thenComparing(row -> (Long) row.get("userId"));
+        engaged.sort(byStreak);
+        drifting.sort(Comparator.comparing((Map<String, Object> row) -> (LocalDate) row.get("lastAttended"),
+            Comparator.nullsFirst(Comparator.naturalOrder())));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("seriesId", seriesId);
+        result.put("seriesName", series.name);
+        result.put("window", window);
+        result.put("threshold", threshold);
+        result.put("pastSessions", pastSessions);
+        result.put("windowSessions", windowSessions);
+        result.put("memberCount", series.members.size());
+        result.put("engaged", engaged);
+        result.put("drifting", drifting);
+        if (includeAll) {
+            members.sort(byStreak);
+            result.put("members", members);
+        }
+        return result;
+    }
+
+    private SeriesAttendance seriesFor(Long seriesId) {
+        SeriesAttendance series = loaded.get(seriesId);
+        if (series != null) {
+            return series;
+        }
+        // Registered before the query so check-ins committed during it are not lost
+        Queue<Consumer<SeriesAttendance>> pending = loading.computeIfAbsent(seriesId, k -> new ConcurrentLinkedQueue<>());
+        try {
+            series = load(seriesId);
+            SeriesAttendance existing = loaded.putIfAbsent(seriesId, series);
+            if (existing != null) {
+                series = existing;
+            }
+        } finally {
+            loading.remove(seriesId, pending);
+        }
+        // Check-ins that arrive from here on find the series in loaded
+        Consumer<SeriesAttendance> replay;
+        while ((replay = pending.poll()) != null) {
+            replay.accept(series);
+        }
+        return series;
+    }
+
+    private SeriesAttendance load(Long seriesId) {
+        Event event = eventRepository.findById(seriesId)
+            .orElseThrow(() -> new IllegalArgumentException("Event not found with ID: " + seriesId));
+        if (!recurrenceService.isRecurringSeries(event)) {
+            throw new IllegalArgumentException("Event " + seriesId + " is not a recurring series");
+        }
+
+        LocalDate today = LocalDate.now();
+        LocalDate start = event.getDate().isAfter(today.minusDays(historyDays)) ? event.getDate() : today.minusDays(historyDays);
+        SeriesAttendance series = new SeriesAttendance(event, start);
+        series.extendTo(today);
+
+        List<Object[]> rows = eventRepository.findSeriesAttendance(seriesId, start);
+        for (Object[] row : rows) {
+            series.mark((Long) row[0], (LocalDate) row[1]);
+        }
+        log.debug("Loaded {} check-ins over {} sessions for series {}", rows.size(), series.sessions.size(), seriesId);
+        return series;
+    }
+
+    private Map<Long, String> userNames(Collection<Long> userIds) {
+        return userRepository.findAllById(userIds).stream()
+            .collect(Collectors.toMap(User::getId, user -> user.getFirstName() + " " + user.getLastName(),
+                (a, b) -> a));
+    }
+
+    private static int currentStreak(BitSet bits, int sessions) {
+        if (sessions == 0 || !bits.get(sessions - 1)) {
+            return 0;
+        }
+        int lastMiss = bits.previousClearBit(sessions - 1);
+        return sessions - 1 - lastMiss;
+    }
+
+    private static int longestStreak(BitSet bits, int sessions) {
+        int longest = 0;
+        int run = bits.nextSetBit(0);
+        while (run >= 0 && run < sessions) {
+            int end = Math.min(bits.nextClearBit(run), sessions);
+            longest = Math.max(longest, end - run);
+            run = bits.nextSetBit(end);
+        }
+        return longest;
+    }
+
+    /**
+     * Session dates of one series and a BitSet per member over their positions.
+     */
+    private final class SeriesAttendance {
+        private final Event series;
+        private final String name;
+        private final List<LocalDate> sessions = new ArrayList<>();
+        private final Map<LocalDate, Integer> positions = new HashMap<>();
+        private final Map<Long, BitSet> members = new HashMap<>();
+        private LocalDate through;
+
+        private SeriesAttendance(Event series, LocalDate start) {
+            this.series = series;
+            this.name = series.getName();
+            this.through = start.minusDays(1);
+        }
+
+        // Appends the occurrences in (through, until]
+        synchronized void extendTo(LocalDate until) {
+            if (!until.isAfter(through)) {
+                return;
+            }
+            for (LocalDate date : recurrenceService.expandDates(series, through.plusDays(1), until.plusDays(1))) {
+                positions.put(date, sessions.size());
+                sessions.add(date);
+            }
+            through = until;
+        }
+
+        synchronized void mark(Long userId, LocalDate date) {
+            Integer position = positions.get(date);
+            if (position == null && date.isAfter(through) && !date.isAfter(LocalDate.now())) {
+                extendTo(date);
+                position = positions.get(date);
+            }
+            if (position != null) {
+                members.computeIfAbsent(userId, k -> new BitSet()).set(position);
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.Event;
+import com.example.attendance.repository.EventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Moves events through their lifecycle in the background so read queries can filter on
+ * the indexed status column instead of re-evaluating dates and capacity per row:
+ * ACTIVE/FULL events that have started become COMPLETED, ACTIVE events at capacity
+ * become FULL, and FULL events with free seats go back to ACTIVE.
+ *
+ * Every transition runs as a chunked set-based UPDATE, one short transaction per chunk.
+ */
+@Slf4j
+@Service
+public class EventLifecycleScheduler {
+
+    private static final Set<Event.EventStatus> OPEN_STATUSES = EnumSet.of(Event.EventStatus.ACTIVE, Event.EventStatus.FULL);
+
+    private final EventRepository eventRepository;
+    private final EventVersionCache eventVersionCache;
+    private final DataVersionService dataVersionService;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long completionGraceMinutes;
+
+    public EventLifecycleScheduler(EventRepository eventRepository,
+                                   EventVersionCache eventVersionCache,
+                                   DataVersionService dataVersionService,
+                                   PlatformTransactionManager transactionManager,
+                                   @Value("${event.lifecycle.batch-size:500}") int batchSize,
+                                   @Value("${event.lifecycle.completion-grace-minutes:360}") long completionGraceMinutes) {
+        this.eventRepository = eventRepository;
+        this.eventVersionCache = eventVersionCache;
+        this.dataVersionService = dataVersionService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.completionGraceMinutes = completionGraceMinutes;
+    }
+
+    @Scheduled(initialDelayString = "${event.lifecycle.initial-delay-ms:60000}",
+               fixedDelayString = "${event.lifecycle.interval-ms:300000}")
+    public void run() {
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            int completed = completePastEvents(now);
+            int full = markFullEvents(now);
+            int reopened = reopenEventsWithCapacity();
+            if (completed + full + reopened > 0) {
+                log.info("Event lifecycle: {} completed, {} full, {} reopened", completed, full, reopened);
+            }
+        } catch (Exception e) {
+            log.error("Event lifecycle run failed", e);
+        }
+    }
+
+    public int completePastEvents(LocalDateTime now) {
+        LocalDateTime cutoff = now.minusMinutes(completionGraceMinutes);
+        return transitionInChunks(
+            page -> eventRepository.findIdsToComplete(OPEN_STATUSES, cutoff, cutoff.toLocalDate(), page),
+            OPEN_STATUSES, Event.EventStatus.COMPLETED);
+    }
+
+    public int markFullEvents(LocalDateTime now) {
+        return transitionInChunks(
+            page -> eventRepository.findIdsReachingCapacity(now, page),
+            EnumSet.of(Event.EventStatus.ACTIVE), Event.EventStatus.FULL);
+    }
+
+    public int reopenEventsWithCapacity() {
+        return transitionInChunks(
+            eventRepository::findFullIdsWithFreeCapacity,
+            EnumSet.of(Event.EventStatus.FULL), Event.EventStatus.ACTIVE);
+    }
+
+    // Updated rows drop out of the selecting query, so the first page is re-read until it is empty
+    private int transitionInChunks(Function<PageRequest, List<Long>> selectIds,
+                                   Set<Event.EventStatus> currentStatuses,
+                                   Event.EventStatus targetStatus) {
+        PageRequest firstPage = PageRequest.of(0, batchSize);
+        int total = 0;
+        int[] updated = new int[1];
+        while (true) {
+            List<Long> ids = transactionTemplate.execute(status -> {
+                List<Long> chunk = selectIds.apply(firstPage);
+                updated[0] = chunk.isEmpty() ? 0 : eventRepository.updateStatus(chunk, currentStatuses, targetStatus);
+                return chunk;
+            });
+            if (ids == null || updated[0] == 0) {
+                // Nothing left, or a concurrent writer already moved the whole chunk
+                return total;
+            }
+            // Bulk UPDATEs skip entity listeners, so drop the cached versions and bump the table version after commit
+            eventVersionCache.evictAll(ids);
+            dataVersionService.bump(DataVersionService.Table.EVENT);
+            total += updated[0];
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.attendance.service;
 
+import com.example.attendance.dto.EventOccurrenceDTO;
 import com.example.attendance.dto.EventRequestDTO;
 import com.example.attendance.entity.Event;
 import com.example.attendance.entity.User;
@@ -7,12 +8,14 @@ import com.example.attendance.repository.EventRepository;
 import com.example.attendance.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.List;
-import java.util.UUID;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.*;
 
 @Slf4j
 @Service
@@ -21,6 +24,10 @@ import java.util.UUID;
 public class EventService {
     private final EventRepository eventRepository;
     private final UserRepository userRepository;
+    private final RecurrenceService recurrenceService;
+    private final EventVersionCache eventVersionCache;
+    private final AttendanceRollupService attendanceRollupService;
+    private final EngagementService engagementService;
 
     public Event createEvent(EventRequestDTO eventRequest, String userEmail) {
         User user = userRepository.findByEmail(userEmail)
@@ -49,6 +56,7 @@ public class EventService {
         }
         
         Event savedEvent = eventRepository.save(event);
+        attendanceRollupService.onEventCreated(savedEvent);
         log.info("Event created successfully with ID: {} for user ID: {}, Price: {}", 
                 savedEvent.getId(), user.getId(), savedEvent.getPrice());
         
@@ -81,6 +89,89 @@ public class EventService {
             .orElseThrow(() -> new IllegalStateException("Event not found with ID: " + id));
     }
 
+    // Version and last-modified time without loading the event, served from memory when possible
+    @Transactional(readOnly = true)
+    public Optional<EventVersionCache.EventVersion> getEventVersion(Long id) {
+        EventVersionCache.EventVersion cached = eventVersionCache.get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return getCurrentEventVersion(id);
+    }
+
+    // Straight from the database, bypassing the cache; used before refusing an update as stale
+    public Optional<EventVersionCache.EventVersion> getCurrentEventVersion(Long id) {
+        return eventRepository.findVersionById(id)
+            .filter(view -> view.getVersion() != null)
+            .map(view -> {
+                eventVersionCache.put(id, view.getVersion(), view.getUpdatedAt());
+                return new EventVersionCache.EventVersion(view.getVersion(), view.getUpdatedAt());
+            });
+    }
+
+    /**
+     * Updates an event in place. When expectedVersion is given the update only applies to
+     * that version; a concurrent edit surfaces as ObjectOptimisticLockingFailureException.
+     */
+    public Event updateEvent(Long id, EventRequestDTO request, Long expectedVersion) {
+        Event event = getEventById(id);
+        LocalDate previousDate = event.getDate();
+        if (expectedVersion != null && !expectedVersion.equals(event.getVersion())) {
+            throw new ObjectOptimisticLockingFailureException(Event.class, id);
+        }
+
+        event.setName(request.getName());
+        event.setDate(request.getDate());
+        event.setTime(request.getTime());
+        event.setPlace(request.getPlace());
+        event.setDescription(request.getDescription());
+
+        event.setIsFree(request.getIsFree());
+        event.setPrice(request.getIsFree() ? BigDecimal.ZERO
+            : request.getPrice() != null ? request.getPrice() : BigDecimal.ZERO);
+        if (request.getRequiresApproval() != null) {
+            event.setRequiresApproval(request.getRequiresApproval());
+        }
+
+        event.setIsOnline(request.getIsOnline());
+        if (Boolean.TRUE.equals(request.getIsOnline())) {
+            event.setMeetingUrl(request.getMeetingUrl());
+            event.setMeetingId(request.getMeetingId());
+            event.setMeetingPasscode(request.getMeetingPasscode());
+        } else {
+            event.setOnline(false);
+        }
+
+        event.setMaxCapacity(request.getMaxCapacity());
+        event.setRegistrationDeadline(request.getRegistrationDeadline());
+        event.setCategory(request.getCategory());
+        if (request.getStatus() != null) {
+            event.setStatus(request.getStatus());
+        }
+
+        // Materialized occurrences keep their own dates; only a series carries the rule
+        if (!Boolean.TRUE.equals(event.getIsRecurringInstance())) {
+            if (request.getRecurrencePattern() != null && !request.getRecurrencePattern().equals("none")) {
+                event.setRecurrencePattern(request.getRecurrencePatternEnum());
+                event.setRecurrenceInterval(request.getRecurrenceInterval() != null ? request.getRecurrenceInterval() : 1);
+                event.setRecurrenceEndDate(request.getRecurrenceEndDate());
+                event.setRecurrenceCount(request.getRecurrenceCount());
+            } else {
+                event.setRecurrencePattern(Event.RecurrencePattern.NONE);
+                event.setRecurrenceInterval(1);
+                event.setRecurrenceEndDate(null);
+                event.setRecurrenceCount(null);
+            }
+            recurrenceService.evict(id);
+            engagementService.evict(id);
+        }
+
+        Event saved = eventRepository.saveAndFlush(event);
+        attendanceRollupService.onEventRescheduled(saved, previousDate);
+        log.info("Event {} updated to version {}", id, saved.getVersion());
+        return saved;
+    }
+
     public Event verifyEventQrCode(Long eventId, String qrCode) {
         Event event = eventRepository.findById(eventId)
             .orElseThrow(() -> new IllegalStateException("Event not found with ID: " + eventId));
@@ -92,10 +183,11 @@ public class EventService {
     }
 
     public void deleteEvent(Long id) {
-        if (!eventRepository.existsById(id)) {
-            throw new IllegalStateException("Event not found with ID: " + id);
-        }
-        eventRepository.deleteById(id);
+        Event event = getEventById(id);
+        eventRepository.delete(event);
+        recurrenceService.evict(id);
+        engagementService.evict(event.getOriginalEventId() != null ? event.getOriginalEventId() : id);
+        attendanceRollupService.onEventDeleted(event);
         log.info("Event deleted successfully with ID: {}", id);
     }
 
@@ -148,6 +240,36 @@ public class EventService {
         return eventRepository.countByIsFree(false);
     }
 
+    // Calendar view for [from, to): stored events plus virtual occurrences of recurring series
+    @Transactional(readOnly = true)
+    public List<EventOccurrenceDTO> getCalendar(Long organizationId, LocalDate from, LocalDate to) {
+        List<EventOccurrenceDTO> entries = new ArrayList<>();
+        Set<String> storedOccurrences = new HashSet<>();
+
+        for (Event event : eventRepository.findCalendarEventsByOrganizationId(
+                organizationId, from.atStartOfDay(), to.atStartOfDay())) {
+            EventOccurrenceDTO entry = EventOccurrenceDTO.fromEntity(event);
+            entries.add(entry);
+            if (entry.getSeriesId() != null) {
+                storedOccurrences.add(entry.getSeriesId() + ":" + entry.getDate());
+            }
+        }
+
+        for (Event series : eventRepository.findRecurringSeriesByOrganizationId(
+                organizationId, from, to.atStartOfDay())) {
+            for (LocalDate date : recurrenceService.expandDates(series, from, to)) {
+                if (storedOccurrences.add(series.getId() + ":" + date)) {
+                    entries.add(EventOccurrenceDTO.virtual(series, date));
+                }
+            }
+        }
+
+        entries.sort(Comparator.comparing(EventOccurrenceDTO::getDate)
+            .thenComparing(EventOccurrenceDTO::getTime, Comparator.nullsLast(Comparator.<LocalTime>naturalOrder())));
+        log.debug("Calendar for organization {} in [{}, {}): {} entries", organizationId, from, to, entries.size());
+        return entries;
+    }
+
     private String generateQrCode() {
         return "EVT-" + UUID.randomUUID().toString();
     }
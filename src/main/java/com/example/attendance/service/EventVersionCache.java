@@ -0,0 +1,97 @@
+package com.example.attendance.service;
+
+import lombok.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Event ID -> (version, last modified) for conditional GETs, so a 304 can be answered
+ * without loading the event. Entries are written by {@code EventVersionListener} and
+ * evicted by bulk updates that bypass the persistence context.
+ *
+ * The listener only sees edits made on this node, so entries expire after
+ * event.version-cache.ttl-seconds and are then re-read from the database.
+ */
+@Component
+public class EventVersionCache {
+
+    private static final int MAX_ENTRIES = 10_000;
+
+    private final long ttlMillis;
+    private final Map<Long, Entry> versions = Collections.synchronizedMap(
+        new LinkedHashMap<>(256, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > MAX_ENTRIES;
+            }
+        });
+
+    public EventVersionCache(@org.springframework.beans.factory.annotation.Value(
+                                 "${event.version-cache.ttl-seconds:5}") long ttlSeconds) {
+        this.ttlMillis = ttlSeconds * 1000;
+    }
+
+    // Null when not cached or expired
+    public EventVersion get(Long eventId) {
+        Entry entry = versions.get(eventId);
+        if (entry == null) {
+            return null;
+        }
+        if (System.currentTimeMillis() >= entry.expiresAt) {
+            versions.remove(eventId, entry);
+            return null;
+        }
+        return entry.version;
+    }
+
+    // Never moves backwards, so a reader that loaded a row before a commit cannot undo it
+    public void put(Long eventId, Long version, LocalDateTime updatedAt) {
+        if (eventId != null && version != null) {
+            long expiresAt = System.currentTimeMillis() + ttlMillis;
+            versions.merge(eventId, new Entry(new EventVersion(version, updatedAt), expiresAt),
+                (current, fresh) -> fresh.version.getVersion() >= current.version.getVersion()
+                    ? fresh
+                    : new Entry(current.version, expiresAt));
+        }
+    }
+
+    public void evict(Long eventId) {
+        if (eventId != null) {
+            versions.remove(eventId);
+        }
+    }
+
+    public void evictAll(Collection<Long> eventIds) {
+        eventIds.forEach(versions::remove);
+    }
+
+    private static final class Entry {
+        private final EventVersion version;
+        private final long expiresAt;
+
+        private Entry(EventVersion version, long expiresAt) {
+            this.version = version;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    @Value
+    public static class EventVersion {
+        long version;
+        LocalDateTime updatedAt;
+
+        public String getETag() {
+            return "\"" + version + "\"";
+        }
+
+        public long getLastModifiedMillis() {
+            return updatedAt != null ? updatedAt.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : -1;
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.StoredFile;
+import com.example.attendance.exception.PayloadTooLargeException;
+import com.example.attendance.exception.UnsupportedFileTypeException;
+import com.example.attendance.repository.StoredFileRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Pattern;
+
+/**
+ * Content-addressed file store. Content is hashed while it streams to a temp file, then
+ * moved to {@code <root>/<h0h1>/<h2h3>/<sha256>.<ext>}; if that blob already exists the
+ * copy is dropped, so identical files are stored once. Each blob has a StoredFile row.
+ *
+ * Uploads (public, served under /uploads) and support attachments (private) are kept in
+ * separate blob stores (see StorageConfig); the roots here are their local directories.
+ * A row is only saved once its blob has reached the backing store.
+ */
+@Slf4j
+@Service
+public class FileStorageService {
+
+    private static final Pattern HASHED_NAME = Pattern.compile("[0-9a-f]{64}.*");
+    private static final int SNIFF_BYTES = 16;
+    private static final Set<String> ZIP_EXTENSIONS = Set.of("zip", "docx", "xlsx", "pptx");
+    private static final Set<String> TEXT_EXTENSIONS = Set.of("txt", "csv", "log");
+
+    private final StoredFileRepository storedFileRepository;
+    private final CachingBlobStore uploadStore;
+    private final CachingBlobStore supportStore;
+
+    public FileStorageService(StoredFileRepository storedFileRepository,
+                              @Qualifier("uploadBlobStore") CachingBlobStore uploadStore,
+                              @Qualifier("supportBlobStore") CachingBlobStore supportStore) {
+        this.storedFileRepository = storedFileRepository;
+        this.uploadStore = uploadStore;
+        this.supportStore = supportStore;
+    }
+
+    /**
+     * The blob key for a stored name: hashed names are sharded by their first four hex
+     * digits, anything else (files from before this store) sits at the top level.
+     */
+    public static String shardKey(String storedName) {
+        if (!HASHED_NAME.matcher(storedName).matches()) {
+            return storedName;
+        }
+        return storedName.substring(0, 2) + "/" + storedName.substring(2, 4) + "/" + storedName;
+    }
+
+    public static Path shardPath(Path root, String storedName) {
+        return root.resolve(shardKey(storedName));
+    }
+
+    // Local path of the file; with a remote backend it may not be cached on this node yet
+    public Path resolve(StoredFile file) {
+        return storeFor(file.getCategory()).cachePath(shardKey(file.getStoredName()));
+    }
+
+    /**
+     * The file on this node's disk, fetched from the backing store if it is not cached
+     * here; null when the blob is gone.
+     */
+    public Path localCopy(StoredFile file) throws IOException {
+        return storeFor(file.getCategory()).localCopy(shardKey(file.getStoredName()));
+    }
+
+    public Optional<StoredFile> find(Long id) {
+        return storedFileRepository.findById(id);
+    }
+
+    /**
+     * Size limit and accepted content types for one kind of upload. Types are sniffed from
+     * the leading bytes; what the client claims is ignored.
+     */
+    public static final class Policy {
+        private final long maxBytes;
+        private final Set<String> allowedTypes;
+
+        public Policy(long maxBytes, Set<String> allowedTypes) {
+            this.maxBytes = maxBytes;
+            this.allowedTypes = allowedTypes;
+        }
+
+        public long getMaxBytes() {
+            return maxBytes;
+        }
+    }
+
+    /**
+     * Streams {@code content} to disk and returns its row; an identical earlier file is
+     * reused. Hashing, the size limit and type sniffing all happen during the single pass,
+     * so an oversized upload is cut off at the limit and nothing is moved into the store
+     * until it has passed every check.
+     *
+     * @throws PayloadTooLargeException once more than the policy's maxBytes arrive
+     * @throws UnsupportedFileTypeException when the sniffed type is not allowed
+     */
+    public StoredFile store(StoredFile.Category category, InputStream content,
+                            String originalName, Policy policy) throws IOException {
+        CachingBlobStore blobStore = storeFor(category);
+        Path root = blobStore.getCacheRoot();
+        Path tempDir = root.resolve(".tmp");
+        Files.createDirectories(tempDir);
+
+        Path temp = Files.createTempFile(tempDir, "upload-", ".part");
+        try {
+            MessageDigest digest = sha256();
+            byte[] buffer = new byte[64 * 1024];
+            byte[] header = new byte[SNIFF_BYTES];
+            int headerLength = 0;
+            long size = 0;
+            try (OutputStream out = Files.newOutputStream(temp)) {
+                int read;
+                while ((read = content.read(buffer)) != -1) {
+                    size += read;
+                    if (size > policy.maxBytes) {
+                        throw new PayloadTooLargeException(
+                            "File exceeds the maximum size of " + policy.maxBytes / (1024 * 1024) + "MB");
+                    }
+                    if (headerLength < SNIFF_BYTES) {
+                        int take = Math.min(read, SNIFF_BYTES - headerLength);
+                        System.arraycopy(buffer, 0, header, headerLength, take);
+                        headerLength += take;
+                    }
+                    digest.update(buffer, 0, read);
+                    out.write(buffer, 0, read);
+                }
+            }
+            String contentType = sniff(header, headerLength);
+            if (!policy.allowedTypes.contains(contentType)) {
+                throw new UnsupportedFileTypeException("Unsupported file type");
+            }
+            String hash = HexFormat.of().formatHex(digest.digest());
+
+            StoredFile existing = storedFileRepository.findByCategoryAndSha256(category, hash).orElse(null);
+            if (existing != null && blobStore.exists(shardKey(existing.getStoredName()))) {
+                if (storedFileRepository.incrementReferences(existing.getId()) > 0) {
+                    return existing;
+                }
+                // Released and deleted since the lookup; store it afresh
+                existing = null;
+            }
+
+            String storedName = existing != null
+                ? existing.getStoredName()
+                : hash + extensionFor(contentType, originalName);
+            Path target = shardPath(root, storedName);
+            Files.createDirectories(target.getParent());
+            try {
+                Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+            } catch (FileAlreadyExistsException e) {
+                // A concurrent upload of the same content got there first
+            }
+            publish(blobStore, storedName, target, contentType);
+            // Row survived a lost file; the blob is back now
+            if (existing != null && storedFileRepository.incrementReferences(existing.getId()) > 0) {
+                return existing;
+            }
+            return saveRow(category, hash, storedName, originalName, contentType, size);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+
+    /**
+     * Gives back the reference one {@link #store} call took, for an upload that ended up
+     * unused. The row and blob are deleted once nothing refers to them.
+     */
+    public void release(StoredFile file) {
+        storedFileRepository.decrementReferences(file.getId());
+        if (storedFileRepository.deleteIfUnreferenced(file.getId()) == 0) {
+            return;
+        }
+        try {
+            storeFor(file.getCategory()).delete(shardKey(file.getStoredName()));
+        } catch (IOException e) {
+            log.warn("Could not delete unreferenced blob {}: {}", file.getStoredName(), e.getMessage());
+        }
+    }
+
+    /**
+     * Content type from magic bytes: common images, PDF, ZIP (which includes Office
+     * documents) and plain text; anything else is application/octet-stream.
+     */
+    static String sniff(byte[] header, int length) {
+        if (startsWith(header, length, 0xFF, 0xD8, 0xFF)) {
+            return "image/jpeg";
+        }
+        if (startsWith(header, length, 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A)) {
+            return "image/png";
+        }
+        if (startsWith(header, length, 'G', 'I', 'F', '8')) {
+            return "image/gif";
+        }
+        if (length >= 12 && startsWith(header, length, 'R', 'I', 'F', 'F')
+                && header[8] == 'W' && header[9] == 'E' && header[10] == 'B' && header[11] == 'P') {
+            return "image/webp";
+        }
+        if (startsWith(header, length, '%', 'P', 'D', 'F', '-')) {
+            return "application/pdf";
+        }
+        if (startsWith(header, length, 'P', 'K', 0x03, 0x04)) {
+            return "application/zip";
+        }
+        if (length > 0 && isText(header, length)) {
+            return "text/plain";
+        }
+        return "application/octet-stream";
+    }
+
+    private static boolean startsWith(byte[] header, int length, int... magic) {
+        if (length < magic.length) {
+            return false;
+        }
+        for (int i = 0; i < magic.length; i++) {
+            if ((header[i] & 0xff) != magic[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean isText(byte[] header, int length) {
+        for (int i = 0; i < length; i++) {
+            int b = header[i] & 0xff;
+            if (b < 0x09 || (b > 0x0D && b < 0x20 && b != 0x1B)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private StoredFile saveRow(StoredFile.Category category, String hash, String storedName,
+                               String originalName, String contentType, long size) {
+        StoredFile row = new StoredFile();
+        row.setCategory(category);
+        row.setSha256(hash);
+        row.setStoredName(storedName);
+        row.setOriginalName(originalName);
+        row.setContentType(contentType);
+        row.setSizeBytes(size);
+        row.setReferenceCount(1);
+        row.setCreatedAt(LocalDateTime.now());
+        try {
+            return storedFileRepository.saveAndFlush(row);
+        } catch (DataIntegrityViolationException e) {
+            // Same content stored concurrently; count this upload against the winner
+            StoredFile winner = storedFileRepository.findByCategoryAndSha256(category, hash).orElseThrow(() -> e);
+            storedFileRepository.incrementReferences(winner.getId());
+            return winner;
+        }
+    }
+
+    private CachingBlobStore storeFor(StoredFile.Category category) {
+        return category == StoredFile.Category.SUPPORT ? supportStore : uploadStore;
+    }
+
+    // Waits for the backing store, so other nodes can read the blob once its row exists
+    private static void publish(BlobStore blobStore, String storedName, Path file, String contentType) throws IOException {
+        try {
+            blobStore.put(shardKey(storedName), file, contentType).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof IOException io ? io : new IOException("Could not store " + storedName, e.getCause());
+        }
+    }
+
+    // The extension follows the sniffed type; the client's name only picks among its aliases
+    private static String extensionFor(String contentType, String originalName) {
+        String claimed = "";
+        if (originalName != null && originalName.lastIndexOf('.') >= 0) {
+            claimed = originalName.substring(originalName.lastIndexOf('.') + 1).toLowerCase(Locale.ROOT);
+        }
+        switch (contentType) {
+            case "image/jpeg":
+                return ".jpg";
+            case "image/png":
+                return ".png";
+            case "image/gif":
+                return ".gif";
+            case "image/webp":
+                return ".webp";
+            case "application/pdf":
+                return ".pdf";
+            case "application/zip":
+                return ZIP_EXTENSIONS.contains(claimed) ? "." + claimed : ".zip";
+            case "text/plain":
+                return TEXT_EXTENSIONS.contains(claimed) ? "." + claimed : ".txt";
+            default:
+                return "";
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
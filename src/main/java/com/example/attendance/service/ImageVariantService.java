@@ -0,0 +1,316 @@
+package com.example.attendance.service;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Width-bucketed variants of uploaded images, stored next to the original as
+ * {@code <name>_w<width>.<ext>} plus a {@code .webp} copy when an ImageIO WebP writer is
+ * on the classpath. The original is decoded once per upload. Images uploaded before this
+ * existed get their variants on first request.
+ *
+ * {@link #resolve} maps a request for the original plus {@code ?w=} and Accept to the
+ * smallest variant at least that wide, falling back to the original. Variants missing at
+ * request time are generated on a small background pool while the original is served.
+ * At most one generation per image runs at a time; different images do not wait on each other.
+ */
+@Slf4j
+@Service
+public class ImageVariantService {
+
+    private static final Set<String> RESIZABLE = Set.of("jpg", "jpeg", "png");
+
+    private final StaticFileService staticFileService;
+    private final CachingBlobStore uploadStore;
+    private final int[] widths;
+    private final long maxPixels;
+    private final boolean webpAvailable;
+
+    // Originals already processed (or undecodable), so a missing variant is not retried per request
+    private final Set<String> processed = ConcurrentHashMap.newKeySet();
+    // Generations running or queued, by original; later callers share the first one
+    private final Map<String, CompletableFuture<List<String>>> inFlight = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor generator;
+
+    public ImageVariantService(StaticFileService staticFileService,
+                               @Qualifier("uploadBlobStore") CachingBlobStore uploadStore,
+                               @Value("${uploads.image.variant-widths:64,128,256}") int[] widths,
+                               @Value("${uploads.image.max-pixels:40000000}") long maxPixels,
+                               @Value("${uploads.image.variant-workers:1}") int workers,
+                               @Value("${uploads.image.variant-queue-capacity:100}") int queueCapacity) {
+        this.staticFileService = staticFileService;
+        this.uploadStore = uploadStore;
+        this.widths = Arrays.stream(widths).sorted().toArray();
+        this.maxPixels = maxPixels;
+        this.webpAvailable = ImageIO.getImageWritersByMIMEType("image/webp").hasNext();
+        if (!webpAvailable) {
+            log.info("No WebP ImageIO writer found; image variants use the original format only");
+        }
+        AtomicInteger threadCount = new AtomicInteger();
+        this.generator = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "image-variant-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PreDestroy
+    void shutdown() {
+        generator.shutdownNow();
+    }
+
+    public boolean isResizable(String filename) {
+        return RESIZABLE.contains(extension(filename)) && !filename.matches(".*_w\\d+\\.[A-Za-z0-9]+");
+    }
+
+    /**
+     * Picks the file to serve for {@code filename} requested at {@code width} pixels.
+     */
+    public String resolve(String filename, Integer width, String accept) {
+        if (width == null || width <= 0 || !isResizable(filename)) {
+            return filename;
+        }
+        int bucket = -1;
+        for (int candidate : widths) {
+            if (candidate >= width) {
+                bucket = candidate;
+                break;
+            }
+        }
+        if (bucket < 0 || !staticFileService.exists(filename)) {
+            return filename;
+        }
+
+        String base = variantBase(filename, bucket);
+        String ext = extension(filename);
+        if (!processed.contains(filename) && !staticFileService.exists(base + "." + ext)) {
+            // Decoding can take seconds; this request gets the original
+            generateInBackground(filename);
+            return filename;
+        }
+        if (webpAvailable && accept != null && accept.contains("image/webp")
+                && staticFileService.exists(base + ".webp")) {
+            return base + ".webp";
+        }
+        return staticFileService.exists(base + "." + ext) ? base + "." + ext : filename;
+    }
+
+    /**
+     * Writes every variant of a newly uploaded image; returns their file names.
+     */
+    public List<String> generateVariants(String filename) {
+        if (!isResizable(filename)) {
+            return List.of();
+        }
+        CompletableFuture<List<String>> generation = new CompletableFuture<>();
+        CompletableFuture<List<String>> running = inFlight.putIfAbsent(filename, generation);
+        if (running != null) {
+            return running.join();
+        }
+        // The uploader waits for its own image only, on its own thread
+        run(filename, generation);
+        return generation.join();
+    }
+
+    private void generateInBackground(String filename) {
+        CompletableFuture<List<String>> generation = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(filename, generation) != null) {
+            return;
+        }
+        try {
+            generator.execute(() -> run(filename, generation));
+        } catch (RejectedExecutionException e) {
+            // Backlog full; a later request for the image tries again
+            inFlight.remove(filename, generation);
+            generation.complete(List.of());
+        }
+    }
+
+    private void run(String filename, CompletableFuture<List<String>> generation) {
+        List<String> written = List.of();
+        try {
+            written = writeVariants(filename);
+        } finally {
+            inFlight.remove(filename, generation);
+            generation.complete(written);
+        }
+    }
+
+    // Buckets at or above the original width are skipped; requests for them get the original
+    private List<String> writeVariants(String filename) {
+        List<String> written = new ArrayList<>();
+        processed.add(filename);
+        try {
+            Path original = uploadStore.localCopy(FileStorageService.shardKey(filename));
+            if (original == null) {
+                return written;
+            }
+            BufferedImage image = decode(original);
+            if (image == null) {
+                return written;
+            }
+            String ext = extension(filename);
+            for (int width : widths) {
+                if (image.getWidth() <= width) {
+                    break;
+                }
+                BufferedImage scaled = scale(image, width);
+                String base = variantBase(filename, width);
+                written.add(write(scaled, base + "." + ext, formatFor(ext)));
+                if (webpAvailable) {
+                    written.add(write(scaled, base + ".webp", "webp"));
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            log.warn("Could not generate variants for {}: {}", filename, e.getMessage());
+        }
+        return written;
+    }
+
+    private BufferedImage decode(Path path) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(path.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                // Check the header before decoding so a tiny file cannot expand into gigabytes
+                if ((long) reader.getWidth(0) * reader.getHeight(0) > maxPixels) {
+                    log.warn("Image {} is too large to resize", path.getFileName());
+                    return null;
+                }
+                return reader.read(0);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves with bilinear filtering until within 2x, which keeps small logos sharp
+    private static BufferedImage scale(BufferedImage source, int targetWidth) {
+        int targetHeight = Math.max(1, (int) Math.round((double) source.getHeight() * targetWidth / source.getWidth()));
+        int type = source.getColorModel().hasAlpha() ? BufferedImage.TYPE_INT_ARGB : BufferedImage.TYPE_INT_RGB;
+        BufferedImage current = source;
+        int width = source.getWidth();
+        int height = source.getHeight();
+        do {
+            width = Math.max(targetWidth, width / 2);
+            height = Math.max(targetHeight, height / 2);
+            BufferedImage next = new BufferedImage(width, height, type);
+            Graphics2D graphics = next.createGraphics();
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.drawImage(current, 0, 0, width, height, null);
+            graphics.dispose();
+            current = next;
+        } while (width != targetWidth || height != targetHeight);
+        return current;
+    }
+
+    // Writes to a temp file and renames, so a reader never sees a partial variant
+    private String write(BufferedImage image, String name, String format) throws IOException {
+        Iterator<ImageWriter> writers = ImageIO.getImageWritersByFormatName(format);
+        if (!writers.hasNext()) {
+            throw new IOException("No writer for " + format);
+        }
+        ImageWriter writer = writers.next();
+        Path target = staticFileService.pathFor(name);
+        Path temp = Files.createTempFile(target.getParent(), ".variant-", ".tmp");
+        try {
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                writer.setOutput(output);
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                BufferedImage toWrite = image;
+                if ("jpeg".equals(format)) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionQuality(0.85f);
+                    toWrite = opaque(image);
+                } else if ("webp".equals(format) && param.canWriteCompressed()) {
+                    param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                    param.setCompressionType(param.getCompressionTypes()[0]);
+                    param.setCompressionQuality(0.8f);
+                }
+                writer.write(null, new IIOImage(toWrite, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        // Other nodes find the variant in the backing store rather than regenerating it
+        try {
+            uploadStore.put(FileStorageService.shardKey(name), target, "image/" + format).join();
+        } catch (CompletionException e) {
+            throw new IOException("Could not store variant " + name, e.getCause());
+        }
+        staticFileService.evict(name);
+        return name;
+    }
+
+    private static BufferedImage opaque(BufferedImage image) {
+        if (image.getType() == BufferedImage.TYPE_INT_RGB) {
+            return image;
+        }
+        BufferedImage rgb = new BufferedImage(image.getWidth(), image.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = rgb.createGraphics();
+        graphics.drawImage(image, 0, 0, Color.WHITE, null);
+        graphics.dispose();
+        return rgb;
+    }
+
+    private static String formatFor(String ext) {
+        return "jpg".equals(ext) || "jpeg".equals(ext) ? "jpeg" : "png";
+    }
+
+    private static String variantBase(String filename, int width) {
+        return filename.substring(0, filename.lastIndexOf('.')) + "_w" + width;
+    }
+
+    private static String extension(String filename) {
+        int dot = filename.lastIndexOf('.');
+        return dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+    }
+}
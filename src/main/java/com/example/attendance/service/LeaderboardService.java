@@ -0,0 +1,338 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.EventAttendanceRollup;
+import com.example.attendance.repository.EventAttendanceRollupRepository;
+import com.example.attendance.repository.EventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * Top-K and bottom-K event leaderboards per organization and month window.
+ *
+ * Per-event counters are mirrored in memory from the event rollup and indexed by
+ * organization and event month. AttendanceRollupService pushes every counter change
+ * here, so a leaderboard query only walks the events of the requested window through a
+ * bounded heap of size K, then loads names for the K winners.
+ *
+ * The mirror is loaded from event_attendance_rollup on first use, after a rollup
+ * rebuild, and periodically to absorb any drift from rolled-back updates. A reload builds
+ * a new board and swaps it in, so queries never see a half-loaded one. Events that
+ * changed while the table was read are re-read afterwards: whether the snapshot already
+ * holds a change is unknown, so their absolute counts are taken rather than the deltas.
+ */
+@Slf4j
+@Service
+public class LeaderboardService {
+
+    public static final int MAX_K = 100;
+
+    public enum Metric {
+        ATTENDED, RATE
+    }
+
+    private final EventAttendanceRollupRepository eventRollupRepository;
+    private final EventRepository eventRepository;
+
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    // Null until the first load; replaced as a whole by reload()
+    private volatile Board board;
+    // Events changed while a reload reads the rollup table, re-read once the new board is in
+    private volatile Set<Long> pending;
+
+    public LeaderboardService(EventAttendanceRollupRepository eventRollupRepository,
+                              EventRepository eventRepository) {
+        this.eventRollupRepository = eventRollupRepository;
+        this.eventRepository = eventRepository;
+    }
+
+    /**
+     * Applies counter deltas for an event. An event not seen yet is read from its rollup
+     * row, which already includes the deltas.
+     */
+    public void apply(Long eventId, long registrations, long attended) {
+        change(eventId, current -> {
+            if (!current.add(eventId, registrations, attended)) {
+                eventRollupRepository.findById(eventId).ifPresent(current::track);
+            }
+        });
+    }
+
+    public void reschedule(Long eventId, LocalDate date) {
+        change(eventId, current -> current.reschedule(eventId, date));
+    }
+
+    public void remove(Long eventId) {
+        change(eventId, current -> current.remove(eventId));
+    }
+
+    /**
+     * Reads the rollup table into a new board and swaps it in. Queries keep using the old
+     * board meanwhile; events that change during the read are re-read from their rollup
+     * rows once the new board is in place.
+     */
+    @Scheduled(initialDelayString = "${leaderboard.reload-interval-ms:3600000}",
+               fixedDelayString = "${leaderboard.reload-interval-ms:3600000}")
+    public synchronized void reload() {
+        long started = System.currentTimeMillis();
+        Set<Long> journal = ConcurrentHashMap.newKeySet();
+        pending = journal;
+        Board fresh = new Board();
+        List<EventAttendanceRollup> rows;
+        try {
+            rows = eventRollupRepository.findAll();
+        } catch (RuntimeException e) {
+            pending = null;
+            throw e;
+        }
+        rows.forEach(fresh::track);
+
+        swapLock.writeLock().lock();
+        try {
+            board = fresh;
+            pending = null;
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+        // Changes from here on reach the new board directly
+        for (Long eventId : journal) {
+            Optional<EventAttendanceRollup> row = eventRollupRepository.findById(eventId);
+            if (row.isPresent()) {
+                fresh.refresh(row.get());
+            } else {
+                fresh.remove(eventId);
+            }
+        }
+        log.info("Loaded {} events into leaderboards in {} ms", rows.size(), System.currentTimeMillis() - started);
+    }
+
+    private void change(Long eventId, Consumer<Board> change) {
+        swapLock.readLock().lock();
+        try {
+            Board current = board;
+            if (current != null) {
+                change.accept(current);
+            }
+            Set<Long> journal = pending;
+            if (journal != null) {
+                journal.add(eventId);
+            }
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Best (top) or worst (bottom) K events. A null organization means all organizations,
+     * null months leave that side of the window open. Bottom boards only rank events that
+     * have already taken place; the rate metric only ranks events with registrations.
+     */
+    public List<Map<String, Object>> getEventLeaderboard(Long organizationId, YearMonth from, YearMonth to,
+                                                         int k, boolean top, Metric metric) {
+        Board current = board;
+        if (current == null) {
+            reload();
+            current = board;
+        }
+        int limit = Math.min(Math.max(k, 1), MAX_K);
+        LocalDate today = LocalDate.now();
+
+        Comparator<Ranked> order = Comparator.comparingDouble((Ranked ranked) -> ranked.score(metric))
+            .thenComparing(ranked -> ranked.eventId, Comparator.reverseOrder());
+        // The heap keeps the K best seen so far, with the weakest of them at its head
+        PriorityQueue<Ranked> heap = new PriorityQueue<>(limit + 1, top ? order : order.reversed());
+
+        Collection<NavigableMap<YearMonth, Set<Long>>> organizations = organizationId != null
+            ? Optional.ofNullable(current.index.get(organizationId)).map(List::of).orElse(List.of())
+            : current.index.values();
+        for (NavigableMap<YearMonth, Set<Long>> months : organizations) {
+            NavigableMap<YearMonth, Set<Long>> window = months;
+            if (from != null) {
+                window = window.tailMap(from, true);
+            }
+            if (to != null) {
+                window = window.headMap(to, true);
+            }
+            for (Set<Long> eventIds : window.values()) {
+                for (Long eventId : eventIds) {
+                    Entry entry = current.entries.get(eventId);
+                    if (entry == null) {
+                        continue;
+                    }
+                    // Counters keep changing underneath; the heap must only see fixed scores
+                    Ranked ranked = new Ranked(entry);
+                    if ((!top && (ranked.date == null || ranked.date.isAfter(today)))
+                            || (metric == Metric.RATE && ranked.registrations <= 0)) {
+                        continue;
+                    }
+                    heap.offer(ranked);
+                    if (heap.size() > limit) {
+                        heap.poll();
+                    }
+                }
+            }
+        }
+
+        List<Ranked> ranked = new ArrayList<>(heap);
+        ranked.sort(top ? order.reversed() : order);
+
+        Map<Long, Object[]> details = new HashMap<>();
+        if (!ranked.isEmpty()) {
+            for (Object[] row : eventRepository.findLeaderboardDetails(ranked.stream().map(e -> e.eventId).toList())) {
+                details.put((Long) row[0], row);
+            }
+        }
+
+        List<Map<String, Object>> result = new ArrayList<>(ranked.size());
+        int rank = 1;
+        for (Ranked entry : ranked) {
+            Object[] row = details.get(entry.eventId);
+            if (row == null) {
+                // Deleted between the heap pass and the lookup
+                continue;
+            }
+            Map<String, Object> item = new LinkedHashMap<>();
+            item.put("rank", rank++);
+            item.put("eventId", entry.eventId);
+            item.put("name", row[1]);
+            item.put("date", row[2]);
+            item.put("place", row[3]);
+            item.put("organizationId", entry.organizationId == AttendanceRollupService.NO_ORGANIZATION ? null : entry.organizationId);
+            item.put("attended", entry.attended);
+            item.put("registrations", entry.registrations);
+            item.put("attendanceRate", entry.registrations > 0
+                ? Math.round(entry.score(Metric.RATE) * 1000) / 10.0 : null);
+            result.add(item);
+        }
+        return result;
+    }
+
+    // Per-event counters plus the organization -> event month -> event ids index over them
+    private static final class Board {
+        private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+        private final Map<Long, NavigableMap<YearMonth, Set<Long>>> index = new ConcurrentHashMap<>();
+
+        void track(EventAttendanceRollup row) {
+            Entry entry = new Entry(row.getEventId(), row.getOrganizationId(), row.getEventDate());
+            entry.registrations.set(row.getRegistrationCount());
+            entry.attended.set(row.getAttendedCount());
+            if (entries.putIfAbsent(entry.eventId, entry) == null) {
+                index(entry);
+            }
+        }
+
+        // Overwrites the counters and date with the row's, adding the event if it is new
+        void refresh(EventAttendanceRollup row) {
+            Entry entry = entries.get(row.getEventId());
+            if (entry == null) {
+                track(row);
+                return;
+            }
+            entry.registrations.set(row.getRegistrationCount());
+            entry.attended.set(row.getAttendedCount());
+            if (!Objects.equals(entry.date, row.getEventDate())) {
+                reschedule(row.getEventId(), row.getEventDate());
+            }
+        }
+
+        // False when the event is not on the board yet
+        boolean add(Long eventId, long registrations, long attended) {
+            Entry entry = entries.get(eventId);
+            if (entry == null) {
+                return false;
+            }
+            entry.registrations.addAndGet(registrations);
+            entry.attended.addAndGet(attended);
+            return true;
+        }
+
+        void reschedule(Long eventId, LocalDate date) {
+            Entry entry = entries.get(eventId);
+            if (entry != null) {
+                synchronized (entry) {
+                    unindex(entry);
+                    entry.date = date;
+                    index(entry);
+                }
+            }
+        }
+
+        void remove(Long eventId) {
+            Entry entry = entries.remove(eventId);
+            if (entry != null) {
+                synchronized (entry) {
+                    unindex(entry);
+                }
+            }
+        }
+
+        private void index(Entry entry) {
+            if (entry.date != null) {
+                index.computeIfAbsent(entry.organizationId, k -> new ConcurrentSkipListMap<>())
+                    .computeIfAbsent(YearMonth.from(entry.date), k -> ConcurrentHashMap.newKeySet())
+                    .add(entry.eventId);
+            }
+        }
+
+        private void unindex(Entry entry) {
+            if (entry.date == null) {
+                return;
+            }
+            NavigableMap<YearMonth, Set<Long>> months = index.get(entry.organizationId);
+            if (months != null) {
+                Set<Long> eventIds = months.get(YearMonth.from(entry.date));
+                if (eventIds != null) {
+                    eventIds.remove(entry.eventId);
+                }
+            }
+        }
+    }
+
+    private static final class Entry {
+        private final long eventId;
+        private final long organizationId;
+        private volatile LocalDate date;
+        private final AtomicLong registrations = new AtomicLong();
+        private final AtomicLong attended = new AtomicLong();
+
+        private Entry(long eventId, long organizationId, LocalDate date) {
+            this.eventId = eventId;
+            this.organizationId = organizationId;
+            this.date = date;
+        }
+    }
+
+    // An entry's values read once, so its heap position cannot change while it is queued
+    private static final class Ranked {
+        private final long eventId;
+        private final long organizationId;
+        private final LocalDate date;
+        private final long registrations;
+        private final long attended;
+
+        private Ranked(Entry entry) {
+            this.eventId = entry.eventId;
+            this.organizationId = entry.organizationId;
+            this.date = entry.date;
+            this.registrations = entry.registrations.get();
+            this.attended = entry.attended.get();
+        }
+
+        double score(Metric metric) {
+            if (metric == Metric.RATE) {
+                return registrations > 0 ? (double) attended / registrations : 0;
+            }
+            return attended;
+        }
+    }
+}
@@ -0,0 +1,249 @@
+package com.example.attendance.service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads multipart/form-data one part at a time straight from the request stream. Each
+ * part's body is an InputStream that ends at the next boundary, so nothing is buffered
+ * beyond a fixed window regardless of part size.
+ */
+final class MultipartStreamReader {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+    private static final int MAX_HEADER_BYTES = 8 * 1024;
+    private static final Pattern BOUNDARY = Pattern.compile("boundary=(\"([^\"]+)\"|[^;\\s]+)", Pattern.CASE_INSENSITIVE);
+    private static final Pattern PARAM = Pattern.compile(";\\s*([A-Za-z*]+)=(\"((?:[^\"\\\\]|\\\\.)*)\"|[^;]*)");
+
+    private final InputStream in;
+    private final byte[] delimiter;
+    private final byte[] buffer = new byte[BUFFER_SIZE];
+    private int head;
+    private int tail;
+    private boolean eof;
+    private boolean finished;
+    private PartStream current;
+
+    static final class Part {
+        private final String name;
+        private final String filename;
+        private final String contentType;
+        private final InputStream body;
+
+        private Part(String name, String filename, String contentType, InputStream body) {
+            this.name = name;
+            this.filename = filename;
+            this.contentType = contentType;
+            this.body = body;
+        }
+
+        String getName() {
+            return name;
+        }
+
+        // Null for plain form fields
+        String getFilename() {
+            return filename;
+        }
+
+        String getContentType() {
+            return contentType;
+        }
+
+        InputStream getBody() {
+            return body;
+        }
+    }
+
+    MultipartStreamReader(InputStream in, String contentType) throws IOException {
+        Matcher matcher = contentType == null ? null : BOUNDARY.matcher(contentType);
+        if (matcher == null || !matcher.find()) {
+            throw new IOException("Missing multipart boundary");
+        }
+        String boundary = matcher.group(2) != null ? matcher.group(2) : matcher.group(1);
+        this.in = in;
+        this.delimiter = ("\r\n--" + boundary).getBytes(StandardCharsets.ISO_8859_1);
+        // The first boundary has no preceding CRLF; seed one so every boundary looks alike
+        buffer[0] = '\r';
+        buffer[1] = '\n';
+        tail = 2;
+    }
+
+    static boolean isMultipart(String contentType) {
+        return contentType != null && contentType.toLowerCase(Locale.ROOT).startsWith("multipart/form-data");
+    }
+
+    /**
+     * Advances to the next part, skipping whatever is left of the current one; null at the end.
+     */
+    Part nextPart() throws IOException {
+        if (finished) {
+            return null;
+        }
+        if (current == null) {
+            // Preamble before the first boundary
+            new PartStream().skipAll();
+        } else {
+            current.skipAll();
+        }
+
+        int first = readByte();
+        int second = readByte();
+        if (first == '-' && second == '-') {
+            finished = true;
+            return null;
+        }
+        if (first != '\r' || second != '\n') {
+            throw new IOException("Malformed multipart boundary");
+        }
+
+        Map<String, String> headers = readHeaders();
+        String disposition = headers.getOrDefault("content-disposition", "");
+        Map<String, String> params = parseParams(disposition);
+        current = new PartStream();
+        return new Part(params.get("name"), params.get("filename"), headers.get("content-type"), current);
+    }
+
+    private Map<String, String> readHeaders() throws IOException {
+        Map<String, String> headers = new HashMap<>();
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        int total = 0;
+        while (true) {
+            int b = readByte();
+            if (b < 0) {
+                throw new IOException("Unexpected end of multipart headers");
+            }
+            if (++total > MAX_HEADER_BYTES) {
+                throw new IOException("Multipart headers too large");
+            }
+            if (b == '\n') {
+                String text = line.toString(StandardCharsets.UTF_8).trim();
+                line.reset();
+                if (text.isEmpty()) {
+                    return headers;
+                }
+                int colon = text.indexOf(':');
+                if (colon > 0) {
+                    headers.put(text.substring(0, colon).trim().toLowerCase(Locale.ROOT), text.substring(colon + 1).trim());
+                }
+            } else {
+                line.write(b);
+            }
+        }
+    }
+
+    private static Map<String, String> parseParams(String header) {
+        Map<String, String> params = new HashMap<>();
+        Matcher matcher = PARAM.matcher(header);
+        while (matcher.find()) {
+            String value = matcher.group(3) != null
+                ? matcher.group(3).replaceAll("\\\\(.)", "$1")
+                : matcher.group(2).trim();
+            params.put(matcher.group(1).toLowerCase(Locale.ROOT), value);
+        }
+        // Browsers may send a full client path; keep only the last segment
+        String filename = params.get("filename");
+        if (filename != null) {
+            int slash = Math.max(filename.lastIndexOf('/'), filename.lastIndexOf('\\'));
+            params.put("filename", filename.substring(slash + 1));
+        }
+        return params;
+    }
+
+    private int readByte() throws IOException {
+        if (head == tail && !fill()) {
+            return -1;
+        }
+        return buffer[head++] & 0xff;
+    }
+
+    // Compacts the window and reads more; false once the stream is exhausted and empty
+    private boolean fill() throws IOException {
+        if (eof) {
+            return head < tail;
+        }
+        if (head > 0) {
+            System.arraycopy(buffer, head, buffer, 0, tail - head);
+            tail -= head;
+            head = 0;
+        }
+        int read = in.read(buffer, tail, buffer.length - tail);
+        if (read < 0) {
+            eof = true;
+        } else {
+            tail += read;
+        }
+        return head < tail;
+    }
+
+    private int indexOfDelimiter() {
+        int last = tail - delimiter.length;
+        outer:
+        for (int i = head; i <= last; i++) {
+            for (int j = 0; j < delimiter.length; j++) {
+                if (buffer[i + j] != delimiter[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+
+    private final class PartStream extends InputStream {
+        private boolean done;
+
+        @Override
+        public int read() throws IOException {
+            byte[] one = new byte[1];
+            int n = read(one, 0, 1);
+            return n < 0 ? -1 : one[0] & 0xff;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            if (done) {
+                return -1;
+            }
+            while (true) {
+                int found = indexOfDelimiter();
+                int available;
+                if (found >= 0) {
+                    available = found - head;
+                    if (available == 0) {
+                        head += delimiter.length;
+                        done = true;
+                        return -1;
+                    }
+                } else {
+                    // Bytes that cannot be the start of a delimiter are safe to hand out
+                    available = tail - head - (delimiter.length - 1);
+                }
+                if (available > 0) {
+                    int n = Math.min(length, available);
+                    System.arraycopy(buffer, head, target, offset, n);
+                    head += n;
+                    return n;
+                }
+                if (eof) {
+                    throw new IOException("Unexpected end of multipart body");
+                }
+                fill();
+            }
+        }
+
+        void skipAll() throws IOException {
+            byte[] scratch = new byte[8192];
+            while (read(scratch, 0, scratch.length) >= 0) {
+                // discard
+            }
+        }
+    }
+}
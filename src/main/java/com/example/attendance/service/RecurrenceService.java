@@ -0,0 +1,348 @@
+package com.example.attendance.service;
+
+import com.example.attendance.dto.EventOccurrenceDTO;
+import com.example.attendance.entity.Event;
+import com.example.attendance.repository.EventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Expands recurring events into their occurrences on demand.
+ *
+ * A series is stored once (the event whose recurrencePattern is not NONE). Occurrences
+ * are computed for the requested window only and are never written to the database,
+ * except when somebody registers or checks in for one; at that point the occurrence is
+ * materialized as its own Event row linked back through originalEventId.
+ */
+@Slf4j
+@Service
+public class RecurrenceService {
+
+    // Hard cap so an open-ended DAILY series can never blow up a single request
+    private static final int MAX_OCCURRENCES_PER_WINDOW = 1000;
+    private static final int MAX_CACHED_SERIES = 500;
+    private static final int MAX_CACHED_MONTHS_PER_SERIES = 240;
+
+    private final EventRepository eventRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final long checkInGraceMinutes;
+
+    // Per-series expansion cache, least recently used series are dropped first
+    private final Map<Long, SeriesExpansion> expansionCache = Collections.synchronizedMap(
+        new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, SeriesExpansion> eldest) {
+                return size() > MAX_CACHED_SERIES;
+            }
+        });
+
+    public RecurrenceService(EventRepository eventRepository,
+                             AttendanceRollupService attendanceRollupService,
+                             @Value("${event.lifecycle.completion-grace-minutes:360}") long checkInGraceMinutes) {
+        this.eventRepository = eventRepository;
+        this.attendanceRollupService = attendanceRollupService;
+        this.checkInGraceMinutes = checkInGraceMinutes;
+    }
+
+    public boolean isRecurringSeries(Event event) {
+        return event != null
+            && event.getRecurrencePattern() != null
+            && event.getRecurrencePattern() != Event.RecurrencePattern.NONE
+            && !Boolean.TRUE.equals(event.getIsRecurringInstance());
+    }
+
+    /**
+     * Lists the occurrences of a series in [from, to). Occurrences that already have a
+     * materialized Event row are reported with that row's ID.
+     */
+    public List<EventOccurrenceDTO> getOccurrences(Long seriesId, LocalDate from, LocalDate to) {
+        Event series = getSeries(seriesId);
+        List<LocalDate> dates = expandDates(series, from, to);
+        if (dates.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Map<LocalDate, Event> instancesByDate = eventRepository
+            .findByOriginalEventIdAndDateBetween(seriesId, dates.get(0), dates.get(dates.size() - 1))
+            .stream()
+            .collect(Collectors.toMap(Event::getDate, Function.identity(), (a, b) -> a));
+
+        return dates.stream()
+            .map(date -> {
+                Event backing = date.equals(series.getDate()) ? series : instancesByDate.get(date);
+                return toOccurrence(series, date, backing);
+            })
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Computes the occurrence dates of a series in [from, to) without touching the database.
+     */
+    public List<LocalDate> expandDates(Event series, LocalDate from, LocalDate to) {
+        if (!isRecurringSeries(series) || from == null || to == null || !to.isAfter(from)) {
+            return Collections.emptyList();
+        }
+        return expansionFor(series).datesBetween(from, to);
+    }
+
+    public boolean isOccurrence(Event series, LocalDate date) {
+        return date != null && expandDates(series, date, date.plusDays(1)).contains(date);
+    }
+
+    /**
+     * Returns the Event row backing an occurrence, creating it if this is the first time
+     * anyone registers or checks in for it.
+     */
+    public Event materializeOccurrence(Long seriesId, LocalDate occurrenceDate) {
+        Event series = getSeries(seriesId);
+
+        if (occurrenceDate.equals(series.getDate())) {
+            return series;
+        }
+        if (!isOccurrence(series, occurrenceDate)) {
+            throw new IllegalArgumentException(
+                "Event " + seriesId + " does not occur on " + occurrenceDate);
+        }
+
+        Optional<Event> existing = eventRepository.findFirstByOriginalEventIdAndDate(seriesId, occurrenceDate);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+
+        try {
+            Event instance = eventRepository.saveAndFlush(buildInstance(series, occurrenceDate));
+            attendanceRollupService.onEventCreated(instance);
+            log.info("Materialized occurrence {} of series {} as event {}", occurrenceDate, seriesId, instance.getId());
+            return instance;
+        } catch (DataIntegrityViolationException e) {
+            // Another request materialized the same occurrence concurrently
+            return eventRepository.findFirstByOriginalEventIdAndDate(seriesId, occurrenceDate)
+                .orElseThrow(() -> e);
+        }
+    }
+
+    /**
+     * Like {@link #materializeOccurrence}, but only while check-in for the occurrence is
+     * open: from the start of its day until the completion grace period after its start time.
+     */
+    public Event materializeForCheckIn(Long seriesId, LocalDate occurrenceDate, LocalDateTime now) {
+        Event series = getSeries(seriesId);
+        LocalTime start = series.getTime() != null ? series.getTime() : LocalTime.MIDNIGHT;
+        LocalDateTime closes = occurrenceDate.atTime(start).plusMinutes(checkInGraceMinutes);
+        if (now.isBefore(occurrenceDate.atStartOfDay()) || now.isAfter(closes)) {
+            throw new IllegalArgumentException(
+                "Check-in for the " + occurrenceDate + " occurrence of event " + seriesId + " is not open");
+        }
+        return materializeOccurrence(seriesId, occurrenceDate);
+    }
+
+    public void evict(Long seriesId) {
+        if (seriesId != null) {
+            expansionCache.remove(seriesId);
+        }
+    }
+
+    private Event getSeries(Long seriesId) {
+        Event series = eventRepository.findById(seriesId)
+            .orElseThrow(() -> new IllegalArgumentException("Event not found with ID: " + seriesId));
+        if (!isRecurringSeries(series)) {
+            throw new IllegalArgumentException("Event " + seriesId + " is not a recurring series");
+        }
+        return series;
+    }
+
+    private SeriesExpansion expansionFor(Event series) {
+        SeriesExpansion cached = expansionCache.get(series.getId());
+        if (cached != null && cached.matches(series)) {
+            return cached;
+        }
+        SeriesExpansion expansion = new SeriesExpansion(series);
+        if (series.getId() != null) {
+            expansionCache.put(series.getId(), expansion);
+        }
+        return expansion;
+    }
+
+    private Event buildInstance(Event series, LocalDate occurrenceDate) {
+        LocalDate registrationDeadline = null;
+        if (series.getRegistrationDeadline() != null) {
+            long leadDays = ChronoUnit.DAYS.between(series.getRegistrationDeadline(), series.getDate());
+            registrationDeadline = occurrenceDate.minusDays(leadDays);
+        }
+
+        return Event.builder()
+            .name(series.getName())
+            .date(occurrenceDate)
+            .time(series.getTime())
+            .place(series.getPlace())
+            .description(series.getDescription())
+            .user(series.getUser())
+            .qrCode("EVT-" + UUID.randomUUID())
+            .isFree(series.getIsFree())
+            .price(series.getPrice())
+            .isOnline(series.getIsOnline())
+            .meetingUrl(series.getMeetingUrl())
+            .meetingId(series.getMeetingId())
+            .meetingPasscode(series.getMeetingPasscode())
+            .maxCapacity(series.getMaxCapacity())
+            .registrationDeadline(registrationDeadline)
+            .status(Event.EventStatus.ACTIVE)
+            .category(series.getCategory())
+            .recurrencePattern(Event.RecurrencePattern.NONE)
+            .recurrenceInterval(1)
+            .originalEventId(series.getId())
+            .isRecurringInstance(true)
+            .requiresApproval(series.getRequiresApproval())
+            .build();
+    }
+
+    private EventOccurrenceDTO toOccurrence(Event series, LocalDate date, Event backing) {
+        if (backing == null) {
+            return EventOccurrenceDTO.virtual(series, date);
+        }
+        EventOccurrenceDTO occurrence = EventOccurrenceDTO.fromEntity(backing);
+        occurrence.setSeriesId(series.getId());
+        return occurrence;
+    }
+
+    /**
+     * Snapshot of one series' recurrence rule. Occurrence k is a pure function of k, so any
+     * window can be expanded by jumping straight to the first candidate index instead of
+     * walking the series from its start. Results are memoized per calendar month.
+     */
+    private static final class SeriesExpansion {
+        private final Event.RecurrencePattern pattern;
+        private final LocalDate start;
+        private final int interval;
+        private final LocalDate endDate;
+        private final Integer count;
+        private final Map<YearMonth, List<LocalDate>> monthCache = new ConcurrentHashMap<>();
+
+        SeriesExpansion(Event series) {
+            this.pattern = series.getRecurrencePattern();
+            this.start = series.getDate();
+            this.interval = series.getRecurrenceInterval() != null && series.getRecurrenceInterval() > 0
+                ? series.getRecurrenceInterval() : 1;
+            this.endDate = series.getRecurrenceEndDate();
+            this.count = series.getRecurrenceCount() != null && series.getRecurrenceCount() > 0
+                ? series.getRecurrenceCount() : null;
+        }
+
+        boolean matches(Event series) {
+            int seriesInterval = series.getRecurrenceInterval() != null && series.getRecurrenceInterval() > 0
+                ? series.getRecurrenceInterval() : 1;
+            Integer seriesCount = series.getRecurrenceCount() != null && series.getRecurrenceCount() > 0
+                ? series.getRecurrenceCount() : null;
+            return pattern == series.getRecurrencePattern()
+                && Objects.equals(start, series.getDate())
+                && interval == seriesInterval
+                && Objects.equals(endDate, series.getRecurrenceEndDate())
+                && Objects.equals(count, seriesCount);
+        }
+
+        List<LocalDate> datesBetween(LocalDate from, LocalDate to) {
+            LocalDate effectiveFrom = from.isBefore(start) ? start : from;
+            if (!to.isAfter(effectiveFrom)) {
+                return Collections.emptyList();
+            }
+
+            List<LocalDate> result = new ArrayList<>();
+            YearMonth month = YearMonth.from(effectiveFrom);
+            YearMonth lastMonth = YearMonth.from(to.minusDays(1));
+            while (!month.isAfter(lastMonth) && result.size() < MAX_OCCURRENCES_PER_WINDOW) {
+                if (endDate != null && month.atDay(1).isAfter(endDate)) {
+                    break;
+                }
+                for (LocalDate date : monthDates(month)) {
+                    if (!date.isBefore(effectiveFrom) && date.isBefore(to)) {
+                        result.add(date);
+                        if (result.size() >= MAX_OCCURRENCES_PER_WINDOW) {
+                            break;
+                        }
+                    }
+                }
+                month = month.plusMonths(1);
+            }
+            return result;
+        }
+
+        private List<LocalDate> monthDates(YearMonth month) {
+            List<LocalDate> cached = monthCache.get(month);
+            if (cached != null) {
+                return cached;
+            }
+            List<LocalDate> dates = computeRange(month.atDay(1), month.plusMonths(1).atDay(1));
+            if (monthCache.size() < MAX_CACHED_MONTHS_PER_SERIES) {
+                monthCache.put(month, dates);
+            }
+            return dates;
+        }
+
+        private List<LocalDate> computeRange(LocalDate from, LocalDate to) {
+            List<LocalDate> dates = new ArrayList<>();
+            long k = firstCandidateIndex(from);
+            while (count == null || k < count) {
+                LocalDate date = occurrence(k);
+                if (!date.isBefore(to) || (endDate != null && date.isAfter(endDate))) {
+                    break;
+                }
+                if (!date.isBefore(from)) {
+                    dates.add(date);
+                }
+                k++;
+            }
+            return List.copyOf(dates);
+        }
+
+        // Lower bound for the first index whose occurrence can fall on or after 'from'
+        private long firstCandidateIndex(LocalDate from) {
+            if (!from.isAfter(start)) {
+                return 0;
+            }
+            long units = switch (pattern) {
+                case DAILY -> ChronoUnit.DAYS.between(start, from);
+                case WEEKLY -> ChronoUnit.WEEKS.between(start, from);
+                case MONTHLY, WEEKLY_X -> ChronoUnit.MONTHS.between(start, from);
+                case YEARLY -> ChronoUnit.YEARS.between(start, from);
+                default -> 0;
+            };
+            return Math.max(0, units / interval - 1);
+        }
+
+        private LocalDate occurrence(long k) {
+            long step = k * interval;
+            return switch (pattern) {
+                case DAILY -> start.plusDays(step);
+                case WEEKLY -> start.plusWeeks(step);
+                case MONTHLY -> start.plusMonths(step);
+                case WEEKLY_X -> nthWeekdayOfMonth(start.plusMonths(step));
+                case YEARLY -> start.plusYears(step);
+                default -> start;
+            };
+        }
+
+        // Same weekday and ordinal as the series start, e.g. "2nd Tuesday"; a 5th weekday maps to the last one
+        private LocalDate nthWeekdayOfMonth(LocalDate anyDayInMonth) {
+            DayOfWeek dayOfWeek = start.getDayOfWeek();
+            int ordinal = (start.getDayOfMonth() - 1) / 7 + 1;
+            if (ordinal >= 5) {
+                return anyDayInMonth.with(TemporalAdjusters.lastInMonth(dayOfWeek));
+            }
+            return anyDayInMonth.with(TemporalAdjusters.dayOfWeekInMonth(ordinal, dayOfWeek));
+        }
+    }
+}
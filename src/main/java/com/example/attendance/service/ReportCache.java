@@ -0,0 +1,72 @@
+package com.example.attendance.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * Bounded LRU cache for report results. Each entry remembers the versions of the tables
+ * it was computed from and is only served while those versions are unchanged. The
+ * versions are read before computing, so a write that races with the computation leaves
+ * the entry already outdated rather than wrongly fresh.
+ *
+ * The versions only see writes made on this node, so entries also expire after
+ * report.cache.ttl-seconds; that bounds how stale a report can be when another instance
+ * behind the load balancer took the write.
+ */
+@Component
+public class ReportCache {
+
+    private final DataVersionService dataVersionService;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries;
+
+    public ReportCache(DataVersionService dataVersionService,
+                       @Value("${report.cache.max-entries:500}") int maxEntries,
+                       @Value("${report.cache.ttl-seconds:60}") long ttlSeconds) {
+        this.dataVersionService = dataVersionService;
+        this.ttlMillis = ttlSeconds * 1000;
+        this.entries = Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    public <T> T get(String key, DataVersionService.Table[] tables, Supplier<T> loader) {
+        return get(key, tables, loader, System.currentTimeMillis());
+    }
+
+    // Takes the time so tests can step past the TTL
+    @SuppressWarnings("unchecked")
+    <T> T get(String key, DataVersionService.Table[] tables, Supplier<T> loader, long now) {
+        long[] versions = dataVersionService.snapshot(tables);
+        Entry entry = entries.get(key);
+        if (entry != null && Arrays.equals(entry.versions, versions) && now < entry.expiresAt) {
+            return (T) entry.value;
+        }
+        T value = loader.get();
+        if (value != null) {
+            entries.put(key, new Entry(versions, value, now + ttlMillis));
+        }
+        return value;
+    }
+
+    private static final class Entry {
+        private final long[] versions;
+        private final Object value;
+        private final long expiresAt;
+
+        private Entry(long[] versions, Object value, long expiresAt) {
+            this.versions = versions;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
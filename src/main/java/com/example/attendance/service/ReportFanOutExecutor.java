@@ -0,0 +1,190 @@
+package com.example.attendance.service;
+
+import com.zaxxer.hikari.HikariDataSource;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * Runs one read-only sub-query per key (typically per organization) in parallel and
+ * hands back the partial results for the caller to merge.
+ *
+ * Every sub-task holds at most one connection, so the worker count caps how many
+ * connections reports take. By default it is half the Hikari pool, leaving the rest for
+ * request traffic; all fan-outs share the same workers. Each sub-task runs in its own
+ * transaction whose timeout becomes the JDBC query timeout, and is also cancelled from
+ * here once it overruns, or when the whole fan-out passes its deadline or the caller is
+ * interrupted. Failed or timed-out keys are reported rather than failing the whole run.
+ */
+@Slf4j
+@Component
+public class ReportFanOutExecutor {
+
+    private static final long POLL_MILLIS = 50;
+
+    private final TransactionTemplate transactionTemplate;
+    private final ThreadPoolExecutor executor;
+    private final long taskTimeoutMs;
+    private final long totalTimeoutMs;
+
+    public ReportFanOutExecutor(PlatformTransactionManager transactionManager,
+                                DataSource dataSource,
+                                @Value("${report.fanout.max-concurrency:0}") int maxConcurrency,
+                                @Value("${report.fanout.queue-capacity:1000}") int queueCapacity,
+                                @Value("${report.fanout.task-timeout-ms:30000}") long taskTimeoutMs,
+                                @Value("${report.fanout.total-timeout-ms:120000}") long totalTimeoutMs) {
+        this.taskTimeoutMs = taskTimeoutMs;
+        this.totalTimeoutMs = totalTimeoutMs;
+
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        // Whole seconds with a second of slack; the watchdog below enforces the exact timeout
+        transactionTemplate.setTimeout((int) ((taskTimeoutMs + 999) / 1000) + 1);
+
+        int poolSize = dataSource instanceof HikariDataSource hikari ? hikari.getMaximumPoolSize() : 10;
+        int workers = maxConcurrency > 0 ? Math.min(maxConcurrency, poolSize) : Math.max(1, poolSize / 2);
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "report-fanout-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        log.info("Report fan-out uses {} workers against a pool of {} connections", workers, poolSize);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public int getWorkers() {
+        return executor.getMaximumPoolSize();
+    }
+
+    /**
+     * Runs {@code task} once per key and waits for all of them, up to the total timeout.
+     *
+     * @throws RejectedExecutionException when the shared queue cannot take all sub-tasks;
+     *         none of them run in that case
+     */
+    public <K, P> Outcome<K, P> fanOut(String name, Collection<K> keys, Function<K, P> task) {
+        long started = System.nanoTime();
+        long deadline = started + TimeUnit.MILLISECONDS.toNanos(totalTimeoutMs);
+        Map<K, SubTask<P>> pending = new LinkedHashMap<>();
+        try {
+            for (K key : keys) {
+                SubTask<P> subTask = new SubTask<>(() -> transactionTemplate.execute(status -> task.apply(key)));
+                executor.execute(subTask.future);
+                pending.put(key, subTask);
+            }
+        } catch (RejectedExecutionException e) {
+            pending.values().forEach(subTask -> subTask.future.cancel(true));
+            log.warn("Report {} rejected: fan-out queue is full", name);
+            throw e;
+        }
+
+        Outcome<K, P> outcome = new Outcome<>();
+        try {
+            while (!pending.isEmpty()) {
+                long now = System.nanoTime();
+                boolean pastDeadline = now - deadline >= 0;
+                Iterator<Map.Entry<K, SubTask<P>>> it = pending.entrySet().iterator();
+                while (it.hasNext()) {
+                    Map.Entry<K, SubTask<P>> entry = it.next();
+                    SubTask<P> subTask = entry.getValue();
+                    if (subTask.future.isDone()) {
+                        collect(entry.getKey(), subTask, outcome);
+                        it.remove();
+                    } else if (pastDeadline || subTask.overran(now, taskTimeoutMs)) {
+                        subTask.future.cancel(true);
+                        outcome.failures.put(entry.getKey(), pastDeadline ? "report deadline exceeded" : "timed out");
+                        it.remove();
+                    }
+                }
+                if (!pending.isEmpty()) {
+                    Thread.sleep(POLL_MILLIS);
+                }
+            }
+        } catch (InterruptedException e) {
+            // Caller gave up: stop everything still queued or running
+            pending.values().forEach(subTask -> subTask.future.cancel(true));
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Report " + name + " cancelled");
+        }
+
+        outcome.elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started);
+        log.info("Report {} fanned out over {} keys in {} ms ({} failed)",
+            name, keys.size(), outcome.elapsedMs, outcome.failures.size());
+        return outcome;
+    }
+
+    private static <K, P> void collect(K key, SubTask<P> subTask, Outcome<K, P> outcome) {
+        try {
+            outcome.results.put(key, subTask.future.get());
+        } catch (CancellationException e) {
+            outcome.failures.put(key, "cancelled");
+        } catch (ExecutionException e) {
+            log.warn("Report sub-task for {} failed: {}", key, e.getCause().toString());
+            outcome.failures.put(key, e.getCause().getClass().getSimpleName());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class SubTask<P> {
+        private final FutureTask<P> future;
+        // 0 until a worker picks the task up, so queueing time does not count against it
+        private volatile long startedAt;
+
+        private SubTask(Callable<P> callable) {
+            this.future = new FutureTask<>(() -> {
+                startedAt = System.nanoTime();
+                return callable.call();
+            });
+        }
+
+        boolean overran(long now, long timeoutMs) {
+            long start = startedAt;
+            return start != 0 && now - start > TimeUnit.MILLISECONDS.toNanos(timeoutMs);
+        }
+    }
+
+    /**
+     * Partial results by key, plus the keys that failed and why.
+     */
+    public static final class Outcome<K, P> {
+        private final Map<K, P> results = new LinkedHashMap<>();
+        private final Map<K, String> failures = new LinkedHashMap<>();
+        private long elapsedMs;
+
+        public Map<K, P> getResults() {
+            return results;
+        }
+
+        public Map<K, String> getFailures() {
+            return failures;
+        }
+
+        public long getElapsedMs() {
+            return elapsedMs;
+        }
+
+        public boolean isComplete() {
+            return failures.isEmpty();
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.attendance.service;
+
+import lombok.Getter;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory state of one asynchronous report job. Mutated only by the worker running it
+ * and by the purge task, read by status polls.
+ */
+@Getter
+public class ReportJob {
+
+    public enum Type {
+        ATTENDANCE_CSV("csv", "text/csv; charset=UTF-8"),
+        ATTENDANCE_XLSX("xlsx", "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"),
+        EVENTS_REPORT("json", "application/json");
+
+        private final String extension;
+        private final String contentType;
+
+        Type(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+
+        public String getExtension() {
+            return extension;
+        }
+
+        public String getContentType() {
+            return contentType;
+        }
+    }
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED, CANCELLED
+    }
+
+    private final String id;
+    private final String key;
+    private final Type type;
+    private final Long eventId;
+    private final LocalDate from;
+    private final LocalDate to;
+    private final YearMonth month;
+    private final String requestedBy;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+
+    private final AtomicLong processed = new AtomicLong();
+    private volatile long total = -1;
+    private volatile Status status = Status.QUEUED;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime finishedAt;
+    private volatile LocalDateTime expiresAt;
+    private volatile Path resultFile;
+    private volatile long resultSize;
+    private volatile String error;
+
+    ReportJob(String id, String key, Type type, Long eventId, LocalDate from, LocalDate to,
+              YearMonth month, String requestedBy) {
+        this.id = id;
+        this.key = key;
+        this.type = type;
+        this.eventId = eventId;
+        this.from = from;
+        this.to = to;
+        this.month = month;
+        this.requestedBy = requestedBy;
+    }
+
+    public long getProcessed() {
+        return processed.get();
+    }
+
+    public boolean isFinished() {
+        return status == Status.SUCCEEDED || status == Status.FAILED || status == Status.CANCELLED;
+    }
+
+    // A job an identical request can attach to instead of starting its own
+    boolean isReusable() {
+        return status == Status.QUEUED || status == Status.RUNNING
+            || (status == Status.SUCCEEDED && !isExpired(LocalDateTime.now()));
+    }
+
+    boolean isExpired(LocalDateTime now) {
+        return expiresAt != null && expiresAt.isBefore(now);
+    }
+
+    public String getFileName() {
+        return "report-" + type.name().toLowerCase().replace('_', '-') + "-" + id + "." + type.getExtension();
+    }
+
+    public Integer getPercent() {
+        long t = total;
+        if (status == Status.SUCCEEDED) {
+            return 100;
+        }
+        if (t <= 0) {
+            return null;
+        }
+        return (int) Math.min(99, processed.get() * 100 / t);
+    }
+
+    synchronized boolean start() {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = LocalDateTime.now();
+        return true;
+    }
+
+    void setTotal(long total) {
+        this.total = total;
+    }
+
+    void setProcessed(long processed) {
+        this.processed.set(processed);
+    }
+
+    // False when the job was cancelled while the result was being written
+    synchronized boolean succeed(Path file, long size, LocalDateTime expiresAt) {
+        if (isFinished()) {
+            return false;
+        }
+        this.resultFile = file;
+        this.resultSize = size;
+        finish(Status.SUCCEEDED, expiresAt);
+        return true;
+    }
+
+    synchronized void fail(String error, LocalDateTime expiresAt) {
+        if (isFinished()) {
+            return;
+        }
+        this.error = error;
+        finish(Status.FAILED, expiresAt);
+    }
+
+    synchronized boolean cancel(LocalDateTime expiresAt) {
+        if (isFinished()) {
+            return false;
+        }
+        finish(Status.CANCELLED, expiresAt);
+        return true;
+    }
+
+    private void finish(Status status, LocalDateTime expiresAt) {
+        this.status = status;
+        this.finishedAt = LocalDateTime.now();
+        this.expiresAt = expiresAt;
+    }
+
+    public Map<String, Object> toResponse() {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("id", id);
+        response.put("type", type);
+        response.put("status", status);
+        response.put("processed", processed.get());
+        response.put("total", total >= 0 ? total : null);
+        response.put("percent", getPercent());
+        response.put("eventId", eventId);
+        response.put("from", from);
+        response.put("to", to);
+        response.put("month", month != null ? month.toString() : null);
+        response.put("createdAt", createdAt);
+        response.put("startedAt", startedAt);
+        response.put("finishedAt", finishedAt);
+        response.put("expiresAt", expiresAt);
+        if (status == Status.SUCCEEDED) {
+            response.put("resultSize", resultSize);
+            response.put("resultUrl", "/api/admin/report-jobs/" + id + "/result");
+        }
+        if (error != null) {
+            response.put("error", error);
+        }
+        return response;
+    }
+}
@@ -0,0 +1,267 @@
+package com.example.attendance.service;
+
+import com.example.attendance.dto.EventReportRowDTO;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Page;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Collection;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.LongConsumer;
+import java.util.stream.Stream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Runs heavy admin reports off the request thread. Jobs execute on a small bounded pool;
+ * since each job uses at most one connection at a time, the pool size is also the number
+ * of connections report jobs can take from the shared pool. Results are gzipped to local
+ * disk and dropped after a TTL. A request identical to a queued, running or still-fresh
+ * job gets that job back instead of starting another one.
+ *
+ * Job state lives in memory only; result files left over from a previous run are removed
+ * at startup.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private static final String RESULT_SUFFIX = ".gz";
+    private static final String PARTIAL_SUFFIX = ".part";
+
+    private final AttendanceExportService attendanceExportService;
+    private final AdminReportService adminReportService;
+    private final ObjectMapper objectMapper;
+
+    private final Path directory;
+    private final long resultTtlMinutes;
+    private final ThreadPoolExecutor executor;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    // Canonical request key -> id of the job serving it
+    private final Map<String, String> jobsByKey = new ConcurrentHashMap<>();
+
+    public ReportJobService(AttendanceExportService attendanceExportService,
+                            AdminReportService adminReportService,
+                            ObjectMapper objectMapper,
+                            @Value("${report.jobs.dir:./report-jobs}") String directory,
+                            @Value("${report.jobs.workers:2}") int workers,
+                            @Value("${report.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${report.jobs.result-ttl-minutes:60}") long resultTtlMinutes) {
+        this.attendanceExportService = attendanceExportService;
+        this.adminReportService = adminReportService;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory).toAbsolutePath().normalize();
+        this.resultTtlMinutes = resultTtlMinutes;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    void init() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            files.filter(this::isJobFile).forEach(this::deleteQuietly);
+        }
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Queues a job, or returns the existing job for an identical request.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public ReportJob submit(ReportJob.Type type, Long eventId, LocalDate from, LocalDate to,
+                            YearMonth month, String requestedBy) {
+        // Only the parameters a type actually uses take part in the key
+        if (type == ReportJob.Type.EVENTS_REPORT) {
+            eventId = null;
+            from = null;
+            to = null;
+        } else {
+            month = null;
+        }
+        String key = type + "|" + eventId + "|" + from + "|" + to + "|" + month;
+
+        Long jobEventId = eventId;
+        LocalDate jobFrom = from;
+        LocalDate jobTo = to;
+        YearMonth jobMonth = month;
+        String jobId = jobsByKey.compute(key, (k, existingId) -> {
+            ReportJob existing = existingId != null ? jobs.get(existingId) : null;
+            if (existing != null && existing.isReusable()) {
+                return existingId;
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), k, type,
+                jobEventId, jobFrom, jobTo, jobMonth, requestedBy);
+            jobs.put(job.getId(), job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.getId());
+                throw e;
+            }
+            log.info("Queued report job {} ({}) for {}", job.getId(), type, requestedBy);
+            return job.getId();
+        });
+        return jobs.get(jobId);
+    }
+
+    public Optional<ReportJob> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public Collection<ReportJob> getJobs() {
+        return jobs.values();
+    }
+
+    /**
+     * Cancels a queued or running job. A running export stops at its next progress check.
+     */
+    public boolean cancel(String id) {
+        ReportJob job = jobs.get(id);
+        return job != null && job.cancel(expiry());
+    }
+
+    @Scheduled(initialDelayString = "${report.jobs.purge-interval-ms:60000}",
+               fixedDelayString = "${report.jobs.purge-interval-ms:60000}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int purged = 0;
+        for (ReportJob job : jobs.values()) {
+            if (job.isFinished() && job.isExpired(now)) {
+                jobs.remove(job.getId());
+                jobsByKey.remove(job.getKey(), job.getId());
+                if (job.getResultFile() != null) {
+                    deleteQuietly(job.getResultFile());
+                }
+                purged++;
+            }
+        }
+        if (purged > 0) {
+            log.info("Purged {} expired report job(s)", purged);
+        }
+    }
+
+    private void run(ReportJob job) {
+        if (!job.start()) {
+            return;
+        }
+        Path partial = directory.resolve(job.getId() + PARTIAL_SUFFIX);
+        Path result = directory.resolve(job.getId() + RESULT_SUFFIX);
+        try {
+            try (OutputStream out = new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(partial), 64 * 1024), 64 * 1024)) {
+                write(job, out);
+            }
+            Files.move(partial, result, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            if (!job.succeed(result, Files.size(result), expiry())) {
+                deleteQuietly(result);
+                return;
+            }
+            log.info("Report job {} finished: {} rows, {} bytes compressed",
+                job.getId(), job.getProcessed(), job.getResultSize());
+        } catch (CancellationException e) {
+            deleteQuietly(partial);
+            log.info("Report job {} cancelled after {} rows", job.getId(), job.getProcessed());
+        } catch (Exception e) {
+            deleteQuietly(partial);
+            job.fail(e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName(), expiry());
+            log.error("Report job {} failed", job.getId(), e);
+        }
+    }
+
+    private void write(ReportJob job, OutputStream out) throws IOException {
+        LongConsumer progress = rows -> {
+            if (job.getStatus() == ReportJob.Status.CANCELLED || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+            job.setProcessed(rows);
+        };
+
+        switch (job.getType()) {
+            case ATTENDANCE_CSV -> {
+                job.setTotal(attendanceExportService.countRows(job.getEventId(), job.getFrom(), job.getTo()));
+                attendanceExportService.writeCsv(job.getEventId(), job.getFrom(), job.getTo(), out, progress);
+            }
+            case ATTENDANCE_XLSX -> {
+                job.setTotal(attendanceExportService.countRows(job.getEventId(), job.getFrom(), job.getTo()));
+                attendanceExportService.writeXlsx(job.getEventId(), job.getFrom(), job.getTo(), out, progress);
+            }
+            case EVENTS_REPORT -> writeEventsReport(job, out, progress);
+        }
+    }
+
+    // Pages through the events report so only one page of rows is held at a time
+    private void writeEventsReport(ReportJob job, OutputStream out, LongConsumer progress) throws IOException {
+        JsonGenerator json = objectMapper.getFactory().createGenerator(out);
+        json.writeStartObject();
+        json.writeStringField("month", job.getMonth() != null ? job.getMonth().toString() : "all");
+        json.writeStringField("generatedAt", LocalDateTime.now().toString());
+        json.writeArrayFieldStart("eventsList");
+
+        long written = 0;
+        int page = 0;
+        Page<EventReportRowDTO> rows;
+        do {
+            rows = adminReportService.getEventReport(job.getMonth(), page++, AdminReportService.MAX_PAGE_SIZE);
+            job.setTotal(rows.getTotalElements());
+            for (EventReportRowDTO row : rows.getContent()) {
+                objectMapper.writeValue(json, row);
+            }
+            written += rows.getNumberOfElements();
+            progress.accept(written);
+        } while (rows.hasNext());
+
+        json.writeEndArray();
+        json.writeNumberField("totalEvents", written);
+        json.writeObjectField("monthlyEvents", adminReportService.getMonthlyEventCounts());
+        json.writeEndObject();
+        json.flush();
+    }
+
+    private LocalDateTime expiry() {
+        return LocalDateTime.now().plusMinutes(resultTtlMinutes);
+    }
+
+    private boolean isJobFile(Path path) {
+        String name = path.getFileName().toString();
+        return name.endsWith(RESULT_SUFFIX) || name.endsWith(PARTIAL_SUFFIX);
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete report file {}: {}", path, e.getMessage());
+        }
+    }
+}
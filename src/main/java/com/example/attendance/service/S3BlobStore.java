@@ -0,0 +1,411 @@
+package com.example.attendance.service;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Blobs in an S3 bucket, or anything speaking the S3 API (MinIO, LocalStack, R2), over
+ * java.net.http with Signature V4, so no SDK is needed. Files larger than one part go up
+ * as a multipart upload with several parts in flight at once. {@link #directUrl} hands out
+ * a presigned GET, or a plain URL under a configured public base (a CDN or public bucket).
+ */
+@Slf4j
+public class S3BlobStore implements BlobStore, AutoCloseable {
+
+    private static final String UNSIGNED_PAYLOAD = "UNSIGNED-PAYLOAD";
+    private static final String SIGNED_HEADERS = "host;x-amz-content-sha256;x-amz-date";
+    private static final long MIN_PART_SIZE = 5L * 1024 * 1024;
+    private static final long MAX_PRESIGN_SECONDS = 7 * 24 * 3600;
+    private static final DateTimeFormatter AMZ_DATE =
+        DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss'Z'").withZone(ZoneOffset.UTC);
+    private static final Pattern UPLOAD_ID = Pattern.compile("<UploadId>([^<]+)</UploadId>");
+
+    /**
+     * Connection and upload settings, shared by the stores for each key prefix.
+     */
+    public static final class Settings {
+        private final URI endpoint;
+        private final String region;
+        private final String bucket;
+        private final String accessKey;
+        private final String secretKey;
+        private final boolean pathStyle;
+        private final String publicBaseUrl;
+        private final long partSize;
+        private final int partConcurrency;
+        private final int uploadThreads;
+        private final Duration requestTimeout;
+
+        public Settings(URI endpoint, String region, String bucket, String accessKey, String secretKey,
+                        boolean pathStyle, String publicBaseUrl, long partSize, int partConcurrency,
+                        int uploadThreads, Duration requestTimeout) {
+            this.endpoint = endpoint;
+            this.region = region;
+            this.bucket = bucket;
+            this.accessKey = accessKey;
+            this.secretKey = secretKey;
+            this.pathStyle = pathStyle;
+            this.publicBaseUrl = publicBaseUrl == null || publicBaseUrl.isBlank()
+                ? null
+                : publicBaseUrl.replaceAll("/+$", "");
+            // S3 rejects parts under 5 MB other than the last one
+            this.partSize = Math.max(MIN_PART_SIZE, partSize);
+            this.partConcurrency = Math.max(1, partConcurrency);
+            this.uploadThreads = Math.max(1, uploadThreads);
+            this.requestTimeout = requestTimeout;
+        }
+    }
+
+    private final Settings settings;
+    private final String keyPrefix;
+    private final String host;
+    private final HttpClient client;
+    private final ExecutorService uploadExecutor;
+
+    public S3BlobStore(Settings settings, String keyPrefix) {
+        this.settings = settings;
+        this.keyPrefix = keyPrefix;
+        String authority = settings.endpoint.getPort() < 0
+            ? settings.endpoint.getHost()
+            : settings.endpoint.getHost() + ":" + settings.endpoint.getPort();
+        this.host = settings.pathStyle ? authority : settings.bucket + "." + authority;
+        this.client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        AtomicInteger threadCount = new AtomicInteger();
+        this.uploadExecutor = Executors.newFixedThreadPool(settings.uploadThreads, runnable -> {
+            Thread thread = new Thread(runnable, "blob-upload-" + threadCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @Override
+    public void close() {
+        uploadExecutor.shutdown();
+    }
+
+    @Override
+    public CompletableFuture<Void> put(String key, Path source, String contentType) {
+        return CompletableFuture.runAsync(() -> {
+            try {
+                long size = Files.size(source);
+                if (size <= settings.partSize) {
+                    putSingle(objectKey(key), source, contentType);
+                } else {
+                    putMultipart(objectKey(key), source, contentType, size);
+                }
+            } catch (IOException e) {
+                throw new CompletionException(e);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new CompletionException(e);
+            }
+        }, uploadExecutor);
+    }
+
+    @Override
+    public InputStream open(String key) throws IOException {
+        HttpResponse<InputStream> response = send(
+            signed("GET", objectKey(key), Map.of(), UNSIGNED_PAYLOAD).GET().build(),
+            HttpResponse.BodyHandlers.ofInputStream());
+        if (response.statusCode() == 404) {
+            response.body().close();
+            throw new NoSuchFileException(key);
+        }
+        if (response.statusCode() / 100 != 2) {
+            response.body().close();
+            throw failure("GET", key, response.statusCode());
+        }
+        return response.body();
+    }
+
+    @Override
+    public boolean exists(String key) throws IOException {
+        HttpResponse<Void> response = send(
+            signed("HEAD", objectKey(key), Map.of(), UNSIGNED_PAYLOAD)
+                .method("HEAD", HttpRequest.BodyPublishers.noBody()).build(),
+            HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() == 404) {
+            return false;
+        }
+        if (response.statusCode() / 100 != 2) {
+            throw failure("HEAD", key, response.statusCode());
+        }
+        return true;
+    }
+
+    @Override
+    public void delete(String key) throws IOException {
+        HttpResponse<Void> response = send(
+            signed("DELETE", objectKey(key), Map.of(), UNSIGNED_PAYLOAD).DELETE().build(),
+            HttpResponse.BodyHandlers.discarding());
+        if (response.statusCode() / 100 != 2 && response.statusCode() != 404) {
+            throw failure("DELETE", key, response.statusCode());
+        }
+    }
+
+    @Override
+    public Optional<URI> directUrl(String key, Duration ttl) {
+        String objectKey = objectKey(key);
+        if (settings.publicBaseUrl != null) {
+            return Optional.of(URI.create(settings.publicBaseUrl + "/" + encode(objectKey, false)));
+        }
+        return Optional.of(presign(objectKey, ttl));
+    }
+
+    private void putSingle(String objectKey, Path source, String contentType) throws IOException, InterruptedException {
+        HttpRequest request = signed("PUT", objectKey, Map.of(), UNSIGNED_PAYLOAD)
+            .header("Content-Type", contentType)
+            .PUT(HttpRequest.BodyPublishers.ofFile(source))
+            .build();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        if (response.statusCode() / 100 != 2) {
+            throw failure("PUT", objectKey, response.statusCode());
+        }
+    }
+
+    // Parts are read one at a time and at most partConcurrency are in flight, which bounds memory
+    private void putMultipart(String objectKey, Path source, String contentType, long size)
+            throws IOException, InterruptedException {
+        HttpResponse<String> created = client.send(
+            signed("POST", objectKey, Map.of("uploads", ""), UNSIGNED_PAYLOAD)
+                .header("Content-Type", contentType)
+                .POST(HttpRequest.BodyPublishers.noBody())
+                .build(),
+            HttpResponse.BodyHandlers.ofString());
+        Matcher matcher = UPLOAD_ID.matcher(created.body());
+        if (created.statusCode() / 100 != 2 || !matcher.find()) {
+            throw failure("POST ?uploads", objectKey, created.statusCode());
+        }
+        String uploadId = matcher.group(1);
+
+        int partCount = (int) ((size + settings.partSize - 1) / settings.partSize);
+        String[] etags = new String[partCount];
+        List<CompletableFuture<Void>> parts = new ArrayList<>();
+        Semaphore inFlight = new Semaphore(settings.partConcurrency);
+        try (InputStream in = Files.newInputStream(source)) {
+            for (int part = 1; part <= partCount; part++) {
+                byte[] body = in.readNBytes((int) Math.min(settings.partSize, size - (part - 1) * settings.partSize));
+                inFlight.acquire();
+                int index = part - 1;
+                HttpRequest request = signed("PUT", objectKey,
+                        Map.of("partNumber", String.valueOf(part), "uploadId", uploadId), UNSIGNED_PAYLOAD)
+                    .PUT(HttpRequest.BodyPublishers.ofByteArray(body))
+                    .build();
+                parts.add(client.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> inFlight.release())
+                    .thenAccept(response -> {
+                        String etag = response.headers().firstValue("ETag").orElse(null);
+                        if (response.statusCode() / 100 != 2 || etag == null) {
+                            throw new CompletionException(failure("PUT part " + (index + 1), objectKey, response.statusCode()));
+                        }
+                        etags[index] = etag;
+                    }));
+                if (parts.stream().anyMatch(CompletableFuture::isCompletedExceptionally)) {
+                    break;
+                }
+            }
+            CompletableFuture.allOf(parts.toArray(new CompletableFuture[0])).join();
+
+            StringBuilder xml = new StringBuilder("<CompleteMultipartUpload>");
+            for (int i = 0; i < partCount; i++) {
+                xml.append("<Part><PartNumber>").append(i + 1).append("</PartNumber><ETag>")
+                    .append(etags[i].replace("\"", "&quot;")).append("</ETag></Part>");
+            }
+            byte[] completion = xml.append("</CompleteMultipartUpload>").toString().getBytes(StandardCharsets.UTF_8);
+            HttpResponse<String> completed = client.send(
+                signed("POST", objectKey, Map.of("uploadId", uploadId), HexFormat.of().formatHex(sha256(completion)))
+                    .header("Content-Type", "application/xml")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(completion))
+                    .build(),
+                HttpResponse.BodyHandlers.ofString());
+            // S3 can report a failed completion inside a 200 response
+            if (completed.statusCode() / 100 != 2 || completed.body().contains("<Error>")) {
+                throw failure("POST ?uploadId", objectKey, completed.statusCode());
+            }
+        } catch (IOException | InterruptedException | RuntimeException e) {
+            abort(objectKey, uploadId);
+            if (e instanceof CompletionException && e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    // Best effort; a bucket lifecycle rule should clean up anything left behind
+    private void abort(String objectKey, String uploadId) {
+        try {
+            client.send(signed("DELETE", objectKey, Map.of("uploadId", uploadId), UNSIGNED_PAYLOAD).DELETE().build(),
+                HttpResponse.BodyHandlers.discarding());
+        } catch (IOException e) {
+            log.warn("Could not abort multipart upload of {}: {}", objectKey, e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private <T> HttpResponse<T> send(HttpRequest request, HttpResponse.BodyHandler<T> handler) throws IOException {
+        try {
+            return client.send(request, handler);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted during " + request.method() + " " + request.uri().getPath(), e);
+        }
+    }
+
+    private String objectKey(String key) {
+        return keyPrefix + key;
+    }
+
+    private String canonicalPath(String objectKey) {
+        String path = "/" + encode(objectKey, false);
+        return settings.pathStyle ? "/" + settings.bucket + path : path;
+    }
+
+    private URI uri(String path, String query) {
+        return URI.create(settings.endpoint.getScheme() + "://" + host + path + (query.isEmpty() ? "" : "?" + query));
+    }
+
+    /**
+     * A request builder for {@code method} on {@code objectKey} with the SigV4
+     * Authorization header set; the caller adds the body.
+     */
+    private HttpRequest.Builder signed(String method, String objectKey, Map<String, String> query, String payloadHash) {
+        return signed(method, objectKey, query, payloadHash, Instant.now());
+    }
+
+    // Signs as of {@code now}; package-private so the signing can be checked against AWS's examples
+    HttpRequest.Builder signed(String method, String objectKey, Map<String, String> query, String payloadHash,
+                               Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String path = canonicalPath(objectKey);
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalRequest = method + "\n" + path + "\n" + canonicalQuery + "\n"
+            + "host:" + host + "\n"
+            + "x-amz-content-sha256:" + payloadHash + "\n"
+            + "x-amz-date:" + amzDate + "\n"
+            + "\n" + SIGNED_HEADERS + "\n" + payloadHash;
+        String scope = amzDate.substring(0, 8) + "/" + settings.region + "/s3/aws4_request";
+        String authorization = "AWS4-HMAC-SHA256 Credential=" + settings.accessKey + "/" + scope
+            + ", SignedHeaders=" + SIGNED_HEADERS
+            + ", Signature=" + signature(amzDate, scope, canonicalRequest);
+        return HttpRequest.newBuilder(uri(path, canonicalQuery))
+            .timeout(settings.requestTimeout)
+            .header("x-amz-content-sha256", payloadHash)
+            .header("x-amz-date", amzDate)
+            .header("Authorization", authorization);
+    }
+
+    private URI presign(String objectKey, Duration ttl) {
+        return presign(objectKey, ttl, Instant.now());
+    }
+
+    URI presign(String objectKey, Duration ttl, Instant now) {
+        String amzDate = AMZ_DATE.format(now);
+        String scope = amzDate.substring(0, 8) + "/" + settings.region + "/s3/aws4_request";
+        String path = canonicalPath(objectKey);
+        Map<String, String> query = new TreeMap<>();
+        query.put("X-Amz-Algorithm", "AWS4-HMAC-SHA256");
+        query.put("X-Amz-Credential", settings.accessKey + "/" + scope);
+        query.put("X-Amz-Date", amzDate);
+        query.put("X-Amz-Expires", String.valueOf(Math.min(MAX_PRESIGN_SECONDS, Math.max(1, ttl.toSeconds()))));
+        query.put("X-Amz-SignedHeaders", "host");
+        String canonicalQuery = canonicalQuery(query);
+        String canonicalRequest = "GET\n" + path + "\n" + canonicalQuery + "\n"
+            + "host:" + host + "\n\nhost\n" + UNSIGNED_PAYLOAD;
+        return uri(path, canonicalQuery + "&X-Amz-Signature=" + signature(amzDate, scope, canonicalRequest));
+    }
+
+    private String signature(String amzDate, String scope, String canonicalRequest) {
+        String stringToSign = "AWS4-HMAC-SHA256\n" + amzDate + "\n" + scope + "\n"
+            + HexFormat.of().formatHex(sha256(canonicalRequest.getBytes(StandardCharsets.UTF_8)));
+        byte[] key = hmac(("AWS4" + settings.secretKey).getBytes(StandardCharsets.UTF_8), amzDate.substring(0, 8));
+        key = hmac(key, settings.region);
+        key = hmac(key, "s3");
+        key = hmac(key, "aws4_request");
+        return HexFormat.of().formatHex(hmac(key, stringToSign));
+    }
+
+    private static String canonicalQuery(Map<String, String> query) {
+        Map<String, String> sorted = new TreeMap<>();
+        query.forEach((name, value) -> sorted.put(encode(name, true), encode(value, true)));
+        StringBuilder result = new StringBuilder();
+        sorted.forEach((name, value) -> {
+            if (result.length() > 0) {
+                result.append('&');
+            }
+            result.append(name).append('=').append(value);
+        });
+        return result.toString();
+    }
+
+    // RFC 3986 percent-encoding as SigV4 expects; slashes survive in object key paths
+    private static String encode(String value, boolean encodeSlash) {
+        StringBuilder result = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            char c = (char) (b & 0xff);
+            if ((c >= 'A' && c <= 'Z') || (c >= 'a' && c <= 'z') || (c >= '0' && c <= '9')
+                    || c == '-' || c == '_' || c == '.' || c == '~' || (c == '/' && !encodeSlash)) {
+                result.append(c);
+            } else {
+                result.append('%').append(String.format("%02X", b & 0xff));
+            }
+        }
+        return result.toString();
+    }
+
+    private static byte[] hmac(byte[] key, String data) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(new SecretKeySpec(key, "HmacSHA256"));
+            return mac.doFinal(data.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] sha256(byte[] data) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(data);
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private IOException failure(String operation, String key, int status) {
+        return new IOException("S3 " + operation + " " + key + " failed with status " + status);
+    }
+}
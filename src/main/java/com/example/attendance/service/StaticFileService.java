@@ -0,0 +1,387 @@
+package com.example.attendance.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Serves files from the upload blob store.
+ *
+ * Metadata (content-hash ETag, content type) is computed once per file version and kept
+ * in an LRU; a request only stats the file to confirm it is unchanged. Names that were
+ * recently missing are remembered for a short TTL, so a broken link costs a map lookup
+ * rather than a filesystem probe. Bodies go out through Tomcat's sendfile when the
+ * connector supports it, otherwise through FileChannel.transferTo. Supports HEAD,
+ * If-None-Match / If-Modified-Since and single byte ranges (with If-Range).
+ *
+ * Files come from the store's local directory, fetched into it on a miss when the backend
+ * is remote. With {@code storage.redirect=true} and a backend that can hand out its own
+ * URLs, requests are redirected there instead and the bytes never pass through this node.
+ */
+@Slf4j
+@Service
+public class StaticFileService {
+
+    // Tomcat's request attributes for handing a file region to the connector
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final Pattern SAFE_NAME = Pattern.compile("[A-Za-z0-9][A-Za-z0-9._-]*");
+    // Upload names are a content hash or embed a timestamp and are never reused, e.g.
+    // <sha256>.png or logo_1700000000000.png, and so do their variants, e.g. <sha256>_w128.png
+    private static final Pattern FINGERPRINTED =
+        Pattern.compile("([0-9a-f]{64}|.*[_-](\\d{10,}|[0-9a-fA-F]{16,}))(_w\\d+)?\\.[A-Za-z0-9]+");
+    private static final Pattern CONTENT_ADDRESSED = Pattern.compile("[0-9a-f]{64}\\.[A-Za-z0-9]+");
+    private static final Pattern RANGE = Pattern.compile("bytes=(\\d*)-(\\d*)");
+
+    private static final Map<String, String> CONTENT_TYPES = Map.of(
+        "jpg", "image/jpeg",
+        "jpeg", "image/jpeg",
+        "png", "image/png",
+        "gif", "image/gif",
+        "webp", "image/webp",
+        "svg", "image/svg+xml",
+        "pdf", "application/pdf",
+        "txt", "text/plain"
+    );
+
+    private final CachingBlobStore uploadStore;
+    private final Path root;
+    private final boolean redirect;
+    private final Duration redirectTtl;
+    private final long maxAgeSeconds;
+    private final long negativeTtlMillis;
+    private final Map<String, FileMeta> metadata;
+    private final Map<String, Long> missing;
+
+    public StaticFileService(@Qualifier("uploadBlobStore") CachingBlobStore uploadStore,
+                             @Value("${storage.redirect:false}") boolean redirect,
+                             @Value("${storage.redirect-ttl-seconds:3600}") long redirectTtlSeconds,
+                             @Value("${uploads.max-age-seconds:3600}") long maxAgeSeconds,
+                             @Value("${uploads.cache.max-entries:1000}") int maxEntries,
+                             @Value("${uploads.negative-cache.max-entries:10000}") int maxMissing,
+                             @Value("${uploads.negative-cache.ttl-seconds:30}") long negativeTtlSeconds) {
+        this.uploadStore = uploadStore;
+        this.root = uploadStore.getCacheRoot();
+        this.redirect = redirect;
+        this.redirectTtl = Duration.ofSeconds(redirectTtlSeconds);
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.negativeTtlMillis = negativeTtlSeconds * 1000;
+        this.metadata = lru(maxEntries);
+        this.missing = lru(maxMissing);
+    }
+
+    @PostConstruct
+    void createRoot() throws IOException {
+        if (!Files.isDirectory(root)) {
+            Files.createDirectories(root);
+            log.info("Created upload directory {}", root);
+        }
+    }
+
+    public Path getRoot() {
+        return root;
+    }
+
+    // Content-addressed names live in their shard directory, older flat names in the root
+    public Path pathFor(String filename) {
+        return uploadStore.cachePath(FileStorageService.shardKey(filename));
+    }
+
+    /**
+     * Forgets anything cached about {@code filename}; call after writing or deleting it.
+     */
+    public void evict(String filename) {
+        metadata.remove(filename);
+        missing.remove(filename);
+    }
+
+    public boolean exists(String filename) {
+        try {
+            return lookup(filename) != null;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    public void serve(String filename, HttpServletRequest request, HttpServletResponse response) throws IOException {
+        if (redirect && filename != null && SAFE_NAME.matcher(filename).matches()) {
+            Optional<URI> url = uploadStore.directUrl(FileStorageService.shardKey(filename), redirectTtl);
+            if (url.isPresent()) {
+                // Presigned URLs change per request; let clients reuse one for half its lifetime
+                response.setHeader(HttpHeaders.CACHE_CONTROL, "private, max-age=" + redirectTtl.toSeconds() / 2);
+                response.setHeader(HttpHeaders.LOCATION, url.get().toString());
+                response.setStatus(HttpServletResponse.SC_FOUND);
+                return;
+            }
+        }
+
+        FileMeta meta = lookup(filename);
+        if (meta == null) {
+            response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            return;
+        }
+
+        response.setHeader(HttpHeaders.ETAG, meta.etag);
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, meta.lastModified);
+        response.setHeader(HttpHeaders.CACHE_CONTROL, meta.fingerprinted
+            ? "public, max-age=31536000, immutable"
+            : "public, max-age=" + maxAgeSeconds);
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+
+        if (notModified(request, meta)) {
+            response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+            return;
+        }
+
+        long start = 0;
+        long end = meta.length;
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range != null && rangeApplies(request, meta)) {
+            long[] bounds = parseRange(range, meta.length);
+            if (bounds == null) {
+                response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + meta.length);
+                response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+                return;
+            }
+            if (bounds.length == 2) {
+                start = bounds[0];
+                end = bounds[1];
+                response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+                response.setHeader(HttpHeaders.CONTENT_RANGE,
+                    "bytes " + start + "-" + (end - 1) + "/" + meta.length);
+            }
+        }
+
+        response.setContentType(meta.contentType);
+        response.setContentLengthLong(end - start);
+        if ("HEAD".equals(request.getMethod()) || end == start) {
+            return;
+        }
+
+        if (Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED))) {
+            request.setAttribute(SENDFILE_FILENAME, meta.path.toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+        try (FileChannel channel = FileChannel.open(meta.path, StandardOpenOption.READ)) {
+            WritableByteChannel out = Channels.newChannel(response.getOutputStream());
+            long position = start;
+            while (position < end) {
+                long written = channel.transferTo(position, end - position, out);
+                if (written <= 0) {
+                    break;
+                }
+                position += written;
+            }
+        }
+    }
+
+    private FileMeta lookup(String filename) throws IOException {
+        if (filename == null || !SAFE_NAME.matcher(filename).matches()) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        Long missingUntil = missing.get(filename);
+        if (missingUntil != null) {
+            if (missingUntil > now) {
+                return null;
+            }
+            missing.remove(filename);
+        }
+
+        Path path = pathFor(filename);
+        if (!path.startsWith(root)) {
+            return null;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            // Not on this node; fetch it from the backing store if it is there
+            if (uploadStore.localCopy(FileStorageService.shardKey(filename)) == null) {
+                missing.put(filename, now + negativeTtlMillis);
+                return null;
+            }
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        }
+        if (!attributes.isRegularFile()) {
+            missing.put(filename, now + negativeTtlMillis);
+            return null;
+        }
+
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        FileMeta cached = metadata.get(filename);
+        if (cached != null && cached.length == attributes.size() && cached.lastModified == lastModified) {
+            return cached;
+        }
+        FileMeta fresh = new FileMeta(path, attributes.size(), lastModified, etagFor(filename, path),
+            contentType(filename), FINGERPRINTED.matcher(filename).matches());
+        metadata.put(filename, fresh);
+        return fresh;
+    }
+
+    private static boolean notModified(HttpServletRequest request, FileMeta meta) {
+        String ifNoneMatch = request.getHeader(HttpHeaders.IF_NONE_MATCH);
+        if (ifNoneMatch != null) {
+            for (String tag : ifNoneMatch.split(",")) {
+                String candidate = tag.trim();
+                if (candidate.startsWith("W/")) {
+                    candidate = candidate.substring(2);
+                }
+                if (candidate.equals("*") || candidate.equals(meta.etag)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        long ifModifiedSince = dateHeader(request, HttpHeaders.IF_MODIFIED_SINCE);
+        return ifModifiedSince >= 0 && meta.lastModified / 1000 <= ifModifiedSince / 1000;
+    }
+
+    // If-Range: honor the range only when the client's copy is still current
+    private static boolean rangeApplies(HttpServletRequest request, FileMeta meta) {
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange == null) {
+            return true;
+        }
+        if (ifRange.startsWith("\"")) {
+            return ifRange.equals(meta.etag);
+        }
+        long date = dateHeader(request, HttpHeaders.IF_RANGE);
+        return date >= 0 && meta.lastModified / 1000 <= date / 1000;
+    }
+
+    private static long dateHeader(HttpServletRequest request, String name) {
+        try {
+            return request.getDateHeader(name);
+        } catch (IllegalArgumentException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Returns {start, endExclusive} for a satisfiable single range, an empty array when the
+     * header should be ignored (multiple ranges or unparseable), or null when unsatisfiable.
+     */
+    private static long[] parseRange(String header, long length) {
+        Matcher matcher = RANGE.matcher(header.trim());
+        if (!matcher.matches() || (matcher.group(1).isEmpty() && matcher.group(2).isEmpty())) {
+            return new long[0];
+        }
+        try {
+            long start;
+            long end;
+            if (matcher.group(1).isEmpty()) {
+                long suffix = Long.parseLong(matcher.group(2));
+                if (suffix == 0) {
+                    return null;
+                }
+                start = Math.max(0, length - suffix);
+                end = length;
+            } else {
+                start = Long.parseLong(matcher.group(1));
+                end = matcher.group(2).isEmpty() ? length : Math.min(length, Long.parseLong(matcher.group(2)) + 1);
+                if (end <= start) {
+                    return start >= length ? null : new long[0];
+                }
+            }
+            return start >= length ? null : new long[]{start, end};
+        } catch (NumberFormatException e) {
+            return new long[0];
+        }
+    }
+
+    private static String contentType(String filename) {
+        int dot = filename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : filename.substring(dot + 1).toLowerCase(Locale.ROOT);
+        return CONTENT_TYPES.getOrDefault(extension, "application/octet-stream");
+    }
+
+    // A content-addressed original already carries its SHA-256 in the name
+    private static String etagFor(String filename, Path path) throws IOException {
+        if (CONTENT_ADDRESSED.matcher(filename).matches()) {
+            return "\"" + filename.substring(0, 32) + "\"";
+        }
+        return contentHash(path);
+    }
+
+    // Strong validator: the first 128 bits of the content's SHA-256
+    private static String contentHash(Path path) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try (InputStream in = Files.newInputStream(path)) {
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        byte[] hash = digest.digest();
+        return "\"" + HexFormat.of().formatHex(hash, 0, 16) + "\"";
+    }
+
+    private static <V> Map<String, V> lru(int maxEntries) {
+        return Collections.synchronizedMap(new LinkedHashMap<>(64, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, V> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    private static final class FileMeta {
+        private final Path path;
+        private final long length;
+        private final long lastModified;
+        private final String etag;
+        private final String contentType;
+        private final boolean fingerprinted;
+
+        private FileMeta(Path path, long length, long lastModified, String etag,
+                         String contentType, boolean fingerprinted) {
+            this.path = path;
+            this.length = length;
+            this.lastModified = lastModified;
+            this.etag = etag;
+            this.contentType = contentType;
+            this.fingerprinted = fingerprinted;
+        }
+    }
+}
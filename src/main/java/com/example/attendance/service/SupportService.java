@@ -1,5 +1,6 @@
 package com.example.attendance.service;
 
+import com.example.attendance.entity.StoredFile;
 import com.example.attendance.entity.SupportTicket;
 import com.example.attendance.entity.User;
 import com.example.attendance.repository.SupportTicketRepository;
@@ -8,15 +9,11 @@ import org.springframework.core.io.FileSystemResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
-import org.springframework.web.multipart.MultipartFile;
 
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
 import java.io.IOException;
-import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
 import java.time.format.DateTimeFormatter;
 
 @Service
@@ -24,29 +21,38 @@ public class SupportService {
     private final SupportTicketRepository supportTicketRepository;
     private final UserRepository userRepository;
     private final JavaMailSender mailSender;
+    private final FileStorageService fileStorageService;
     private final String supportEmail = "attendancesystems10@gmail.com";
 
     public SupportService(SupportTicketRepository supportTicketRepository, 
                         UserRepository userRepository,
-                        JavaMailSender mailSender) {
+                        JavaMailSender mailSender,
+                        FileStorageService fileStorageService) {
         this.supportTicketRepository = supportTicketRepository;
         this.userRepository = userRepository;
         this.mailSender = mailSender;
+        this.fileStorageService = fileStorageService;
     }
 
     public SupportTicket createSupportTicket(Long userId, String concernType, 
-                                          String message, MultipartFile attachment) {
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> new RuntimeException("User not found"));
+                                          String message, StoredFile attachment) {
+        User user = userRepository.findById(userId).orElse(null);
+        if (user == null) {
+            // Nothing will refer to the attachment the upload already stored
+            if (attachment != null) {
+                fileStorageService.release(attachment);
+            }
+            throw new RuntimeException("User not found");
+        }
         
         SupportTicket ticket = new SupportTicket();
         ticket.setUser(user);
         ticket.setConcernType(concernType);
         ticket.setMessage(message);
         
-        if (attachment != null && !attachment.isEmpty()) {
-            String attachmentPath = saveAttachment(userId, attachment);
-            ticket.setAttachmentPath(attachmentPath);
+        // Already stored, content-addressed, by the upload stream; any node can fetch it by id
+        if (attachment != null) {
+            ticket.setAttachmentFileId(attachment.getId());
         }
         
         SupportTicket savedTicket = supportTicketRepository.save(ticket);
@@ -54,25 +60,6 @@ public class SupportService {
         return savedTicket;
     }
 
-    private String saveAttachment(Long userId, MultipartFile attachment) {
-        try {
-            String uploadDir = "support-attachments/" + userId;
-            Path uploadPath = Paths.get(uploadDir);
-            
-            if (!Files.exists(uploadPath)) {
-                Files.createDirectories(uploadPath);
-            }
-            
-            String fileName = System.currentTimeMillis() + "_" + attachment.getOriginalFilename();
-            Path filePath = uploadPath.resolve(fileName);
-            Files.copy(attachment.getInputStream(), filePath, StandardCopyOption.REPLACE_EXISTING);
-            
-            return filePath.toString();
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to store attachment", e);
-        }
-    }
-
     private void sendSupportEmail(SupportTicket ticket) {
         try {
             MimeMessage message = mailSender.createMimeMessage();
@@ -82,17 +69,29 @@ public class SupportService {
             helper.setSubject("New Support Ticket: " + ticket.getConcernType());
             helper.setText(buildEmailContent(ticket), true);
             
-            if (ticket.getAttachmentPath() != null && !ticket.getAttachmentPath().isEmpty()) {
-                FileSystemResource file = new FileSystemResource(ticket.getAttachmentPath());
-                helper.addAttachment("SupportAttachment", file);
+            if (ticket.getAttachmentFileId() != null) {
+                addAttachment(helper, ticket.getAttachmentFileId());
             }
             
             mailSender.send(message);
-        } catch (MessagingException e) {
+        } catch (MessagingException | IOException e) {
             throw new RuntimeException("Failed to send support email", e);
         }
     }
 
+    // Read through the blob cache, so this works on whichever node handles the request
+    private void addAttachment(MimeMessageHelper helper, Long fileId) throws MessagingException, IOException {
+        StoredFile stored = fileStorageService.find(fileId)
+                .orElseThrow(() -> new IOException("Support attachment " + fileId + " not found"));
+        Path path = fileStorageService.localCopy(stored);
+        if (path == null) {
+            throw new IOException("Support attachment " + fileId + " is missing from storage");
+        }
+        String name = stored.getOriginalName() != null && !stored.getOriginalName().isBlank()
+                ? stored.getOriginalName() : "SupportAttachment";
+        helper.addAttachment(name, new FileSystemResource(path));
+    }
+
     private String buildEmailContent(SupportTicket ticket) {
     DateTimeFormatter formatter = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
     
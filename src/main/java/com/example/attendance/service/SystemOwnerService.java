@@ -5,9 +5,9 @@ import com.example.attendance.entity.User;
 import com.example.attendance.exception.DuplicateEmailException;
 import com.example.attendance.repository.UserRepository;
 import com.example.attendance.security.JwtTokenProvider;
+import com.example.attendance.security.PasswordHashingService;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDate;
@@ -17,7 +17,7 @@ import java.time.LocalDate;
 public class SystemOwnerService {
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final PasswordHashingService passwordHashingService;
     private final JwtTokenProvider jwtTokenProvider;
 
     @PostConstruct
@@ -27,7 +27,7 @@ public class SystemOwnerService {
                 .firstName("System")
                 .lastName("Owner")
                 .email("system@owner.com")
-                .password(passwordEncoder.encode("ChangeThisPassword123!"))
+                .password(passwordHashingService.hash("ChangeThisPassword123!"))
                 .birthday(LocalDate.now())
                 .gender(User.Gender.UNSPECIFIED)
                 .accountType(User.AccountType.SYSTEM_OWNER)
@@ -46,7 +46,7 @@ public class SystemOwnerService {
             .firstName(registrationDto.getFirstName())
             .lastName(registrationDto.getLastName())
             .email(registrationDto.getEmail())
-            .password(passwordEncoder.encode(registrationDto.getPassword()))
+            .password(passwordHashingService.hash(registrationDto.getPassword()))
             .birthday(registrationDto.getBirthday())
             .gender(registrationDto.getGender())
             .accountType(User.AccountType.SYSTEM_OWNER)
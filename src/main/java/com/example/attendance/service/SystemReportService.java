@@ -0,0 +1,99 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.Organizer;
+import com.example.attendance.repository.OrganizerRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * Cross-organization reports for system owners. Each organization is queried on its own
+ * through ReportFanOutExecutor and the partial aggregates are merged here; distinct
+ * attendees are merged by set union since members can belong to several organizations.
+ * Events are attributed to organizations through event_attendance_rollup, like every
+ * other per-organization figure.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SystemReportService {
+
+    private final OrganizerRepository organizerRepository;
+    private final ReportFanOutExecutor fanOutExecutor;
+
+    public Map<String, Object> getOrganizationActivity(LocalDate from, LocalDate to) {
+        Map<Long, String> organizations = new LinkedHashMap<>();
+        for (Organizer organizer : organizerRepository.findAll()) {
+            organizations.put(organizer.getId(), organizer.getOrganizationName());
+        }
+
+        ReportFanOutExecutor.Outcome<Long, Partial> outcome = fanOutExecutor.fanOut(
+            "organization-activity", organizations.keySet(), organizationId -> query(organizationId, from, to));
+
+        long events = 0;
+        long registrations = 0;
+        long checkIns = 0;
+        Set<Long> attendees = new HashSet<>();
+        List<Map<String, Object>> rows = new ArrayList<>();
+        for (Map.Entry<Long, Partial> entry : outcome.getResults().entrySet()) {
+            Partial partial = entry.getValue();
+            events += partial.events;
+            registrations += partial.registrations;
+            checkIns += partial.checkIns;
+            attendees.addAll(partial.attendees);
+
+            Map<String, Object> row = new LinkedHashMap<>();
+            row.put("organizationId", entry.getKey());
+            row.put("organizationName", organizations.get(entry.getKey()));
+            row.put("events", partial.events);
+            row.put("registrations", partial.registrations);
+            row.put("checkIns", partial.checkIns);
+            row.put("uniqueAttendees", partial.attendees.size());
+            rows.add(row);
+        }
+        rows.sort(Comparator.comparing((Map<String, Object> row) -> (Long) row.get("checkIns")).reversed());
+
+        List<Map<String, Object>> failed = new ArrayList<>();
+        outcome.getFailures().forEach((organizationId, reason) -> failed.add(Map.of(
+            "organizationId", organizationId,
+            "organizationName", String.valueOf(organizations.get(organizationId)),
+            "reason", reason
+        )));
+
+        Map<String, Object> totals = new LinkedHashMap<>();
+        totals.put("organizations", outcome.getResults().size());
+        totals.put("events", events);
+        totals.put("registrations", registrations);
+        totals.put("checkIns", checkIns);
+        totals.put("uniqueAttendees", attendees.size());
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from);
+        result.put("to", to);
+        result.put("complete", outcome.isComplete());
+        result.put("elapsedMs", outcome.getElapsedMs());
+        result.put("totals", totals);
+        result.put("organizations", rows);
+        result.put("failed", failed);
+        return result;
+    }
+
+    private Partial query(Long organizationId, LocalDate from, LocalDate to) {
+        Partial partial = new Partial();
+        partial.events = organizerRepository.countEventsInRange(organizationId, from, to);
+        partial.registrations = organizerRepository.countRegistrationsInRange(organizationId, from, to);
+        partial.checkIns = organizerRepository.countCheckInsInRange(organizationId, from, to);
+        partial.attendees = new HashSet<>(organizerRepository.findDistinctAttendeeIdsInRange(organizationId, from, to));
+        return partial;
+    }
+
+    private static final class Partial {
+        private long events;
+        private long registrations;
+        private long checkIns;
+        private Set<Long> attendees;
+    }
+}
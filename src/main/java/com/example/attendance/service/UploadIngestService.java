@@ -0,0 +1,154 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.StoredFile;
+import com.example.attendance.exception.PayloadTooLargeException;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Receives multipart form posts without Spring's multipart resolver (disabled in
+ * application.properties). The file part streams straight into FileStorageService, which
+ * hashes, size-checks and sniffs it in one pass; form fields are read into small strings.
+ * A request whose declared length is already over the limit is rejected before reading,
+ * and a permit count bounds how many uploads write temp files at once.
+ */
+@Service
+public class UploadIngestService {
+
+    private static final int MAX_FIELD_BYTES = 64 * 1024;
+    private static final int MAX_FIELDS = 50;
+
+    private final FileStorageService fileStorageService;
+    private final FileStorageService.Policy uploadPolicy;
+    private final FileStorageService.Policy supportPolicy;
+    private final Semaphore permits;
+
+    public UploadIngestService(FileStorageService fileStorageService,
+                               @Value("${uploads.logo.max-bytes:5242880}") long logoMaxBytes,
+                               @Value("${uploads.support.max-bytes:10485760}") long supportMaxBytes,
+                               @Value("${uploads.max-concurrent:8}") int maxConcurrent) {
+        this.fileStorageService = fileStorageService;
+        this.uploadPolicy = new FileStorageService.Policy(logoMaxBytes,
+            Set.of("image/jpeg", "image/png", "image/gif", "image/webp"));
+        this.supportPolicy = new FileStorageService.Policy(supportMaxBytes,
+            Set.of("image/jpeg", "image/png", "image/gif", "image/webp",
+                   "application/pdf", "application/zip", "text/plain"));
+        this.permits = new Semaphore(maxConcurrent);
+    }
+
+    public static final class Form {
+        private final Map<String, String> fields;
+        private final StoredFile file;
+
+        private Form(Map<String, String> fields, StoredFile file) {
+            this.fields = fields;
+            this.file = file;
+        }
+
+        public String getField(String name) {
+            return fields.get(name);
+        }
+
+        // Null when the request had no (non-empty) file part
+        public StoredFile getFile() {
+            return file;
+        }
+    }
+
+    /**
+     * Reads the request's form fields and stores the part named {@code filePart} in the
+     * given category, under that category's size and type policy.
+     */
+    public Form receive(HttpServletRequest request, String filePart, StoredFile.Category category) throws IOException {
+        if (!MultipartStreamReader.isMultipart(request.getContentType())) {
+            Map<String, String> fields = new HashMap<>();
+            request.getParameterMap().forEach((name, values) -> fields.put(name, values[0]));
+            return new Form(fields, null);
+        }
+
+        FileStorageService.Policy policy = category == StoredFile.Category.SUPPORT ? supportPolicy : uploadPolicy;
+        // Allow for the other fields and part headers on top of the file itself
+        if (request.getContentLengthLong() > policy.getMaxBytes() + MAX_FIELD_BYTES) {
+            throw new PayloadTooLargeException(
+                "File exceeds the maximum size of " + policy.getMaxBytes() / (1024 * 1024) + "MB");
+        }
+
+        acquirePermit();
+        try {
+            MultipartStreamReader reader = new MultipartStreamReader(request.getInputStream(), request.getContentType());
+            Map<String, String> fields = new HashMap<>();
+            StoredFile file = null;
+            MultipartStreamReader.Part part;
+            try {
+                while ((part = reader.nextPart()) != null) {
+                    if (part.getFilename() != null) {
+                        // An unused file input arrives as a part with an empty filename
+                        if (filePart.equals(part.getName()) && file == null && !part.getFilename().isEmpty()) {
+                            file = fileStorageService.store(category, part.getBody(), part.getFilename(), policy);
+                        }
+                    } else if (part.getName() != null) {
+                        if (fields.size() >= MAX_FIELDS) {
+                            throw new PayloadTooLargeException("Too many form fields");
+                        }
+                        fields.putIfAbsent(part.getName(), readField(part.getBody()));
+                    }
+                }
+            } catch (IOException | RuntimeException e) {
+                // The file part may come before the part that fails
+                if (file != null) {
+                    fileStorageService.release(file);
+                }
+                throw e;
+            }
+            return new Form(fields, file);
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Releases the stored file of a form the caller rejected, so a failed request does not
+     * leave an unreferenced blob behind.
+     */
+    public void discard(Form form) {
+        if (form.file != null) {
+            fileStorageService.release(form.file);
+        }
+    }
+
+    private void acquirePermit() throws IOException {
+        try {
+            if (!permits.tryAcquire(2, TimeUnit.SECONDS)) {
+                throw new RejectedExecutionException("Too many uploads in progress");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting to read upload", e);
+        }
+    }
+
+    private static String readField(InputStream body) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[4096];
+        int read;
+        while ((read = body.read(buffer)) != -1) {
+            if (out.size() + read > MAX_FIELD_BYTES) {
+                throw new PayloadTooLargeException("Form field too large");
+            }
+            out.write(buffer, 0, read);
+        }
+        return out.toString(StandardCharsets.UTF_8);
+    }
+}
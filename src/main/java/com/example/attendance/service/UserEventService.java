@@ -2,6 +2,7 @@ package com.example.attendance.service;
 
 import com.example.attendance.entity.Event;
 import com.example.attendance.entity.User;
+import com.example.attendance.entity.UserAttendanceSummary;
 import com.example.attendance.entity.UserEventAttendance;
 import com.example.attendance.repository.EventRepository;
 import com.example.attendance.repository.UserEventAttendanceRepository;
@@ -12,7 +13,6 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -21,6 +21,8 @@ public class UserEventService {
     private final UserEventAttendanceRepository attendanceRepository;
     private final UserRepository userRepository;
     private final EventRepository eventRepository;
+    private final AttendanceRollupService attendanceRollupService;
+    private final EngagementService engagementService;
 
     @Transactional
     public UserEventAttendance recordAttendance(Long userId, Long eventId) {
@@ -42,6 +44,8 @@ public class UserEventService {
                 .build();
         
         UserEventAttendance savedAttendance = attendanceRepository.save(attendance);
+        attendanceRollupService.onCheckIn(savedAttendance);
+        engagementService.onCheckIn(savedAttendance);
         log.info("Successfully recorded attendance with ID: {}", savedAttendance.getId());
         return savedAttendance;
     }
@@ -53,7 +57,7 @@ public class UserEventService {
             throw new IllegalArgumentException("User not found with ID: " + userId);
         }
         
-        List<UserEventAttendance> attendedEvents = attendanceRepository.findByUserId(userId);
+        List<UserEventAttendance> attendedEvents = attendanceRepository.findWithEventByUserId(userId);
         log.debug("Found {} attended events for user {}", attendedEvents.size(), userId);
         return attendedEvents;
     }
@@ -81,14 +85,11 @@ public class UserEventService {
     public List<Event> getRegisteredEvents(Long userId) {
         log.debug("Fetching registered events for user: {}", userId);
         
-        if (!userRepository.existsById(userId)) {
-            throw new IllegalArgumentException("User not found with ID: " + userId);
-        }
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new IllegalArgumentException("User not found with ID: " + userId));
         
-        // Get all events where the user has attendance records (registered/attended)
-        List<Event> registeredEvents = eventRepository.findAll().stream()
-            .filter(event -> attendanceRepository.existsByUserIdAndEventId(userId, event.getId()))
-            .collect(Collectors.toList());
+        // Events the user registered for or has an attendance record at
+        List<Event> registeredEvents = eventRepository.findRegisteredByUser(userId, user.getEmail());
             
         log.debug("Found {} registered events for user {}", registeredEvents.size(), userId);
         return registeredEvents;
@@ -110,17 +111,14 @@ public class UserEventService {
             throw new IllegalArgumentException("User not found with ID: " + userId);
         }
 
-        List<Event> registeredEvents = getRegisteredEvents(userId);
-        List<UserEventAttendance> attendedEvents = getUserAttendedEvents(userId);
-
-        double attendancePercentage = registeredEvents.isEmpty() ? 0.0 : 
-            (double) attendedEvents.size() / registeredEvents.size() * 100;
+        // Precomputed counters, kept current on registration and check-in
+        UserAttendanceSummary summary = attendanceRollupService.getUserSummary(userId);
 
         return UserAttendanceStats.builder()
             .userId(userId)
-            .registeredEventsCount(registeredEvents.size())
-            .attendedEventsCount(attendedEvents.size())
-            .attendancePercentage(attendancePercentage)
+            .registeredEventsCount((int) summary.getRegisteredCount())
+            .attendedEventsCount((int) summary.getAttendedCount())
+            .attendancePercentage(summary.getAttendancePercentage())
             .build();
     }
 
@@ -0,0 +1,27 @@
+package com.example.attendance;
+
+import com.example.attendance.entity.User;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Minimal valid entities for integration tests; emails are unique so tests can share a database
+public final class TestData {
+
+    private TestData() {
+    }
+
+    public static User user(String firstName) {
+        return User.builder()
+            .firstName(firstName)
+            .lastName("Test")
+            .email(firstName.toLowerCase() + "-" + UUID.randomUUID() + "@example.com")
+            .password("x")
+            .birthday(LocalDate.of(1990, 1, 1))
+            .gender(User.Gender.UNSPECIFIED)
+            .accountType(User.AccountType.USER)
+            .createdAt(LocalDateTime.now())
+            .build();
+    }
+}
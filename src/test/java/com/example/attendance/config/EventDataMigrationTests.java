@@ -0,0 +1,53 @@
+package com.example.attendance.config;
+
+import com.example.attendance.TestData;
+import com.example.attendance.entity.Event;
+import com.example.attendance.repository.EventRepository;
+import com.example.attendance.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class EventDataMigrationTests {
+
+    @Autowired
+    private EventDataMigration migration;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void startsAtBackfillLeavesVersionAndUpdatedAtAlone() {
+        Event event = eventRepository.save(Event.builder()
+            .name("Vigil")
+            .date(LocalDate.of(2023, 12, 24))
+            .time(LocalTime.of(21, 30, 15))
+            .user(userRepository.save(TestData.user("organizer")))
+            .build());
+        // As written before the column existed
+        jdbcTemplate.update("UPDATE event SET starts_at = NULL WHERE id = ?", event.getId());
+        Map<String, Object> before = jdbcTemplate.queryForMap(
+            "SELECT version, updated_at FROM event WHERE id = ?", event.getId());
+
+        migration.afterSingletonsInstantiated();
+
+        Map<String, Object> after = jdbcTemplate.queryForMap(
+            "SELECT version, updated_at FROM event WHERE id = ?", event.getId());
+        assertEquals(LocalDateTime.of(2023, 12, 24, 21, 30, 15),
+            jdbcTemplate.queryForObject("SELECT starts_at FROM event WHERE id = ?", LocalDateTime.class, event.getId()));
+        assertEquals(before.get("VERSION"), after.get("VERSION"));
+        assertEquals(before.get("UPDATED_AT"), after.get("UPDATED_AT"));
+    }
+}
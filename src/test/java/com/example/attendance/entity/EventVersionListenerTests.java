@@ -0,0 +1,74 @@
+package com.example.attendance.entity;
+
+import com.example.attendance.TestData;
+import com.example.attendance.repository.EventRepository;
+import com.example.attendance.repository.UserRepository;
+import com.example.attendance.service.EventVersionCache;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class EventVersionListenerTests {
+
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private EventVersionCache eventVersionCache;
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void rolledBackEditDoesNotPublishItsVersion() {
+        Event event = eventRepository.save(Event.builder()
+            .name("Retreat")
+            .date(LocalDate.of(2024, 5, 1))
+            .time(LocalTime.NOON)
+            .user(userRepository.save(TestData.user("organizer")))
+            .build());
+        long committed = eventVersionCache.get(event.getId()).getVersion();
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Event loaded = eventRepository.findById(event.getId()).orElseThrow();
+            loaded.setName("Retreat (moved)");
+            eventRepository.saveAndFlush(loaded);
+            status.setRollbackOnly();
+        });
+        assertEquals(committed, eventVersionCache.get(event.getId()).getVersion());
+
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Event loaded = eventRepository.findById(event.getId()).orElseThrow();
+            loaded.setName("Retreat (moved)");
+            eventRepository.saveAndFlush(loaded);
+        });
+        assertEquals(committed + 1, eventVersionCache.get(event.getId()).getVersion());
+    }
+
+    @Test
+    void cacheNeverMovesBackwards() {
+        eventVersionCache.put(-1L, 3L, null);
+        eventVersionCache.put(-1L, 2L, null);
+        assertEquals(3, eventVersionCache.get(-1L).getVersion());
+    }
+
+    @Test
+    void expiredEntriesAreReadAgain() {
+        EventVersionCache expiring = new EventVersionCache(0);
+        expiring.put(-1L, 3L, null);
+        assertNull(expiring.get(-1L));
+
+        EventVersionCache lasting = new EventVersionCache(60);
+        lasting.put(-1L, 3L, null);
+        assertEquals(3, lasting.get(-1L).getVersion());
+    }
+}
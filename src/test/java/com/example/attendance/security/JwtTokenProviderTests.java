@@ -0,0 +1,60 @@
+package com.example.attendance.security;
+
+import io.jsonwebtoken.Claims;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Date;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JwtTokenProviderTests {
+
+    private final TokenRevocationService revocations = mock(TokenRevocationService.class);
+    private final JwtTokenProvider tokenProvider = new JwtTokenProvider(revocations);
+
+    @BeforeEach
+    void init() {
+        ReflectionTestUtils.setField(tokenProvider, "secret",
+            "VGhpcyBpcyBhIHZlcnkgc2VjdXJlIHNlY3JldCBrZXkgZm9yIGRldmVsb3BtZW50IQ==");
+        ReflectionTestUtils.setField(tokenProvider, "expiration", 3600L);
+        ReflectionTestUtils.setField(tokenProvider, "verifiedCacheMaxEntries", 100);
+        tokenProvider.init();
+        when(revocations.isRevoked(any())).thenReturn(false);
+    }
+
+    @Test
+    void cachedClaimsAreSharedButReadOnly() {
+        String token = tokenProvider.generateToken("ada@example.com", "USER", 42L);
+        Claims claims = tokenProvider.verify(token);
+
+        assertSame(claims, tokenProvider.verify(token));
+        assertEquals("ada@example.com", claims.getSubject());
+        assertEquals(42L, claims.get("userId", Long.class));
+        assertThrows(UnsupportedOperationException.class, () -> claims.setSubject("mallory@example.com"));
+        assertThrows(UnsupportedOperationException.class, () -> claims.put("accountType", "ADMIN"));
+        assertThrows(UnsupportedOperationException.class, () -> claims.remove("userId"));
+        assertThrows(UnsupportedOperationException.class, () -> claims.setExpiration(new Date()));
+        assertEquals("USER", tokenProvider.verify(token).get("accountType", String.class));
+    }
+
+    @Test
+    void fingerprintDoesNotContainTheToken() {
+        String token = tokenProvider.generateToken("ada@example.com", "USER", 42L);
+        String fingerprint = JwtTokenProvider.fingerprint(token);
+
+        assertTrue(fingerprint.startsWith("sha256:"));
+        assertEquals(fingerprint, JwtTokenProvider.fingerprint(token));
+        for (String part : token.split("\\.")) {
+            assertFalse(fingerprint.contains(part));
+        }
+    }
+}
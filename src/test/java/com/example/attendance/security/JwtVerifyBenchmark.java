@@ -0,0 +1,98 @@
+package com.example.attendance.security;
+
+import com.example.attendance.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.security.Key;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.Mockito.mock;
+
+/**
+ * Per-request JWT cost: the old filter path, which decoded the key, built a parser and
+ * parsed the token three times (extractUsername, then validateToken's subject and expiry),
+ * against one verify() call served from the verified-token cache and one that misses it.
+ *
+ * Not part of the test suite. Run main() after mvn test-compile, with the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class JwtVerifyBenchmark {
+
+    private static final String SECRET = "VGhpcyBpcyBhIHZlcnkgc2VjdXJlIHNlY3JldCBrZXkgZm9yIGRldmVsb3BtZW50IQ==";
+
+    private JwtTokenProvider cached;
+    // Cache size 0: every verify() parses and checks the signature
+    private JwtTokenProvider uncached;
+    private String token;
+
+    @Setup
+    public void setUp() {
+        TokenRevocationService revocations =
+            new TokenRevocationService(mock(RevokedTokenRepository.class), 3600, 1000);
+        cached = provider(revocations, 10_000);
+        uncached = provider(revocations, 0);
+        token = cached.generateToken("ada@example.com", "USER", 42L);
+        cached.verify(token);
+    }
+
+    @Benchmark
+    public void threeParses(Blackhole blackhole) {
+        String username = oldParse(token).getSubject();
+        blackhole.consume(username);
+        blackhole.consume(username.equals(oldParse(token).getSubject())
+            && !oldParse(token).getExpiration().before(new Date()));
+    }
+
+    @Benchmark
+    public Claims verifyCacheHit() {
+        return cached.verify(token);
+    }
+
+    @Benchmark
+    public Claims verifyCacheMiss() {
+        return uncached.verify(token);
+    }
+
+    // As extractAllClaims was before the key and parser were built once
+    private static Claims oldParse(String token) {
+        Key key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parserBuilder().setSigningKey(key).build().parseClaimsJws(token).getBody();
+    }
+
+    private static JwtTokenProvider provider(TokenRevocationService revocations, int cacheEntries) {
+        JwtTokenProvider provider = new JwtTokenProvider(revocations);
+        ReflectionTestUtils.setField(provider, "secret", SECRET);
+        ReflectionTestUtils.setField(provider, "expiration", 3600L);
+        ReflectionTestUtils.setField(provider, "verifiedCacheMaxEntries", cacheEntries);
+        provider.init();
+        return provider;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder().include(JwtVerifyBenchmark.class.getSimpleName()).build()).run();
+    }
+}
@@ -0,0 +1,95 @@
+package com.example.attendance.security;
+
+import com.example.attendance.exception.TooManyAttemptsException;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LoginAttemptThrottleTests {
+
+    private static final long T0 = 1_700_000_000_000L;
+
+    // 3 attempts per IP per 60 s, 2 failures per email per 900 s
+    private final LoginAttemptThrottle throttle = new LoginAttemptThrottle(3, 60, 2, 900);
+
+    @Test
+    void ipWindowSlides() {
+        throttle.acquire("a@example.com", "10.0.0.1", T0);
+        throttle.acquire("b@example.com", "10.0.0.1", T0 + 10_000);
+        throttle.acquire("c@example.com", "10.0.0.1", T0 + 20_000);
+
+        TooManyAttemptsException full = assertThrows(TooManyAttemptsException.class,
+            () -> throttle.acquire("d@example.com", "10.0.0.1", T0 + 30_000));
+        // The first attempt leaves the window 30 s later
+        assertEquals(30, full.getRetryAfterSeconds());
+        // Other addresses are unaffected
+        assertDoesNotThrow(() -> throttle.acquire("d@example.com", "10.0.0.2", T0 + 30_000));
+
+        // Exactly one window after the first attempt there is room for one more
+        assertDoesNotThrow(() -> throttle.acquire("d@example.com", "10.0.0.1", T0 + 60_000));
+        assertThrows(TooManyAttemptsException.class, () -> throttle.acquire("e@example.com", "10.0.0.1", T0 + 60_001));
+    }
+
+    @Test
+    void rejectedAttemptsDoNotExtendTheIpWindow() {
+        for (int i = 0; i < 3; i++) {
+            throttle.acquire("a@example.com", "10.0.0.1", T0);
+        }
+        for (int i = 1; i <= 5; i++) {
+            long now = T0 + i * 1000;
+            assertThrows(TooManyAttemptsException.class, () -> throttle.acquire("a@example.com", "10.0.0.1", now));
+        }
+        assertDoesNotThrow(() -> throttle.acquire("a@example.com", "10.0.0.1", T0 + 60_000));
+    }
+
+    @Test
+    void onlyFailuresCountAgainstTheEmail() {
+        // Successful checks from many addresses never lock the account
+        for (int i = 0; i < 10; i++) {
+            throttle.acquire("ada@example.com", "10.0.1." + i, T0 + i);
+        }
+
+        throttle.recordFailure("ada@example.com", T0 + 100_000);
+        throttle.recordFailure("ada@example.com", T0 + 200_000);
+        TooManyAttemptsException locked = assertThrows(TooManyAttemptsException.class,
+            () -> throttle.acquire("ada@example.com", "10.0.2.1", T0 + 300_000));
+        assertEquals(700, locked.getRetryAfterSeconds());
+
+        // Rounded up, never zero, while the oldest failure is still in the window
+        TooManyAttemptsException almost = assertThrows(TooManyAttemptsException.class,
+            () -> throttle.acquire("ada@example.com", "10.0.2.1", T0 + 999_999));
+        assertEquals(1, almost.getRetryAfterSeconds());
+
+        assertDoesNotThrow(() -> throttle.acquire("ada@example.com", "10.0.2.1", T0 + 1_000_000));
+        assertDoesNotThrow(() -> throttle.acquire("bob@example.com", "10.0.2.2", T0 + 300_000));
+    }
+
+    @Test
+    void successClearsTheFailures() {
+        throttle.recordFailure("ada@example.com", T0);
+        throttle.recordFailure("ada@example.com", T0 + 1000);
+        assertThrows(TooManyAttemptsException.class, () -> throttle.acquire("ada@example.com", null, T0 + 2000));
+
+        throttle.recordSuccess("ada@example.com");
+
+        assertDoesNotThrow(() -> throttle.acquire("ada@example.com", null, T0 + 2000));
+    }
+
+    @Test
+    void purgeDropsOnlyExpiredWindows() {
+        throttle.acquire("a@example.com", "10.0.0.1", T0);
+        throttle.recordFailure("a@example.com", T0);
+        assertEquals(2, throttle.trackedKeys());
+
+        throttle.purge(T0 + 59_999);
+        assertEquals(2, throttle.trackedKeys());
+
+        // The IP window is 60 s and the email window 900 s
+        throttle.purge(T0 + 60_000);
+        assertEquals(1, throttle.trackedKeys());
+        throttle.purge(T0 + 900_000);
+        assertEquals(0, throttle.trackedKeys());
+    }
+}
@@ -0,0 +1,125 @@
+package com.example.attendance.security;
+
+import com.example.attendance.entity.RevokedToken;
+import com.example.attendance.repository.RevokedTokenRepository;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TokenRevocationServiceTests {
+
+    private static final long LIFETIME_SECONDS = 3600;
+
+    private final RevokedTokenRepository repository = mock(RevokedTokenRepository.class);
+    private TokenRevocationService revocations;
+
+    @BeforeEach
+    void createService() {
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of());
+        when(repository.findByUserId(any())).thenReturn(Optional.empty());
+        revocations = new TokenRevocationService(repository, LIFETIME_SECONDS, 1000);
+    }
+
+    @Test
+    void revokedTokenIdIsRejectedAndOthersAreNot() {
+        Claims revoked = token(1L, System.currentTimeMillis());
+        revocations.revokeToken(revoked);
+
+        assertTrue(revocations.isRevoked(revoked));
+        assertFalse(revocations.isRevoked(token(1L, System.currentTimeMillis())));
+    }
+
+    @Test
+    void filterPositivesAreConfirmedAgainstTheExactSet() {
+        // Ten times the sized capacity, so the filter is saturated and answers "maybe" a lot
+        for (int i = 0; i < 10_000; i++) {
+            revocations.revokeToken(token(1L, System.currentTimeMillis()));
+        }
+        for (int i = 0; i < 10_000; i++) {
+            assertFalse(revocations.isRevoked(token(1L, System.currentTimeMillis())));
+        }
+    }
+
+    @Test
+    void userCutoffRejectsEarlierTokensOnly() {
+        long now = System.currentTimeMillis();
+        Claims before = token(7L, now - 60_000);
+        Claims otherUser = token(8L, now - 60_000);
+        revocations.revokeAllForUser(7L);
+
+        assertTrue(revocations.isRevoked(before));
+        assertFalse(revocations.isRevoked(otherUser));
+        // Issued in the same second as the cut-off, e.g. right after a reactivation
+        assertFalse(revocations.isRevoked(token(7L, now)));
+        assertFalse(revocations.isRevoked(token(7L, now + 2000)));
+    }
+
+    @Test
+    void tokenWithoutIdFallsBackToItsUser() {
+        Claims legacy = Jwts.claims();
+        legacy.put("userId", 9L);
+        legacy.setIssuedAt(new Date(System.currentTimeMillis() - 60_000));
+        revocations.revokeToken(legacy);
+
+        assertTrue(revocations.isRevoked(legacy));
+        assertTrue(revocations.isRevoked(token(9L, System.currentTimeMillis() - 60_000)));
+    }
+
+    @Test
+    void reloadReadsPersistedRowsAndKeepsInMemoryRevocations() {
+        Claims persisted = token(1L, System.currentTimeMillis());
+        RevokedToken tokenRow = new RevokedToken();
+        tokenRow.setTokenId(persisted.getId());
+        tokenRow.setRevokedAt(LocalDateTime.now());
+        tokenRow.setExpiresAt(LocalDateTime.now().plusHours(1));
+        RevokedToken userRow = new RevokedToken();
+        userRow.setUserId(5L);
+        userRow.setRevokedAt(LocalDateTime.now());
+        userRow.setExpiresAt(LocalDateTime.now().plusHours(1));
+        when(repository.findByExpiresAtAfter(any())).thenReturn(List.of(tokenRow, userRow));
+
+        // Made on this node, not yet visible in the rows read by the reload
+        Claims local = token(2L, System.currentTimeMillis());
+        revocations.revokeToken(local);
+        revocations.purgeAndReload();
+
+        assertTrue(revocations.isRevoked(persisted));
+        assertTrue(revocations.isRevoked(local));
+        assertTrue(revocations.isRevoked(token(5L, System.currentTimeMillis() - 60_000)));
+        assertFalse(revocations.isRevoked(token(5L, System.currentTimeMillis() + 60_000)));
+    }
+
+    @Test
+    void expiredRevocationsAreDroppedOnReload() {
+        Claims expired = token(1L, System.currentTimeMillis() - 2 * LIFETIME_SECONDS * 1000);
+        expired.setExpiration(new Date(System.currentTimeMillis() - 1000));
+        revocations.revokeToken(expired);
+        assertTrue(revocations.isRevoked(expired));
+
+        revocations.purgeAndReload();
+
+        assertFalse(revocations.isRevoked(expired));
+    }
+
+    private static Claims token(Long userId, long issuedAtMillis) {
+        Claims claims = Jwts.claims();
+        claims.setId(UUID.randomUUID().toString());
+        claims.put("userId", userId);
+        claims.setIssuedAt(new Date(issuedAtMillis));
+        claims.setExpiration(new Date(issuedAtMillis + LIFETIME_SECONDS * 1000));
+        return claims;
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.attendance.service;
+
+import com.example.attendance.TestData;
+import com.example.attendance.entity.Event;
+import com.example.attendance.entity.Organizer;
+import com.example.attendance.entity.User;
+import com.example.attendance.entity.UserEventAttendance;
+import com.example.attendance.repository.EventRepository;
+import com.example.attendance.repository.OrganizerRepository;
+import com.example.attendance.repository.UserEventAttendanceRepository;
+import com.example.attendance.repository.UserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+class AttendanceAnalyticsServiceTests {
+
+    @Autowired
+    private AttendanceAnalyticsService analyticsService;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private OrganizerRepository organizerRepository;
+    @Autowired
+    private EventRepository eventRepository;
+    @Autowired
+    private UserEventAttendanceRepository attendanceRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Organizer organizer;
+    private User attendee;
+    private Event event;
+
+    @BeforeEach
+    void createEventWithoutRollupRow() {
+        User owner = userRepository.save(TestData.user("owner"));
+        organizer = organizerRepository.save(Organizer.builder()
+            .email(owner.getEmail())
+            .organizationName("Analytics org " + owner.getId())
+            .user(owner)
+            .build());
+        attendee = userRepository.save(TestData.user("attendee"));
+        event = eventRepository.save(Event.builder()
+            .name("Assembly")
+            .date(LocalDate.of(2024, 3, 15))
+            .time(LocalTime.of(9, 0))
+            .user(owner)
+            .build());
+    }
+
+    @Test
+    void rowsCommittedBelowTheLoadedIdsAreStillLoaded() {
+        long first = attendanceRepository.save(UserEventAttendance.builder()
+            .user(attendee).event(event).attended(true).build()).getId();
+        analyticsService.refresh(true);
+
+        // Ids first + 5 and first + 10 were handed out in that order; the lower one commits last
+        insertAttendance(first + 10);
+        // Keep later generated ids clear of the ones this test assigns
+        jdbcTemplate.execute("ALTER TABLE user_event_attendance ALTER COLUMN id RESTART WITH " + (first + 11));
+        analyticsService.refresh(false);
+        assertEquals(2, recordsForOrganizer());
+
+        insertAttendance(first + 5);
+        analyticsService.refresh(false);
+        assertEquals(3, recordsForOrganizer());
+
+        // Already loaded rows in the overlap are not counted again
+        analyticsService.refresh(false);
+        assertEquals(3, recordsForOrganizer());
+    }
+
+    // Written as another instance would, without bumping this one's data versions
+    private void insertAttendance(long id) {
+        jdbcTemplate.update("INSERT INTO user_event_attendance (id, user_id, event_id, attended, qr_code_scanned) " +
+            "VALUES (?, ?, ?, TRUE, FALSE)", id, attendee.getId(), event.getId());
+    }
+
+    // The event has no rollup row, so this also checks the owner is derived from its creator
+    private long recordsForOrganizer() {
+        Map<String, Object> result = analyticsService.query(
+            Map.of(AttendanceAnalyticsService.Dimension.ORGANIZATION, Set.of(organizer.getOrganizationName())),
+            List.of(), null, null);
+        return (Long) result.get("totalRecords");
+    }
+}
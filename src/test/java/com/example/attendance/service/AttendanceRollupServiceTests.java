@@ -0,0 +1,220 @@
+package com.example.attendance.service;
+
+import com.example.attendance.TestData;
+import com.example.attendance.entity.*;
+import com.example.attendance.repository.*;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.TestPropertySource;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// The counter upserts are MySQL statements, so H2 runs in MySQL mode here
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@TestPropertySource(properties = {
+    "spring.datasource.url=jdbc:h2:mem:rollups;MODE=MySQL;DB_CLOSE_DELAY=-1",
+    "spring.jpa.show-sql=false"
+})
+class AttendanceRollupServiceTests {
+
+    private static final LocalDate EVENT_DAY = LocalDate.of(2024, 3, 15);
+
+    @Autowired
+    protected AttendanceRollupService rollupService;
+    @Autowired
+    protected UserRepository userRepository;
+    @Autowired
+    protected OrganizerRepository organizerRepository;
+    @Autowired
+    protected EventRepository eventRepository;
+    @Autowired
+    protected EventRegistrationRepository registrationRepository;
+    @Autowired
+    protected UserEventAttendanceRepository attendanceRepository;
+    @Autowired
+    protected EventAttendanceRollupRepository eventRollupRepository;
+    @Autowired
+    protected OrganizationDailyRollupRepository dailyRollupRepository;
+    @Autowired
+    protected OrganizationMonthlyRollupRepository monthlyRollupRepository;
+    @Autowired
+    protected UserAttendanceSummaryRepository userSummaryRepository;
+
+    private Organizer organizer;
+    private User attendee;
+    private Event event;
+    // Registrations are stamped at creation, so they count on the day the test runs
+    private LocalDate registrationDay;
+
+    @BeforeEach
+    void createOrganizationAndEvent() {
+        User owner = userRepository.save(TestData.user("owner"));
+        organizer = organizerRepository.save(Organizer.builder()
+            .email(owner.getEmail())
+            .organizationName("Org " + owner.getId())
+            .user(owner)
+            .build());
+        owner.setOrganizer(organizer);
+        attendee = userRepository.save(TestData.user("attendee"));
+        event = eventRepository.save(Event.builder()
+            .name("Assembly")
+            .date(EVENT_DAY)
+            .time(LocalTime.of(9, 0))
+            .user(owner)
+            .build());
+    }
+
+    @Test
+    void firstWritesCreateTheirCounterRows() {
+        rollupService.onEventCreated(event);
+        rollupService.onRegistration(register(EventRegistration.RegistrationStatus.APPROVED));
+        rollupService.onCheckIn(checkIn());
+
+        EventAttendanceRollup eventRow = eventRollupRepository.findById(event.getId()).orElseThrow();
+        assertEquals(organizer.getId(), eventRow.getOrganizationId());
+        assertEquals(1, eventRow.getRegistrationCount());
+        assertEquals(1, eventRow.getApprovedCount());
+        assertEquals(1, eventRow.getAttendanceCount());
+        assertEquals(1, eventRow.getAttendedCount());
+
+        OrganizationDailyRollup eventDay = daily(EVENT_DAY);
+        assertEquals(1, eventDay.getEventCount());
+        assertEquals(1, eventDay.getCheckInCount());
+        assertEquals(1, daily(registrationDay).getRegistrationCount());
+
+        OrganizationMonthlyRollup month = monthlyRollupRepository.findByOrganizationIdOrderByMonthAsc(organizer.getId())
+            .stream().filter(row -> row.getMonth().equals(YearMonth.from(EVENT_DAY).toString())).findFirst().orElseThrow();
+        assertEquals(1, month.getEventCount());
+        assertEquals(1, month.getCheckInCount());
+
+        // The check-in is for an event the attendee had already registered for
+        UserAttendanceSummary summary = userSummaryRepository.findById(attendee.getId()).orElseThrow();
+        assertEquals(1, summary.getRegisteredCount());
+        assertEquals(1, summary.getAttendedCount());
+    }
+
+    @Test
+    void deltasAccumulateAndCancel() {
+        rollupService.onEventCreated(event);
+        EventRegistration registration = register(EventRegistration.RegistrationStatus.PENDING);
+        rollupService.onRegistration(registration);
+        rollupService.onRegistrationStatusChanged(event.getId(),
+            EventRegistration.RegistrationStatus.PENDING, EventRegistration.RegistrationStatus.APPROVED);
+        registration.setStatus(EventRegistration.RegistrationStatus.APPROVED);
+        registrationRepository.delete(registration);
+        rollupService.onRegistrationCancelled(registration);
+
+        EventAttendanceRollup eventRow = eventRollupRepository.findById(event.getId()).orElseThrow();
+        assertEquals(0, eventRow.getRegistrationCount());
+        assertEquals(0, eventRow.getApprovedCount());
+        assertEquals(0, daily(registrationDay).getRegistrationCount());
+        assertEquals(0, userSummaryRepository.findById(attendee.getId()).orElseThrow().getRegisteredCount());
+    }
+
+    @Test
+    void rescheduleMovesTheEventBetweenDays() {
+        rollupService.onEventCreated(event);
+        LocalDate previous = event.getDate();
+        event.setDate(EVENT_DAY.plusMonths(1));
+        rollupService.onEventRescheduled(event, previous);
+
+        assertEquals(0, daily(EVENT_DAY).getEventCount());
+        assertEquals(1, daily(EVENT_DAY.plusMonths(1)).getEventCount());
+        assertEquals(EVENT_DAY.plusMonths(1), eventRollupRepository.findById(event.getId()).orElseThrow().getEventDate());
+    }
+
+    @Test
+    void rebuildMatchesIncrementalCounters() {
+        rollupService.onEventCreated(event);
+        rollupService.onRegistration(register(EventRegistration.RegistrationStatus.APPROVED));
+        rollupService.onCheckIn(checkIn());
+        EventAttendanceRollup incremental = eventRollupRepository.findById(event.getId()).orElseThrow();
+        OrganizationDailyRollup incrementalDay = daily(EVENT_DAY);
+        UserAttendanceSummary incrementalSummary = userSummaryRepository.findById(attendee.getId()).orElseThrow();
+
+        rollupService.rebuild();
+
+        EventAttendanceRollup rebuilt = eventRollupRepository.findById(event.getId()).orElseThrow();
+        assertEquals(incremental.getRegistrationCount(), rebuilt.getRegistrationCount());
+        assertEquals(incremental.getApprovedCount(), rebuilt.getApprovedCount());
+        assertEquals(incremental.getAttendanceCount(), rebuilt.getAttendanceCount());
+        assertEquals(incremental.getAttendedCount(), rebuilt.getAttendedCount());
+        OrganizationDailyRollup rebuiltDay = daily(EVENT_DAY);
+        assertEquals(incrementalDay.getEventCount(), rebuiltDay.getEventCount());
+        assertEquals(incrementalDay.getCheckInCount(), rebuiltDay.getCheckInCount());
+        assertEquals(1, daily(registrationDay).getRegistrationCount());
+        UserAttendanceSummary rebuiltSummary = userSummaryRepository.findById(attendee.getId()).orElseThrow();
+        assertEquals(incrementalSummary.getRegisteredCount(), rebuiltSummary.getRegisteredCount());
+        assertEquals(incrementalSummary.getAttendedCount(), rebuiltSummary.getAttendedCount());
+    }
+
+    @Test
+    void reportRangesUseTheRollupOwnership() {
+        // Created by a member without an organization of their own: owned through enrollment
+        User member = TestData.user("member");
+        member.getEnrolledOrganizations().add(organizer);
+        member = userRepository.save(member);
+        Event memberEvent = eventRepository.save(Event.builder()
+            .name("Workshop")
+            .date(EVENT_DAY)
+            .time(LocalTime.of(14, 0))
+            .user(member)
+            .build());
+        rollupService.onEventCreated(event);
+        rollupService.onEventCreated(memberEvent);
+        rollupService.onRegistration(register(EventRegistration.RegistrationStatus.APPROVED));
+        rollupService.onCheckIn(checkIn());
+        UserEventAttendance second = attendanceRepository.save(UserEventAttendance.builder()
+            .user(attendee)
+            .event(memberEvent)
+            .attended(true)
+            .attendanceDate(EVENT_DAY)
+            .checkInTime(EVENT_DAY.atTime(14, 5))
+            .build());
+        rollupService.onCheckIn(second);
+
+        LocalDate from = EVENT_DAY.withDayOfMonth(1);
+        LocalDate to = from.plusMonths(1);
+        assertEquals(2, organizerRepository.countEventsInRange(organizer.getId(), from, to));
+        assertEquals(1, organizerRepository.countRegistrationsInRange(organizer.getId(), from, to));
+        assertEquals(2, organizerRepository.countCheckInsInRange(organizer.getId(), from, to));
+        assertEquals(List.of(attendee.getId()), organizerRepository.findDistinctAttendeeIdsInRange(organizer.getId(), from, to));
+    }
+
+    private OrganizationDailyRollup daily(LocalDate day) {
+        return dailyRollupRepository.findByOrganizationIdAndDayBetweenOrderByDayAsc(organizer.getId(), day, day)
+            .stream().findFirst().orElseThrow(() -> new AssertionError("No daily row for " + day));
+    }
+
+    private EventRegistration register(EventRegistration.RegistrationStatus status) {
+        EventRegistration registration = new EventRegistration();
+        registration.setEventId(event.getId());
+        registration.setUserEmail(attendee.getEmail());
+        registration.setUserName(attendee.getFirstName());
+        registration.setUniqueCode(UUID.randomUUID().toString().substring(0, 6));
+        registration.setStatus(status);
+        registration.setRegistrationDate(LocalDateTime.now());
+        EventRegistration saved = registrationRepository.save(registration);
+        registrationDay = saved.getRegistrationDate().toLocalDate();
+        return saved;
+    }
+
+    private UserEventAttendance checkIn() {
+        return attendanceRepository.save(UserEventAttendance.builder()
+            .user(attendee)
+            .event(event)
+            .attended(true)
+            .attendanceDate(EVENT_DAY)
+            .checkInTime(EVENT_DAY.atTime(9, 5))
+            .build());
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.Event;
+import com.example.attendance.entity.User;
+import com.example.attendance.entity.UserEventAttendance;
+import com.example.attendance.repository.EventRepository;
+import com.example.attendance.repository.UserRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class EngagementServiceTests {
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final UserRepository userRepository = mock(UserRepository.class);
+    private final RecurrenceService recurrenceService = new RecurrenceService(eventRepository, null, 360);
+    private final EngagementService engagementService =
+        new EngagementService(eventRepository, userRepository, recurrenceService, 365);
+
+    @Test
+    void checkInCommittedDuringTheLoadIsKept() {
+        LocalDate yesterday = LocalDate.now().minusDays(1);
+        Event series = Event.builder()
+            .id(1L)
+            .name("Daily standup")
+            .date(yesterday.minusDays(2))
+            .recurrencePattern(Event.RecurrencePattern.DAILY)
+            .recurrenceInterval(1)
+            .isRecurringInstance(false)
+            .build();
+        Event occurrence = Event.builder()
+            .id(2L)
+            .date(yesterday)
+            .originalEventId(1L)
+            .isRecurringInstance(true)
+            .build();
+        User member = User.builder().id(10L).firstName("Ada").lastName("Test").build();
+        when(eventRepository.findById(1L)).thenReturn(Optional.of(series));
+        when(userRepository.findAllById(anyCollection())).thenReturn(List.of(member));
+        // The earlier check-in is in the query result; yesterday's commits while the query runs
+        when(eventRepository.findSeriesAttendance(eq(1L), any())).thenAnswer(invocation -> {
+            engagementService.onCheckIn(UserEventAttendance.builder()
+                .user(member)
+                .event(occurrence)
+                .attended(true)
+                .build());
+            return List.<Object[]>of(new Object[]{10L, yesterday.minusDays(1)});
+        });
+
+        Map<String, Object> engagement = engagementService.getSeriesEngagement(1L, 3, 1, true);
+
+        @SuppressWarnings("unchecked")
+        List<Map<String, Object>> members = (List<Map<String, Object>>) engagement.get("members");
+        assertEquals(1, members.size());
+        assertEquals(2, members.get(0).get("attendedInWindow"));
+        assertEquals(yesterday, members.get(0).get("lastAttended"));
+    }
+}
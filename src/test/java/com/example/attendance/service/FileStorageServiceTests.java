@@ -0,0 +1,187 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.StoredFile;
+import com.example.attendance.exception.PayloadTooLargeException;
+import com.example.attendance.exception.UnsupportedFileTypeException;
+import com.example.attendance.repository.StoredFileRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class FileStorageServiceTests {
+
+    private static final byte[] PNG = {(byte) 0x89, 'P', 'N', 'G', 0x0D, 0x0A, 0x1A, 0x0A, 0, 0, 0, 13, 'I', 'H', 'D', 'R', 1, 2};
+    private static final FileStorageService.Policy IMAGES =
+        new FileStorageService.Policy(1024, Set.of("image/png", "image/jpeg"));
+
+    @TempDir
+    Path remote;
+    @TempDir
+    Path cache;
+
+    private final StoredFileRepository repository = mock(StoredFileRepository.class);
+    private final Map<String, StoredFile> rows = new HashMap<>();
+    private FileStorageService storage;
+
+    @BeforeEach
+    void createStorage() {
+        AtomicLong ids = new AtomicLong();
+        when(repository.findByCategoryAndSha256(any(), any()))
+            .thenAnswer(invocation -> Optional.ofNullable(rows.get(invocation.getArgument(1))));
+        when(repository.saveAndFlush(any())).thenAnswer(invocation -> {
+            StoredFile row = invocation.getArgument(0);
+            row.setId(ids.incrementAndGet());
+            rows.put(row.getSha256(), row);
+            return row;
+        });
+        when(repository.incrementReferences(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            rows.values().stream().filter(row -> row.getId().equals(id))
+                .forEach(row -> row.setReferenceCount(row.getReferenceCount() + 1));
+            return 1;
+        });
+        when(repository.decrementReferences(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            rows.values().stream().filter(row -> row.getId().equals(id) && row.getReferenceCount() > 0)
+                .forEach(row -> row.setReferenceCount(row.getReferenceCount() - 1));
+            return 1;
+        });
+        when(repository.deleteIfUnreferenced(anyLong())).thenAnswer(invocation -> {
+            Long id = invocation.getArgument(0);
+            return rows.values().removeIf(row -> row.getId().equals(id) && row.getReferenceCount() <= 0) ? 1 : 0;
+        });
+        // A separate directory behind the cache stands in for a remote backend
+        CachingBlobStore uploads = new CachingBlobStore(new LocalBlobStore(remote.resolve("uploads")), cache.resolve("uploads"), 1 << 20);
+        CachingBlobStore support = new CachingBlobStore(new LocalBlobStore(remote.resolve("support")), cache.resolve("support"), 1 << 20);
+        storage = new FileStorageService(repository, uploads, support);
+    }
+
+    @Test
+    void sniffsTypesFromMagicBytes() {
+        assertEquals("image/png", sniff(PNG));
+        assertEquals("image/jpeg", sniff(new byte[]{(byte) 0xFF, (byte) 0xD8, (byte) 0xFF, (byte) 0xE0}));
+        assertEquals("image/gif", sniff("GIF89a".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("image/webp", sniff("RIFF\0\0\0\0WEBPVP8 ".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("application/pdf", sniff("%PDF-1.7".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("application/zip", sniff(new byte[]{'P', 'K', 3, 4, 20, 0}));
+        assertEquals("text/plain", sniff("hello,world\r\n".getBytes(StandardCharsets.US_ASCII)));
+        assertEquals("application/octet-stream", sniff(new byte[]{0, 1, 2, 3}));
+        assertEquals("application/octet-stream", sniff(new byte[0]));
+        // RIFF without the WEBP tag, and a header cut short, are not images
+        assertEquals("application/octet-stream", sniff("RIFF\0\0\0\0WAVE".getBytes(StandardCharsets.US_ASCII)));
+        assertNotEquals("image/png", sniff(new byte[]{(byte) 0x89, 'P', 'N'}));
+    }
+
+    @Test
+    void identicalContentIsStoredOnce() throws IOException {
+        StoredFile first = storage.store(StoredFile.Category.UPLOAD, new ByteArrayInputStream(PNG), "a.PNG", IMAGES);
+        StoredFile second = storage.store(StoredFile.Category.UPLOAD, new ByteArrayInputStream(PNG), "b.png", IMAGES);
+
+        assertEquals(first.getId(), second.getId());
+        assertEquals(2, second.getReferenceCount());
+        assertTrue(first.getStoredName().matches("[0-9a-f]{64}\\.png"));
+        assertEquals(1, countFiles(remote.resolve("uploads")));
+        Path blob = remote.resolve("uploads").resolve(FileStorageService.shardKey(first.getStoredName()));
+        assertArrayEquals(PNG, Files.readAllBytes(blob));
+    }
+
+    @Test
+    void categoriesAreDeduplicatedSeparately() throws IOException {
+        StoredFile upload = storage.store(StoredFile.Category.UPLOAD, new ByteArrayInputStream(PNG), "a.png", IMAGES);
+        rows.clear();
+        StoredFile attachment = storage.store(StoredFile.Category.SUPPORT, new ByteArrayInputStream(PNG), "a.png", IMAGES);
+
+        assertEquals(1, upload.getReferenceCount());
+        assertEquals(1, attachment.getReferenceCount());
+        assertTrue(Files.exists(remote.resolve("support").resolve(FileStorageService.shardKey(attachment.getStoredName()))));
+    }
+
+    @Test
+    void lostBlobIsRestoredUnderTheExistingRow() throws IOException {
+        StoredFile first = storage.store(StoredFile.Category.UPLOAD, new ByteArrayInputStream(PNG), "a.png", IMAGES);
+        String key = FileStorageService.shardKey(first.getStoredName());
+        Files.delete(remote.resolve("uploads").resolve(key));
+        Files.delete(cache.resolve("uploads").resolve(key));
+
+        StoredFile again = storage.store(StoredFile.Category.UPLOAD, new ByteArrayInputStream(PNG), "a.png", IMAGES);
+
+        assertEquals(first.getId(), again.getId());
+        assertTrue(Files.exists(remote.resolve("uploads").resolve(key)));
+    }
+
+    @Test
+    void rejectedUploadsLeaveNothingBehind() throws IOException {
+        FileStorageService.Policy tiny = new FileStorageService.Policy(8, Set.of("image/png"));
+        assertThrows(PayloadTooLargeException.class,
+            () -> storage.store(StoredFile.Category.UPLOAD, new ByteArrayInputStream(PNG), "a.png", tiny));
+        assertThrows(UnsupportedFileTypeException.class, () -> storage.store(StoredFile.Category.UPLOAD,
+            new ByteArrayInputStream("%PDF-1.7".getBytes(StandardCharsets.US_ASCII)), "a.png", IMAGES));
+
+        assertTrue(rows.isEmpty());
+        assertEquals(0, countFiles(cache.resolve("uploads")));
+        assertFalse(Files.exists(remote.resolve("uploads")));
+    }
+
+    @Test
+    void localCopyFetchesWhatThisNodeHasNotCached() throws IOException {
+        StoredFile stored = storage.store(StoredFile.Category.SUPPORT, new ByteArrayInputStream(PNG), "a.png", IMAGES);
+        Files.delete(storage.resolve(stored));
+
+        Path local = storage.localCopy(stored);
+
+        assertEquals(storage.resolve(stored), local);
+        assertArrayEquals(PNG, Files.readAllBytes(local));
+    }
+
+    @Test
+    void releasedFileIsDeletedWithItsLastReference() throws IOException {
+        StoredFile first = storage.store(StoredFile.Category.SUPPORT, new ByteArrayInputStream(PNG), "a.png", IMAGES);
+        storage.store(StoredFile.Category.SUPPORT, new ByteArrayInputStream(PNG), "b.png", IMAGES);
+        Path blob = remote.resolve("support").resolve(FileStorageService.shardKey(first.getStoredName()));
+
+        storage.release(first);
+        assertEquals(1, first.getReferenceCount());
+        assertTrue(Files.exists(blob));
+
+        storage.release(first);
+        assertTrue(rows.isEmpty());
+        assertFalse(Files.exists(blob));
+        assertFalse(Files.exists(storage.resolve(first)));
+    }
+
+    private static String sniff(byte[] header) {
+        return FileStorageService.sniff(header, header.length);
+    }
+
+    private static long countFiles(Path root) throws IOException {
+        if (!Files.exists(root)) {
+            return 0;
+        }
+        try (Stream<Path> files = Files.walk(root)) {
+            return files.filter(Files::isRegularFile).count();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.example.attendance.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ImageVariantServiceTests {
+
+    @TempDir
+    Path root;
+
+    private StaticFileService staticFileService;
+    private ImageVariantService imageVariantService;
+
+    @BeforeEach
+    void createServices() {
+        CachingBlobStore store = new CachingBlobStore(new LocalBlobStore(root), root, Long.MAX_VALUE);
+        staticFileService = new StaticFileService(store, false, 3600, 3600, 100, 100, 30);
+        imageVariantService = new ImageVariantService(staticFileService, store, new int[]{64, 128}, 40_000_000, 1, 10);
+    }
+
+    @AfterEach
+    void shutdown() {
+        imageVariantService.shutdown();
+    }
+
+    @Test
+    void uploadWritesItsVariantsBeforeReturning() throws IOException {
+        writePng("logo.png", 300, 200);
+
+        List<String> written = imageVariantService.generateVariants("logo.png");
+
+        assertEquals(List.of("logo_w64.png", "logo_w128.png"), written.stream().filter(name -> name.endsWith(".png")).toList());
+        assertEquals("logo_w128.png", imageVariantService.resolve("logo.png", 100, null));
+        assertEquals(128, ImageIO.read(root.resolve("logo_w128.png").toFile()).getWidth());
+    }
+
+    @Test
+    void missingVariantsAreGeneratedInTheBackground() throws Exception {
+        writePng("legacy.png", 300, 200);
+
+        // The first request does not wait for the decode
+        assertEquals("legacy.png", imageVariantService.resolve("legacy.png", 100, null));
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!Files.exists(root.resolve("legacy_w128.png")) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(20);
+        }
+        assertTrue(Files.exists(root.resolve("legacy_w128.png")));
+        assertEquals("legacy_w64.png", imageVariantService.resolve("legacy.png", 50, null));
+    }
+
+    @Test
+    void imagesNarrowerThanTheBucketAreServedAsIs() throws IOException {
+        writePng("small.png", 100, 100);
+
+        assertEquals(List.of("small_w64.png"),
+            imageVariantService.generateVariants("small.png").stream().filter(name -> name.endsWith(".png")).toList());
+        assertEquals("small.png", imageVariantService.resolve("small.png", 120, null));
+    }
+
+    private void writePng(String name, int width, int height) throws IOException {
+        BufferedImage image = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        ImageIO.write(image, "png", root.resolve(name).toFile());
+    }
+}
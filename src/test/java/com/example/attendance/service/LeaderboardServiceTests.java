@@ -0,0 +1,93 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.EventAttendanceRollup;
+import com.example.attendance.repository.EventAttendanceRollupRepository;
+import com.example.attendance.repository.EventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class LeaderboardServiceTests {
+
+    private static final long ORGANIZATION = 7L;
+    private static final LocalDate DATE = LocalDate.of(2023, 5, 10);
+
+    private final EventAttendanceRollupRepository rollupRepository = mock(EventAttendanceRollupRepository.class);
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final LeaderboardService leaderboardService = new LeaderboardService(rollupRepository, eventRepository);
+
+    @BeforeEach
+    void load() {
+        when(rollupRepository.findAll()).thenReturn(List.of(row(1L, 0)));
+        when(eventRepository.findLeaderboardDetails(any())).thenReturn(List.<Object[]>of(
+            new Object[]{1L, "Picnic", DATE, "Park"}));
+        leaderboardService.reload();
+    }
+
+    @Test
+    void aChangeAlreadyInTheSnapshotIsNotCountedTwice() {
+        when(rollupRepository.findAll()).thenAnswer(invocation -> {
+            // Committed before the table is read, pushed while it is
+            leaderboardService.apply(1L, 0, 1);
+            return List.of(row(1L, 1));
+        });
+        when(rollupRepository.findById(1L)).thenReturn(Optional.of(row(1L, 1)));
+
+        leaderboardService.reload();
+
+        assertEquals(1L, attended());
+    }
+
+    @Test
+    void aRolledBackChangeIsDroppedByTheReread() {
+        when(rollupRepository.findAll()).thenAnswer(invocation -> {
+            leaderboardService.apply(1L, 0, 1);
+            return List.of(row(1L, 0));
+        });
+        when(rollupRepository.findById(1L)).thenReturn(Optional.of(row(1L, 0)));
+
+        leaderboardService.reload();
+
+        assertEquals(0L, attended());
+    }
+
+    @Test
+    void anEventRemovedDuringTheReadStaysRemoved() {
+        when(rollupRepository.findAll()).thenAnswer(invocation -> {
+            leaderboardService.remove(1L);
+            return List.of(row(1L, 0));
+        });
+        when(rollupRepository.findById(1L)).thenReturn(Optional.empty());
+
+        leaderboardService.reload();
+
+        assertEquals(List.of(), board());
+    }
+
+    private Object attended() {
+        List<Map<String, Object>> board = board();
+        assertEquals(1, board.size());
+        return board.get(0).get("attended");
+    }
+
+    private List<Map<String, Object>> board() {
+        return leaderboardService.getEventLeaderboard(ORGANIZATION, null, null, 10, true,
+            LeaderboardService.Metric.ATTENDED);
+    }
+
+    private static EventAttendanceRollup row(Long eventId, long attended) {
+        EventAttendanceRollup row = new EventAttendanceRollup(eventId, ORGANIZATION, DATE);
+        row.setRegistrationCount(2);
+        row.setAttendedCount(attended);
+        return row;
+    }
+}
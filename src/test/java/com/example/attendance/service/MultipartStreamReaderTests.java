@@ -0,0 +1,171 @@
+package com.example.attendance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MultipartStreamReaderTests {
+
+    private static final String CONTENT_TYPE = "multipart/form-data; boundary=XyZ";
+
+    @Test
+    void readsFieldsAndFiles() throws IOException {
+        String body = "--XyZ\r\n"
+            + "Content-Disposition: form-data; name=\"message\"\r\n\r\n"
+            + "hello\r\nworld\r\n"
+            + "--XyZ\r\n"
+            + "Content-Disposition: form-data; name=\"attachment\"; filename=\"C:\\\\docs\\\\a.txt\"\r\n"
+            + "Content-Type: text/plain\r\n\r\n"
+            + "file body\r\n"
+            + "--XyZ--\r\n";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), CONTENT_TYPE);
+
+        MultipartStreamReader.Part field = reader.nextPart();
+        assertEquals("message", field.getName());
+        assertNull(field.getFilename());
+        assertEquals("hello\r\nworld", read(field.getBody()));
+
+        MultipartStreamReader.Part file = reader.nextPart();
+        assertEquals("attachment", file.getName());
+        assertEquals("a.txt", file.getFilename());
+        assertEquals("text/plain", file.getContentType());
+        assertEquals("file body", read(file.getBody()));
+
+        assertNull(reader.nextPart());
+        assertNull(reader.nextPart());
+    }
+
+    @Test
+    void boundariesSplitAcrossReadsAreFound() throws IOException {
+        byte[] content = new byte[200_000];
+        for (int i = 0; i < content.length; i++) {
+            // Includes the bytes of a near-miss delimiter ("\r\n--XyY") over and over
+            content[i] = (byte) "\r\n--XyY".charAt(i % 7);
+        }
+        byte[] body = concat(
+            ("--XyZ\r\nContent-Disposition: form-data; name=\"f\"; filename=\"f.bin\"\r\n\r\n")
+                .getBytes(StandardCharsets.ISO_8859_1),
+            content,
+            "\r\n--XyZ\r\nContent-Disposition: form-data; name=\"x\"\r\n\r\n1\r\n--XyZ--".getBytes(StandardCharsets.ISO_8859_1));
+
+        for (int chunk : new int[]{1, 3, 7, 4096}) {
+            MultipartStreamReader reader = new MultipartStreamReader(new Trickle(body, chunk), CONTENT_TYPE);
+            assertArrayEquals(content, reader.nextPart().getBody().readAllBytes(), "chunk " + chunk);
+            assertEquals("1", read(reader.nextPart().getBody()), "chunk " + chunk);
+            assertNull(reader.nextPart());
+        }
+    }
+
+    @Test
+    void preambleIsSkipped() throws IOException {
+        String body = "This is a preamble\r\nwith two lines\r\n"
+            + "--XyZ\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\n1\r\n--XyZ--";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), CONTENT_TYPE);
+
+        assertEquals("1", read(reader.nextPart().getBody()));
+        assertNull(reader.nextPart());
+    }
+
+    @Test
+    void unusedFileInputHasAnEmptyFilename() throws IOException {
+        String body = "--XyZ\r\n"
+            + "Content-Disposition: form-data; name=\"attachment\"; filename=\"\"\r\n"
+            + "Content-Type: application/octet-stream\r\n\r\n"
+            + "\r\n--XyZ--";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), CONTENT_TYPE);
+
+        MultipartStreamReader.Part part = reader.nextPart();
+        assertEquals("", part.getFilename());
+        assertEquals("", read(part.getBody()));
+        assertNull(reader.nextPart());
+    }
+
+    @Test
+    void unreadPartsAreSkipped() throws IOException {
+        String body = "--XyZ\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\nskipped\r\n"
+            + "--XyZ\r\nContent-Disposition: form-data; name=\"b\"\r\n\r\nkept\r\n--XyZ--";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), CONTENT_TYPE);
+
+        assertEquals("a", reader.nextPart().getName());
+        MultipartStreamReader.Part second = reader.nextPart();
+        assertEquals("b", second.getName());
+        assertEquals("kept", read(second.getBody()));
+    }
+
+    @Test
+    void quotedBoundaryIsAccepted() throws IOException {
+        String body = "--a b\r\nContent-Disposition: form-data; name=\"a\"\r\n\r\n1\r\n--a b--";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), "multipart/form-data; boundary=\"a b\"");
+
+        assertEquals("1", read(reader.nextPart().getBody()));
+    }
+
+    @Test
+    void truncatedBodyFails() throws IOException {
+        String body = "--XyZ\r\nContent-Disposition: form-data; name=\"f\"; filename=\"f.txt\"\r\n\r\nno closing boundary";
+        MultipartStreamReader reader = new MultipartStreamReader(stream(body), CONTENT_TYPE);
+
+        InputStream part = reader.nextPart().getBody();
+        assertThrows(IOException.class, part::readAllBytes);
+    }
+
+    @Test
+    void truncatedHeadersFail() throws IOException {
+        MultipartStreamReader reader = new MultipartStreamReader(
+            stream("--XyZ\r\nContent-Disposition: form-data; name=\"a\""), CONTENT_TYPE);
+
+        assertThrows(IOException.class, reader::nextPart);
+    }
+
+    @Test
+    void missingBoundaryIsRejected() {
+        assertThrows(IOException.class, () -> new MultipartStreamReader(stream(""), "multipart/form-data"));
+        assertTrue(MultipartStreamReader.isMultipart("Multipart/Form-Data; boundary=x"));
+        assertFalse(MultipartStreamReader.isMultipart("application/x-www-form-urlencoded"));
+    }
+
+    private static InputStream stream(String body) {
+        return new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String read(InputStream body) throws IOException {
+        return new String(body.readAllBytes(), StandardCharsets.UTF_8);
+    }
+
+    private static byte[] concat(byte[]... parts) {
+        byte[] all = new byte[Arrays.stream(parts).mapToInt(part -> part.length).sum()];
+        int offset = 0;
+        for (byte[] part : parts) {
+            System.arraycopy(part, 0, all, offset, part.length);
+            offset += part.length;
+        }
+        return all;
+    }
+
+    // Hands out at most chunk bytes per read, as a slow client's packets would
+    private static final class Trickle extends FilterInputStream {
+        private final int chunk;
+
+        private Trickle(byte[] body, int chunk) {
+            super(new ByteArrayInputStream(body));
+            this.chunk = chunk;
+        }
+
+        @Override
+        public int read(byte[] target, int offset, int length) throws IOException {
+            return super.read(target, offset, Math.min(length, chunk));
+        }
+    }
+}
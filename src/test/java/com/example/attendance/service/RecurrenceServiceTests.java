@@ -0,0 +1,128 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.Event;
+import com.example.attendance.repository.EventRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RecurrenceServiceTests {
+
+    private final EventRepository eventRepository = mock(EventRepository.class);
+    private final RecurrenceService recurrenceService = new RecurrenceService(eventRepository, null, 360);
+
+    @Test
+    void dailyWithInterval() {
+        Event series = series(Event.RecurrencePattern.DAILY, LocalDate.of(2024, 3, 1), 3);
+        assertEquals(List.of(LocalDate.of(2024, 3, 1), LocalDate.of(2024, 3, 4), LocalDate.of(2024, 3, 7)),
+            expand(series, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 10)));
+    }
+
+    @Test
+    void weeklyWindowStartsMidSeries() {
+        Event series = series(Event.RecurrencePattern.WEEKLY, LocalDate.of(2024, 1, 2), 2);
+        assertEquals(List.of(LocalDate.of(2024, 6, 4), LocalDate.of(2024, 6, 18)),
+            expand(series, LocalDate.of(2024, 6, 1), LocalDate.of(2024, 7, 1)));
+    }
+
+    @Test
+    void monthlyClampsToShortMonths() {
+        Event series = series(Event.RecurrencePattern.MONTHLY, LocalDate.of(2024, 1, 31), 1);
+        assertEquals(List.of(LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 29), LocalDate.of(2024, 3, 31),
+                LocalDate.of(2024, 4, 30)),
+            expand(series, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    void yearlyFromLeapDay() {
+        Event series = series(Event.RecurrencePattern.YEARLY, LocalDate.of(2024, 2, 29), 1);
+        assertEquals(List.of(LocalDate.of(2024, 2, 29), LocalDate.of(2025, 2, 28), LocalDate.of(2026, 2, 28),
+                LocalDate.of(2027, 2, 28), LocalDate.of(2028, 2, 29)),
+            expand(series, LocalDate.of(2024, 1, 1), LocalDate.of(2029, 1, 1)));
+    }
+
+    @Test
+    void nthWeekdayOfMonth() {
+        // Second Tuesday, every other month
+        Event series = series(Event.RecurrencePattern.WEEKLY_X, LocalDate.of(2024, 1, 9), 2);
+        assertEquals(List.of(LocalDate.of(2024, 1, 9), LocalDate.of(2024, 3, 12), LocalDate.of(2024, 5, 14)),
+            expand(series, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 6, 1)));
+    }
+
+    @Test
+    void fifthWeekdayMapsToTheLastOne() {
+        // 2024-01-29 is the fifth Monday of January
+        Event series = series(Event.RecurrencePattern.WEEKLY_X, LocalDate.of(2024, 1, 29), 1);
+        assertEquals(List.of(LocalDate.of(2024, 1, 29), LocalDate.of(2024, 2, 26), LocalDate.of(2024, 3, 25),
+                LocalDate.of(2024, 4, 29)),
+            expand(series, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 5, 1)));
+    }
+
+    @Test
+    void countLimitsTheSeries() {
+        Event series = series(Event.RecurrencePattern.WEEKLY, LocalDate.of(2024, 1, 1), 1);
+        series.setRecurrenceCount(3);
+        assertEquals(List.of(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 8), LocalDate.of(2024, 1, 15)),
+            expand(series, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 12, 31)));
+        assertTrue(expand(series, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1)).isEmpty());
+    }
+
+    @Test
+    void endDateIsInclusive() {
+        Event series = series(Event.RecurrencePattern.DAILY, LocalDate.of(2024, 1, 30), 1);
+        series.setRecurrenceEndDate(LocalDate.of(2024, 2, 2));
+        assertEquals(List.of(LocalDate.of(2024, 1, 30), LocalDate.of(2024, 1, 31), LocalDate.of(2024, 2, 1),
+                LocalDate.of(2024, 2, 2)),
+            expand(series, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1)));
+    }
+
+    @Test
+    void windowEndIsExclusive() {
+        Event series = series(Event.RecurrencePattern.DAILY, LocalDate.of(2024, 1, 1), 1);
+        assertEquals(List.of(LocalDate.of(2024, 1, 5)), expand(series, LocalDate.of(2024, 1, 5), LocalDate.of(2024, 1, 6)));
+        assertTrue(recurrenceService.isOccurrence(series, LocalDate.of(2024, 1, 5)));
+        assertFalse(recurrenceService.isOccurrence(series, LocalDate.of(2023, 12, 31)));
+    }
+
+    @Test
+    void checkInOnlyWhileTheOccurrenceIsOpen() {
+        Event series = series(Event.RecurrencePattern.WEEKLY, LocalDate.of(2024, 1, 1), 1);
+        series.setId(7L);
+        series.setTime(LocalTime.of(18, 0));
+        when(eventRepository.findById(7L)).thenReturn(Optional.of(series));
+        LocalDate first = LocalDate.of(2024, 1, 1);
+
+        assertSame(series, recurrenceService.materializeForCheckIn(7L, first, first.atTime(8, 0)));
+        assertSame(series, recurrenceService.materializeForCheckIn(7L, first, first.atTime(23, 59)));
+        assertThrows(IllegalArgumentException.class,
+            () -> recurrenceService.materializeForCheckIn(7L, first, LocalDateTime.of(2023, 12, 31, 23, 0)));
+        assertThrows(IllegalArgumentException.class,
+            () -> recurrenceService.materializeForCheckIn(7L, first, first.atTime(18, 0).plusMinutes(361)));
+    }
+
+    private List<LocalDate> expand(Event series, LocalDate from, LocalDate to) {
+        return recurrenceService.expandDates(series, from, to);
+    }
+
+    private static Event series(Event.RecurrencePattern pattern, LocalDate start, int interval) {
+        return Event.builder()
+            .name("Series")
+            .date(start)
+            .recurrencePattern(pattern)
+            .recurrenceInterval(interval)
+            .isRecurringInstance(false)
+            .build();
+    }
+}
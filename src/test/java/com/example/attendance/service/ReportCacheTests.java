@@ -0,0 +1,72 @@
+package com.example.attendance.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ReportCacheTests {
+
+    private static final DataVersionService.Table[] TABLES = {
+        DataVersionService.Table.EVENT, DataVersionService.Table.USER_EVENT_ATTENDANCE
+    };
+    private static final long T0 = 1_700_000_000_000L;
+
+    private final DataVersionService dataVersionService = new DataVersionService();
+    private final ReportCache cache = new ReportCache(dataVersionService, 2, 60);
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void unchangedVersionsAreServedFromTheCache() {
+        assertEquals(1, load("a", T0));
+        assertEquals(1, load("a", T0 + 1000));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void aWriteToASourceTableInvalidates() {
+        load("a", T0);
+        dataVersionService.bump(DataVersionService.Table.USER_EVENT_ATTENDANCE);
+        assertEquals(2, load("a", T0));
+
+        // Tables the report does not read leave it alone
+        dataVersionService.bump(DataVersionService.Table.EVENT_REGISTRATION);
+        assertEquals(2, load("a", T0));
+    }
+
+    @Test
+    void aWriteDuringTheLoadLeavesTheEntryOutdated() {
+        cache.get("a", TABLES, () -> {
+            loads.incrementAndGet();
+            dataVersionService.bump(DataVersionService.Table.EVENT);
+            return loads.get();
+        }, T0);
+
+        // The first value may have missed the write, so it is not served
+        assertEquals(2, load("a", T0));
+        assertEquals(2, load("a", T0));
+    }
+
+    @Test
+    void entriesExpireForWritesThisNodeDidNotSee() {
+        load("a", T0);
+        assertEquals(1, load("a", T0 + 59_999));
+        assertEquals(2, load("a", T0 + 60_000));
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsEvicted() {
+        load("a", T0);
+        load("b", T0);
+        load("a", T0);
+        load("c", T0);
+
+        assertEquals(1, load("a", T0));
+        assertEquals(4, load("b", T0));
+    }
+
+    private int load(String key, long now) {
+        return cache.get(key, TABLES, loads::incrementAndGet, now);
+    }
+}
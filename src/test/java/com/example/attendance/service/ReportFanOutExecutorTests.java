@@ -0,0 +1,186 @@
+package com.example.attendance.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import javax.sql.DataSource;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ReportFanOutExecutorTests {
+
+    private final PlatformTransactionManager transactionManager = mock(PlatformTransactionManager.class);
+    private ReportFanOutExecutor executor;
+
+    @AfterEach
+    void shutdown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void collectsResultsAndReportsFailedKeys() {
+        executor = executor(2, 10, 5000, 10000);
+
+        ReportFanOutExecutor.Outcome<Integer, Integer> outcome = executor.fanOut("test", List.of(1, 2, 3), key -> {
+            if (key == 2) {
+                throw new IllegalStateException("boom");
+            }
+            return key * 10;
+        });
+
+        assertEquals(10, outcome.getResults().get(1));
+        assertEquals(30, outcome.getResults().get(3));
+        assertEquals("IllegalStateException", outcome.getFailures().get(2));
+        assertFalse(outcome.isComplete());
+    }
+
+    @Test
+    void overrunningTaskIsInterruptedAndReportedAsTimedOut() throws Exception {
+        executor = executor(2, 10, 200, 10000);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        ReportFanOutExecutor.Outcome<String, String> outcome = executor.fanOut("test", List.of("slow", "fast"), key -> {
+            if (key.equals("slow")) {
+                try {
+                    Thread.sleep(10_000);
+                } catch (InterruptedException e) {
+                    interrupted.countDown();
+                }
+            }
+            return key;
+        });
+
+        assertEquals("fast", outcome.getResults().get("fast"));
+        assertEquals("timed out", outcome.getFailures().get("slow"));
+        assertTrue(interrupted.await(2, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void queuedTasksDoNotTimeOutWhileWaitingForAWorker() {
+        // One worker and three 150 ms tasks: the last waits 300 ms, longer than the task timeout
+        executor = executor(1, 10, 250, 10000);
+
+        ReportFanOutExecutor.Outcome<Integer, Integer> outcome = executor.fanOut("test", List.of(1, 2, 3), key -> {
+            sleep(150);
+            return key;
+        });
+
+        assertTrue(outcome.isComplete(), () -> "Failures: " + outcome.getFailures());
+        assertEquals(3, outcome.getResults().size());
+    }
+
+    @Test
+    void deadlineFailsEverythingStillPending() {
+        executor = executor(1, 10, 5000, 300);
+
+        ReportFanOutExecutor.Outcome<Integer, Integer> outcome = executor.fanOut("test", List.of(1, 2, 3), key -> {
+            sleep(key == 1 ? 100 : 1000);
+            return key;
+        });
+
+        assertEquals(1, outcome.getResults().get(1));
+        assertEquals("report deadline exceeded", outcome.getFailures().get(2));
+        assertEquals("report deadline exceeded", outcome.getFailures().get(3));
+    }
+
+    @Test
+    void interruptedCallerCancelsItsTasks() throws Exception {
+        executor = executor(1, 10, 5000, 10000);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch cancelled = new CountDownLatch(1);
+        AtomicInteger ran = new AtomicInteger();
+        AtomicReference<Throwable> thrown = new AtomicReference<>();
+
+        Thread caller = new Thread(() -> {
+            try {
+                executor.fanOut("test", List.of(1, 2), key -> {
+                    ran.incrementAndGet();
+                    started.countDown();
+                    try {
+                        Thread.sleep(10_000);
+                    } catch (InterruptedException e) {
+                        cancelled.countDown();
+                    }
+                    return key;
+                });
+            } catch (Throwable e) {
+                thrown.set(e);
+            }
+        });
+        caller.start();
+        assertTrue(started.await(2, TimeUnit.SECONDS));
+        caller.interrupt();
+        caller.join(2000);
+
+        assertInstanceOf(CancellationException.class, thrown.get());
+        assertTrue(cancelled.await(2, TimeUnit.SECONDS));
+        // The second key was still queued behind the only worker and never ran
+        sleep(200);
+        assertEquals(1, ran.get());
+    }
+
+    @Test
+    void fullQueueRejectsTheWholeReport() throws Exception {
+        executor = executor(1, 1, 5000, 10000);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean lateRun = new AtomicBoolean();
+
+        // Occupies the only worker, so the next report can queue one task at most
+        Thread blocker = new Thread(() -> executor.fanOut("blocker", List.of(0), key -> {
+            await(release);
+            return key;
+        }));
+        blocker.start();
+        sleep(200);
+
+        assertThrows(RejectedExecutionException.class, () -> executor.fanOut("test", List.of(1, 2, 3), key -> {
+            lateRun.set(true);
+            return key;
+        }));
+        release.countDown();
+        blocker.join(2000);
+        sleep(200);
+        assertFalse(lateRun.get());
+    }
+
+    private ReportFanOutExecutor executor(int workers, int queueCapacity, long taskTimeoutMs, long totalTimeoutMs) {
+        when(transactionManager.getTransaction(any())).thenAnswer(invocation -> new SimpleTransactionStatus());
+        return new ReportFanOutExecutor(transactionManager, mock(DataSource.class), workers, queueCapacity,
+            taskTimeoutMs, totalTimeoutMs);
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
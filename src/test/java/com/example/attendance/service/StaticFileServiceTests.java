@@ -0,0 +1,158 @@
+package com.example.attendance.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class StaticFileServiceTests {
+
+    private static final String CONTENT = "0123456789abcdefghij";
+    private static final long MODIFIED = 1_700_000_000_000L;
+
+    @TempDir
+    Path root;
+
+    private StaticFileService staticFileService;
+    private String etag;
+
+    @BeforeEach
+    void createFile() throws IOException {
+        Path file = root.resolve("notes.txt");
+        Files.writeString(file, CONTENT, StandardCharsets.US_ASCII);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(MODIFIED));
+        CachingBlobStore store = new CachingBlobStore(new LocalBlobStore(root), root, Long.MAX_VALUE);
+        staticFileService = new StaticFileService(store, false, 3600, 3600, 100, 100, 30);
+        etag = get(new MockHttpServletRequest("GET", "/uploads/notes.txt")).getHeader(HttpHeaders.ETAG);
+    }
+
+    @Test
+    void servesTheWholeFileWithValidators() throws IOException {
+        MockHttpServletResponse response = get(request());
+
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+        assertNotNull(etag);
+        assertEquals("bytes", response.getHeader(HttpHeaders.ACCEPT_RANGES));
+        assertEquals(MODIFIED, response.getDateHeader(HttpHeaders.LAST_MODIFIED));
+    }
+
+    @Test
+    void singleRangesAreServed() throws IOException {
+        assertRange("bytes=0-4", "bytes 0-4/20", "01234");
+        assertRange("bytes=15-", "bytes 15-19/20", "fghij");
+        assertRange("bytes=-3", "bytes 17-19/20", "hij");
+        // An end past the file is clamped, and so is a suffix longer than the file
+        assertRange("bytes=18-100", "bytes 18-19/20", "ij");
+        assertRange("bytes=-50", "bytes 0-19/20", CONTENT);
+    }
+
+    @Test
+    void unsatisfiableRangesAre416() throws IOException {
+        for (String range : new String[]{"bytes=20-", "bytes=25-30", "bytes=-0"}) {
+            MockHttpServletResponse response = get(request(HttpHeaders.RANGE, range));
+            assertEquals(416, response.getStatus(), range);
+            assertEquals("bytes */20", response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+        }
+    }
+
+    @Test
+    void rangesThatCannotBeUsedAreIgnored() throws IOException {
+        for (String range : new String[]{"bytes=0-1,4-5", "bytes=5-2", "items=0-4", "bytes=-", "bytes=99999999999999999999-"}) {
+            MockHttpServletResponse response = get(request(HttpHeaders.RANGE, range));
+            assertEquals(200, response.getStatus(), range);
+            assertEquals(CONTENT, response.getContentAsString(), range);
+        }
+    }
+
+    @Test
+    void conditionalRequestsAreAnsweredWith304() throws IOException {
+        assertEquals(304, get(request(HttpHeaders.IF_NONE_MATCH, etag)).getStatus());
+        assertEquals(304, get(request(HttpHeaders.IF_NONE_MATCH, "\"other\", W/" + etag)).getStatus());
+        assertEquals(304, get(request(HttpHeaders.IF_NONE_MATCH, "*")).getStatus());
+        assertEquals(200, get(request(HttpHeaders.IF_NONE_MATCH, "\"other\"")).getStatus());
+
+        MockHttpServletRequest since = request();
+        since.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED + 500);
+        assertEquals(304, get(since).getStatus());
+        MockHttpServletRequest before = request();
+        before.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED - 1000);
+        assertEquals(200, get(before).getStatus());
+
+        // If-None-Match takes precedence over If-Modified-Since
+        MockHttpServletRequest both = request(HttpHeaders.IF_NONE_MATCH, "\"other\"");
+        both.addHeader(HttpHeaders.IF_MODIFIED_SINCE, MODIFIED + 500);
+        assertEquals(200, get(both).getStatus());
+    }
+
+    @Test
+    void ifRangeServesTheWholeFileOnceItChanged() throws IOException {
+        MockHttpServletRequest current = request(HttpHeaders.RANGE, "bytes=0-4");
+        current.addHeader(HttpHeaders.IF_RANGE, etag);
+        assertEquals(206, get(current).getStatus());
+
+        MockHttpServletRequest stale = request(HttpHeaders.RANGE, "bytes=0-4");
+        stale.addHeader(HttpHeaders.IF_RANGE, "\"other\"");
+        MockHttpServletResponse response = get(stale);
+        assertEquals(200, response.getStatus());
+        assertEquals(CONTENT, response.getContentAsString());
+
+        MockHttpServletRequest olderDate = request(HttpHeaders.RANGE, "bytes=0-4");
+        olderDate.addHeader(HttpHeaders.IF_RANGE, "Tue, 14 Nov 2023 22:00:00 GMT");
+        assertEquals(200, get(olderDate).getStatus());
+    }
+
+    @Test
+    void headAndMissingFiles() throws IOException {
+        MockHttpServletRequest head = new MockHttpServletRequest("HEAD", "/uploads/notes.txt");
+        MockHttpServletResponse response = get(head);
+        assertEquals(200, response.getStatus());
+        assertEquals(20, response.getContentLengthLong());
+        assertEquals(0, response.getContentAsByteArray().length);
+
+        MockHttpServletResponse missing = new MockHttpServletResponse();
+        staticFileService.serve("missing.txt", request(), missing);
+        assertEquals(404, missing.getStatus());
+        assertNull(missing.getHeader(HttpHeaders.ETAG));
+
+        MockHttpServletResponse traversal = new MockHttpServletResponse();
+        staticFileService.serve("../notes.txt", request(), traversal);
+        assertEquals(404, traversal.getStatus());
+    }
+
+    private void assertRange(String range, String contentRange, String body) throws IOException {
+        MockHttpServletResponse response = get(request(HttpHeaders.RANGE, range));
+        assertEquals(206, response.getStatus(), range);
+        assertEquals(contentRange, response.getHeader(HttpHeaders.CONTENT_RANGE), range);
+        assertEquals(body.length(), response.getContentLengthLong(), range);
+        assertEquals(body, response.getContentAsString(), range);
+    }
+
+    private MockHttpServletResponse get(MockHttpServletRequest request) throws IOException {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        staticFileService.serve("notes.txt", request, response);
+        return response;
+    }
+
+    private static MockHttpServletRequest request() {
+        return new MockHttpServletRequest("GET", "/uploads/notes.txt");
+    }
+
+    private static MockHttpServletRequest request(String header, String value) {
+        MockHttpServletRequest request = request();
+        request.addHeader(header, value);
+        return request;
+    }
+}
@@ -0,0 +1,78 @@
+package com.example.attendance.service;
+
+import com.example.attendance.entity.StoredFile;
+import com.example.attendance.exception.PayloadTooLargeException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class UploadIngestServiceTests {
+
+    private final FileStorageService fileStorageService = mock(FileStorageService.class);
+    private final UploadIngestService uploadIngestService =
+        new UploadIngestService(fileStorageService, 1024, 1024, 2);
+    private final StoredFile stored = new StoredFile();
+
+    @Test
+    void fieldsAfterTheFileAreRead() throws IOException {
+        when(fileStorageService.store(eq(StoredFile.Category.SUPPORT), any(), eq("a.txt"), any())).thenReturn(stored);
+
+        UploadIngestService.Form form = uploadIngestService.receive(
+            request(filePart() + field("message", "hi") + "--XyZ--"), "attachment", StoredFile.Category.SUPPORT);
+
+        assertSame(stored, form.getFile());
+        assertEquals("hi", form.getField("message"));
+        verify(fileStorageService, never()).release(any());
+    }
+
+    @Test
+    void fileIsReleasedWhenALaterPartFails() throws IOException {
+        when(fileStorageService.store(any(), any(), any(), any())).thenReturn(stored);
+        StringBuilder body = new StringBuilder(filePart());
+        for (int i = 0; i <= 50; i++) {
+            body.append(field("f" + i, "x"));
+        }
+        body.append("--XyZ--");
+
+        assertThrows(PayloadTooLargeException.class,
+            () -> uploadIngestService.receive(request(body.toString()), "attachment", StoredFile.Category.SUPPORT));
+        verify(fileStorageService).release(stored);
+    }
+
+    @Test
+    void fileIsReleasedWhenTheBodyIsTruncated() throws IOException {
+        when(fileStorageService.store(any(), any(), any(), any())).thenReturn(stored);
+
+        assertThrows(IOException.class, () -> uploadIngestService.receive(
+            request(filePart() + "--XyZ\r\nContent-Disposition: form-data; name=\"message\"\r\n\r\nh"),
+            "attachment", StoredFile.Category.SUPPORT));
+        verify(fileStorageService).release(stored);
+    }
+
+    private static MockHttpServletRequest request(String body) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", "/api/support");
+        request.setContentType("multipart/form-data; boundary=XyZ");
+        request.setContent(body.getBytes(StandardCharsets.UTF_8));
+        return request;
+    }
+
+    private static String filePart() {
+        return "--XyZ\r\nContent-Disposition: form-data; name=\"attachment\"; filename=\"a.txt\"\r\n\r\nnotes\r\n";
+    }
+
+    private static String field(String name, String value) {
+        return "--XyZ\r\nContent-Disposition: form-data; name=\"" + name + "\"\r\n\r\n" + value + "\r\n";
+    }
+}